@@ -25,8 +25,14 @@
 package fko.jarkanoid;
 
 import fko.jarkanoid.controller.MainController;
+import fko.jarkanoid.leaderboard.LeaderboardServer;
 import fko.jarkanoid.model.GameModel;
+import fko.jarkanoid.model.HighScore;
+import fko.jarkanoid.model.SoundManager;
+import fko.jarkanoid.recorder.InstantReplay;
+import fko.jarkanoid.recorder.MjpegStreamServer;
 import fko.jarkanoid.recorder.Recorder;
+import fko.jarkanoid.recorder.SnapshotCaptureBackend;
 import fko.jarkanoid.view.MainView;
 import javafx.application.Application;
 import javafx.application.Platform;
@@ -36,6 +42,8 @@ import javafx.stage.Stage;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
+import java.net.InetSocketAddress;
 import java.net.URL;
 
 /**
@@ -57,6 +65,16 @@ public class Jarkanoid extends Application {
 
   private static Recorder recorder = new Recorder();
 
+  // recording of the last seconds - opt-in with e.g. jarkanoid.instantReplay.seconds=30 until its
+  // effect on the frame time has been measured
+  private static InstantReplay instantReplay = null;
+
+  // optional HTTP leaderboard for displays - started if jarkanoid.leaderboardPort is set
+  private static LeaderboardServer leaderboardServer = null;
+
+  // optional live MJPEG stream of recordings - started if jarkanoid.streamPort is set
+  private static MjpegStreamServer streamServer = null;
+
   /**
    * Main
    */
@@ -97,6 +115,10 @@ public class Jarkanoid extends Application {
 
     primaryStage.show();
 
+    startLeaderboardServer();
+    startStreamServer();
+    startInstantReplay(view, model);
+
     LOG.info("JavaFX Application started");
   }
 
@@ -106,6 +128,8 @@ public class Jarkanoid extends Application {
   @Override
   public void init() throws Exception {
     super.init();
+    // starts loading the sounds in the background
+    SoundManager.getInstance();
     String fontName = "/fonts/AstronomicMono.otf";
     final URL urlResource = Jarkanoid.class.getResource(fontName);
     if (urlResource == null) {
@@ -118,12 +142,66 @@ public class Jarkanoid extends Application {
     }
   }
 
+  /*
+   * Starts the leaderboard server if a port is configured
+   */
+  private static void startLeaderboardServer() {
+    final Integer port = Integer.getInteger("jarkanoid.leaderboardPort");
+    if (port == null) return;
+    try {
+      leaderboardServer =
+          new LeaderboardServer(new InetSocketAddress(port), HighScore.getInstance(), null, 4);
+      leaderboardServer.start();
+    } catch (IOException e) {
+      LOG.error("Leaderboard server could not be started on port {}", port, e);
+    }
+  }
+
+  /*
+   * Starts the live stream of recordings if a port is configured
+   */
+  private static void startStreamServer() {
+    final Integer port = Integer.getInteger("jarkanoid.streamPort");
+    if (port == null) return;
+    try {
+      streamServer = new MjpegStreamServer(new InetSocketAddress(port));
+      streamServer.start();
+      recorder.setStreamServer(streamServer);
+    } catch (IOException e) {
+      LOG.error("Stream server could not be started on port {}", port, e);
+    }
+  }
+
+  /*
+   * Starts the instant replay buffer at half the size of the window - frames are only captured
+   * while the game runs
+   */
+  private static void startInstantReplay(MainView view, GameModel model) {
+    final int seconds = Integer.getInteger("jarkanoid.instantReplay.seconds", 0);
+    if (seconds <= 0) return;
+    instantReplay =
+        new InstantReplay(
+            new SnapshotCaptureBackend(view.asParent(), 0.5),
+            Integer.getInteger("jarkanoid.instantReplay.period", 66),
+            seconds,
+            Long.getLong("jarkanoid.instantReplay.budget", 64L << 20),
+            30);
+    // every 4th tick of the 60 Hz game loop is about every 66 ms
+    instantReplay.start(
+        model.tickProperty(), Integer.getInteger("jarkanoid.instantReplay.decimation", 4));
+  }
+
   /**
    * Clean up and exit the application
    */
   public static void exit() {
     LOG.info("Application shutting down...");
     recorder.stop();
+    if (instantReplay != null) instantReplay.stop();
+    if (leaderboardServer != null) leaderboardServer.stop();
+    if (streamServer != null) streamServer.stop();
+    SoundManager.getInstance().shutdown();
+    HighScore.getInstance().flush();
     LOG.info("Application shut down");
     exit(0);
   }
@@ -144,4 +222,9 @@ public class Jarkanoid extends Application {
     return recorder;
   }
 
+  /** @return the instant replay buffer or null if it is disabled */
+  public static InstantReplay getInstantReplay() {
+    return instantReplay;
+  }
+
 }
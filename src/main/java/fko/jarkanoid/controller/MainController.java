@@ -28,6 +28,7 @@ import fko.jarkanoid.Jarkanoid;
 import fko.jarkanoid.events.GameEvent;
 import fko.jarkanoid.model.*;
 import fko.jarkanoid.model.SoundManager.Clips;
+import fko.jarkanoid.recorder.InstantReplay;
 import fko.jarkanoid.recorder.Recorder;
 import fko.jarkanoid.view.HighScoreListView;
 import fko.jarkanoid.view.MainView;
@@ -37,6 +38,7 @@ import javafx.collections.ListChangeListener.Change;
 import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
 import javafx.fxml.Initializable;
+import javafx.geometry.Bounds;
 import javafx.scene.control.Button;
 import javafx.scene.control.TableView;
 import javafx.scene.control.TextField;
@@ -73,6 +75,13 @@ public class MainController implements Initializable, Observer {
 
   private static final Logger LOG = LoggerFactory.getLogger(MainController.class);
 
+  // recording captures every n-th game tick
+  private static final int RECORDING_DECIMATION =
+      Integer.getInteger("jarkanoid.recorder.decimation", 2);
+  // recording only shows the playfield
+  private static final boolean RECORDING_CROP =
+      Boolean.parseBoolean(System.getProperty("jarkanoid.recorder.crop", "true"));
+
   // handles to model and view
   private final GameModel model;
   // main.resources.sounds
@@ -135,6 +144,10 @@ public class MainController implements Initializable, Observer {
     // add controller as listener of model for GameEvents
     model.addObserver(this);
 
+    // collision sounds of a game tick are played once at its end
+    sounds.setTickSource(model.tickProperty()::get);
+    model.tickProperty().addListener((observable, oldValue, newValue) -> sounds.endFrame());
+
     // scene title
     String tmpTitle = Jarkanoid.getPrimaryStage().getTitle();
     Jarkanoid.getPrimaryStage()
@@ -322,7 +335,7 @@ public class MainController implements Initializable, Observer {
         break;
       case HIT_PADDLE:
         view.paddleHit((Ball) param[0]);
-        sounds.playClip(Clips.PADDLE);
+        sounds.requestClip(Clips.PADDLE);
         break;
       case HIT_WALL:
         view.ballHit((Ball) param[0]);
@@ -354,12 +367,13 @@ public class MainController implements Initializable, Observer {
         break;
       case GAME_OVER:
         gameOverSplash.setText("GAME OVER");
+        saveInstantReplay();
         break;
       case LASER_HIT:
         view.getBrickLayoutView().draw(model.getBrickLayout());
         break;
       case LASER_SHOT:
-        sounds.playClip(Clips.LASER);
+        sounds.requestClip(Clips.LASER);
         break;
       case GAME_WON:
         sounds.playClip(Clips.FINAL);
@@ -377,6 +391,7 @@ public class MainController implements Initializable, Observer {
         break;
       case NEW_HIGHSCORE:
         view.getHighScoreListView().updateList((HighScore.HighScoreEntry)param[0]);
+        saveInstantReplay();
         //showHighScoreEditor();
         break;
       default:
@@ -391,10 +406,10 @@ public class MainController implements Initializable, Observer {
       final int col = (int) param[1];
       final Ball ball = (Ball) param[2];
       if (model.getBrickLayout().getBrick(row, col) == null) {
-        sounds.playClip(Clips.BRICK);
+        sounds.requestClip(Clips.BRICK);
       } else {
         view.brickHit(row, col);
-        sounds.playClip(Clips.BRICK_S);
+        sounds.requestClip(Clips.BRICK_S);
       }
       view.ballHit(ball);
     }
@@ -429,6 +444,9 @@ public class MainController implements Initializable, Observer {
       case R:
         recordingAction();
         break;
+      case I:
+        saveInstantReplay();
+        break;
        case Q:
         if (event.isControlDown()) {
           model.skipLevelCheat();
@@ -493,6 +511,12 @@ public class MainController implements Initializable, Observer {
     recordingAction();
   }
 
+  /** Saves the last seconds of play if the instant replay is enabled */
+  private void saveInstantReplay() {
+    InstantReplay instantReplay = Jarkanoid.getInstantReplay();
+    if (instantReplay != null) instantReplay.dump();
+  }
+
   private void recordingAction() {
     Recorder recorder = Jarkanoid.getRecorder();
     if (recorder.isRunning()) {
@@ -501,7 +525,17 @@ public class MainController implements Initializable, Observer {
       recordingIndicator.setFill(Color.GREEN);
     } else {
       LOG.info("User requested start Recording");
-      recorder.start(32);
+      if (RECORDING_CROP) {
+        final Bounds bounds = playfieldPane.localToScene(playfieldPane.getBoundsInLocal());
+        recorder.setCropRegion(
+            (int) Math.floor(bounds.getMinX()),
+            (int) Math.floor(bounds.getMinY()),
+            (int) Math.ceil(bounds.getWidth()),
+            (int) Math.ceil(bounds.getHeight()));
+      } else {
+        recorder.clearCropRegion();
+      }
+      recorder.start(model.tickProperty(), RECORDING_DECIMATION);
       recordingIndicator.setFill(Color.RED);
     }
   }
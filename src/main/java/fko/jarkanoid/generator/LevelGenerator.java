@@ -0,0 +1,328 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018 Frank Kopp
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+package fko.jarkanoid.generator;
+
+import fko.jarkanoid.model.Autopilot;
+import fko.jarkanoid.model.Brick;
+import fko.jarkanoid.model.BrickLayout;
+import fko.jarkanoid.model.BrickType;
+import fko.jarkanoid.model.HeadlessGame;
+import fko.jarkanoid.model.LevelLoader;
+import fko.jarkanoid.model.PowerPillType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+/**
+ * LevelGenerator
+ *
+ * <p>Generates levels from seeds with a small pattern grammar (pattern, area, symmetry, colors,
+ * special bricks) and rates every candidate by playing headless autopilot games on it. Only
+ * candidates within the target difficulty band are accepted. Candidates are evaluated in
+ * parallel on all cores.<br>
+ * Accepted levels can be written as level files in the <code>LevelLoader</code> text format.
+ *
+ * <p>Usage: <code>LevelGenerator [count] [outputFolder] [minDifficulty] [maxDifficulty] [seed]
+ * </code>
+ *
+ * <p>19.10.2026
+ *
+ * @author Frank Kopp
+ */
+public final class LevelGenerator {
+
+  private static final Logger LOG = LoggerFactory.getLogger(LevelGenerator.class);
+
+  // the simulated games are played with these settings
+  private static final double AUTOPILOT_SKILL = 0.75;
+  private static final int DEFAULT_RUNS = 4;
+  private static final long DEFAULT_TICK_LIMIT = 60 * 60 * 3; // 3 minutes at 60 fps
+
+  // a level needs at least this many destructible bricks
+  private static final int MIN_BRICKS = 12;
+
+  private static final BrickType[] COLORS = {
+    BrickType.GREY, BrickType.ORANGE, BrickType.CYAN, BrickType.GREEN,
+    BrickType.RED, BrickType.BLUE, BrickType.PURPLE, BrickType.YELLOW
+  };
+
+  /** Patterns of the grammar which decide if a cell in the level area holds a brick. */
+  enum Pattern {
+    FULL,
+    STRIPES,
+    CHECKER,
+    PYRAMID,
+    DIAMOND,
+    FRAME,
+    SCATTER;
+
+    boolean isBrick(int row, int col, int rows, int cols, Random random) {
+      final int midCol = cols / 2;
+      switch (this) {
+        case FULL:
+          return true;
+        case STRIPES:
+          return row % 2 == 0;
+        case CHECKER:
+          return (row + col) % 2 == 0;
+        case PYRAMID:
+          return Math.abs(col - midCol) <= row;
+        case DIAMOND:
+          return Math.abs(col - midCol) + Math.abs(row - rows / 2) <= Math.max(rows, cols) / 2;
+        case FRAME:
+          return row == 0 || row == rows - 1 || col == 0 || col == cols - 1;
+        case SCATTER:
+        default:
+          return random.nextDouble() < 0.55;
+      }
+    }
+  }
+
+  private final double minDifficulty;
+  private final double maxDifficulty;
+  private final int runs;
+  private final long tickLimit;
+
+  /**
+   * @param minDifficulty lower bound of the accepted difficulty (0 - 1)
+   * @param maxDifficulty upper bound of the accepted difficulty (0 - 1)
+   */
+  public LevelGenerator(double minDifficulty, double maxDifficulty) {
+    this(minDifficulty, maxDifficulty, DEFAULT_RUNS, DEFAULT_TICK_LIMIT);
+  }
+
+  /**
+   * @param minDifficulty lower bound of the accepted difficulty (0 - 1)
+   * @param maxDifficulty upper bound of the accepted difficulty (0 - 1)
+   * @param runs number of autopilot games per candidate
+   * @param tickLimit maximum number of ticks per autopilot game
+   */
+  public LevelGenerator(double minDifficulty, double maxDifficulty, int runs, long tickLimit) {
+    if (minDifficulty > maxDifficulty) throw new IllegalArgumentException("min > max difficulty");
+    this.minDifficulty = minDifficulty;
+    this.maxDifficulty = maxDifficulty;
+    this.runs = runs;
+    this.tickLimit = tickLimit;
+  }
+
+  /**
+   * Generates and rates candidates for the given seeds in parallel.
+   *
+   * @param firstSeed seed of the first candidate
+   * @param candidates number of candidates (seeds) to evaluate
+   * @return accepted candidates in seed order
+   */
+  public List<Candidate> generate(long firstSeed, int candidates) {
+    final long start = System.nanoTime();
+    final List<Candidate> accepted =
+        LongStream.range(firstSeed, firstSeed + candidates)
+            .parallel()
+            .mapToObj(this::evaluate)
+            .filter(this::isAccepted)
+            .collect(Collectors.toList());
+    final double seconds = (System.nanoTime() - start) / 1e9;
+    LOG.info(
+        "Evaluated {} candidates in {} s ({} per second) - {} accepted",
+        candidates,
+        String.format("%.2f", seconds),
+        String.format("%.1f", candidates / seconds),
+        accepted.size());
+    return accepted;
+  }
+
+  /**
+   * @param seed
+   * @return the rated candidate for this seed
+   */
+  public Candidate evaluate(long seed) {
+    final Brick[][] level = createLevel(seed);
+    return new Candidate(seed, level, rate(level, seed));
+  }
+
+  /**
+   * @param candidate
+   * @return true if the candidate is within the difficulty band
+   */
+  public boolean isAccepted(Candidate candidate) {
+    return candidate.difficulty >= minDifficulty && candidate.difficulty <= maxDifficulty;
+  }
+
+  /**
+   * Creates a level from the grammar. The same seed always creates the same level.
+   *
+   * @param seed
+   * @return a valid level matrix
+   */
+  public static Brick[][] createLevel(long seed) {
+    final Random random = new Random(seed);
+    Brick[][] matrix;
+    do {
+      matrix = createCandidate(random);
+    } while (countDestructible(matrix) < MIN_BRICKS);
+    return matrix;
+  }
+
+  private static Brick[][] createCandidate(Random random) {
+    final Brick[][] matrix = new Brick[BrickLayout.ROWS][BrickLayout.COLUMNS];
+
+    // area - the lower rows stay empty so there is room to play
+    final int top = 1 + random.nextInt(4);
+    final int rows = 4 + random.nextInt(7);
+    final int cols = BrickLayout.COLUMNS;
+    final Pattern pattern = Pattern.values()[random.nextInt(Pattern.values().length)];
+    final boolean mirrored = random.nextDouble() < 0.7;
+
+    // colors per row, silver rows and gold sprinkles
+    final int colorOffset = random.nextInt(COLORS.length);
+    final double silverRowChance = random.nextDouble() * 0.3;
+    final double goldChance = random.nextDouble() < 0.4 ? 0.06 : 0;
+    final double powerChance = 0.05;
+
+    for (int row = 0; row < rows; row++) {
+      final BrickType rowType =
+          random.nextDouble() < silverRowChance
+              ? BrickType.SILVER
+              : COLORS[(colorOffset + row) % COLORS.length];
+      final int width = mirrored ? (cols + 1) / 2 : cols;
+      for (int col = 0; col < width; col++) {
+        if (!pattern.isBrick(row, col, rows, cols, random)) continue;
+        final BrickType type = random.nextDouble() < goldChance ? BrickType.GOLD : rowType;
+        final PowerPillType power =
+            random.nextDouble() < powerChance
+                ? PowerPillType.values()[1 + random.nextInt(PowerPillType.values().length - 1)]
+                : PowerPillType.NONE;
+        matrix[top + row][col] = new Brick(type, power);
+        if (mirrored) matrix[top + row][cols - 1 - col] = new Brick(type, power);
+      }
+    }
+    return matrix;
+  }
+
+  /**
+   * Rates a level by playing headless autopilot games on it.
+   *
+   * @param level
+   * @param seed
+   * @return difficulty from 0 (trivial) to 1 (not cleared by the autopilot)
+   */
+  public double rate(Brick[][] level, long seed) {
+    double sum = 0;
+    for (int run = 0; run < runs; run++) {
+      final HeadlessGame game = HeadlessGame.forLevel(level, seed * 31 + run);
+      final Autopilot autopilot = new Autopilot(AUTOPILOT_SKILL, seed ^ (run * 0x5DEECE66DL));
+      while (!game.isOver() && game.getTick() < tickLimit) {
+        game.tick(autopilot.nextInput(game));
+      }
+      if (game.isWon()) {
+        // slow clears and lost balls make a level harder
+        sum += Math.min(1, 0.5 * game.getTick() / tickLimit + 0.125 * game.getBallsLost());
+      } else {
+        sum += 1;
+      }
+    }
+    return sum / runs;
+  }
+
+  /**
+   * Writes the levels as "Level-&lt;number&gt;.txt" files.
+   *
+   * @param candidates levels to write
+   * @param folder target folder - is created if necessary
+   * @param firstNumber level number of the first file
+   * @throws IOException
+   */
+  public static void writeLevels(List<Candidate> candidates, Path folder, int firstNumber)
+      throws IOException {
+    Files.createDirectories(folder);
+    int number = firstNumber;
+    for (Candidate candidate : candidates) {
+      final String comment =
+          String.format(
+              "Level %d (generated seed=%d difficulty=%.3f)",
+              number, candidate.seed, candidate.difficulty);
+      final Path file = folder.resolve("Level-" + number + ".txt");
+      Files.write(
+          file,
+          LevelLoader.levelToText(comment, candidate.matrix).getBytes(Charset.defaultCharset()));
+      LOG.info("Wrote {}", file);
+      number++;
+    }
+  }
+
+  private static int countDestructible(Brick[][] matrix) {
+    int count = 0;
+    for (Brick[] row : matrix) {
+      for (Brick brick : row) {
+        if (brick != null && brick.getType() != BrickType.GOLD) count++;
+      }
+    }
+    return count;
+  }
+
+  /**
+   * Generates levels and writes the accepted ones into a folder.
+   *
+   * @param args [count] [outputFolder] [minDifficulty] [maxDifficulty] [seed]
+   * @throws IOException
+   */
+  public static void main(String[] args) throws IOException {
+    final int count = args.length > 0 ? Integer.parseInt(args[0]) : 500;
+    final Path folder = Paths.get(args.length > 1 ? args[1] : "./var/generated/");
+    final double min = args.length > 2 ? Double.parseDouble(args[2]) : 0.3;
+    final double max = args.length > 3 ? Double.parseDouble(args[3]) : 0.6;
+    final long seed = args.length > 4 ? Long.parseLong(args[4]) : System.currentTimeMillis();
+
+    final LevelGenerator generator = new LevelGenerator(min, max);
+    writeLevels(generator.generate(seed, count), folder, 1);
+  }
+
+  /** A generated level with its seed and rated difficulty. */
+  public static final class Candidate {
+
+    public final long seed;
+    public final Brick[][] matrix;
+    public final double difficulty;
+
+    Candidate(long seed, Brick[][] matrix, double difficulty) {
+      this.seed = seed;
+      this.matrix = matrix;
+      this.difficulty = difficulty;
+    }
+
+    @Override
+    public String toString() {
+      return String.format("Candidate [seed=%d, difficulty=%.3f]", seed, difficulty);
+    }
+  }
+}
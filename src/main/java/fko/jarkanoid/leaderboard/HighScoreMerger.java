@@ -0,0 +1,249 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018 Frank Kopp
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+package fko.jarkanoid.leaderboard;
+
+import fko.jarkanoid.model.HighScore.HighScoreEntry;
+import fko.jarkanoid.model.HighScoreJournal;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * HighScoreMerger
+ *
+ * <p>Merges high score files collected from many machines into one global top list. Input files
+ * may be CSV files (ending with <code>.csv</code>) or binary high score journals.
+ *
+ * <p>Every file is streamed on its own thread into a bounded heap which keeps only its best
+ * <code>n</code> distinct entries. The sorted per-file lists are then combined with a k-way merge
+ * which drops identical entries from different files. Memory is therefore bounded by the number
+ * of files times n entries, not by the size of the inputs.
+ *
+ * <p>Usage: <code>HighScoreMerger output n input...</code> - the output is a CSV file if it ends
+ * with <code>.csv</code>, otherwise the folder of a {@link LeaderboardStore} the merged entries
+ * are added to.
+ *
+ * <p>19.10.2026
+ *
+ * @author Frank Kopp
+ */
+public final class HighScoreMerger {
+
+  private static final Logger LOG = LoggerFactory.getLogger(HighScoreMerger.class);
+
+  private static final Charset CHARSET = Charset.forName("ISO-8859-1");
+
+  /** Highest score first, then earlier date, then level and name to make the order total. */
+  public static final Comparator<HighScoreEntry> RANKING =
+      Comparator.<HighScoreEntry>comparingInt(e -> -e.score)
+          .thenComparing(e -> e.date)
+          .thenComparingInt(e -> -e.level)
+          .thenComparing(e -> e.name);
+
+  private final int topN;
+
+  // statistics
+  private final AtomicLong entriesRead = new AtomicLong();
+  private final AtomicLong linesSkipped = new AtomicLong();
+
+  /** @param topN number of entries to keep */
+  public HighScoreMerger(int topN) {
+    if (topN <= 0) throw new IllegalArgumentException("topN must be > 0: " + topN);
+    this.topN = topN;
+  }
+
+  /**
+   * Reads all files in parallel and merges them.
+   *
+   * @param files CSV or journal files
+   * @return the best distinct entries of all files in ranking order
+   * @throws IOException if a file can't be read
+   */
+  public List<HighScoreEntry> merge(List<Path> files) throws IOException {
+    final List<List<HighScoreEntry>> perFile;
+    try {
+      perFile = files.parallelStream().map(this::readTop).collect(Collectors.toList());
+    } catch (UncheckedIOException e) {
+      throw e.getCause();
+    }
+    return kWayMerge(perFile, topN);
+  }
+
+  /**
+   * Streams one file into a bounded heap.
+   *
+   * @param file
+   * @return the best distinct entries of the file in ranking order
+   */
+  List<HighScoreEntry> readTop(Path file) {
+    final TopN top = new TopN(topN);
+    try {
+      if (file.getFileName().toString().endsWith(".csv")) {
+        try (BufferedReader reader = Files.newBufferedReader(file, CHARSET)) {
+          String line;
+          while ((line = reader.readLine()) != null) {
+            if (line.trim().isEmpty()) continue;
+            try {
+              top.offer(HighScoreEntry.parse(line));
+            } catch (IllegalArgumentException | DateTimeParseException e) {
+              linesSkipped.incrementAndGet();
+            }
+          }
+        }
+      } else {
+        HighScoreJournal.read(file, top::offer);
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    entriesRead.addAndGet(top.offered);
+    LOG.debug("Read {} entries from {}", top.offered, file);
+    return top.sorted();
+  }
+
+  /**
+   * Merges sorted lists into one sorted list without duplicates.
+   *
+   * @param lists each in ranking order
+   * @param limit maximum size of the result
+   * @return the first <code>limit</code> distinct entries of all lists
+   */
+  static List<HighScoreEntry> kWayMerge(List<List<HighScoreEntry>> lists, int limit) {
+    // heap of cursors - the list index and position of each list's current head
+    final PriorityQueue<int[]> heads =
+        new PriorityQueue<>(
+            Math.max(1, lists.size()),
+            (a, b) -> RANKING.compare(lists.get(a[0]).get(a[1]), lists.get(b[0]).get(b[1])));
+    for (int i = 0; i < lists.size(); i++) {
+      if (!lists.get(i).isEmpty()) heads.add(new int[] {i, 0});
+    }
+    final List<HighScoreEntry> result = new ArrayList<>(limit);
+    while (result.size() < limit && !heads.isEmpty()) {
+      final int[] cursor = heads.poll();
+      final List<HighScoreEntry> list = lists.get(cursor[0]);
+      final HighScoreEntry entry = list.get(cursor[1]);
+      // identical entries are next to each other in ranking order
+      if (result.isEmpty() || !result.get(result.size() - 1).equals(entry)) result.add(entry);
+      if (++cursor[1] < list.size()) heads.add(cursor);
+    }
+    return result;
+  }
+
+  /** @return number of entries read from all files */
+  public long getEntriesRead() {
+    return entriesRead.get();
+  }
+
+  /** @return number of CSV lines which could not be parsed */
+  public long getLinesSkipped() {
+    return linesSkipped.get();
+  }
+
+  /**
+   * @param args output n input...
+   * @throws IOException
+   */
+  public static void main(String[] args) throws IOException {
+    if (args.length < 3) {
+      System.err.println("Usage: HighScoreMerger output n input...");
+      System.exit(1);
+    }
+    final Path output = Paths.get(args[0]);
+    final HighScoreMerger merger = new HighScoreMerger(Integer.parseInt(args[1]));
+    final List<Path> inputs = new ArrayList<>();
+    for (String input : Arrays.asList(args).subList(2, args.length)) inputs.add(Paths.get(input));
+
+    final long start = System.nanoTime();
+    final List<HighScoreEntry> merged = merger.merge(inputs);
+    if (output.getFileName().toString().endsWith(".csv")) {
+      try (BufferedWriter writer = Files.newBufferedWriter(output, CHARSET)) {
+        for (HighScoreEntry e : merged) {
+          writer.write(e.toString());
+          writer.newLine();
+        }
+      }
+    } else {
+      try (LeaderboardStore store = new LeaderboardStore(output)) {
+        for (HighScoreEntry e : merged) store.add(e);
+      }
+    }
+    LOG.info(
+        "Merged {} entries from {} files into {} entries in {} ms ({} lines skipped)",
+        merger.getEntriesRead(),
+        inputs.size(),
+        merged.size(),
+        (System.nanoTime() - start) / 1_000_000,
+        merger.getLinesSkipped());
+  }
+
+  /** Keeps the best n distinct entries offered. */
+  private static final class TopN {
+
+    private final int n;
+    // worst kept entry at the head
+    private final PriorityQueue<HighScoreEntry> heap;
+    private final Set<HighScoreEntry> kept;
+    private long offered = 0;
+
+    TopN(int n) {
+      this.n = n;
+      this.heap = new PriorityQueue<>(n, RANKING.reversed());
+      this.kept = new HashSet<>(n * 2);
+    }
+
+    void offer(HighScoreEntry entry) {
+      offered++;
+      if (heap.size() == n && RANKING.compare(entry, heap.peek()) >= 0) return;
+      if (!kept.add(entry)) return;
+      heap.add(entry);
+      if (heap.size() > n) kept.remove(heap.poll());
+    }
+
+    List<HighScoreEntry> sorted() {
+      final List<HighScoreEntry> list = new ArrayList<>(heap);
+      Collections.sort(list, RANKING);
+      return list;
+    }
+  }
+}
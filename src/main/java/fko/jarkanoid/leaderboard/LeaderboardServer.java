@@ -0,0 +1,407 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018 Frank Kopp
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+package fko.jarkanoid.leaderboard;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import fko.jarkanoid.model.HighScore;
+import fko.jarkanoid.model.HighScore.HighScoreEntry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UnsupportedEncodingException;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * LeaderboardServer
+ *
+ * <p>Small embedded HTTP service for leaderboard displays. All responses are JSON.
+ *
+ * <ul>
+ *   <li><code>GET /top</code> - the {@link HighScore} list
+ *   <li><code>GET /rank?score=n</code> - the place a score would get
+ *   <li><code>GET /player?name=x</code> - best entry and place of a player
+ *   <li><code>GET /level?level=n&amp;limit=n</code> - best entries which ended in a level
+ *   <li><code>GET /board?offset=n&amp;limit=n</code> - a page of the whole leaderboard
+ * </ul>
+ *
+ * Without a {@link LeaderboardStore} all queries are answered from the high score list.
+ *
+ * <p>The <code>/top</code> response is encoded once per change of the high score list and then
+ * served from the cached bytes. The ETag is the list version prefixed with a random epoch of this
+ * server - the version starts again after a restart and must not match an ETag a client got from
+ * an earlier run. Clients which send the ETag back in <code>If-None-Match</code> get a 304 without
+ * a body. Connections are kept alive, so polling clients don't pay for a new connection per
+ * request.
+ *
+ * <p>Requests are served by a fixed pool of platform threads - the project targets Java 8 which
+ * has no virtual threads.
+ *
+ * <p>19.10.2026
+ *
+ * @author Frank Kopp
+ */
+public final class LeaderboardServer {
+
+  private static final Logger LOG = LoggerFactory.getLogger(LeaderboardServer.class);
+
+  private static final int MAX_LIMIT = 1000;
+  private static final String CONTENT_TYPE = "application/json; charset=utf-8";
+
+  private final HighScore highScore;
+  private final LeaderboardStore store;
+  private final HttpServer server;
+  private final ExecutorService executor;
+
+  // distinguishes the ETags of this server from those of earlier runs
+  private final String epoch = Long.toHexString(ThreadLocalRandom.current().nextLong());
+
+  // encoded /top response of a high score list version
+  private static final class CachedResponse {
+    final long version;
+    final String etag;
+    final byte[] body;
+
+    CachedResponse(long version, String etag, byte[] body) {
+      this.version = version;
+      this.etag = etag;
+      this.body = body;
+    }
+  }
+
+  private final AtomicReference<CachedResponse> topResponse = new AtomicReference<>();
+
+  // statistics
+  private final AtomicLong requests = new AtomicLong();
+  private final AtomicLong notModified = new AtomicLong();
+  private final AtomicLong encodings = new AtomicLong();
+
+  /**
+   * Creates the server - it accepts requests after <code>start()</code>.
+   *
+   * @param address address to bind to - port 0 picks a free port
+   * @param highScore the high score list
+   * @param store leaderboard for rank, player and level queries - may be null
+   * @param threads number of threads serving requests
+   * @throws IOException if the address can't be bound
+   */
+  public LeaderboardServer(
+      InetSocketAddress address, HighScore highScore, LeaderboardStore store, int threads)
+      throws IOException {
+    this.highScore = highScore;
+    this.store = store;
+    this.server = HttpServer.create(address, 1024);
+    final AtomicInteger threadNumber = new AtomicInteger();
+    this.executor =
+        Executors.newFixedThreadPool(
+            threads,
+            r -> {
+              final Thread t = new Thread(r, "Leaderboard Server " + threadNumber.incrementAndGet());
+              t.setDaemon(true);
+              return t;
+            });
+    server.setExecutor(executor);
+    server.createContext("/top", this::handleTop);
+    server.createContext("/rank", exchange -> handle(exchange, this::rank));
+    server.createContext("/player", exchange -> handle(exchange, this::player));
+    server.createContext("/level", exchange -> handle(exchange, this::level));
+    server.createContext("/board", exchange -> handle(exchange, this::board));
+  }
+
+  /** Starts serving requests. */
+  public void start() {
+    server.start();
+    LOG.info("Leaderboard server listening on {}", getAddress());
+  }
+
+  /** Stops the server - open requests get up to a second to finish. */
+  public void stop() {
+    server.stop(1);
+    executor.shutdown();
+    try {
+      executor.awaitTermination(1, TimeUnit.SECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    LOG.info(
+        "Leaderboard server stopped - {} requests, {} not modified, {} encodings of /top",
+        requests.get(),
+        notModified.get(),
+        encodings.get());
+  }
+
+  /** @return the address the server is bound to */
+  public InetSocketAddress getAddress() {
+    return server.getAddress();
+  }
+
+  /** @return number of requests served */
+  public long getRequests() {
+    return requests.get();
+  }
+
+  /** @return number of requests answered with 304 */
+  public long getNotModified() {
+    return notModified.get();
+  }
+
+  /** @return how often the /top response has been encoded */
+  public long getEncodings() {
+    return encodings.get();
+  }
+
+  private void handleTop(HttpExchange exchange) throws IOException {
+    requests.incrementAndGet();
+    try {
+      if (!"GET".equals(exchange.getRequestMethod())) {
+        send(exchange, 405, error("Only GET is supported"), null);
+        return;
+      }
+      final CachedResponse response = currentTop();
+      final String ifNoneMatch = exchange.getRequestHeaders().getFirst("If-None-Match");
+      if (response.etag.equals(ifNoneMatch)) {
+        notModified.incrementAndGet();
+        send(exchange, 304, null, response.etag);
+      } else {
+        send(exchange, 200, response.body, response.etag);
+      }
+    } finally {
+      exchange.close();
+    }
+  }
+
+  /* the cached response or a new one if the list has changed */
+  private CachedResponse currentTop() {
+    final long version = highScore.getVersion();
+    final CachedResponse cached = topResponse.get();
+    if (cached != null && cached.version == version) return cached;
+    // read the version before the list - a newer list only causes another encoding later
+    final CachedResponse fresh =
+        new CachedResponse(
+            version, "\"" + epoch + "-" + version + "\"", entriesJson(highScore.getList(), 1));
+    encodings.incrementAndGet();
+    topResponse.set(fresh);
+    return fresh;
+  }
+
+  /** A query which returns a JSON body */
+  @FunctionalInterface
+  private interface Query {
+    byte[] answer(Map<String, String> parameters) throws IOException;
+  }
+
+  private void handle(HttpExchange exchange, Query query) throws IOException {
+    requests.incrementAndGet();
+    try {
+      if (!"GET".equals(exchange.getRequestMethod())) {
+        send(exchange, 405, error("Only GET is supported"), null);
+        return;
+      }
+      final byte[] body;
+      try {
+        body = query.answer(parameters(exchange.getRequestURI().getRawQuery()));
+      } catch (IllegalArgumentException e) {
+        send(exchange, 400, error(e.getMessage()), null);
+        return;
+      } catch (IOException e) {
+        LOG.error("Leaderboard query {} failed", exchange.getRequestURI(), e);
+        send(exchange, 500, error("Leaderboard not available"), null);
+        return;
+      }
+      send(exchange, 200, body, null);
+    } finally {
+      exchange.close();
+    }
+  }
+
+  private byte[] rank(Map<String, String> parameters) {
+    final int score = intParameter(parameters, "score", null);
+    final long rank = store != null ? store.rank(score) : 1 + countAbove(highScore.getList(), score);
+    return ("{\"score\":" + score + ",\"rank\":" + rank + "}").getBytes(StandardCharsets.UTF_8);
+  }
+
+  private byte[] player(Map<String, String> parameters) throws IOException {
+    final String name = parameters.get("name");
+    if (name == null) throw new IllegalArgumentException("Missing parameter: name");
+    HighScoreEntry best = null;
+    long rank = 0;
+    if (store != null) {
+      best = store.bestForPlayer(name);
+      if (best != null) rank = store.rank(best.score);
+    } else {
+      final List<HighScoreEntry> list = highScore.getList();
+      for (int i = 0; i < list.size() && best == null; i++) {
+        if (list.get(i).name.equals(name)) {
+          best = list.get(i);
+          rank = 1 + countAbove(list, best.score);
+        }
+      }
+    }
+    final StringBuilder json = new StringBuilder(128).append("{\"name\":");
+    appendString(json, name);
+    if (best != null) {
+      json.append(",\"rank\":").append(rank).append(",\"best\":");
+      appendEntry(json, best, rank);
+    }
+    return json.append('}').toString().getBytes(StandardCharsets.UTF_8);
+  }
+
+  private byte[] level(Map<String, String> parameters) throws IOException {
+    final int level = intParameter(parameters, "level", null);
+    final int limit = Math.min(MAX_LIMIT, intParameter(parameters, "limit", 10));
+    final List<HighScoreEntry> entries;
+    if (store != null) {
+      entries = store.pageForLevel(level, 0, limit);
+    } else {
+      entries = new ArrayList<>();
+      for (HighScoreEntry e : highScore.getList()) {
+        if (e.level == level && entries.size() < limit) entries.add(e);
+      }
+    }
+    return entriesJson(entries, 1);
+  }
+
+  private byte[] board(Map<String, String> parameters) throws IOException {
+    final int offset = intParameter(parameters, "offset", 0);
+    final int limit = Math.min(MAX_LIMIT, intParameter(parameters, "limit", 15));
+    if (offset < 0 || limit < 0) throw new IllegalArgumentException("Negative offset or limit");
+    final List<HighScoreEntry> entries;
+    if (store != null) {
+      entries = store.page(offset, limit);
+    } else {
+      final List<HighScoreEntry> list = highScore.getList();
+      final int from = Math.min(offset, list.size());
+      entries = list.subList(from, Math.min(list.size(), from + limit));
+    }
+    return entriesJson(entries, offset + 1);
+  }
+
+  private static long countAbove(List<HighScoreEntry> list, int score) {
+    long count = 0;
+    for (HighScoreEntry e : list) if (e.score > score) count++;
+    return count;
+  }
+
+  private static void send(HttpExchange exchange, int status, byte[] body, String etag)
+      throws IOException {
+    // HttpServer only keeps the connection alive if the request has been read to the end - a
+    // response without body (304) would otherwise close it
+    exchange.getRequestBody().close();
+    exchange.getResponseHeaders().set("Content-Type", CONTENT_TYPE);
+    exchange.getResponseHeaders().set("Cache-Control", "no-cache");
+    if (etag != null) exchange.getResponseHeaders().set("ETag", etag);
+    if (body == null) {
+      exchange.sendResponseHeaders(status, -1);
+      return;
+    }
+    exchange.sendResponseHeaders(status, body.length);
+    try (OutputStream out = exchange.getResponseBody()) {
+      out.write(body);
+    }
+  }
+
+  private static Map<String, String> parameters(String rawQuery) {
+    final Map<String, String> parameters = new HashMap<>();
+    if (rawQuery == null || rawQuery.isEmpty()) return parameters;
+    try {
+      for (String pair : rawQuery.split("&")) {
+        final int eq = pair.indexOf('=');
+        if (eq <= 0) continue;
+        parameters.put(
+            URLDecoder.decode(pair.substring(0, eq), "UTF-8"),
+            URLDecoder.decode(pair.substring(eq + 1), "UTF-8"));
+      }
+    } catch (UnsupportedEncodingException e) {
+      throw new IllegalStateException(e);
+    }
+    return parameters;
+  }
+
+  private static int intParameter(Map<String, String> parameters, String name, Integer fallback) {
+    final String value = parameters.get(name);
+    if (value == null) {
+      if (fallback == null) throw new IllegalArgumentException("Missing parameter: " + name);
+      return fallback;
+    }
+    try {
+      return Integer.parseInt(value);
+    } catch (NumberFormatException e) {
+      throw new IllegalArgumentException("Parameter " + name + " is not a number: " + value);
+    }
+  }
+
+  private static byte[] entriesJson(List<HighScoreEntry> entries, long firstPlace) {
+    final StringBuilder json = new StringBuilder(32 + entries.size() * 96).append("{\"entries\":[");
+    for (int i = 0; i < entries.size(); i++) {
+      if (i > 0) json.append(',');
+      appendEntry(json, entries.get(i), firstPlace + i);
+    }
+    return json.append("]}").toString().getBytes(StandardCharsets.UTF_8);
+  }
+
+  private static void appendEntry(StringBuilder json, HighScoreEntry entry, long place) {
+    json.append("{\"place\":").append(place).append(",\"name\":");
+    appendString(json, entry.name);
+    json.append(",\"score\":")
+        .append(entry.score)
+        .append(",\"level\":")
+        .append(entry.level)
+        .append(",\"date\":\"")
+        .append(entry.date)
+        .append("\"}");
+  }
+
+  private static byte[] error(String message) {
+    final StringBuilder json = new StringBuilder(64).append("{\"error\":");
+    appendString(json, message);
+    return json.append('}').toString().getBytes(StandardCharsets.UTF_8);
+  }
+
+  private static void appendString(StringBuilder json, String value) {
+    json.append('"');
+    for (int i = 0; i < value.length(); i++) {
+      final char c = value.charAt(i);
+      if (c == '"' || c == '\\') json.append('\\').append(c);
+      else if (c < 0x20) json.append(String.format("\\u%04x", (int) c));
+      else json.append(c);
+    }
+    json.append('"');
+  }
+}
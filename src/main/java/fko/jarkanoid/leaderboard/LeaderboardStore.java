@@ -0,0 +1,562 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018 Frank Kopp
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+package fko.jarkanoid.leaderboard;
+
+import fko.jarkanoid.model.HighScore.HighScoreEntry;
+import fko.jarkanoid.model.HighScoreEntryCodec;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * LeaderboardStore
+ *
+ * <p>Persistent leaderboard for a large number of entries (e.g. hosted tournaments).<br>
+ * It consists of two files:
+ *
+ * <ul>
+ *   <li><code>entries.log</code> - append-only log of all entries, each record prefixed by its
+ *       length
+ *   <li><code>entries.idx</code> - memory-mapped index of fixed size records (score, log offset)
+ *       ordered by score (highest first, earlier entries first for equal scores)
+ * </ul>
+ *
+ * New entries are appended to the log and inserted into a small sorted in-memory delta. When the
+ * delta grows beyond <code>DELTA_LIMIT</code> it is merged with the index into a new index file.
+ * <br>
+ * <code>rank()</code> and <code>page()</code> are binary searches over the mapped index and the
+ * delta, so they are O(log n) plus the entries read for a page. Opening a store maps the index
+ * and only parses log records written after the last index merge.
+ *
+ * <p>Leaderboards per level reached and per player are served from secondary in-memory indexes.
+ * They are built by one pass over the log when first queried and are then updated with every
+ * added entry.
+ *
+ * <p>19.10.2026
+ *
+ * @author Frank Kopp
+ */
+public final class LeaderboardStore implements Closeable {
+
+  private static final Logger LOG = LoggerFactory.getLogger(LeaderboardStore.class);
+
+  public static final String LOG_FILE = "entries.log";
+  public static final String INDEX_FILE = "entries.idx";
+
+  // index file layout
+  private static final int INDEX_MAGIC = 0x4A4B4C42; // "JKLB"
+  private static final int INDEX_VERSION = 1;
+  private static final int INDEX_HEADER_BYTES = 32;
+  private static final int INDEX_RECORD_BYTES = 12; // int score, long offset
+
+  // merge the in-memory delta into the index file when it gets bigger than this
+  private static final int DELTA_LIMIT = 8192;
+
+  private final Path logPath;
+  private final Path indexPath;
+  private final FileChannel logChannel;
+  private long logLength;
+
+  // mapped index - entries [0, indexCount)
+  private MappedByteBuffer index;
+  private int indexCount;
+
+  // sorted delta of entries not yet in the index file
+  private final ScoreList delta = new ScoreList(64);
+
+  // secondary indexes - built on first use by one pass over the log, then updated on add()
+  private volatile boolean secondaryBuilt = false;
+  private final Map<Integer, ScoreList> byLevel = new HashMap<>();
+  private final Map<String, ScoreList> byPlayer = new HashMap<>();
+
+  private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+  /**
+   * Opens or creates a store in the given folder.
+   *
+   * @param folder
+   * @throws IOException
+   */
+  public LeaderboardStore(Path folder) throws IOException {
+    Files.createDirectories(folder);
+    logPath = folder.resolve(LOG_FILE);
+    indexPath = folder.resolve(INDEX_FILE);
+    logChannel =
+        FileChannel.open(
+            logPath, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+    logLength = logChannel.size();
+
+    final long covered = openIndex();
+    final int recovered =
+        scanLog(covered, true, (offset, entry) -> delta.insert(entry.score, offset));
+    LOG.info(
+        "Opened leaderboard {} - {} indexed entries, {} entries recovered from log",
+        folder,
+        indexCount,
+        recovered);
+    if (delta.size() > DELTA_LIMIT) mergeDelta();
+  }
+
+  /**
+   * Appends an entry to the log and the in-memory index.
+   *
+   * @param entry
+   * @throws IOException
+   */
+  public void add(HighScoreEntry entry) throws IOException {
+    final int size = HighScoreEntryCodec.encodedSize(entry);
+    final ByteBuffer buffer = ByteBuffer.allocate(4 + size);
+    buffer.putInt(size);
+    HighScoreEntryCodec.encode(entry, buffer);
+    buffer.flip();
+
+    lock.writeLock().lock();
+    try {
+      final long offset = logLength;
+      long position = offset;
+      while (buffer.hasRemaining()) position += logChannel.write(buffer, position);
+      logLength = position;
+      delta.insert(entry.score, offset);
+      if (secondaryBuilt) {
+        // index the entry as it will be read back from the log (e.g. cut off names)
+        final ByteBuffer stored = buffer.duplicate();
+        stored.position(4);
+        addToSecondary(offset, HighScoreEntryCodec.decode(stored));
+      }
+      if (delta.size() > DELTA_LIMIT) mergeDelta();
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * @param score
+   * @return the place (1 based) a new entry with this score would get
+   */
+  public long rank(int score) {
+    lock.readLock().lock();
+    try {
+      return 1L + countIndexAbove(score) + delta.countAbove(score);
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * @param offset number of entries to skip from the top
+   * @param limit maximum number of entries
+   * @return the entries in leaderboard order
+   * @throws IOException
+   */
+  public List<HighScoreEntry> page(long offset, int limit) throws IOException {
+    lock.readLock().lock();
+    try {
+      final long total = (long) indexCount + delta.size();
+      if (offset < 0 || limit <= 0 || offset >= total) return new ArrayList<>(0);
+
+      // find how many of the first 'offset' entries come from index (i) and delta (j)
+      int lo = (int) Math.max(0, offset - delta.size());
+      int hi = (int) Math.min(offset, indexCount);
+      while (lo < hi) {
+        final int i = (lo + hi) >>> 1;
+        final int j = (int) (offset - i);
+        // is index[i] before delta[j-1]? then more index entries belong to the offset
+        if (j > 0
+            && before(indexScore(i), indexOffset(i), delta.score(j - 1), delta.offset(j - 1))) {
+          lo = i + 1;
+        } else {
+          hi = i;
+        }
+      }
+      int i = lo;
+      int j = (int) (offset - i);
+
+      // merge walk
+      final List<HighScoreEntry> result = new ArrayList<>((int) Math.min(limit, total - offset));
+      while (result.size() < limit && (i < indexCount || j < delta.size())) {
+        final boolean fromIndex =
+            j >= delta.size()
+                || (i < indexCount
+                    && before(indexScore(i), indexOffset(i), delta.score(j), delta.offset(j)));
+        result.add(readEntry(fromIndex ? indexOffset(i++) : delta.offset(j++)));
+      }
+      return result;
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * @param level
+   * @param offset number of entries to skip from the top
+   * @param limit maximum number of entries
+   * @return the entries which ended in the given level in leaderboard order
+   * @throws IOException
+   */
+  public List<HighScoreEntry> pageForLevel(int level, int offset, int limit) throws IOException {
+    ensureSecondary();
+    lock.readLock().lock();
+    try {
+      return readPage(byLevel.get(level), offset, limit);
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * @param level
+   * @param score
+   * @return the place (1 based) a new entry with this score would get within the level
+   */
+  public long rankForLevel(int level, int score) {
+    ensureSecondary();
+    lock.readLock().lock();
+    try {
+      final ScoreList list = byLevel.get(level);
+      return 1L + (list == null ? 0 : list.countAbove(score));
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * @param name
+   * @param offset number of entries to skip from the top
+   * @param limit maximum number of entries
+   * @return the entries of the given player in leaderboard order
+   * @throws IOException
+   */
+  public List<HighScoreEntry> pageForPlayer(String name, int offset, int limit)
+      throws IOException {
+    ensureSecondary();
+    lock.readLock().lock();
+    try {
+      return readPage(byPlayer.get(name), offset, limit);
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * @param name
+   * @return the best entry of the player or null if there is none
+   * @throws IOException
+   */
+  public HighScoreEntry bestForPlayer(String name) throws IOException {
+    final List<HighScoreEntry> page = pageForPlayer(name, 0, 1);
+    return page.isEmpty() ? null : page.get(0);
+  }
+
+  /** @return number of entries */
+  public long size() {
+    lock.readLock().lock();
+    try {
+      return (long) indexCount + delta.size();
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Merges pending entries into the index file and closes the files.
+   *
+   * @throws IOException
+   */
+  @Override
+  public void close() throws IOException {
+    lock.writeLock().lock();
+    try {
+      if (delta.size() > 0) mergeDelta();
+      logChannel.force(false);
+      logChannel.close();
+      index = null;
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Maps the index file.
+   *
+   * @return length of the log covered by the index - 0 if there is no valid index
+   */
+  private long openIndex() throws IOException {
+    indexCount = 0;
+    index = null;
+    if (!Files.exists(indexPath)) return 0;
+    try (FileChannel channel = FileChannel.open(indexPath, StandardOpenOption.READ)) {
+      if (channel.size() < INDEX_HEADER_BYTES) return invalidIndex("too short");
+      final MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+      if (mapped.getInt(0) != INDEX_MAGIC || mapped.getInt(4) != INDEX_VERSION) {
+        return invalidIndex("bad header");
+      }
+      final long count = mapped.getLong(8);
+      final long covered = mapped.getLong(16);
+      if (count < 0
+          || count > Integer.MAX_VALUE
+          || channel.size() < INDEX_HEADER_BYTES + count * INDEX_RECORD_BYTES
+          || covered > logLength) {
+        return invalidIndex("inconsistent with log");
+      }
+      index = mapped;
+      indexCount = (int) count;
+      return covered;
+    }
+  }
+
+  private long invalidIndex(String reason) {
+    LOG.warn("Leaderboard index {} ignored ({}) - rebuilding from log", indexPath, reason);
+    return 0;
+  }
+
+  /**
+   * Reads log records from the given position up to the end of the log. A truncated or damaged
+   * record (e.g. after a crash) is cut off if <code>truncate</code> is set - only while opening,
+   * before any index refers to the records. Otherwise the log is left unchanged.
+   *
+   * @param from position of the first record
+   * @param truncate if true the log is cut off at a damaged record
+   * @param consumer gets the records
+   * @return number of records read
+   * @throws IOException if a record is damaged and <code>truncate</code> is not set
+   */
+  private int scanLog(long from, boolean truncate, RecordConsumer consumer) throws IOException {
+    final ByteBuffer buffer = ByteBuffer.allocate(64 * 1024);
+    long position = from;
+    int count = 0;
+    while (position < logLength) {
+      buffer.clear();
+      logChannel.read(buffer, position);
+      buffer.flip();
+      int consumed = 0;
+      while (buffer.remaining() >= 4) {
+        final int start = buffer.position();
+        final int size = buffer.getInt();
+        if (size <= 0 || size > HighScoreEntryCodec.MAX_ENCODED_BYTES) {
+          return damaged(position + consumed, count, truncate);
+        }
+        if (buffer.remaining() < size) {
+          buffer.position(start);
+          break;
+        }
+        final ByteBuffer record = buffer.slice();
+        record.limit(size);
+        final HighScoreEntry entry;
+        try {
+          entry = HighScoreEntryCodec.decode(record);
+        } catch (BufferUnderflowException | IllegalArgumentException e) {
+          return damaged(position + consumed, count, truncate);
+        }
+        buffer.position(start + 4 + size);
+        consumer.accept(position + start, entry);
+        consumed = buffer.position();
+        count++;
+      }
+      // incomplete record at the end
+      if (consumed == 0) return damaged(position, count, truncate);
+      position += consumed;
+    }
+    return count;
+  }
+
+  private int damaged(long validLength, int count, boolean truncate) throws IOException {
+    if (truncate) return truncateLog(validLength, count);
+    throw new IOException("Leaderboard log " + logPath + " is damaged at " + validLength);
+  }
+
+  private int truncateLog(long validLength, int count) throws IOException {
+    LOG.warn(
+        "Leaderboard log {} has an incomplete record at {} - truncating {} bytes",
+        logPath,
+        validLength,
+        logLength - validLength);
+    logChannel.truncate(validLength);
+    logLength = validLength;
+    return count;
+  }
+
+  /** Writes index and delta merged into a new index file and maps it. */
+  private void mergeDelta() throws IOException {
+    final long start = System.nanoTime();
+    final int total = indexCount + delta.size();
+    final Path tempPath = indexPath.resolveSibling(INDEX_FILE + ".tmp");
+    try (FileChannel channel =
+        FileChannel.open(
+            tempPath,
+            StandardOpenOption.CREATE,
+            StandardOpenOption.READ,
+            StandardOpenOption.WRITE,
+            StandardOpenOption.TRUNCATE_EXISTING)) {
+      final MappedByteBuffer out =
+          channel.map(
+              FileChannel.MapMode.READ_WRITE,
+              0,
+              INDEX_HEADER_BYTES + (long) total * INDEX_RECORD_BYTES);
+      out.putInt(INDEX_MAGIC).putInt(INDEX_VERSION).putLong(total).putLong(logLength).putLong(0);
+      int i = 0;
+      int j = 0;
+      while (i < indexCount || j < delta.size()) {
+        final boolean fromIndex =
+            j >= delta.size()
+                || (i < indexCount
+                    && before(indexScore(i), indexOffset(i), delta.score(j), delta.offset(j)));
+        if (fromIndex) {
+          out.putInt(indexScore(i)).putLong(indexOffset(i));
+          i++;
+        } else {
+          out.putInt(delta.score(j)).putLong(delta.offset(j));
+          j++;
+        }
+      }
+      out.force();
+    }
+    // the log must be durable before the index refers to it
+    logChannel.force(false);
+    try {
+      Files.move(
+          tempPath, indexPath, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    } catch (AtomicMoveNotSupportedException e) {
+      Files.move(tempPath, indexPath, StandardCopyOption.REPLACE_EXISTING);
+    }
+    delta.clear();
+    openIndex();
+    LOG.debug(
+        "Merged leaderboard index - {} entries in {} ms", total, (System.nanoTime() - start) / 1e6);
+  }
+
+  /** @return number of index entries with a higher score */
+  private int countIndexAbove(int score) {
+    int lo = 0;
+    int hi = indexCount;
+    while (lo < hi) {
+      final int mid = (lo + hi) >>> 1;
+      if (indexScore(mid) > score) lo = mid + 1;
+      else hi = mid;
+    }
+    return lo;
+  }
+
+  /** Builds the secondary indexes if this has not happened yet */
+  private void ensureSecondary() {
+    if (secondaryBuilt) return;
+    lock.writeLock().lock();
+    try {
+      if (secondaryBuilt) return;
+      final long start = System.nanoTime();
+      // read only - index and delta refer to the records, so a damaged log must not be cut off
+      final int count;
+      try {
+        count = scanLog(0, false, this::addToSecondary);
+      } catch (IOException e) {
+        byLevel.clear();
+        byPlayer.clear();
+        throw e;
+      }
+      secondaryBuilt = true;
+      LOG.info(
+          "Built leaderboard level and player indexes - {} entries, {} levels, {} players in {} ms",
+          count,
+          byLevel.size(),
+          byPlayer.size(),
+          (System.nanoTime() - start) / 1e6);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  private void addToSecondary(long offset, HighScoreEntry entry) {
+    ScoreList level = byLevel.get(entry.level);
+    if (level == null) byLevel.put(entry.level, level = new ScoreList());
+    level.insert(entry.score, offset);
+    ScoreList player = byPlayer.get(entry.name);
+    if (player == null) byPlayer.put(entry.name, player = new ScoreList());
+    player.insert(entry.score, offset);
+  }
+
+  private List<HighScoreEntry> readPage(ScoreList list, int offset, int limit)
+      throws IOException {
+    if (list == null || offset < 0 || limit <= 0 || offset >= list.size()) {
+      return new ArrayList<>(0);
+    }
+    final int end = (int) Math.min(list.size(), (long) offset + limit);
+    final List<HighScoreEntry> result = new ArrayList<>(end - offset);
+    for (int i = offset; i < end; i++) result.add(readEntry(list.offset(i)));
+    return result;
+  }
+
+  private HighScoreEntry readEntry(long offset) throws IOException {
+    final ByteBuffer sizeBuffer = ByteBuffer.allocate(4);
+    readFully(sizeBuffer, offset);
+    final ByteBuffer record = ByteBuffer.allocate(sizeBuffer.getInt(0));
+    readFully(record, offset + 4);
+    return HighScoreEntryCodec.decode(record);
+  }
+
+  private void readFully(ByteBuffer buffer, long position) throws IOException {
+    while (buffer.hasRemaining()) {
+      if (logChannel.read(buffer, position + buffer.position()) < 0) {
+        throw new IOException("Unexpected end of leaderboard log at " + position);
+      }
+    }
+    buffer.flip();
+  }
+
+  private int indexScore(int i) {
+    return index.getInt(INDEX_HEADER_BYTES + i * INDEX_RECORD_BYTES);
+  }
+
+  private long indexOffset(int i) {
+    return index.getLong(INDEX_HEADER_BYTES + i * INDEX_RECORD_BYTES + 4);
+  }
+
+  private static boolean before(int score1, long offset1, int score2, long offset2) {
+    return ScoreList.before(score1, offset1, score2, offset2);
+  }
+
+  /** Callback for records read from the log */
+  @FunctionalInterface
+  private interface RecordConsumer {
+    void accept(long offset, HighScoreEntry entry);
+  }
+}
@@ -0,0 +1,167 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018 Frank Kopp
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+package fko.jarkanoid.leaderboard;
+
+import fko.jarkanoid.model.HeadlessGame;
+import fko.jarkanoid.model.HighScore.HighScoreEntry;
+import fko.jarkanoid.model.HighScoreEntryCodec;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Replay
+ *
+ * <p>A high score submission which carries everything needed to play the game again: the seed,
+ * the start level and the input of every tick of a {@link HeadlessGame}. The claimed result is
+ * the {@link HighScoreEntry} (name, score, level reached, date).
+ *
+ * <p>The binary form is the encoded entry followed by <code>[long seed][int startLevel][int
+ * ticks]</code> and the inputs packed with 2 bits per tick.
+ *
+ * <p>19.10.2026
+ *
+ * @author Frank Kopp
+ */
+public final class Replay {
+
+  // two hours at 60 ticks per second
+  public static final int MAX_TICKS = 2 * 60 * 60 * 60;
+
+  public final HighScoreEntry entry;
+  public final long seed;
+  public final int startLevel;
+  private final byte[] inputs;
+
+  /**
+   * @param entry the claimed result
+   * @param seed seed of the game
+   * @param startLevel level the game started with
+   * @param inputs input of every tick (INPUT_LEFT, INPUT_NONE or INPUT_RIGHT) - copied
+   * @throws IllegalArgumentException if the replay is too long or has an invalid input
+   */
+  public Replay(HighScoreEntry entry, long seed, int startLevel, byte[] inputs) {
+    if (inputs.length > MAX_TICKS) {
+      throw new IllegalArgumentException("Replay too long: " + inputs.length + " ticks");
+    }
+    // inputs are packed into 2 bits - anything else would corrupt the neighbouring ticks
+    for (int i = 0; i < inputs.length; i++) {
+      if (inputs[i] < HeadlessGame.INPUT_LEFT || inputs[i] > HeadlessGame.INPUT_RIGHT) {
+        throw new IllegalArgumentException("Invalid input " + inputs[i] + " at tick " + i);
+      }
+    }
+    this.entry = entry;
+    this.seed = seed;
+    this.startLevel = startLevel;
+    this.inputs = inputs.clone();
+  }
+
+  /** @return number of ticks */
+  public int getTicks() {
+    return inputs.length;
+  }
+
+  /**
+   * @param tick
+   * @return input of the tick
+   */
+  public byte getInput(int tick) {
+    return inputs[tick];
+  }
+
+  /**
+   * Hash of everything which decides the outcome of the game - seed, start level and inputs. Two
+   * replays with the same hash play the same game, whatever result they claim.
+   *
+   * @return SHA-256 of the game as hex string
+   */
+  public String gameHash() {
+    final MessageDigest digest;
+    try {
+      digest = MessageDigest.getInstance("SHA-256");
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException("SHA-256 not available", e);
+    }
+    final ByteBuffer header = ByteBuffer.allocate(12);
+    header.putLong(seed).putInt(startLevel).flip();
+    digest.update(header);
+    digest.update(inputs);
+    final StringBuilder hex = new StringBuilder(64);
+    for (byte b : digest.digest()) hex.append(String.format("%02x", b));
+    return hex.toString();
+  }
+
+  /** @return the binary form */
+  public ByteBuffer encode() {
+    final ByteBuffer buffer =
+        ByteBuffer.allocate(HighScoreEntryCodec.encodedSize(entry) + 16 + (inputs.length + 3) / 4);
+    HighScoreEntryCodec.encode(entry, buffer);
+    buffer.putLong(seed).putInt(startLevel).putInt(inputs.length);
+    // 2 bits per tick, 4 ticks per byte
+    for (int i = 0; i < inputs.length; i += 4) {
+      int packed = 0;
+      for (int j = 0; j < 4 && i + j < inputs.length; j++) {
+        packed |= (inputs[i + j] - HeadlessGame.INPUT_LEFT) << (j * 2);
+      }
+      buffer.put((byte) packed);
+    }
+    buffer.flip();
+    return buffer;
+  }
+
+  /**
+   * @param buffer
+   * @return the decoded replay
+   * @throws java.nio.BufferUnderflowException if the buffer does not hold a complete replay
+   * @throws IllegalArgumentException if the data is not a valid replay
+   */
+  public static Replay decode(ByteBuffer buffer) {
+    final HighScoreEntry entry = HighScoreEntryCodec.decode(buffer);
+    final long seed = buffer.getLong();
+    final int startLevel = buffer.getInt();
+    final int ticks = buffer.getInt();
+    if (ticks < 0 || ticks > MAX_TICKS) {
+      throw new IllegalArgumentException("Invalid ticks: " + ticks);
+    }
+    if (buffer.remaining() < (ticks + 3) / 4) throw new BufferUnderflowException();
+    final byte[] inputs = new byte[ticks];
+    for (int i = 0; i < ticks; i += 4) {
+      final int packed = buffer.get();
+      for (int j = 0; j < 4 && i + j < ticks; j++) {
+        final int value = (packed >> (j * 2)) & 3;
+        if (value > 2) throw new IllegalArgumentException("Invalid input at tick " + (i + j));
+        inputs[i + j] = (byte) (value + HeadlessGame.INPUT_LEFT);
+      }
+    }
+    return new Replay(entry, seed, startLevel, inputs);
+  }
+
+  @Override
+  public String toString() {
+    return "Replay [" + entry + ", seed=" + seed + ", ticks=" + inputs.length + "]";
+  }
+}
@@ -0,0 +1,314 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018 Frank Kopp
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+package fko.jarkanoid.leaderboard;
+
+import fko.jarkanoid.model.Brick;
+import fko.jarkanoid.model.HeadlessGame;
+import fko.jarkanoid.model.HighScore.HighScoreEntry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.IntFunction;
+
+/**
+ * ReplayVerifier
+ *
+ * <p>Accepts high score submissions only if the game can be played again to the claimed result.
+ * Each {@link Replay} is simulated by a {@link HeadlessGame} with its seed and inputs and the
+ * entry is accepted if the game is over with the last input and the final score and level match
+ * the claim. A replay which stops before the end of the game - e.g. a truncated copy of a
+ * recorded game - is rejected as {@link Verdict#UNFINISHED}.
+ *
+ * <p>Simulations run on a bounded pool of worker threads. When its queue is full the submitting
+ * thread runs the simulation itself which slows submitters down instead of buffering without
+ * limit. Outcomes are cached by the replay's game hash, so a resubmitted or duplicated game is
+ * not simulated again - also not while its first simulation is still running.
+ *
+ * <p>A game is accepted only once. The outcome cache does not depend on the claimed entry, so a
+ * game which has been accepted before is rejected as {@link Verdict#DUPLICATE} - whatever name
+ * or date it claims - and does not reach <code>onAccepted</code> again.
+ *
+ * <p>Only games played with a <code>HeadlessGame</code> can be verified. Games played in the
+ * interactive <code>GameModel</code> are not recorded and could not be replayed - its power
+ * pills, lasers and timers are not deterministic - so their high scores stay in the local,
+ * unverified high score list.
+ *
+ * <p>19.10.2026
+ *
+ * @author Frank Kopp
+ */
+public final class ReplayVerifier implements Closeable {
+
+  private static final Logger LOG = LoggerFactory.getLogger(ReplayVerifier.class);
+
+  /** Result of the verification */
+  public enum Verdict {
+    ACCEPTED,
+    SCORE_MISMATCH,
+    LEVEL_MISMATCH,
+    INVALID,
+    UNFINISHED,
+    DUPLICATE
+  }
+
+  /** Verdict and simulated result of a replay. */
+  public static final class Result {
+
+    public final Replay replay;
+    public final Verdict verdict;
+    public final int simulatedScore;
+    public final int simulatedLevel;
+
+    Result(Replay replay, Verdict verdict, int simulatedScore, int simulatedLevel) {
+      this.replay = replay;
+      this.verdict = verdict;
+      this.simulatedScore = simulatedScore;
+      this.simulatedLevel = simulatedLevel;
+    }
+
+    @Override
+    public String toString() {
+      return String.format(
+          "Result [%s, claimed %d/%d, simulated %d/%d]",
+          verdict,
+          replay.entry.score,
+          replay.entry.level,
+          simulatedScore,
+          simulatedLevel);
+    }
+  }
+
+  /* outcome of simulating a game - independent of the claim */
+  private static final class Outcome {
+    final boolean valid;
+    final boolean over;
+    final int score;
+    final int level;
+
+    Outcome(boolean valid, boolean over, int score, int level) {
+      this.valid = valid;
+      this.over = over;
+      this.score = score;
+      this.level = level;
+    }
+  }
+
+  private final IntFunction<Brick[][]> levels;
+  private final Consumer<HighScoreEntry> onAccepted;
+  private final ThreadPoolExecutor executor;
+
+  // game hash -> outcome, least recently used first
+  private final Map<String, CompletableFuture<Outcome>> cache;
+
+  // game hashes of all accepted replays - not evicted, every game counts once
+  private final Set<String> acceptedGames = new HashSet<>();
+
+  // statistics
+  private final AtomicLong submitted = new AtomicLong();
+  private final AtomicLong simulated = new AtomicLong();
+  private final AtomicLong simulatedTicks = new AtomicLong();
+  private final AtomicLong accepted = new AtomicLong();
+
+  /**
+   * @param levels supplies fresh level matrices by level number (e.g. <code>
+   *     LevelLoader.getInstance()::getLevel</code>) - must be thread safe
+   * @param workers number of simulation threads
+   * @param queueCapacity number of submissions waiting for a worker
+   * @param cacheSize number of outcomes to remember
+   * @param onAccepted called with each accepted entry - on a worker or the submitting thread
+   */
+  public ReplayVerifier(
+      IntFunction<Brick[][]> levels,
+      int workers,
+      int queueCapacity,
+      final int cacheSize,
+      Consumer<HighScoreEntry> onAccepted) {
+    this.levels = levels;
+    this.onAccepted = onAccepted;
+    final AtomicInteger threadNumber = new AtomicInteger();
+    this.executor =
+        new ThreadPoolExecutor(
+            workers,
+            workers,
+            0,
+            TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(queueCapacity),
+            r -> {
+              final Thread t = new Thread(r, "Replay Verifier " + threadNumber.incrementAndGet());
+              t.setDaemon(true);
+              return t;
+            },
+            new ThreadPoolExecutor.CallerRunsPolicy());
+    this.cache =
+        new LinkedHashMap<String, CompletableFuture<Outcome>>(16, 0.75f, true) {
+          @Override
+          protected boolean removeEldestEntry(Map.Entry<String, CompletableFuture<Outcome>> e) {
+            return size() > cacheSize;
+          }
+        };
+  }
+
+  /**
+   * Verifies the replay on the worker pool.
+   *
+   * @param replay
+   * @return the result when the verification is done
+   */
+  public CompletableFuture<Result> submit(Replay replay) {
+    if (executor.isShutdown()) throw new IllegalStateException("Replay verifier is closed");
+    submitted.incrementAndGet();
+    final String hash = replay.gameHash();
+    final CompletableFuture<Outcome> outcome;
+    final boolean simulate;
+    synchronized (cache) {
+      final CompletableFuture<Outcome> cached = cache.get(hash);
+      if (cached != null) {
+        outcome = cached;
+        simulate = false;
+      } else {
+        outcome = new CompletableFuture<>();
+        cache.put(hash, outcome);
+        simulate = true;
+      }
+    }
+    if (simulate) {
+      executor.execute(
+          () -> {
+            try {
+              outcome.complete(simulate(replay));
+            } catch (RuntimeException e) {
+              synchronized (cache) {
+                cache.remove(hash);
+              }
+              outcome.completeExceptionally(e);
+            }
+          });
+    }
+    return outcome.thenApply(o -> judge(replay, hash, o));
+  }
+
+  /**
+   * Verifies the replay on the calling thread.
+   *
+   * @param replay
+   * @return the result
+   */
+  public Result verify(Replay replay) {
+    return submit(replay).join();
+  }
+
+  private Outcome simulate(Replay replay) {
+    final HeadlessGame game;
+    try {
+      game = new HeadlessGame(levels, replay.startLevel, replay.seed);
+    } catch (IllegalArgumentException e) {
+      return new Outcome(false, false, 0, 0);
+    }
+    final int ticks = replay.getTicks();
+    int tick = 0;
+    while (tick < ticks && !game.isOver()) {
+      game.tick(replay.getInput(tick++));
+    }
+    simulated.incrementAndGet();
+    simulatedTicks.addAndGet(tick);
+    // inputs after the end of the game are not possible in a real game
+    return new Outcome(tick == ticks, game.isOver(), game.getScore(), game.getLevel());
+  }
+
+  private Result judge(Replay replay, String hash, Outcome outcome) {
+    Verdict verdict;
+    if (!outcome.valid) verdict = Verdict.INVALID;
+    else if (!outcome.over) verdict = Verdict.UNFINISHED;
+    else if (outcome.score != replay.entry.score) verdict = Verdict.SCORE_MISMATCH;
+    else if (outcome.level != replay.entry.level) verdict = Verdict.LEVEL_MISMATCH;
+    else verdict = Verdict.ACCEPTED;
+
+    if (verdict == Verdict.ACCEPTED) {
+      synchronized (acceptedGames) {
+        if (!acceptedGames.add(hash)) verdict = Verdict.DUPLICATE;
+      }
+    }
+
+    final Result result = new Result(replay, verdict, outcome.score, outcome.level);
+    if (verdict == Verdict.ACCEPTED) {
+      accepted.incrementAndGet();
+      if (onAccepted != null) onAccepted.accept(replay.entry);
+    } else {
+      LOG.info("Rejected high score submission: {} - {}", replay, result);
+    }
+    return result;
+  }
+
+  /** @return number of submissions */
+  public long getSubmitted() {
+    return submitted.get();
+  }
+
+  /** @return number of games actually simulated - the rest came from the cache */
+  public long getSimulated() {
+    return simulated.get();
+  }
+
+  /** @return number of ticks simulated */
+  public long getSimulatedTicks() {
+    return simulatedTicks.get();
+  }
+
+  /** @return number of accepted submissions */
+  public long getAccepted() {
+    return accepted.get();
+  }
+
+  /** Finishes queued verifications and stops the workers. */
+  @Override
+  public void close() {
+    executor.shutdown();
+    try {
+      if (!executor.awaitTermination(1, TimeUnit.MINUTES)) {
+        LOG.warn("Replay verifier did not finish within a minute");
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    LOG.info(
+        "Replay verifier closed - {} submissions, {} simulated ({} ticks), {} accepted",
+        submitted.get(),
+        simulated.get(),
+        simulatedTicks.get(),
+        accepted.get());
+  }
+}
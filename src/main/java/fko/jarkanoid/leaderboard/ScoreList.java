@@ -0,0 +1,121 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018 Frank Kopp
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+package fko.jarkanoid.leaderboard;
+
+import java.util.Arrays;
+
+/**
+ * ScoreList
+ *
+ * <p>Growable list of (score, log offset) pairs kept in leaderboard order - highest score first,
+ * lower log offset (earlier entry) first for equal scores. Used for the in-memory delta of the
+ * {@link LeaderboardStore} and for its secondary indexes.<br>
+ * Not thread safe.
+ *
+ * <p>19.10.2026
+ *
+ * @author Frank Kopp
+ */
+final class ScoreList {
+
+  private int[] scores;
+  private long[] offsets;
+  private int size = 0;
+
+  ScoreList() {
+    this(4);
+  }
+
+  ScoreList(int initialCapacity) {
+    scores = new int[Math.max(1, initialCapacity)];
+    offsets = new long[scores.length];
+  }
+
+  /**
+   * Inserts at the leaderboard position. Appending (the common case when reading the log in
+   * order) is O(1).
+   *
+   * @param score
+   * @param offset
+   */
+  void insert(int score, long offset) {
+    int lo = 0;
+    int hi = size;
+    // fast path - new entry goes to the end
+    if (size > 0 && before(scores[size - 1], offsets[size - 1], score, offset)) {
+      lo = size;
+    }
+    while (lo < hi) {
+      final int mid = (lo + hi) >>> 1;
+      if (before(scores[mid], offsets[mid], score, offset)) lo = mid + 1;
+      else hi = mid;
+    }
+    if (size == scores.length) {
+      scores = Arrays.copyOf(scores, size * 2);
+      offsets = Arrays.copyOf(offsets, size * 2);
+    }
+    System.arraycopy(scores, lo, scores, lo + 1, size - lo);
+    System.arraycopy(offsets, lo, offsets, lo + 1, size - lo);
+    scores[lo] = score;
+    offsets[lo] = offset;
+    size++;
+  }
+
+  /**
+   * @param score
+   * @return number of entries with a higher score
+   */
+  int countAbove(int score) {
+    int lo = 0;
+    int hi = size;
+    while (lo < hi) {
+      final int mid = (lo + hi) >>> 1;
+      if (scores[mid] > score) lo = mid + 1;
+      else hi = mid;
+    }
+    return lo;
+  }
+
+  int score(int i) {
+    return scores[i];
+  }
+
+  long offset(int i) {
+    return offsets[i];
+  }
+
+  int size() {
+    return size;
+  }
+
+  void clear() {
+    size = 0;
+  }
+
+  /** @return true if entry 1 comes before entry 2 in the leaderboard */
+  static boolean before(int score1, long offset1, int score2, long offset2) {
+    return score1 != score2 ? score1 > score2 : offset1 < offset2;
+  }
+}
@@ -0,0 +1,85 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018 Frank Kopp
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+package fko.jarkanoid.model;
+
+import fko.jarkanoid.model.SoundManager.Clips;
+
+import java.io.IOException;
+import java.net.URL;
+
+/**
+ * AudioBackend
+ *
+ * <p>Plays the clips of the {@link SoundManager}. Clips are loaded on the sound manager's loader
+ * threads - different clips in parallel - and played and stopped on the audio thread of the
+ * {@link SoundDispatcher}.
+ *
+ * <p>The backend is chosen with the system property <code>jarkanoid.sound.backend</code>:
+ *
+ * <ul>
+ *   <li><code>javafx</code> - {@link JavaFxAudioBackend}, default
+ *   <li><code>mixer</code> - {@link MixerAudioBackend}, mixes PCM samples into a Java Sound line
+ *   <li><code>recording</code> - {@link RecordingAudioBackend}, records what would be played
+ *   <li><code>null</code> - {@link NullAudioBackend}, default if <code>java.awt.headless</code>
+ *       is set
+ * </ul>
+ *
+ * <p>19.10.2026
+ *
+ * @author Frank Kopp
+ */
+public interface AudioBackend {
+
+  /**
+   * Loads a clip so it can be played.
+   *
+   * @param clip
+   * @param url the wav file of the clip
+   * @return length of the clip in ns or -1 if unknown
+   * @throws IOException if the clip can't be loaded
+   */
+  long load(Clips clip, URL url) throws IOException;
+
+  /**
+   * Plays a loaded clip once.
+   *
+   * @param clip
+   * @param tick game tick the clip was requested at - -1 if unknown
+   */
+  void play(Clips clip, long tick);
+
+  /**
+   * Stops all voices of a clip which are still playing.
+   *
+   * @param clip
+   */
+  void stop(Clips clip);
+
+  /** Releases the resources of the backend. */
+  void close();
+
+  /** @return short name for logging */
+  String getName();
+}
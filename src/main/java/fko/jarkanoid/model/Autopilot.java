@@ -0,0 +1,97 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018 Frank Kopp
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+package fko.jarkanoid.model;
+
+import static fko.jarkanoid.model.HeadlessGame.*;
+
+/**
+ * Autopilot
+ *
+ * <p>Computer player for a {@link HeadlessGame}. Predicts where the ball will cross the paddle
+ * line and moves the paddle there. A skill below 1 adds a random aiming error each time the ball
+ * leaves the paddle so the autopilot occasionally misses - this makes it usable to estimate how
+ * hard a level is.
+ *
+ * <p>19.10.2026
+ *
+ * @author Frank Kopp
+ */
+public final class Autopilot {
+
+  private final double skill;
+  private long randomState;
+
+  // offset from the paddle center where the autopilot wants to hit the ball
+  private double aimOffset = 0;
+
+  /**
+   * @param skill 0 (poor) to 1 (perfect)
+   * @param seed seed for the aiming errors
+   */
+  public Autopilot(double skill, long seed) {
+    if (skill < 0 || skill > 1) throw new IllegalArgumentException("skill must be in [0,1]");
+    this.skill = skill;
+    this.randomState = seed;
+  }
+
+  /**
+   * @param game the game to play
+   * @return the paddle input for the next tick
+   */
+  public byte nextInput(HeadlessGame game) {
+    if (game.isBallOnPaddle() || (game.getEvents() & EVENT_HIT_PADDLE) != 0) {
+      // new aim: a perfect player hits with the inner part of the paddle, a poor one misses
+      aimOffset = (nextRandom() - 0.5) * PADDLE_WIDTH * (0.6 + 1.4 * (1 - skill));
+    }
+    if (game.isBallOnPaddle()) return INPUT_NONE;
+
+    final double targetX = predictBallX(game) - aimOffset;
+    final double paddleCenter = game.getPaddleX() + PADDLE_WIDTH / 2;
+    if (targetX < paddleCenter - 5) return INPUT_LEFT;
+    if (targetX > paddleCenter + 5) return INPUT_RIGHT;
+    return INPUT_NONE;
+  }
+
+  /** @return x coordinate where the ball will reach the paddle (ignoring bricks) */
+  private static double predictBallX(HeadlessGame game) {
+    final double vY = game.getBallYVelocity();
+    if (vY <= 0) return game.getBallX(); // ball goes up - follow it
+    final double ticks = (PADDLE_Y - BALL_RADIUS - game.getBallY()) / vY;
+    double x = game.getBallX() + game.getBallXVelocity() * Math.max(0, ticks);
+    // fold at the side walls
+    final double min = BALL_RADIUS;
+    final double range = PLAYFIELD_WIDTH - 2 * BALL_RADIUS;
+    double p = (x - min) % (2 * range);
+    if (p < 0) p += 2 * range;
+    return min + (p > range ? 2 * range - p : p);
+  }
+
+  private double nextRandom() {
+    long z = (randomState += 0x9E3779B97F4A7C15L);
+    z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+    z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+    return ((z ^ (z >>> 31)) >>> 11) * 0x1.0p-53;
+  }
+}
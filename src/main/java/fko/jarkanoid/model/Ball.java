@@ -27,6 +27,8 @@ package fko.jarkanoid.model;
 import javafx.beans.property.DoubleProperty;
 import javafx.beans.property.SimpleDoubleProperty;
 
+import java.util.function.DoubleSupplier;
+
 /**
  * Ball
  *
@@ -117,20 +119,23 @@ public class Ball {
   /** Creates a clone of the ball and randomly changes direction slightly */
   public Ball split() {
     final Ball newBall = new Ball(this);
-    nudgeBall(newBall);
+    newBall.nudgeBall();
     return newBall;
   }
 
   /** changes the direction of the ball slightly */
   public void nudgeBall() {
-    nudgeBall(this);
+    nudgeBall(Math::random);
   }
 
-  private void nudgeBall(final Ball newBall) {
-    newBall.setYVelocity(
-        newBall.getYVelocity() + (Math.random() - 0.5) * newBall.getYVelocity() / 5);
-    newBall.setXVelocity(
-        newBall.getXVelocity() + (Math.random() - 0.5) * newBall.getXVelocity() / 5);
+  /**
+   * Changes the direction of the ball slightly
+   *
+   * @param random source of random numbers in [0,1) - lets a simulation nudge reproducibly
+   */
+  public void nudgeBall(DoubleSupplier random) {
+    setYVelocity(vY + (random.getAsDouble() - 0.5) * vY / 5);
+    setXVelocity(vX + (random.getAsDouble() - 0.5) * vX / 5);
   }
 
   /**
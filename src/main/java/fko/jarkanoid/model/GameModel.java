@@ -73,38 +73,37 @@ public class GameModel extends Observable {
   private static final boolean BOUNCING_FLOOR = false;
 
   /*
-   * Constants for game dimensions and other relevant settings.
+   * Constants for game dimensions and other relevant settings - see GameRules.
    * Need to be aligned with FXML UI Design.
    */
   private static final int START_LEVEL = 1;
-  private static final int START_LIVES = 3;
+  private static final int START_LIVES = GameRules.START_LIVES;
 
-  private static final long SLEEP_BETWEEN_LIVES = 2000; // in ms
-  private static final long SLEEP_BETWEEN_LEVELS = 3000; // in ms
+  private static final long SLEEP_BETWEEN_LIVES = GameRules.SLEEP_BETWEEN_LIVES; // in ms
+  private static final long SLEEP_BETWEEN_LEVELS = GameRules.SLEEP_BETWEEN_LEVELS; // in ms
 
-  private static final double PLAYFIELD_INITIAL_HEIGHT = 710;
-  private static final double PLAYFIELD_INITIAL_WIDTH = 780;
+  private static final double PLAYFIELD_INITIAL_HEIGHT = GameRules.PLAYFIELD_HEIGHT;
+  private static final double PLAYFIELD_INITIAL_WIDTH = GameRules.PLAYFIELD_WIDTH;
 
   // paddle constants
   private static final double PADDLE_INITIAL_FRAMERATE = 120; // Framerate for paddle movements
   private static final double PADDLE_MOVE_STEPS = 5.0; // steps per animation cycle
-  private static final double PADDLE_INITIAL_Y = 670;
-  private static final double PADDLE_INITIAL_X = 315;
-  private static final double PADDEL_INITIAL_WIDTH = 150; // 150;
-  private static final double PADDLE_INITIAL_HEIGHT = 20;
+  private static final double PADDLE_INITIAL_Y = GameRules.PADDLE_Y;
+  private static final double PADDLE_INITIAL_X = GameRules.PADDLE_X;
+  private static final double PADDEL_INITIAL_WIDTH = GameRules.PADDLE_WIDTH;
+  private static final double PADDLE_INITIAL_HEIGHT = GameRules.PADDLE_HEIGHT;
   private static final float PADDLE_ENLARGEMENT_FACTOR = 1.4f;
 
   // Ball constants
-  private static final double BALL_INITIAL_RADIUS = 6;
-  private static final double BALL_MAX_ANGLE = 60;
+  private static final double BALL_INITIAL_RADIUS = GameRules.BALL_RADIUS;
   private static final double BALL_INITIAL_X = 390;
   private static final double BALL_INITIAL_Y = PADDLE_INITIAL_Y - BALL_INITIAL_RADIUS;
 
   // Absolute speed of ball, when vertical equals px in y, when horizontal equals px in x
-  private static final double BALL_INITIAL_SPEED = 10.0;
+  private static final double BALL_INITIAL_SPEED = GameRules.BALL_SPEED;
 
   // Framerate for game loop
-  private static final double INITIAL_FRAMERATE = 60;
+  private static final double INITIAL_FRAMERATE = GameRules.FRAMERATE;
 
   // Laser constants
   private static final double LASER_EDGE_OFFSET = 45;
@@ -124,7 +123,7 @@ public class GameModel extends Observable {
 
   // the maximum number the ball may bounce without hitting the paddle or destroying a brick
   // After this number the ball gets a random nudge in a different direction
-  private static final int MAX_NUMBER_OF_LOOP_HITS = 25;
+  private static final int MAX_NUMBER_OF_LOOP_HITS = GameRules.MAX_NUMBER_OF_LOOP_HITS;
 
   // the maximal entries in the highscore list
   public static final int HIGHSCORE_MAX_PLACE = 15;
@@ -206,6 +205,9 @@ public class GameModel extends Observable {
   private long commulativeLoopTime;
   private final DoubleProperty fps = new SimpleDoubleProperty(INITIAL_FRAMERATE);
 
+  // number of game loop ticks while playing - see tickProperty()
+  private final ReadOnlyLongWrapper tick = new ReadOnlyLongWrapper(0);
+
   // grower and skrinker timeline of paddles
   private final Timeline paddleGrower = new Timeline();
   private final Timeline paddleShrinker = new Timeline();
@@ -213,6 +215,9 @@ public class GameModel extends Observable {
   // counter since last paddle or brick hit to detect endless loops with gold bricks
   private int maxLoopHitsCounter = MAX_NUMBER_OF_LOOP_HITS;
 
+  // the playfield the collision rules work on
+  private final GameRules.Playfield playfield = new ModelPlayfield();
+
   // highscore manager
   private final HighScore highScoreManager = HighScore.getInstance();
 
@@ -306,12 +311,16 @@ public class GameModel extends Observable {
     LOG.info("Loading level {}", level);
 
     // load next level or game is won if non available
-    final Brick[][] newLevel = LevelLoader.getInstance().getLevel(level);
+    final LevelLoader levelLoader = LevelLoader.getInstance();
+    final Brick[][] newLevel = levelLoader.getLevel(level);
     if (newLevel == null) {
       gameOver(true);
       return;
     }
 
+    // keep this level and the prefetched next level in the level cache
+    levelLoader.pinLevel(level);
+
     // set the received level into the brickLayout
     brickLayout.setMatrix(newLevel);
 
@@ -376,7 +385,7 @@ public class GameModel extends Observable {
     ballManager.add(newBall);
 
     // move the ball with the paddle before start of game
-    bindBallToPaddle(newBall, paddleWidth.get() / 2 + 20);
+    bindBallToPaddle(newBall, paddleWidth.get() / 2 + GameRules.BALL_PADDLE_OFFSET);
 
     // show the ball for a short time then start the animation
     // check if the game has been stopped while we were waiting
@@ -440,6 +449,9 @@ public class GameModel extends Observable {
     commulativeLoopTime += lastloopTime;
 
     updateFPS();
+
+    // listeners (e.g. the recorder) see the completed game state of this tick
+    tick.set(tick.get() + 1);
   }
 
   /** Calculate some statistics */
@@ -747,37 +759,17 @@ public class GameModel extends Observable {
 
   /**
    * Checks if the ball(s) have hit a wall, the paddle, a block or has left through the bottom.
-   * Calculates new speeds for each direction, tells brickLayout if the ball hits a brick and calls
-   * <code>ballLost()</code> when ball has left through bottom.
+   * The collision rules are in <code>GameRules</code> which tells the <code>playfield</code> about
+   * each collision.
    */
   private void checkBallCollisions(Ball ball) {
-
-    /*
-     * We us intermediate discrete (<1) steps to avoid "tunneling" through objects.
-     * We use the last know ball position and we devide the the path from the last know position to the
-     * current position (after the moveBall() step) into x parts (x=velocity of ball). With this we should get
-     * setps in X and Y direction which are smaller than 1 and therefore should detect collissions very
-     * accurately.
-     */
-
-    // convenience variables
-    final double radius = ball.getRadius();
-    final double vY = ball.getYVelocity();
-    final double vX = ball.getXVelocity();
-    final double bY = ball.getCenterY();
-    final double bX = ball.getCenterX();
-    final double bpY = ball.getPreviousCenterY();
-    final double bpX = ball.getPreviousCenterX();
-
-    double cbY = bpY; // current Y set up previous Y
-    double cbX = bpX; // current
-
-    // step sizes
-    final double stepY = vY / 10;
-    final double stepX = vX / 10;
-    final double stepV = ball.getVelocity() / 10;
-
     if (LOG.isDebugEnabled()) { // to not even create the string when not logging
+      final double vY = ball.getYVelocity();
+      final double vX = ball.getXVelocity();
+      final double bY = ball.getCenterY();
+      final double bX = ball.getCenterX();
+      final double bpY = ball.getPreviousCenterY();
+      final double bpX = ball.getPreviousCenterX();
       LOG.debug(
           String.format(
               "FULL: vY: %6.2f  vX: %6.2f  v: %6.2f  CURRENT     : Y: %8.2f X: %8.2f PREVIOUS: Y: %8.2f X: %8.2f *** loop=%d",
@@ -790,218 +782,103 @@ public class GameModel extends Observable {
       }
     }
 
-    // do discrete intermediate steps
-    for (int t = 1; t <= ball.getVelocity(); t++) {
+    GameRules.checkBallCollisions(ball, playfield);
+  }
 
-      // advance current ball center position by 1 step
-      cbY += stepY;
-      cbX += stepX;
+  /** The playfield of this model as seen by <code>GameRules</code>. */
+  private final class ModelPlayfield implements GameRules.Playfield {
 
-      if (LOG.isDebugEnabled()) { // to not even create the string when not logging
-        LOG.debug(
-            String.format(
-                "STEP: vY: %6.2f  vX: %6.2f  v: %6.2f  INTERMEDIATE: Y: %8.2f X: %8.2f",
-                stepY, stepX, stepV, cbY, cbX));
-      }
+    @Override
+    public double getWidth() {
+      return playfieldWidth.get();
+    }
 
-      // ************************
-      //  Collossion Check Bricks
-      // ************************
-
-      /*
-       * Instead of having an list of all bricks to check against we use the fact that bricks
-       * or poistion in a regular matrix of 13 columns and 18 rows. Collission could therefore
-       * be reduced to calculate the position of the ball within in this matrix. When the cell
-       * the ball is in has a brick then there is a collision.
-       * Problem is "tunneling" and multiple collissions at the same time. They could lead to
-       * a false bouncing angle.
-       * This will be prevented be also checking where the ball is coming from a only allowing
-       * one collission at a time. Usually multiple collissions within the same step should be
-       * rare as we have very small intermediate steps (<1 in each direction). In case they do
-       * happen there should be no harm in ignoring one of them.
-       */
-
-      // calculate ball center's brick cell
-      final int ballCenterRow = (int) (cbY / (brickLayout.getBrickHeight()));
-      final int ballCenterCol = (int) (cbX / (brickLayout.getBrickWidth()));
-
-      // calculate ball edge's brick cell
-      final int ballUpperRow = (int) ((cbY - radius) / brickLayout.getBrickHeight());
-      final int ballLowerRow = (int) ((cbY + radius) / brickLayout.getBrickHeight());
-      final int ballLeftCol = (int) ((cbX - radius) / brickLayout.getBrickWidth());
-      final int ballRightCol = (int) ((cbX + radius) / brickLayout.getBrickWidth());
-
-      int hitCounter = 0;
-      if (vY < 0 && brickLayout.getBrick(ballUpperRow, ballCenterCol) != null) {
-        hitCounter |= 1; // top
-      }
-      if (vX >= 0 && brickLayout.getBrick(ballCenterRow, ballRightCol) != null) {
-        hitCounter |= 2; // right
-      }
-      if (vX < 0 && brickLayout.getBrick(ballCenterRow, ballLeftCol) != null) {
-        hitCounter |= 4; // left
-      }
-      if (vY > 0 && brickLayout.getBrick(ballLowerRow, ballCenterCol) != null) {
-        hitCounter |= 8; // bottom
-      }
-      if (Integer.bitCount(hitCounter) > 1) {
-        LOG.info("MULTIPLE HIT trlb={}", Integer.toBinaryString(hitCounter));
-      }
+    @Override
+    public double getHeight() {
+      return playfieldHeight.get();
+    }
 
-      // hit above
-      if (vY < 0 && brickLayout.getBrick(ballUpperRow, ballCenterCol) != null) {
-        brickHit(ballUpperRow, ballCenterCol);
-        setChanged();
-        notifyObservers(new GameEvent(GameEventType.HIT_BRICK, ballUpperRow, ballCenterCol, ball));
-        ball.inverseYdirection();
-        // actually set the ball exactly onto the intermediate location and return for the next step
-        ball.setCenterX(cbX - stepX);
-        ball.setCenterY(cbY - stepY);
-        // relevant Hit?
-        maxLoopHitsCounter--;
-        return;
-      }
+    @Override
+    public double getBrickWidth() {
+      return brickLayout.getBrickWidth();
+    }
 
-      // hit right
-      if (vX >= 0 && brickLayout.getBrick(ballCenterRow, ballRightCol) != null) {
-        brickHit(ballCenterRow, ballRightCol);
-        setChanged();
-        notifyObservers(new GameEvent(GameEventType.HIT_BRICK, ballCenterRow, ballRightCol, ball));
-        ball.inverseXdirection();
-        // actually set the ball exactly onto the intermediate location and return for the next step
-        ball.setCenterX(cbX - stepX);
-        ball.setCenterY(cbY - stepY);
-        // relevant Hit?
-        maxLoopHitsCounter--;
-        return;
-      }
+    @Override
+    public double getBrickHeight() {
+      return brickLayout.getBrickHeight();
+    }
 
-      // hit left
-      if (vX < 0 && brickLayout.getBrick(ballCenterRow, ballLeftCol) != null) {
-        brickHit(ballCenterRow, ballLeftCol);
-        setChanged();
-        notifyObservers(new GameEvent(GameEventType.HIT_BRICK, ballCenterRow, ballLeftCol, ball));
-        ball.inverseXdirection();
-        // actually set the ball exactly onto the intermediate location and return for the next step
-        ball.setCenterX(cbX - stepX);
-        ball.setCenterY(cbY - stepY);
-        // relevant Hit?
-        maxLoopHitsCounter--;
-        return;
-      }
+    @Override
+    public Brick getBrick(int row, int col) {
+      return brickLayout.getBrick(row, col);
+    }
 
-      // hit below
-      if (vY > 0 && brickLayout.getBrick(ballLowerRow, ballCenterCol) != null) {
-        brickHit(ballLowerRow, ballCenterCol);
-        setChanged();
-        notifyObservers(new GameEvent(GameEventType.HIT_BRICK, ballLowerRow, ballCenterCol, ball));
-        ball.inverseYdirection();
-        // actually set the ball exactly onto the intermediate location and return for the next step
-        ball.setCenterX(cbX - stepX);
-        ball.setCenterY(cbY - stepY);
-        // relevant Hit?
-        maxLoopHitsCounter--;
-        return;
-      }
+    @Override
+    public double getPaddleX() {
+      return paddleX.get();
+    }
 
-      // ************************
-      //  Collossion Check Paddle
-      // ************************
+    @Override
+    public double getPaddleY() {
+      return paddleY.get();
+    }
 
-      if (ball.intersects(paddleX.get(), paddleY.get(), paddleWidth.get(), paddleHeight.get())) {
+    @Override
+    public double getPaddleWidth() {
+      return paddleWidth.get();
+    }
 
-        // relevant Hit - yes - reset
-        maxLoopHitsCounter = MAX_NUMBER_OF_LOOP_HITS;
+    @Override
+    public double getPaddleHeight() {
+      return paddleHeight.get();
+    }
 
-        // determine where the ball hit the paddle
-        final double hitPointAbsolute = ball.getCenterX() - paddleX.get();
-        // normalize value to -1 (left), 0 (center), +1 (right)
-        final double hitPointRelative = 2 * ((hitPointAbsolute / paddleWidth.get()) - 0.5);
-        // determine new angle
-        final double newAngle = hitPointRelative * BALL_MAX_ANGLE;
-
-        // give the ball the new angle always upwards
-        ball.bounceFromPaddle(newAngle);
-
-        // check if we should catch the ball
-        if (activePower.get().equals(PowerPillType.CATCH)
-            && !ballCatchedFlag // not already catched
-            && ballManager.size() == 1) { // only when only one ball in play
-          ballCatchedFlag = true;
-          bindBallToPaddle(ball, hitPointAbsolute);
-          setChanged();
-          notifyObservers(new GameEvent(GameEventType.CAUGHT));
-        } else {
-          setChanged();
-          notifyObservers(new GameEvent(GameEventType.HIT_PADDLE, ball));
-          // actually set the ball exactly onto the intermediate location and return for the next
-          // step
-          ball.setCenterX(cbX);
-          ball.setCenterY(cbY);
-          return;
-        }
-      }
+    @Override
+    public void brickHit(Ball ball, int row, int col) {
+      GameModel.this.brickHit(row, col);
+      setChanged();
+      notifyObservers(new GameEvent(GameEventType.HIT_BRICK, row, col, ball));
+      // relevant Hit?
+      maxLoopHitsCounter--;
+    }
 
-      // ****************************
-      //  Collossion Check Side Walls
-      // ****************************
+    @Override
+    public void paddleHit(Ball ball, double hitPoint) {
+      // relevant Hit - yes - reset
+      maxLoopHitsCounter = MAX_NUMBER_OF_LOOP_HITS;
 
-      if (ball.getLeftBound() <= 0) { // left
+      // check if we should catch the ball
+      if (activePower.get().equals(PowerPillType.CATCH)
+          && !ballCatchedFlag // not already catched
+          && ballManager.size() == 1) { // only when only one ball in play
+        ballCatchedFlag = true;
+        bindBallToPaddle(ball, hitPoint);
         setChanged();
-        notifyObservers(new GameEvent(GameEventType.HIT_WALL, ball));
-        ball.inverseXdirection();
-        // actually set the ball exactly onto the intermediate location and return for the next step
-        ball.setCenterX(cbX);
-        ball.setCenterY(cbY);
-        // relevant Hit?
-        maxLoopHitsCounter--;
-        return;
-      } else if (ball.getRightBound() >= playfieldWidth.get()) { // right
+        notifyObservers(new GameEvent(GameEventType.CAUGHT));
+      } else {
         setChanged();
-        notifyObservers(new GameEvent(GameEventType.HIT_WALL, ball));
-        ball.inverseXdirection();
-        // actually set the ball exactly onto the intermediate location and return for the next step
-        ball.setCenterX(cbX);
-        ball.setCenterY(cbY);
-        // relevant Hit?
-        maxLoopHitsCounter--;
-        return;
+        notifyObservers(new GameEvent(GameEventType.HIT_PADDLE, ball));
       }
+    }
 
-      // **************************
-      //  Collossion Check TOP WALL
-      // **************************
-      if (ball.getUpperBound() <= 0) {
-        setChanged();
-        notifyObservers(new GameEvent(GameEventType.HIT_WALL, ball));
+    @Override
+    public void wallHit(Ball ball) {
+      setChanged();
+      notifyObservers(new GameEvent(GameEventType.HIT_WALL, ball));
+      // relevant Hit?
+      maxLoopHitsCounter--;
+    }
+
+    @Override
+    public void ballLost(Ball ball) {
+      if (BOUNCING_FLOOR) {
         ball.inverseYdirection();
-        // actually set the ball exactly onto the intermediate location and return for the next step
-        ball.setCenterX(cbX);
-        ball.setCenterY(cbY);
+      } else {
+        ball.markForRemoval();
         // relevant Hit?
-        maxLoopHitsCounter--;
-        return;
-      }
-
-      // ************************
-      //  Collossion Check Bottom
-      // ************************
-
-      if (ball.getUpperBound() >= playfieldHeight.get()) {
-        if (BOUNCING_FLOOR) {
-          ball.inverseYdirection();
-        } else {
-          ball.markForRemoval();
-          // actually set the ball exactly onto the intermediate location and return for the next
-          // step
-          ball.setCenterX(cbX);
-          ball.setCenterY(cbY);
-          // relevant Hit?
-          maxLoopHitsCounter = MAX_NUMBER_OF_LOOP_HITS;
-        }
-        return;
+        maxLoopHitsCounter = MAX_NUMBER_OF_LOOP_HITS;
       }
-    } // end for intermediate step
+    }
   }
 
   /**
@@ -1050,15 +927,17 @@ public class GameModel extends Observable {
       setChanged();
       notifyObservers(new GameEvent(GameEventType.GAME_OVER));
     }
-    // new highscore (1st until 15th place)
-    if (highScoreManager.getList().size() < HIGHSCORE_MAX_PLACE - 1
-        || currentScore.get() > highScoreManager.getList().get(HIGHSCORE_MAX_PLACE - 1).score) {
+    // new highscore (1st until 15th place) - checking and adding is one atomic step
+    // This is the local list and it is not verified - games played here are not recorded and
+    // can't be replayed. Only HeadlessGame replays go through the leaderboard's ReplayVerifier.
+    if (highScoreManager.qualifies(currentScore.get())) {
       HighScore.HighScoreEntry entry =
           new HighScore.HighScoreEntry(
               playerName.get(), currentScore.get(), currentLevel.get(), LocalDateTime.now());
-      highScoreManager.addEntryAndSave(entry);
-      setChanged();
-      notifyObservers(new GameEvent(GameEventType.NEW_HIGHSCORE, entry));
+      if (highScoreManager.addEntryAndSave(entry)) {
+        setChanged();
+        notifyObservers(new GameEvent(GameEventType.NEW_HIGHSCORE, entry));
+      }
     }
   }
 
@@ -1068,21 +947,13 @@ public class GameModel extends Observable {
    * @param hitBrickScore
    */
   private void increaseScore(final BrickType brickType, int hitBrickScore) {
-    if (brickType.equals(BrickType.SILVER)) { // Silver brick is special case
-      hitBrickScore = currentLevel.get() * hitBrickScore;
-    }
     final int previousScore = currentScore.get();
-    final int newScore = previousScore + hitBrickScore;
+    final int newScore =
+        previousScore + GameRules.brickScore(brickType, hitBrickScore, currentLevel.get());
     currentScore.set(newScore);
     // add new lives after 20.000 and after every other 60.000 points
-    if (previousScore < 20000 && newScore > 20000) {
+    if (GameRules.isExtraLife(previousScore, newScore)) {
       increaeRemainingLives();
-    } else if (previousScore > 20000) {
-      int modBefore = previousScore / 60000;
-      int modAfter = newScore / 60000;
-      if (modAfter > modBefore) {
-        increaeRemainingLives();
-      }
     }
   }
 
@@ -1290,6 +1161,14 @@ public class GameModel extends Observable {
     return fps;
   }
 
+  /**
+   * @return number of game loop ticks while playing - increased after the game state of a tick has
+   *     been updated, on the FX thread
+   */
+  public ReadOnlyLongProperty tickProperty() {
+    return tick.getReadOnlyProperty();
+  }
+
   public ListProperty<Ball> getBallManager() {
     return ballManager;
   }
@@ -0,0 +1,321 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018 Frank Kopp
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+package fko.jarkanoid.model;
+
+/**
+ * GameRules
+ *
+ * <p>The dimensions, speeds, collision handling and scoring rules of the game. <code>GameModel
+ * </code> and <code>HeadlessGame</code> both play by these rules so a headless simulation of a
+ * game moves the ball exactly like the real game does.
+ *
+ * <p>19.10.2026
+ *
+ * @author Frank Kopp
+ */
+final class GameRules {
+
+  /*
+   * Constants for game dimensions and other relevant settings.
+   * Need to be aligned with FXML UI Design.
+   */
+  static final double PLAYFIELD_WIDTH = 780;
+  static final double PLAYFIELD_HEIGHT = 710;
+
+  static final int START_LIVES = 3;
+
+  static final long SLEEP_BETWEEN_LIVES = 2000; // in ms
+  static final long SLEEP_BETWEEN_LEVELS = 3000; // in ms
+
+  // Framerate for game loop
+  static final double FRAMERATE = 60;
+
+  // paddle constants
+  static final double PADDLE_X = 315;
+  static final double PADDLE_Y = 670;
+  static final double PADDLE_WIDTH = 150;
+  static final double PADDLE_HEIGHT = 20;
+
+  // Ball constants
+  static final double BALL_RADIUS = 6;
+  static final double BALL_MAX_ANGLE = 60;
+  // Absolute speed of ball, when vertical equals px in y, when horizontal equals px in x
+  static final double BALL_SPEED = 10.0;
+  // a new ball waits slightly to the right of the middle of the paddle
+  static final double BALL_PADDLE_OFFSET = 20;
+
+  // the maximum number the ball may bounce without hitting the paddle or destroying a brick
+  // After this number the ball gets a random nudge in a different direction
+  static final int MAX_NUMBER_OF_LOOP_HITS = 25;
+
+  private GameRules() {}
+
+  /**
+   * The playfield a ball moves in. Supplies the current dimensions and the bricks and is told
+   * about every collision.
+   */
+  interface Playfield {
+
+    double getWidth();
+
+    double getHeight();
+
+    double getBrickWidth();
+
+    double getBrickHeight();
+
+    /** @return the brick at this cell or null if there is none or the cell is outside */
+    Brick getBrick(int row, int col);
+
+    double getPaddleX();
+
+    double getPaddleY();
+
+    double getPaddleWidth();
+
+    double getPaddleHeight();
+
+    /** The ball hit the brick - called before the ball bounces. */
+    void brickHit(Ball ball, int row, int col);
+
+    /** The ball bounced from the paddle - hitPoint is the distance from the paddle's left. */
+    void paddleHit(Ball ball, double hitPoint);
+
+    /** The ball bounced from a side wall or the top wall. */
+    void wallHit(Ball ball);
+
+    /** The ball has left the playfield through the bottom. */
+    void ballLost(Ball ball);
+  }
+
+  /**
+   * Creates a new ball and places it onto the paddle. It falls onto the paddle when released and
+   * gets its angle from there.
+   *
+   * @param paddleX left of the paddle
+   * @param paddleY top of the paddle
+   * @param xLocationOnPaddle where on the paddle the ball lies
+   * @return new ball
+   */
+  static Ball newBall(double paddleX, double paddleY, double xLocationOnPaddle) {
+    return new Ball(
+        paddleX + xLocationOnPaddle, paddleY - BALL_RADIUS - 1.0, BALL_RADIUS, 0, BALL_SPEED);
+  }
+
+  /**
+   * Checks if the ball has hit a wall, the paddle, a brick or has left through the bottom since
+   * its last move. Handles the first collision on the way - the ball is set onto the intermediate
+   * location of the collision and gets its new direction.
+   *
+   * @param ball the ball after its <code>moveStep()</code>
+   * @param field the playfield
+   */
+  static void checkBallCollisions(Ball ball, Playfield field) {
+
+    /*
+     * We us intermediate discrete (<1) steps to avoid "tunneling" through objects.
+     * We use the last know ball position and we devide the the path from the last know position
+     * to the current position (after the moveBall() step) into x parts (x=velocity of ball).
+     * With this we should get setps in X and Y direction which are smaller than 1 and therefore
+     * should detect collissions very accurately.
+     */
+
+    // convenience variables
+    final double radius = ball.getRadius();
+    final double vY = ball.getYVelocity();
+    final double vX = ball.getXVelocity();
+
+    double cbY = ball.getPreviousCenterY(); // current Y set up previous Y
+    double cbX = ball.getPreviousCenterX(); // current
+
+    // step sizes
+    final double stepY = vY / 10;
+    final double stepX = vX / 10;
+
+    final double brickHeight = field.getBrickHeight();
+    final double brickWidth = field.getBrickWidth();
+
+    // do discrete intermediate steps
+    for (int t = 1; t <= ball.getVelocity(); t++) {
+
+      // advance current ball center position by 1 step
+      cbY += stepY;
+      cbX += stepX;
+
+      // ************************
+      //  Collossion Check Bricks
+      // ************************
+
+      /*
+       * Instead of having an list of all bricks to check against we use the fact that bricks
+       * or poistion in a regular matrix of 13 columns and 18 rows. Collission could therefore
+       * be reduced to calculate the position of the ball within in this matrix. When the cell
+       * the ball is in has a brick then there is a collision.
+       * Problem is "tunneling" and multiple collissions at the same time. They could lead to
+       * a false bouncing angle.
+       * This will be prevented be also checking where the ball is coming from a only allowing
+       * one collission at a time. Usually multiple collissions within the same step should be
+       * rare as we have very small intermediate steps (<1 in each direction). In case they do
+       * happen there should be no harm in ignoring one of them.
+       */
+
+      // calculate ball center's brick cell
+      final int ballCenterRow = (int) (cbY / brickHeight);
+      final int ballCenterCol = (int) (cbX / brickWidth);
+
+      // calculate ball edge's brick cell
+      final int ballUpperRow = (int) ((cbY - radius) / brickHeight);
+      final int ballLowerRow = (int) ((cbY + radius) / brickHeight);
+      final int ballLeftCol = (int) ((cbX - radius) / brickWidth);
+      final int ballRightCol = (int) ((cbX + radius) / brickWidth);
+
+      // hit above
+      if (vY < 0 && field.getBrick(ballUpperRow, ballCenterCol) != null) {
+        field.brickHit(ball, ballUpperRow, ballCenterCol);
+        ball.inverseYdirection();
+        // actually set the ball exactly onto the intermediate location and return for the next step
+        setCenter(ball, cbX - stepX, cbY - stepY);
+        return;
+      }
+
+      // hit right
+      if (vX >= 0 && field.getBrick(ballCenterRow, ballRightCol) != null) {
+        field.brickHit(ball, ballCenterRow, ballRightCol);
+        ball.inverseXdirection();
+        setCenter(ball, cbX - stepX, cbY - stepY);
+        return;
+      }
+
+      // hit left
+      if (vX < 0 && field.getBrick(ballCenterRow, ballLeftCol) != null) {
+        field.brickHit(ball, ballCenterRow, ballLeftCol);
+        ball.inverseXdirection();
+        setCenter(ball, cbX - stepX, cbY - stepY);
+        return;
+      }
+
+      // hit below
+      if (vY > 0 && field.getBrick(ballLowerRow, ballCenterCol) != null) {
+        field.brickHit(ball, ballLowerRow, ballCenterCol);
+        ball.inverseYdirection();
+        setCenter(ball, cbX - stepX, cbY - stepY);
+        return;
+      }
+
+      // ************************
+      //  Collossion Check Paddle
+      // ************************
+
+      final double paddleX = field.getPaddleX();
+      final double paddleWidth = field.getPaddleWidth();
+      if (ball.intersects(paddleX, field.getPaddleY(), paddleWidth, field.getPaddleHeight())) {
+        // determine where the ball hit the paddle
+        final double hitPointAbsolute = ball.getCenterX() - paddleX;
+        // give the ball the new angle always upwards
+        ball.bounceFromPaddle(paddleAngle(hitPointAbsolute, paddleWidth));
+        setCenter(ball, cbX, cbY);
+        field.paddleHit(ball, hitPointAbsolute);
+        return;
+      }
+
+      // ****************************
+      //  Collossion Check Side Walls
+      // ****************************
+
+      if (ball.getLeftBound() <= 0 || ball.getRightBound() >= field.getWidth()) {
+        ball.inverseXdirection();
+        setCenter(ball, cbX, cbY);
+        field.wallHit(ball);
+        return;
+      }
+
+      // **************************
+      //  Collossion Check TOP WALL
+      // **************************
+
+      if (ball.getUpperBound() <= 0) {
+        ball.inverseYdirection();
+        setCenter(ball, cbX, cbY);
+        field.wallHit(ball);
+        return;
+      }
+
+      // ************************
+      //  Collossion Check Bottom
+      // ************************
+
+      if (ball.getUpperBound() >= field.getHeight()) {
+        setCenter(ball, cbX, cbY);
+        field.ballLost(ball);
+        return;
+      }
+    } // end for intermediate step
+  }
+
+  /**
+   * @param hitPoint where the ball hit the paddle measured from the paddle's left
+   * @param paddleWidth
+   * @return the angle in degrees the ball bounces from the paddle (0 is straight up)
+   */
+  static double paddleAngle(double hitPoint, double paddleWidth) {
+    // normalize value to -1 (left), 0 (center), +1 (right)
+    final double hitPointRelative = 2 * ((hitPoint / paddleWidth) - 0.5);
+    return hitPointRelative * BALL_MAX_ANGLE;
+  }
+
+  /**
+   * @param brickType type of the hit brick
+   * @param points the points the hit brick gave
+   * @param level the current level
+   * @return the points for the score - silver bricks are worth more in higher levels
+   */
+  static int brickScore(BrickType brickType, int points, int level) {
+    if (brickType.equals(BrickType.SILVER)) { // Silver brick is special case
+      return level * points;
+    }
+    return points;
+  }
+
+  /**
+   * New lives are given after 20.000 and after every other 60.000 points.
+   *
+   * @param previousScore
+   * @param newScore
+   * @return true if the new score earns a new life
+   */
+  static boolean isExtraLife(int previousScore, int newScore) {
+    if (previousScore < 20000 && newScore > 20000) {
+      return true;
+    } else if (previousScore > 20000) {
+      return newScore / 60000 > previousScore / 60000;
+    }
+    return false;
+  }
+
+  private static void setCenter(Ball ball, double x, double y) {
+    ball.setCenterX(x);
+    ball.setCenterY(y);
+  }
+}
@@ -0,0 +1,434 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018 Frank Kopp
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+package fko.jarkanoid.model;
+
+import java.util.function.IntFunction;
+
+/**
+ * HeadlessGame
+ *
+ * <p>A deterministic, single threaded simulation of a game without JavaFX timelines, properties
+ * or sound. It is advanced tick by tick (one tick equals one frame of the 60 fps game loop of
+ * <code>GameModel</code>) with a paddle input for each tick.<br>
+ * Given the same levels, seed and inputs a game always produces exactly the same result. This is
+ * what level generation, replay verification and offline rendering build on.
+ *
+ * <p>The simulation plays by the same <code>GameRules</code> as <code>GameModel</code> - the ball
+ * moves and collides exactly like in the real game. There is only one ball and power pills are not
+ * simulated.
+ *
+ * <p>19.10.2026
+ *
+ * @author Frank Kopp
+ */
+public final class HeadlessGame {
+
+  // paddle inputs per tick
+  public static final byte INPUT_NONE = 0;
+  public static final byte INPUT_LEFT = -1;
+  public static final byte INPUT_RIGHT = 1;
+
+  // event flags of the last tick
+  public static final int EVENT_HIT_BRICK = 1;
+  public static final int EVENT_HIT_PADDLE = 1 << 1;
+  public static final int EVENT_HIT_WALL = 1 << 2;
+  public static final int EVENT_BALL_LOST = 1 << 3;
+  public static final int EVENT_LEVEL_COMPLETE = 1 << 4;
+  public static final int EVENT_NEW_LIFE = 1 << 5;
+  public static final int EVENT_GAME_OVER = 1 << 6;
+
+  // dimensions - see GameRules
+  public static final double PLAYFIELD_WIDTH = GameRules.PLAYFIELD_WIDTH;
+  public static final double PLAYFIELD_HEIGHT = GameRules.PLAYFIELD_HEIGHT;
+  public static final double PADDLE_Y = GameRules.PADDLE_Y;
+  public static final double PADDLE_WIDTH = GameRules.PADDLE_WIDTH;
+  public static final double PADDLE_HEIGHT = GameRules.PADDLE_HEIGHT;
+  public static final double BALL_RADIUS = GameRules.BALL_RADIUS;
+  public static final double BRICK_WIDTH = PLAYFIELD_WIDTH / BrickLayout.COLUMNS;
+  public static final double BRICK_HEIGHT = (PLAYFIELD_HEIGHT * 0.6) / BrickLayout.ROWS;
+
+  private static final double PADDLE_STEP = 10; // 5px at 120 fps in GameModel
+  private static final int START_LIVES = GameRules.START_LIVES;
+  private static final int LAUNCH_TICKS =
+      (int) (GameRules.SLEEP_BETWEEN_LIVES * GameRules.FRAMERATE / 1000);
+  private static final int NEXT_LEVEL_TICKS =
+      (int) (GameRules.SLEEP_BETWEEN_LEVELS * GameRules.FRAMERATE / 1000);
+  private static final int MAX_NUMBER_OF_LOOP_HITS = GameRules.MAX_NUMBER_OF_LOOP_HITS;
+
+  // source of the levels - returns null when there are no more levels
+  private final IntFunction<Brick[][]> levels;
+
+  private Brick[][] matrix;
+  private int bricksLeft;
+
+  private int level;
+  private int score = 0;
+  private int lives = START_LIVES;
+  private long tick = 0;
+
+  private double paddleX = GameRules.PADDLE_X;
+  private Ball ball;
+  private int launchCountdown = LAUNCH_TICKS;
+  private int loopHits = MAX_NUMBER_OF_LOOP_HITS;
+
+  private int events = 0;
+  private int ballsLost = 0;
+  private int bricksDestroyed = 0;
+  private boolean over = false;
+  private boolean won = false;
+
+  // state of the SplitMix64 random generator - a plain long so snapshots are cheap
+  private long randomState;
+
+  private final GameRules.Playfield playfield = new HeadlessPlayfield();
+
+  /**
+   * Creates a game which is played through all levels the given function supplies.
+   *
+   * @param levels returns a fresh (deep copied) level matrix for a level number or null if there
+   *     is no such level
+   * @param startLevel level to start with
+   * @param seed seed for all random decisions of the simulation
+   */
+  public HeadlessGame(IntFunction<Brick[][]> levels, int startLevel, long seed) {
+    this.levels = levels;
+    this.level = startLevel;
+    this.randomState = seed;
+    this.matrix = levels.apply(startLevel);
+    if (matrix == null) throw new IllegalArgumentException("No such level: " + startLevel);
+    countBricks();
+    placeBallOnPaddle();
+  }
+
+  /**
+   * Creates a game with a single level. The game is won when this level is cleared.
+   *
+   * @param level the level template - it is copied and not modified
+   * @param seed seed for all random decisions of the simulation
+   * @return new game
+   */
+  public static HeadlessGame forLevel(Brick[][] level, long seed) {
+    return new HeadlessGame(i -> i == 1 ? copyMatrix(level) : null, 1, seed);
+  }
+
+  /**
+   * Copy constructor - creates an independent snapshot of the given game.
+   *
+   * @param other the game to copy
+   */
+  public HeadlessGame(HeadlessGame other) {
+    this.levels = other.levels;
+    this.matrix = copyMatrix(other.matrix);
+    this.bricksLeft = other.bricksLeft;
+    this.level = other.level;
+    this.score = other.score;
+    this.lives = other.lives;
+    this.tick = other.tick;
+    this.paddleX = other.paddleX;
+    this.ball = new Ball(other.ball);
+    this.launchCountdown = other.launchCountdown;
+    this.loopHits = other.loopHits;
+    this.events = other.events;
+    this.ballsLost = other.ballsLost;
+    this.bricksDestroyed = other.bricksDestroyed;
+    this.over = other.over;
+    this.won = other.won;
+    this.randomState = other.randomState;
+  }
+
+  /**
+   * Advances the game by one tick.
+   *
+   * @param input one of INPUT_NONE, INPUT_LEFT, INPUT_RIGHT
+   */
+  public void tick(byte input) {
+    if (over) return;
+    tick++;
+    events = 0;
+
+    // paddle
+    paddleX += Integer.signum(input) * PADDLE_STEP;
+    if (paddleX < 0) paddleX = 0;
+    if (paddleX + PADDLE_WIDTH > PLAYFIELD_WIDTH) paddleX = PLAYFIELD_WIDTH - PADDLE_WIDTH;
+
+    // ball waiting on the paddle
+    if (launchCountdown > 0) {
+      --launchCountdown;
+      placeBallOnPaddle();
+      return;
+    }
+
+    ball.moveStep();
+    GameRules.checkBallCollisions(ball, playfield);
+
+    // ball caught in loop?
+    if (loopHits <= 0) {
+      ball.nudgeBall(this::nextRandom);
+      loopHits = MAX_NUMBER_OF_LOOP_HITS;
+    }
+
+    if (bricksLeft == 0) nextLevel();
+  }
+
+  /** The playfield of this game as seen by <code>GameRules</code>. */
+  private final class HeadlessPlayfield implements GameRules.Playfield {
+
+    @Override
+    public double getWidth() {
+      return PLAYFIELD_WIDTH;
+    }
+
+    @Override
+    public double getHeight() {
+      return PLAYFIELD_HEIGHT;
+    }
+
+    @Override
+    public double getBrickWidth() {
+      return BRICK_WIDTH;
+    }
+
+    @Override
+    public double getBrickHeight() {
+      return BRICK_HEIGHT;
+    }
+
+    @Override
+    public Brick getBrick(int row, int col) {
+      if (row < 0 || col < 0 || row >= BrickLayout.ROWS || col >= BrickLayout.COLUMNS) {
+        return null;
+      }
+      return matrix[row][col];
+    }
+
+    @Override
+    public double getPaddleX() {
+      return paddleX;
+    }
+
+    @Override
+    public double getPaddleY() {
+      return PADDLE_Y;
+    }
+
+    @Override
+    public double getPaddleWidth() {
+      return PADDLE_WIDTH;
+    }
+
+    @Override
+    public double getPaddleHeight() {
+      return PADDLE_HEIGHT;
+    }
+
+    @Override
+    public void brickHit(Ball ball, int row, int col) {
+      events |= EVENT_HIT_BRICK;
+      final Brick brick = matrix[row][col];
+      if (brick.increaseHitCount() == 0) {
+        matrix[row][col] = null;
+        bricksLeft--;
+        bricksDestroyed++;
+        loopHits = MAX_NUMBER_OF_LOOP_HITS;
+        increaseScore(GameRules.brickScore(brick.getType(), brick.getPoints(), level));
+      }
+      loopHits--;
+    }
+
+    @Override
+    public void paddleHit(Ball ball, double hitPoint) {
+      events |= EVENT_HIT_PADDLE;
+      loopHits = MAX_NUMBER_OF_LOOP_HITS;
+    }
+
+    @Override
+    public void wallHit(Ball ball) {
+      events |= EVENT_HIT_WALL;
+      loopHits--;
+    }
+
+    @Override
+    public void ballLost(Ball ball) {
+      HeadlessGame.this.ballLost();
+    }
+  }
+
+  /** Adds points and extra lives - see <code>GameRules</code>. */
+  private void increaseScore(int points) {
+    final int previousScore = score;
+    score += points;
+    if (GameRules.isExtraLife(previousScore, score)) {
+      lives++;
+      events |= EVENT_NEW_LIFE;
+    }
+  }
+
+  private void ballLost() {
+    events |= EVENT_BALL_LOST;
+    ballsLost++;
+    loopHits = MAX_NUMBER_OF_LOOP_HITS;
+    if (--lives < 0) {
+      lives = 0;
+      over = true;
+      events |= EVENT_GAME_OVER;
+      return;
+    }
+    launchCountdown = LAUNCH_TICKS;
+    placeBallOnPaddle();
+  }
+
+  private void nextLevel() {
+    events |= EVENT_LEVEL_COMPLETE;
+    final Brick[][] next = levels.apply(level + 1);
+    if (next == null) {
+      over = true;
+      won = true;
+      events |= EVENT_GAME_OVER;
+      return;
+    }
+    level++;
+    matrix = next;
+    countBricks();
+    launchCountdown = NEXT_LEVEL_TICKS;
+    placeBallOnPaddle();
+  }
+
+  /** a new ball waits on the paddle - like the ball bound to the paddle in GameModel */
+  private void placeBallOnPaddle() {
+    ball = GameRules.newBall(paddleX, PADDLE_Y, PADDLE_WIDTH / 2 + GameRules.BALL_PADDLE_OFFSET);
+  }
+
+  private void countBricks() {
+    bricksLeft = 0;
+    for (Brick[] row : matrix) {
+      for (Brick brick : row) {
+        if (brick != null && brick.getType() != BrickType.GOLD) bricksLeft++;
+      }
+    }
+  }
+
+  /** @return the next random number in [0,1) - SplitMix64 */
+  double nextRandom() {
+    long z = (randomState += 0x9E3779B97F4A7C15L);
+    z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+    z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+    z = z ^ (z >>> 31);
+    return (z >>> 11) * 0x1.0p-53;
+  }
+
+  /**
+   * @param matrix
+   * @return a deep copy of the matrix
+   */
+  public static Brick[][] copyMatrix(Brick[][] matrix) {
+    final Brick[][] copy = new Brick[BrickLayout.ROWS][BrickLayout.COLUMNS];
+    for (int row = 0; row < BrickLayout.ROWS; row++) {
+      for (int col = 0; col < BrickLayout.COLUMNS; col++) {
+        copy[row][col] = matrix[row][col] == null ? null : new Brick(matrix[row][col]);
+      }
+    }
+    return copy;
+  }
+
+  /** @return true if the game is over (lost or won) */
+  public boolean isOver() {
+    return over;
+  }
+
+  /** @return true if all levels have been cleared */
+  public boolean isWon() {
+    return won;
+  }
+
+  /** @return true while the ball waits on the paddle to be launched */
+  public boolean isBallOnPaddle() {
+    return launchCountdown > 0;
+  }
+
+  /** @return the event flags of the last tick */
+  public int getEvents() {
+    return events;
+  }
+
+  /** @return the current brick matrix - must not be modified */
+  public Brick[][] getMatrix() {
+    return matrix;
+  }
+
+  public long getTick() {
+    return tick;
+  }
+
+  public int getScore() {
+    return score;
+  }
+
+  public int getLevel() {
+    return level;
+  }
+
+  public int getLives() {
+    return lives;
+  }
+
+  public int getBallsLost() {
+    return ballsLost;
+  }
+
+  public int getBricksLeft() {
+    return bricksLeft;
+  }
+
+  public int getBricksDestroyed() {
+    return bricksDestroyed;
+  }
+
+  public double getPaddleX() {
+    return paddleX;
+  }
+
+  public double getBallX() {
+    return ball.getCenterX();
+  }
+
+  public double getBallY() {
+    return ball.getCenterY();
+  }
+
+  public double getBallXVelocity() {
+    return ball.getXVelocity();
+  }
+
+  public double getBallYVelocity() {
+    return ball.getYVelocity();
+  }
+
+  @Override
+  public String toString() {
+    return String.format(
+        "HeadlessGame [tick=%d, level=%d, score=%d, lives=%d, bricksLeft=%d, over=%s, won=%s]",
+        tick, level, score, lives, bricksLeft, over, won);
+  }
+}
@@ -27,7 +27,6 @@ package fko.jarkanoid.model;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.io.BufferedWriter;
 import java.io.IOException;
 import java.nio.charset.CharacterCodingException;
 import java.nio.charset.Charset;
@@ -36,17 +35,36 @@ import java.nio.file.Files;
 import java.nio.file.LinkOption;
 import java.nio.file.Path;
 import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
 
-/** Reads and stores the highscore from and to file */
+/**
+ * Reads and stores the highscore from and to file.
+ *
+ * <p>New entries are appended asynchronously to a {@link HighScoreJournal} so the game never
+ * waits for the disk. Call {@link #flush()} before the application exits. A CSV file of older
+ * versions is imported once when there is no journal yet. After that the CSV file is only an
+ * export - it is rewritten in the background (coalesced) after every change so tools which
+ * collect <code>highscore.csv</code> still see the current list.
+ *
+ * <p>The list is an immutable snapshot of the best <code>MAX_ENTRIES</code> entries which is
+ * replaced atomically. Readers never lock or copy. Writers merge new entries into a copy of the
+ * current snapshot and publish it with a compare-and-set, retrying if another writer was faster.
+ * Entries which do not make it into a full list are rejected without any write.
+ */
 public class HighScore {
 
   private static final Logger LOG = LoggerFactory.getLogger(HighScore.class);
 
-  // Singleton
-  private static HighScore _instance = null;
+  // Singleton - initialized on first use by the class loader which makes it thread safe
+  private static class InstanceHolder {
+    private static final HighScore INSTANCE = new HighScore();
+  }
 
   // max number of entry to be written in db
   private static final int MAX_ENTRIES = 15;
@@ -54,11 +72,23 @@ public class HighScore {
   /* default value for folder */
   private static final String folderPathPlain = "./var/";
   private static final String fileNamePlain = "highscore.csv";
-  private final Path _folderPath = FileSystems.getDefault().getPath(folderPathPlain);
-  private final Path _filePath = FileSystems.getDefault().getPath(folderPathPlain, fileNamePlain);
+  private static final String journalNamePlain = "highscore.journal";
+  private final Path _folderPath;
+  private final Path _filePath;
+  private static final Charset CHARSET = Charset.forName("ISO-8859-1");
+
+  // max time to wait for pending writes on shutdown
+  private static final long FLUSH_TIMEOUT_MS = 5000;
 
-  // the highscore list
-  private List<HighScoreEntry> _list;
+  // new entries are appended to the journal in the background
+  private final HighScoreJournal _journal;
+  private boolean _journalOpen = false;
+
+  // exports the list as CSV - the only file written if the journal can't be written
+  private final HighScoreWriter _writer;
+
+  // the current highscore list
+  private final AtomicReference<Snapshot> _snapshot = new AtomicReference<>(Snapshot.EMPTY);
 
   /**
    * Return singleton instance of HighScoreData
@@ -66,19 +96,27 @@ public class HighScore {
    * @return
    */
   public static HighScore getInstance() {
-    if (HighScore._instance == null) {
-      HighScore._instance = new HighScore();
-    }
-    return _instance;
+    return InstanceHolder.INSTANCE;
   }
 
   /*
    * Private constructor because of Singleton pattern.
-   * Reads the file and adds the entries to _list
    */
   private HighScore() {
+    this(FileSystems.getDefault().getPath(folderPathPlain));
+  }
 
-    LOG.info("Reading Highscore from file {}", _filePath);
+  /*
+   * Reads the file in the given folder and adds the entries to the list.
+   */
+  HighScore(Path folderPath) {
+    _folderPath = folderPath;
+    _filePath = folderPath.resolve(fileNamePlain);
+    final HighScoreWriter.SyncPolicy syncPolicy =
+        HighScoreWriter.SyncPolicy.valueOf(
+            System.getProperty("jarkanoid.highscoreSync", HighScoreWriter.SyncPolicy.DATA.name()));
+    _writer = new HighScoreWriter(_filePath, CHARSET, syncPolicy);
+    _journal = new HighScoreJournal(folderPath.resolve(journalNamePlain), syncPolicy);
 
     // Check if folder exists and if not try to create it.
     if (!Files.exists(_folderPath, LinkOption.NOFOLLOW_LINKS)) {
@@ -96,27 +134,44 @@ public class HighScore {
       }
     }
 
-    // Check if file exists and if not create a empty file
-    if (Files.notExists(_filePath, LinkOption.NOFOLLOW_LINKS)) {
-      LOG.warn(
-          "While reading high score file: File {} could not be found. Trying to create it.",
-          _filePath.getFileName().toString());
+    if (_journal.exists()) {
+      LOG.info("Reading Highscore from journal {}", folderPath.resolve(journalNamePlain));
       try {
-        Files.createFile(_filePath);
+        addEntries(_journal.open());
+        _journalOpen = true;
+        LOG.info("Read {} entries from highscore journal", getList().size());
+        // bring the export up to date in case an older version left it behind
+        _writer.requestWrite(this::getList);
+        return;
       } catch (IOException e) {
-        LOG.error(
-            String.format(
-                "While reading high score file: File %s could not be found. Trying to create it.",
-                _filePath.getFileName().toString()),
-            e);
+        LOG.error("Highscore journal could not be read - falling back to '{}'", _filePath, e);
+      }
+    }
+
+    // no journal yet - import the CSV file of older versions
+    if (Files.exists(_filePath, LinkOption.NOFOLLOW_LINKS)) {
+      LOG.info("Reading Highscore from file {}", _filePath);
+      readFile();
+    }
+    if (!_journalOpen) {
+      try {
+        _journal.open();
+        _journal.compact(getList());
+        _journalOpen = true;
+      } catch (IOException e) {
+        LOG.error("Highscore journal could not be created - saving to '{}' instead", _filePath, e);
       }
     }
+  }
 
+  /*
+   * Reads the CSV file - lines which can't be parsed are skipped.
+   */
+  private void readFile() {
     // read all lines from file
-    Charset charset = Charset.forName("ISO-8859-1");
     List<String> lines = null;
     try {
-      lines = Files.readAllLines(_filePath, charset);
+      lines = Files.readAllLines(_filePath, CHARSET);
     } catch (CharacterCodingException e) {
       LOG.error(
           "Highscore file '{}' has wrong charset (needs to be ISO-8859-1) - not loaded!",
@@ -126,121 +181,189 @@ public class HighScore {
     }
 
     if (lines != null) {
-      // create list of high score entries
-      _list = Collections.synchronizedList(new ArrayList<HighScoreEntry>(lines.size()));
-      lines
-          .parallelStream()
-          .forEach(
-              line -> {
-                String[] parts = line.split(";");
-                _list.add(
-                    new HighScoreEntry(
-                        parts[0].trim(),
-                        Integer.parseInt(parts[1]),
-                        Integer.parseInt(parts[2]),
-                        LocalDateTime.parse(parts[3].trim())));
-              });
-
-      sortList();
-
-      LOG.info("Read {} entries from highscore file", _list.size());
+      // create list of high score entries - file order decides between equal scores
+      final List<HighScoreEntry> entries = new ArrayList<>(lines.size());
+      int lineNumber = 0;
+      for (String line : lines) {
+        lineNumber++;
+        if (line.trim().isEmpty()) continue;
+        try {
+          entries.add(HighScoreEntry.parse(line));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+          LOG.warn("Highscore file '{}' line {} skipped: {}", _filePath, lineNumber, line);
+        }
+      }
+      addEntries(entries);
+
+      LOG.info("Read {} entries from highscore file", getList().size());
     }
   }
 
   /**
-   * Return the highscore list as unmodifiable list
+   * Return the highscore list as unmodifiable list. The list is a snapshot and does not change
+   * when entries are added later.
    *
    * @return unmodifiable list of high score entries
    */
   public List<HighScoreEntry> getList() {
-    return Collections.unmodifiableList(_list);
+    return _snapshot.get().list;
+  }
+
+  /**
+   * Version of the list - incremented with every change.
+   *
+   * @return version of the current list
+   */
+  public long getVersion() {
+    return _snapshot.get().version;
+  }
+
+  /**
+   * @param score
+   * @return true if an entry with this score would currently make it into the list
+   */
+  public boolean qualifies(int score) {
+    return _snapshot.get().qualifies(score);
   }
 
   /**
    * Put a new entry into the highscore table
    *
    * @param name, score, date
+   * @return true if the entry made it into the list
    */
-  public void addEntry(
+  public boolean addEntry(
       String name, int score, int level, LocalDateTime date) {
-    this.addEntry(new HighScoreEntry(name, score, level, date));
+    return this.addEntry(new HighScoreEntry(name, score, level, date));
   }
 
   /**
    * Put a new entry into the highscore table
    *
    * @param newEntry
+   * @return true if the entry made it into the list
+   */
+  public boolean addEntry(HighScoreEntry newEntry) {
+    return addEntries(Collections.singletonList(newEntry)) > 0;
+  }
+
+  /**
+   * Merges a batch of entries into the highscore table with a single update of the list.
+   *
+   * @param newEntries
+   * @return number of entries which made it into the list
    */
-  public void addEntry(HighScoreEntry newEntry) {
-    _list.add(newEntry);
-    sortList();
+  public int addEntries(Collection<HighScoreEntry> newEntries) {
+    while (true) {
+      final Snapshot current = _snapshot.get();
+      final List<HighScoreEntry> accepted = new ArrayList<>(newEntries.size());
+      for (HighScoreEntry e : newEntries) {
+        if (current.qualifies(e.score)) accepted.add(e);
+      }
+      if (accepted.isEmpty()) return 0;
+      final Snapshot next = current.merge(accepted);
+      if (_snapshot.compareAndSet(current, next)) {
+        return next.countContained(accepted);
+      }
+      // another writer was faster - merge into its snapshot
+    }
   }
 
   /**
    * Put a new entry into the highscore table
    *
    * @param name, score, date
+   * @return true if the entry made it into the list
    */
-  public void addEntryAndSave(
+  public boolean addEntryAndSave(
       String name, int score, int level, LocalDateTime date) {
-    this.addEntryAndSave(new HighScoreEntry(name, score, level, date));
+    return this.addEntryAndSave(new HighScoreEntry(name, score, level, date));
   }
 
   /**
-   * Put a new entry into the highscore table and save to file
+   * Put a new entry into the highscore table and schedule appending it to the journal and
+   * rewriting the CSV export in the background.
    *
    * @param newEntry
-   * @return true if save was successful, false otherwise
+   * @return true if the entry made it into the list - errors while saving are logged
    */
   public boolean addEntryAndSave(HighScoreEntry newEntry) {
-    _list.add(newEntry);
-    sortList();
-    return saveFile();
+    // reserve first: a compaction must not pick up the entry before its own append is queued
+    final boolean journal = _journalOpen;
+    if (journal) _journal.reserve(newEntry);
+    if (!addEntry(newEntry)) {
+      if (journal) _journal.release(newEntry);
+      return false;
+    }
+    if (journal) _journal.appendAsync(newEntry, this::getList);
+    // the writer takes the newest snapshot when it actually writes
+    _writer.requestWrite(this::getList);
+    return true;
   }
 
   /**
-   * Save the highscore file
+   * Export the highscore list to the CSV file synchronously
    *
    * @return true if success, false if error
    */
   public boolean saveToFile() {
-    return saveFile();
+    return _writer.write(getList());
   }
 
-  /*
-   * Save _list to file. Max MAX_ENTRIES are written.
+  /**
+   * Writes pending changes to the file and stops the background writer. To be called when the
+   * application shuts down.
    */
-  private boolean saveFile() {
-    Charset charset = Charset.forName("ISO-8859-1");
-    // Use try-with-resource to get auto-closeable writer instance
-    try (BufferedWriter writer = Files.newBufferedWriter(_filePath, charset)) {
-      _list
-          .stream()
-          .limit(MAX_ENTRIES)
-          .forEach(
-              (e) -> {
-                try {
-                  writer.write(e.toString() + System.lineSeparator());
-                } catch (IOException e1) {
-                  LOG.error(
-                      String.format(
-                          "While saving high score file: Highscore file \"%s\" could not be saved!",
-                          _filePath),
-                      e1);
-                }
-              });
-    } catch (IOException e) {
-      LOG.error("While saving high score file: Highscore file '{}' could not be saved!", _filePath, e);
-      return false;
-    }
-    return true;
+  public void flush() {
+    _journal.close(FLUSH_TIMEOUT_MS);
+    _writer.flushAndClose(FLUSH_TIMEOUT_MS);
   }
 
-  /*
-   * sort the list with the highest score first
-   */
-  private void sortList() {
-    _list.sort((HighScoreEntry e1, HighScoreEntry e2) -> e2.score - e1.score);
+  /** Immutable sorted list of the best entries. */
+  private static final class Snapshot {
+
+    static final Snapshot EMPTY = new Snapshot(new HighScoreEntry[0], 0);
+
+    // highest score first, earlier entries first for equal scores
+    final HighScoreEntry[] entries;
+    final List<HighScoreEntry> list;
+    final long version;
+
+    private Snapshot(HighScoreEntry[] entries, long version) {
+      this.entries = entries;
+      this.list = Collections.unmodifiableList(Arrays.asList(entries));
+      this.version = version;
+    }
+
+    /* a new entry is placed after entries with the same score */
+    boolean qualifies(int score) {
+      return entries.length < MAX_ENTRIES || score > entries[entries.length - 1].score;
+    }
+
+    /* new snapshot with the entries merged in and the list cut to MAX_ENTRIES */
+    Snapshot merge(List<HighScoreEntry> newEntries) {
+      final List<HighScoreEntry> merged = new ArrayList<>(entries.length + newEntries.size());
+      merged.addAll(list);
+      merged.addAll(newEntries);
+      // stable sort keeps existing entries before new ones with the same score
+      merged.sort((HighScoreEntry e1, HighScoreEntry e2) -> Integer.compare(e2.score, e1.score));
+      final int size = Math.min(MAX_ENTRIES, merged.size());
+      return new Snapshot(merged.subList(0, size).toArray(new HighScoreEntry[size]), version + 1);
+    }
+
+    /* number of the given entries (by identity) which are in this snapshot */
+    int countContained(List<HighScoreEntry> candidates) {
+      int count = 0;
+      for (HighScoreEntry c : candidates) {
+        for (HighScoreEntry e : entries) {
+          if (e == c) {
+            count++;
+            break;
+          }
+        }
+      }
+      return count;
+    }
   }
 
   /** A entry in the Highscore list. */
@@ -265,6 +388,49 @@ public class HighScore {
       this.date = date;
     }
 
+    /**
+     * Parses a line of the CSV file as written by <code>toString()</code>.
+     *
+     * @param line
+     * @return the entry
+     * @throws IllegalArgumentException if the line does not have four fields or a number is
+     *     invalid
+     * @throws DateTimeParseException if the date is invalid
+     */
+    public static HighScoreEntry parse(String line) {
+      final String[] parts = line.split(";");
+      if (parts.length != 4) {
+        throw new IllegalArgumentException("Expected 4 fields but found " + parts.length);
+      }
+      return new HighScoreEntry(
+          parts[0].trim(),
+          Integer.parseInt(parts[1].trim()),
+          Integer.parseInt(parts[2].trim()),
+          LocalDateTime.parse(parts[3].trim()));
+    }
+
+    /** @see Object#equals(Object) */
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) return true;
+      if (!(o instanceof HighScoreEntry)) return false;
+      final HighScoreEntry other = (HighScoreEntry) o;
+      return score == other.score
+          && level == other.level
+          && name.equals(other.name)
+          && date.equals(other.date);
+    }
+
+    /** @see Object#hashCode() */
+    @Override
+    public int hashCode() {
+      int result = name.hashCode();
+      result = 31 * result + score;
+      result = 31 * result + level;
+      result = 31 * result + date.hashCode();
+      return result;
+    }
+
     /** @see Object#toString() */
     @Override
     public String toString() {
@@ -0,0 +1,116 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018 Frank Kopp
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+package fko.jarkanoid.model;
+
+import fko.jarkanoid.model.HighScore.HighScoreEntry;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * HighScoreEntryCodec
+ *
+ * <p>Compact binary representation of a {@link HighScoreEntry}:<br>
+ * <code>[short nameLength][name UTF-8][int score][int level][long epochSecond][int nano]</code>
+ * <br>
+ * The date is stored as UTC based epoch seconds of the local date time - it is not converted to
+ * or from any time zone.
+ *
+ * <p>19.10.2026
+ *
+ * @author Frank Kopp
+ */
+public final class HighScoreEntryCodec {
+
+  // longer names are cut off
+  public static final int MAX_NAME_BYTES = 255;
+
+  private static final int FIXED_BYTES = 2 + 4 + 4 + 8 + 4;
+
+  // largest possible encoded entry
+  public static final int MAX_ENCODED_BYTES = FIXED_BYTES + MAX_NAME_BYTES;
+
+  private HighScoreEntryCodec() {}
+
+  /**
+   * @param entry
+   * @return number of bytes needed to encode the entry
+   */
+  public static int encodedSize(HighScoreEntry entry) {
+    return FIXED_BYTES + nameBytes(entry).length;
+  }
+
+  /**
+   * Writes the entry at the buffer's position.
+   *
+   * @param entry
+   * @param buffer needs at least <code>encodedSize(entry)</code> bytes remaining
+   */
+  public static void encode(HighScoreEntry entry, ByteBuffer buffer) {
+    final byte[] name = nameBytes(entry);
+    buffer.putShort((short) name.length);
+    buffer.put(name);
+    buffer.putInt(entry.score);
+    buffer.putInt(entry.level);
+    buffer.putLong(entry.date.toEpochSecond(ZoneOffset.UTC));
+    buffer.putInt(entry.date.getNano());
+  }
+
+  /**
+   * Reads an entry from the buffer's position.
+   *
+   * @param buffer
+   * @return the decoded entry
+   * @throws java.nio.BufferUnderflowException if the buffer does not hold a complete entry
+   * @throws IllegalArgumentException if the data is not a valid entry
+   */
+  public static HighScoreEntry decode(ByteBuffer buffer) {
+    final int nameLength = buffer.getShort() & 0xFFFF;
+    if (nameLength > MAX_NAME_BYTES) {
+      throw new IllegalArgumentException("Invalid name length: " + nameLength);
+    }
+    final byte[] name = new byte[nameLength];
+    buffer.get(name);
+    final int score = buffer.getInt();
+    final int level = buffer.getInt();
+    final long epochSecond = buffer.getLong();
+    final int nano = buffer.getInt();
+    return new HighScoreEntry(
+        new String(name, StandardCharsets.UTF_8),
+        score,
+        level,
+        LocalDateTime.ofEpochSecond(epochSecond, nano, ZoneOffset.UTC));
+  }
+
+  private static byte[] nameBytes(HighScoreEntry entry) {
+    final byte[] name = entry.name.getBytes(StandardCharsets.UTF_8);
+    if (name.length <= MAX_NAME_BYTES) return name;
+    final byte[] cut = new byte[MAX_NAME_BYTES];
+    System.arraycopy(name, 0, cut, 0, MAX_NAME_BYTES);
+    return cut;
+  }
+}
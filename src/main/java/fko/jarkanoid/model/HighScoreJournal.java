@@ -0,0 +1,382 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018 Frank Kopp
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+package fko.jarkanoid.model;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.zip.CRC32;
+
+/**
+ * HighScoreJournal
+ *
+ * <p>Append-only binary journal of high score entries. Each record is
+ * <code>[int payloadLength][int crc32][payload]</code> with the payload encoded by {@link
+ * HighScoreEntryCodec}, so a new entry is a single append of a few dozen bytes.<br>
+ * When the journal is opened it is read up to the last complete record with a valid checksum -
+ * anything after that (e.g. a write torn by a crash) is cut off. After <code>COMPACT_AFTER</code>
+ * appends the journal is rewritten with only the current list to a temp file which is then
+ * renamed over the journal.
+ *
+ * <p>Appends are done on a single background thread in the order they were requested.
+ *
+ * <p>19.10.2026
+ *
+ * @author Frank Kopp
+ */
+public final class HighScoreJournal {
+
+  private static final Logger LOG = LoggerFactory.getLogger(HighScoreJournal.class);
+
+  private static final int MAGIC = 0x4A4B4853; // "JKHS"
+  private static final int VERSION = 1;
+  private static final int HEADER_BYTES = 8;
+  private static final int RECORD_HEADER_BYTES = 8;
+
+  // rewrite the journal after this many appends
+  private static final int COMPACT_AFTER = 64;
+
+  private final Path filePath;
+  private final Path tempPath;
+  private final HighScoreWriter.SyncPolicy syncPolicy;
+
+  private FileChannel channel;
+  private int appendsSinceCompaction = 0;
+
+  /** Renames a file over another one. */
+  @FunctionalInterface
+  interface FileMover {
+    void move(Path source, Path target) throws IOException;
+  }
+
+  // renames the compacted journal into place - package-private for unit testing
+  FileMover mover = HighScoreJournal::replace;
+
+  // entries requested but not appended yet - they must not be part of a compaction
+  private final Set<HighScore.HighScoreEntry> pending =
+      Collections.newSetFromMap(new IdentityHashMap<>());
+
+  private final ExecutorService executor =
+      Executors.newSingleThreadExecutor(
+          r -> {
+            final Thread t = new Thread(r, "HighScore Journal");
+            t.setDaemon(true);
+            return t;
+          });
+
+  /**
+   * @param filePath the journal file
+   * @param syncPolicy when to force appends to disk
+   */
+  HighScoreJournal(Path filePath, HighScoreWriter.SyncPolicy syncPolicy) {
+    this.filePath = filePath;
+    this.tempPath = filePath.resolveSibling(filePath.getFileName() + ".tmp");
+    this.syncPolicy = syncPolicy;
+  }
+
+  /** @return true if there is a journal file */
+  boolean exists() {
+    return Files.exists(filePath);
+  }
+
+  /**
+   * Reads all valid records and opens the journal for appending. Data after the last valid record
+   * is truncated.
+   *
+   * @return the entries in the order they were appended
+   * @throws IOException
+   */
+  synchronized List<HighScore.HighScoreEntry> open() throws IOException {
+    channel =
+        FileChannel.open(
+            filePath, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+    final List<HighScore.HighScoreEntry> entries = new ArrayList<>();
+    final long size = channel.size();
+    if (size < HEADER_BYTES) {
+      // new file or the header itself was not written completely
+      channel.truncate(0);
+      channel.write(header(), 0);
+      force();
+      return entries;
+    }
+
+    final long valid;
+    try {
+      valid = scan(channel, entries::add);
+    } catch (IOException e) {
+      channel.close();
+      throw new IOException("Not a high score journal: " + filePath, e);
+    }
+    if (valid < size) {
+      LOG.warn(
+          "High score journal {} has an invalid record at {} - truncating {} bytes",
+          filePath,
+          valid,
+          size - valid);
+      channel.truncate(valid);
+      force();
+    }
+    appendsSinceCompaction = entries.size();
+    return entries;
+  }
+
+  /**
+   * Reads all valid entries of a journal file without opening it for writing.
+   *
+   * @param file
+   * @param consumer receives the entries in the order they were appended
+   * @throws IOException if the file can't be read or is not a journal
+   */
+  public static void read(Path file, Consumer<HighScore.HighScoreEntry> consumer)
+      throws IOException {
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      scan(channel, consumer);
+    }
+  }
+
+  /**
+   * Reads the journal in chunks up to the first incomplete or damaged record.
+   *
+   * @return length of the valid part of the journal
+   */
+  private static long scan(FileChannel channel, Consumer<HighScore.HighScoreEntry> consumer)
+      throws IOException {
+    final ByteBuffer data = ByteBuffer.allocate(64 * 1024);
+    while (data.position() < HEADER_BYTES && channel.read(data, data.position()) > 0) {}
+    data.flip();
+    if (data.remaining() < HEADER_BYTES || data.getInt() != MAGIC || data.getInt() != VERSION) {
+      throw new IOException("Bad journal header");
+    }
+
+    final CRC32 crc = new CRC32();
+    long valid = HEADER_BYTES;
+    while (true) {
+      // read the next chunk behind the last complete record
+      data.clear();
+      while (data.hasRemaining() && channel.read(data, valid + data.position()) > 0) {}
+      data.flip();
+      final long chunkStart = valid;
+      while (data.remaining() >= RECORD_HEADER_BYTES) {
+        final int start = data.position();
+        final int length = data.getInt();
+        final int checksum = data.getInt();
+        if (length <= 0 || length > HighScoreEntryCodec.MAX_ENCODED_BYTES) return valid;
+        if (length > data.remaining()) {
+          data.position(start);
+          break;
+        }
+        final ByteBuffer payload = data.slice();
+        payload.limit(length);
+        crc.reset();
+        crc.update(payload.duplicate());
+        if ((int) crc.getValue() != checksum) return valid;
+        try {
+          consumer.accept(HighScoreEntryCodec.decode(payload));
+        } catch (BufferUnderflowException | IllegalArgumentException e) {
+          return valid;
+        }
+        data.position(data.position() + length);
+        valid = chunkStart + data.position();
+      }
+      // nothing complete in this chunk - end of file or torn record
+      if (valid == chunkStart) return valid;
+    }
+  }
+
+  /**
+   * Marks the entry as pending before it becomes visible in the list. A compaction running in
+   * between leaves it out, so it is written once - by its own append - and not twice.
+   *
+   * @param entry
+   */
+  void reserve(HighScore.HighScoreEntry entry) {
+    synchronized (pending) {
+      pending.add(entry);
+    }
+  }
+
+  /**
+   * Drops a reservation for an entry that did not make it into the list.
+   *
+   * @param entry
+   */
+  void release(HighScore.HighScoreEntry entry) {
+    synchronized (pending) {
+      pending.remove(entry);
+    }
+  }
+
+  /**
+   * Schedules an append of the entry. If the journal has grown too long it is rewritten with the
+   * list the source returns. The entry should have been reserved before it was published.
+   *
+   * @param entry
+   * @param current supplies the current list for compaction
+   */
+  void appendAsync(
+      HighScore.HighScoreEntry entry, Supplier<List<HighScore.HighScoreEntry>> current) {
+    reserve(entry);
+    executor.execute(
+        () -> {
+          try {
+            append(entry);
+            final List<HighScore.HighScoreEntry> written;
+            synchronized (pending) {
+              pending.remove(entry);
+              if (appendsSinceCompaction < COMPACT_AFTER) return;
+              written = new ArrayList<>(current.get());
+              written.removeAll(pending);
+            }
+            compact(written);
+          } catch (IOException e) {
+            LOG.error("Could not write high score journal {}", filePath, e);
+          }
+        });
+  }
+
+  /**
+   * Appends the entry.
+   *
+   * @param entry
+   * @throws IOException
+   */
+  synchronized void append(HighScore.HighScoreEntry entry) throws IOException {
+    final ByteBuffer record = record(entry);
+    long position = channel.size();
+    while (record.hasRemaining()) position += channel.write(record, position);
+    force();
+    appendsSinceCompaction++;
+  }
+
+  /**
+   * Replaces the journal with one holding only the given entries.
+   *
+   * @param entries
+   * @throws IOException
+   */
+  synchronized void compact(List<HighScore.HighScoreEntry> entries) throws IOException {
+    try (FileChannel out =
+        FileChannel.open(
+            tempPath,
+            StandardOpenOption.CREATE,
+            StandardOpenOption.WRITE,
+            StandardOpenOption.TRUNCATE_EXISTING)) {
+      final ByteBuffer header = header();
+      while (header.hasRemaining()) out.write(header);
+      for (HighScore.HighScoreEntry e : entries) {
+        final ByteBuffer record = record(e);
+        while (record.hasRemaining()) out.write(record);
+      }
+      // the old journal stays valid until the new one is complete on disk
+      out.force(true);
+    }
+    // some platforms can't rename over an open file
+    channel.close();
+    try {
+      mover.move(tempPath, filePath);
+    } finally {
+      // the new journal - or the old one which is still valid if the rename failed
+      channel = FileChannel.open(filePath, StandardOpenOption.READ, StandardOpenOption.WRITE);
+    }
+    appendsSinceCompaction = entries.size();
+    LOG.debug("Compacted high score journal {} to {} entries", filePath, entries.size());
+  }
+
+  private static void replace(Path source, Path target) throws IOException {
+    try {
+      Files.move(
+          source, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    } catch (AtomicMoveNotSupportedException e) {
+      Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+    }
+  }
+
+  /**
+   * Waits for pending appends and closes the journal.
+   *
+   * @param timeoutMs maximum time to wait
+   */
+  void close(long timeoutMs) {
+    executor.shutdown();
+    try {
+      if (!executor.awaitTermination(timeoutMs, TimeUnit.MILLISECONDS)) {
+        LOG.warn("High score journal did not finish within {} ms", timeoutMs);
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    synchronized (this) {
+      try {
+        if (channel != null) channel.close();
+      } catch (IOException e) {
+        LOG.error("Could not close high score journal {}", filePath, e);
+      }
+    }
+  }
+
+  private void force() throws IOException {
+    if (syncPolicy != HighScoreWriter.SyncPolicy.NONE) {
+      channel.force(syncPolicy == HighScoreWriter.SyncPolicy.FULL);
+    }
+  }
+
+  private static ByteBuffer header() {
+    final ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+    header.putInt(MAGIC).putInt(VERSION).flip();
+    return header;
+  }
+
+  private static ByteBuffer record(HighScore.HighScoreEntry entry) {
+    final int length = HighScoreEntryCodec.encodedSize(entry);
+    final ByteBuffer record = ByteBuffer.allocate(RECORD_HEADER_BYTES + length);
+    record.position(RECORD_HEADER_BYTES);
+    HighScoreEntryCodec.encode(entry, record);
+    final CRC32 crc = new CRC32();
+    record.position(RECORD_HEADER_BYTES);
+    crc.update(record);
+    record.putInt(0, length).putInt(4, (int) crc.getValue());
+    record.position(0);
+    return record;
+  }
+}
@@ -0,0 +1,236 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018 Frank Kopp
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+package fko.jarkanoid.model;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * HighScoreWriter
+ *
+ * <p>Write-behind persistence for the high score file. Write requests are handed to a single
+ * background thread so the caller (usually the JavaFX thread at game over) never does file I/O.
+ * <br>
+ * Bursts of requests are coalesced - only the newest list is written. Each write goes to a temp
+ * file which is synced according to the {@link SyncPolicy} and then atomically renamed over the
+ * high score file, so a crash never leaves a truncated file behind.
+ *
+ * <p>19.10.2026
+ *
+ * @author Frank Kopp
+ */
+final class HighScoreWriter {
+
+  private static final Logger LOG = LoggerFactory.getLogger(HighScoreWriter.class);
+
+  // wait this long after a request to collect further requests into the same write
+  private static final long COALESCE_DELAY_MS = 100;
+
+  /** When to force written data to the storage device. */
+  enum SyncPolicy {
+    /** leave it to the OS */
+    NONE,
+    /** fsync the temp file's data before renaming it */
+    DATA,
+    /** fsync data and metadata of the temp file and the folder after renaming */
+    FULL
+  }
+
+  private final Path filePath;
+  private final Path tempPath;
+  private final Charset charset;
+  private final SyncPolicy syncPolicy;
+
+  private final ScheduledThreadPoolExecutor executor;
+
+  // source of the newest list waiting to be written - null if nothing is pending
+  private final AtomicReference<Supplier<List<HighScore.HighScoreEntry>>> pending =
+      new AtomicReference<>();
+
+  // statistics
+  private final AtomicLong requests = new AtomicLong();
+  private final AtomicLong writes = new AtomicLong();
+
+  /**
+   * @param filePath the high score file
+   * @param charset charset of the high score file
+   * @param syncPolicy when to force data to disk
+   */
+  HighScoreWriter(Path filePath, Charset charset, SyncPolicy syncPolicy) {
+    this.filePath = filePath;
+    this.tempPath = filePath.resolveSibling(filePath.getFileName() + ".tmp");
+    this.charset = charset;
+    this.syncPolicy = syncPolicy;
+    this.executor =
+        new ScheduledThreadPoolExecutor(
+            1,
+            r -> {
+              final Thread t = new Thread(r, "HighScore Writer");
+              t.setDaemon(true);
+              return t;
+            });
+  }
+
+  /**
+   * Schedules the list to be written. Returns immediately. If a write is already pending the list
+   * replaces the pending one.
+   *
+   * @param entries the entries to write - must not be modified afterwards
+   */
+  void requestWrite(List<HighScore.HighScoreEntry> entries) {
+    requestWrite(() -> entries);
+  }
+
+  /**
+   * Schedules a write of the list the source returns when the write actually happens. Lets
+   * concurrent callers request writes of a shared snapshot without an older list overtaking a
+   * newer one.
+   *
+   * @param source supplies the entries to write - the list must not be modified afterwards
+   */
+  void requestWrite(Supplier<List<HighScore.HighScoreEntry>> source) {
+    requests.incrementAndGet();
+    if (pending.getAndSet(source) == null) {
+      // nothing was pending - schedule a write
+      try {
+        executor.schedule(this::writePending, COALESCE_DELAY_MS, TimeUnit.MILLISECONDS);
+      } catch (RejectedExecutionException e) {
+        // already closed - write directly
+        writePending();
+      }
+    }
+  }
+
+  /**
+   * Writes pending entries and stops the writer thread. To be called on shutdown - further calls
+   * only write what is pending.
+   *
+   * @param timeoutMs maximum time to wait for the writes to finish
+   */
+  void flushAndClose(long timeoutMs) {
+    try {
+      executor.execute(this::writePending);
+    } catch (RejectedExecutionException e) {
+      // already closed - requests since then have been written directly
+      writePending();
+      return;
+    }
+    executor.setExecuteExistingDelayedTasksAfterShutdownPolicy(true);
+    executor.shutdown();
+    try {
+      if (!executor.awaitTermination(timeoutMs, TimeUnit.MILLISECONDS)) {
+        LOG.warn("High score writer did not finish within {} ms", timeoutMs);
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    LOG.info("High score writer closed - {} requests, {} writes", requests.get(), writes.get());
+  }
+
+  /** Called on the writer thread. */
+  private void writePending() {
+    final Supplier<List<HighScore.HighScoreEntry>> source = pending.getAndSet(null);
+    if (source == null) return;
+    write(source.get());
+  }
+
+  /**
+   * Writes the entries to the temp file and renames it to the high score file. Synchronized as
+   * direct saves and the writer thread share the temp file.
+   *
+   * @param entries
+   * @return true if successful
+   */
+  synchronized boolean write(List<HighScore.HighScoreEntry> entries) {
+    final StringBuilder builder = new StringBuilder(entries.size() * 48);
+    for (HighScore.HighScoreEntry e : entries) {
+      builder.append(e.toString()).append(System.lineSeparator());
+    }
+    final ByteBuffer data = charset.encode(builder.toString());
+
+    try {
+      try (FileChannel channel =
+          FileChannel.open(
+              tempPath,
+              StandardOpenOption.CREATE,
+              StandardOpenOption.WRITE,
+              StandardOpenOption.TRUNCATE_EXISTING)) {
+        while (data.hasRemaining()) channel.write(data);
+        if (syncPolicy != SyncPolicy.NONE) channel.force(syncPolicy == SyncPolicy.FULL);
+      }
+      try {
+        Files.move(
+            tempPath, filePath, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+      } catch (AtomicMoveNotSupportedException e) {
+        Files.move(tempPath, filePath, StandardCopyOption.REPLACE_EXISTING);
+      }
+      if (syncPolicy == SyncPolicy.FULL) syncFolder();
+    } catch (IOException e) {
+      LOG.error("While saving high score file: Highscore file '{}' could not be saved!", filePath, e);
+      return false;
+    }
+
+    writes.incrementAndGet();
+    LOG.debug("Saved {} high score entries to {}", entries.size(), filePath);
+    return true;
+  }
+
+  /** Makes the rename durable - not supported on all platforms. */
+  private void syncFolder() {
+    final Path folder = filePath.toAbsolutePath().getParent();
+    try (FileChannel channel = FileChannel.open(folder, StandardOpenOption.READ)) {
+      channel.force(true);
+    } catch (IOException e) {
+      LOG.debug("Folder {} could not be synced: {}", folder, e.toString());
+    }
+  }
+
+  /** @return number of write requests */
+  long getRequests() {
+    return requests.get();
+  }
+
+  /** @return number of actual file writes */
+  long getWrites() {
+    return writes.get();
+  }
+}
@@ -0,0 +1,95 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018 Frank Kopp
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+package fko.jarkanoid.model;
+
+import fko.jarkanoid.model.SoundManager.Clips;
+import javafx.scene.media.AudioClip;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.sound.sampled.AudioFileFormat;
+import javax.sound.sampled.AudioSystem;
+import javax.sound.sampled.UnsupportedAudioFileException;
+import java.io.IOException;
+import java.net.URL;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * JavaFxAudioBackend
+ *
+ * <p>Plays the clips with JavaFX {@link AudioClip}s.
+ *
+ * <p>19.10.2026
+ *
+ * @author Frank Kopp
+ */
+public final class JavaFxAudioBackend implements AudioBackend {
+
+  private static final Logger LOG = LoggerFactory.getLogger(JavaFxAudioBackend.class);
+
+  private final Map<Clips, AudioClip> clips = new ConcurrentHashMap<>();
+
+  @Override
+  public long load(Clips clip, URL url) {
+    clips.put(clip, new AudioClip(url.toExternalForm()));
+    return readDuration(url);
+  }
+
+  /* length of a wav file in ns */
+  private static long readDuration(URL url) {
+    try {
+      final AudioFileFormat format = AudioSystem.getAudioFileFormat(url);
+      final float frameRate = format.getFormat().getFrameRate();
+      if (format.getFrameLength() <= 0 || frameRate <= 0) return -1;
+      return (long) (format.getFrameLength() / (double) frameRate * 1e9);
+    } catch (UnsupportedAudioFileException | IOException e) {
+      LOG.debug("Length of {} unknown", url, e);
+      return -1;
+    }
+  }
+
+  @Override
+  public void play(Clips clip, long tick) {
+    final AudioClip audioClip = clips.get(clip);
+    if (audioClip != null) audioClip.play();
+  }
+
+  @Override
+  public void stop(Clips clip) {
+    final AudioClip audioClip = clips.get(clip);
+    if (audioClip != null && audioClip.isPlaying()) audioClip.stop();
+  }
+
+  @Override
+  public void close() {
+    clips.values().forEach(AudioClip::stop);
+  }
+
+  @Override
+  public String getName() {
+    return "javafx";
+  }
+}
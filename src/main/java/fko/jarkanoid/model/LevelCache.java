@@ -0,0 +1,270 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018 Frank Kopp
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+package fko.jarkanoid.model;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * LevelCache
+ *
+ * <p>Holds parsed level templates (<code>Brick[][]</code>) within a configurable byte budget.<br>
+ * Least recently used levels are evicted when the budget is exceeded and are loaded again from
+ * the on-disk source through the given loader function on the next miss.<br>
+ * Levels can be pinned (e.g. the current level and the prefetched next level) so they are never
+ * evicted. Pinned levels may push the cache over its budget.<br>
+ * Levels are loaded without holding the cache's lock, so a slow load (e.g. a prefetch on a
+ * background thread) does not block access to the cached levels.
+ *
+ * <p>The cache hands out the stored template itself - callers must not modify it. <code>
+ * LevelLoader</code> copies every template before giving it to the game.
+ *
+ * <p>19.10.2026
+ *
+ * @author Frank Kopp
+ */
+public final class LevelCache {
+
+  private static final Logger LOG = LoggerFactory.getLogger(LevelCache.class);
+
+  // rough memory estimates for a 64bit JVM with compressed oops
+  private static final int ARRAY_HEADER_BYTES = 16;
+  private static final int REFERENCE_BYTES = 4;
+  private static final int BRICK_BYTES = 32;
+
+  private final long byteBudget;
+  private final Function<String, Brick[][]> loader;
+
+  // access ordered map - iteration starts with the least recently used level
+  private final LinkedHashMap<String, CacheEntry> entries = new LinkedHashMap<>(16, 0.75f, true);
+  private final Set<String> pinned = new HashSet<>();
+
+  private long usedBytes = 0;
+
+  // statistics
+  private long hits = 0;
+  private long misses = 0;
+  private long evictions = 0;
+
+  /**
+   * Creates an empty LevelCache.
+   *
+   * @param byteBudget maximum number of bytes the unpinned levels may occupy
+   * @param loader called on a cache miss to load the level from its source - may return null if
+   *     no such level exists
+   */
+  public LevelCache(long byteBudget, Function<String, Brick[][]> loader) {
+    if (byteBudget < 0) throw new IllegalArgumentException("byteBudget must be >= 0");
+    this.byteBudget = byteBudget;
+    this.loader = loader;
+  }
+
+  /**
+   * Returns the level template for the given key. Loads the level through the loader in case of a
+   * cache miss.
+   *
+   * @param key level key
+   * @return the cached template or null if the level does not exist
+   */
+  public Brick[][] get(String key) {
+    synchronized (this) {
+      final CacheEntry entry = entries.get(key);
+      if (entry != null) {
+        hits++;
+        return entry.matrix;
+      }
+      misses++;
+    }
+    final Brick[][] matrix = loader.apply(key);
+    if (matrix == null) return null;
+    synchronized (this) {
+      // another thread may have loaded the level meanwhile
+      final CacheEntry entry = entries.get(key);
+      if (entry != null) return entry.matrix;
+      put(key, matrix);
+    }
+    return matrix;
+  }
+
+  /**
+   * Stores a level template in the cache and evicts least recently used unpinned levels if the
+   * byte budget is exceeded.
+   *
+   * @param key level key
+   * @param matrix level template
+   */
+  public synchronized void put(String key, Brick[][] matrix) {
+    final CacheEntry newEntry = new CacheEntry(matrix, estimateBytes(matrix));
+    final CacheEntry oldEntry = entries.put(key, newEntry);
+    if (oldEntry != null) usedBytes -= oldEntry.bytes;
+    usedBytes += newEntry.bytes;
+    evict();
+  }
+
+  /**
+   * Pins a level so it will not be evicted. Loads the level if it is not in the cache yet (e.g. to
+   * prefetch the next level).
+   *
+   * @param key level key
+   * @return true if the level exists and is now pinned
+   */
+  public boolean pin(String key) {
+    // pin before loading so the level is not evicted right away by its own put
+    final boolean newPin;
+    synchronized (this) {
+      newPin = pinned.add(key);
+    }
+    if (get(key) == null) {
+      if (newPin) unpin(key);
+      return false;
+    }
+    return true;
+  }
+
+  /**
+   * Pins exactly the given levels - all other pins are removed. The new pins are set before the
+   * old ones are removed, so a level which stays pinned is never evicted in between. Levels which
+   * are not in the cache are not loaded.
+   *
+   * @param keys level keys
+   */
+  public synchronized void pinOnly(Collection<String> keys) {
+    pinned.addAll(keys);
+    pinned.retainAll(keys);
+    evict();
+  }
+
+  /**
+   * Removes the pin from a level. The level is evicted with the next eviction run if the budget is
+   * exceeded.
+   *
+   * @param key level key
+   */
+  public synchronized void unpin(String key) {
+    if (pinned.remove(key)) evict();
+  }
+
+  /** Removes all pins. */
+  public synchronized void unpinAll() {
+    pinned.clear();
+    evict();
+  }
+
+  /** @return true if the level is currently in the cache */
+  public synchronized boolean contains(String key) {
+    return entries.containsKey(key);
+  }
+
+  /** @return true if the level is pinned */
+  public synchronized boolean isPinned(String key) {
+    return pinned.contains(key);
+  }
+
+  /** Evicts least recently used unpinned levels until we are within the budget again. */
+  private void evict() {
+    final Iterator<Map.Entry<String, CacheEntry>> iterator = entries.entrySet().iterator();
+    while (usedBytes > byteBudget && iterator.hasNext()) {
+      final Map.Entry<String, CacheEntry> e = iterator.next();
+      if (pinned.contains(e.getKey())) continue;
+      iterator.remove();
+      usedBytes -= e.getValue().bytes;
+      evictions++;
+      LOG.debug("Evicted level {} ({} bytes)", e.getKey(), e.getValue().bytes);
+    }
+  }
+
+  /**
+   * Estimates the heap size of a level template.
+   *
+   * @param matrix level template
+   * @return estimated number of bytes
+   */
+  static long estimateBytes(Brick[][] matrix) {
+    long bytes = ARRAY_HEADER_BYTES + (long) matrix.length * REFERENCE_BYTES;
+    for (Brick[] row : matrix) {
+      bytes += ARRAY_HEADER_BYTES + (long) row.length * REFERENCE_BYTES;
+      for (Brick brick : row) {
+        if (brick != null) bytes += BRICK_BYTES;
+      }
+    }
+    return bytes;
+  }
+
+  /** @return the byte budget of this cache */
+  public long getByteBudget() {
+    return byteBudget;
+  }
+
+  /** @return estimated number of bytes currently used by cached levels */
+  public synchronized long getUsedBytes() {
+    return usedBytes;
+  }
+
+  /** @return number of cached levels */
+  public synchronized int size() {
+    return entries.size();
+  }
+
+  /** @return number of cache hits */
+  public synchronized long getHits() {
+    return hits;
+  }
+
+  /** @return number of cache misses */
+  public synchronized long getMisses() {
+    return misses;
+  }
+
+  /** @return number of evicted levels */
+  public synchronized long getEvictions() {
+    return evictions;
+  }
+
+  @Override
+  public synchronized String toString() {
+    return String.format(
+        "LevelCache [levels=%d, usedBytes=%d, byteBudget=%d, pinned=%d, hits=%d, misses=%d, evictions=%d]",
+        entries.size(), usedBytes, byteBudget, pinned.size(), hits, misses, evictions);
+  }
+
+  /** A cached level template with its estimated size. */
+  private static final class CacheEntry {
+    private final Brick[][] matrix;
+    private final long bytes;
+
+    private CacheEntry(Brick[][] matrix, long bytes) {
+      this.matrix = matrix;
+      this.bytes = bytes;
+    }
+  }
+}
@@ -29,14 +29,18 @@ import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.Reader;
 import java.net.URL;
 import java.nio.charset.Charset;
 import java.nio.file.FileSystems;
 import java.nio.file.Files;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.jar.JarFile;
 import java.util.stream.Collectors;
 
@@ -61,6 +65,10 @@ import org.slf4j.LoggerFactory;
  * </code> and the last two letters represent the fixed power type this brick has. (Usually powers
  * are randomized but this allows for powers to be fixed to certain bricks).
  *
+ * <p>All level files are validated when the LevelLoader is initialized. Parsed levels are kept in a
+ * {@link LevelCache} with a byte budget (system property <code>jarkanoid.levelCacheBytes</code>)
+ * and are read again from their file when they have been evicted.
+ *
  * <p>04.01.2018
  *
  * @author Frank Kopp
@@ -75,7 +83,29 @@ public final class LevelLoader {
   private String preFix = "Level-";
   private String fileType = ".txt";
 
-  private final Map<String, Brick[][]> levels = new HashMap<>();
+  // default byte budget of the level cache - roughly 30 levels
+  private static final long DEFAULT_CACHE_BYTES = 256 * 1024;
+
+  // level number to the folder and file it was read from
+  private final Map<String, String> levelFiles = new HashMap<>();
+
+  // tokenizer for level files
+  private final LevelParser parser = new LevelParser();
+
+  // parsed levels
+  private final LevelCache levels =
+      new LevelCache(
+          Long.getLong("jarkanoid.levelCacheBytes", DEFAULT_CACHE_BYTES), this::loadLevelFromFile);
+
+  // reads the next level in the background while the current one is played
+  private final ExecutorService prefetcher =
+      Executors.newSingleThreadExecutor(
+          r -> {
+            final Thread t = new Thread(r, "Level Prefetch");
+            t.setDaemon(true);
+            t.setPriority(Thread.MIN_PRIORITY);
+            return t;
+          });
 
   /**
    * Returns Singleton instance of this class.
@@ -131,7 +161,7 @@ public final class LevelLoader {
    */
   public Brick[][] getLevel(int i) {
     if (i < 1) return null;
-    // get the matrix from the Map
+    // get the matrix from the cache
     final Brick[][] myMatrix = levels.get(Integer.toString(i));
     // no more main.resources.levels?
     if (myMatrix == null) return null;
@@ -145,6 +175,33 @@ public final class LevelLoader {
     return myNewMatrix;
   }
 
+  /**
+   * Pins the given level and the following level in the cache so that neither can be evicted while
+   * the level is played. Pins of other levels are removed. If the next level is not in the cache it
+   * is read on a background thread - the caller does not wait for the disk.
+   *
+   * @param i the current level
+   */
+  public void pinLevel(int i) {
+    final String next = Integer.toString(i + 1);
+    levels.pinOnly(Arrays.asList(Integer.toString(i), next));
+    if (levels.contains(next)) return;
+    prefetcher.execute(
+        () -> {
+          try {
+            // no such level - the pin is not needed
+            if (levels.get(next) == null) levels.unpin(next);
+          } catch (RuntimeException e) {
+            LOG.error("Prefetching level {} failed", next, e);
+          }
+        });
+  }
+
+  /** @return the cache holding the parsed levels */
+  public LevelCache getLevelCache() {
+    return levels;
+  }
+
   /**
    * @param folder
    * @throws LevelLoaderNoLevelFilesException
@@ -155,10 +212,33 @@ public final class LevelLoader {
       throw new LevelLoaderNoLevelFilesException("Level load could not find any level files.");
     }
     for (String file : files) {
-      final List<String> lines = getLinesFromLevelFile(folder, file);
-      // read lines into data structure
-      processLinesFromLevel(file, lines);
+      // read file into data structure
+      levels.put(levelNumber(file), readLevelFile(folder, file));
+      levelFiles.put(levelNumber(file), folder + file);
     }
+    LOG.info("{} levels found - {}", levelFiles.size(), levels);
+  }
+
+  /**
+   * Called by the level cache on a miss to read a level again from its file.
+   *
+   * @param level level number
+   * @return the level matrix or null if there is no file for this level
+   */
+  private Brick[][] loadLevelFromFile(String level) {
+    final String path = levelFiles.get(level);
+    if (path == null) return null;
+    final int split = path.lastIndexOf('/') + 1;
+    final String file = path.substring(split);
+    return readLevelFile(path.substring(0, split), file);
+  }
+
+  /**
+   * @param file
+   * @return the level number part of a level file name
+   */
+  private String levelNumber(String file) {
+    return file.substring(preFix.length(), file.lastIndexOf(fileType));
   }
 
   /**
@@ -278,134 +358,68 @@ public final class LevelLoader {
    */
   protected void processLinesFromLevel(String file, List<String> lines)
       throws LevelLoaderFormatException {
-
-    Brick[][] tmpMatrix = new Brick[BrickLayout.ROWS][BrickLayout.COLUMNS];
-
-    String matchString = "^(--|GY|OR|CY|GR|RE|BL|PU|YE|SI|GO)(--|NO|LA|EN|CA|SL|BR|DI|PL)$";
-
-    int validLineCounter = 0;
-    for (int row = 0; row < lines.size(); row++) {
-
-      if (lines.get(row).isEmpty()
-          || // remove empty lines
-          lines.get(row).startsWith("#")) { // remove comment lines
-        continue;
-      }
-      validLineCounter++;
-      String[] rowItems = lines.get(row).split(" ");
-      if (rowItems.length != BrickLayout.COLUMNS) { // check if 13 columns
-        throw new LevelLoaderFormatException(
-            String.format(
-                "Bad row format in %s at line %d. Expected %d columns, found %d",
-                file, row + 1, BrickLayout.COLUMNS, rowItems.length));
-      }
-      for (int col = 0; col < rowItems.length; col++) {
-        if (rowItems[col].length() != 4 || !rowItems[col].trim().matches(matchString)) {
-          throw new LevelLoaderFormatException(
-              String.format("Bad item format in %s at line %d column %d", file, row + 1, col + 1));
-        }
-        if (validLineCounter > 18) { // check if more than 18 rows
-          throw new LevelLoaderFormatException(
-              String.format(
-                  "Bad format in %s. Expected 18 lines, found %d.", file, validLineCounter));
-        }
-        tmpMatrix[validLineCounter - 1][col] = itemToBrick(rowItems[col].trim());
-      }
+    final Brick[][] matrix;
+    synchronized (parser) {
+      matrix = parser.parse(file, lines);
     }
+    levels.put(levelNumber(file), matrix);
+  }
 
-    if (validLineCounter < BrickLayout.ROWS) { // check if less than 18 rows
-      throw new LevelLoaderFormatException(
-          String.format("Bad format in %s. Expected 18 lines, found %d.", file, validLineCounter));
+  /**
+   * Reads and parses a level file in one pass without splitting it into lines first.
+   *
+   * @param folder
+   * @param file
+   * @return the level matrix
+   * @throws LevelLoaderIOException
+   * @throws LevelLoaderFormatException
+   */
+  private Brick[][] readLevelFile(String folder, String file) {
+    final InputStream fileStream = Jarkanoid.class.getResourceAsStream(folder + file);
+    if (fileStream == null) {
+      throw new LevelLoaderIOException(
+          String.format("While loading level file %s: File not found!", folder + file));
+    }
+    try (Reader reader = new InputStreamReader(fileStream, Charset.defaultCharset())) {
+      synchronized (parser) {
+        return parser.parse(file, reader);
+      }
+    } catch (IOException e) {
+      throw new LevelLoaderIOException(e);
     }
-
-    String level = file.substring(preFix.length(), file.lastIndexOf(fileType));
-    levels.put(level, tmpMatrix);
   }
 
   /**
-   * Converts a string with 4 letters to a Brick instance. "ORNO" or any invalid string return null.
-   * <br>
+   * Converts a string with 4 letters to a Brick instance. "----" or any string with a length other
+   * than 4 return null.<br>
    * Otherwise the first two letters represent the <code>BrickType</code> and the last two letters
    * the <code>BrickPowerType</code>.
    *
    * @param string
    * @return a Brick instance from the given string. Null if not a valid Brick token.
+   * @throws LevelLoaderFormatException for unknown brick or power types
    */
   public static Brick itemToBrick(String string) {
-    // ignore the empty string
-    if (string.length() != 4 || string.equals("----")) return null;
-
-    String bricktype = string.substring(0, 2);
-    String powertype = string.substring(2, 4);
-
-    BrickType bt;
-    PowerPillType bpt;
-
-    switch (bricktype) {
-      case "GY":
-        bt = BrickType.GREY;
-        break;
-      case "OR":
-        bt = BrickType.ORANGE;
-        break;
-      case "CY":
-        bt = BrickType.CYAN;
-        break;
-      case "GR":
-        bt = BrickType.GREEN;
-        break;
-      case "RE":
-        bt = BrickType.RED;
-        break;
-      case "BL":
-        bt = BrickType.BLUE;
-        break;
-      case "PU":
-        bt = BrickType.PURPLE;
-        break;
-      case "YE":
-        bt = BrickType.YELLOW;
-        break;
-      case "SI":
-        bt = BrickType.SILVER;
-        break;
-      case "GO":
-        bt = BrickType.GOLD;
-        break;
-      default:
-        throw new LevelLoaderFormatException(String.format("Unkwon brick type: %s", bricktype));
-    }
+    return LevelParser.tokenToBrick(string);
+  }
 
-    switch (powertype) {
-      case "NO":
-        bpt = PowerPillType.NONE;
-        break;
-      case "LA":
-        bpt = PowerPillType.LASER;
-        break;
-      case "EN":
-        bpt = PowerPillType.ENLARGE;
-        break;
-      case "CA":
-        bpt = PowerPillType.CATCH;
-        break;
-      case "SL":
-        bpt = PowerPillType.SLOW;
-        break;
-      case "BR":
-        bpt = PowerPillType.BREAK;
-        break;
-      case "DI":
-        bpt = PowerPillType.DISRUPTION;
-        break;
-      case "PL":
-        bpt = PowerPillType.PLAYER;
-        break;
-      default:
-        throw new LevelLoaderFormatException(
-            String.format("Unkwon brick powertype: %s", powertype));
+  /**
+   * Converts a level matrix into the level file format.
+   *
+   * @param comment comment for the first line of the file
+   * @param matrix the level matrix
+   * @return the level file content
+   */
+  public static String levelToText(String comment, Brick[][] matrix) {
+    final StringBuilder builder = new StringBuilder(32 + BrickLayout.ROWS * BrickLayout.COLUMNS * 5);
+    builder.append("# ").append(comment).append(System.lineSeparator());
+    for (Brick[] row : matrix) {
+      for (int col = 0; col < row.length; col++) {
+        if (col > 0) builder.append(' ');
+        builder.append(row[col] == null ? "----" : row[col].toToken());
+      }
+      builder.append(System.lineSeparator());
     }
-
-    return new Brick(bt, bpt);
+    return builder.toString();
   }
 }
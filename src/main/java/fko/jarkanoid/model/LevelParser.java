@@ -0,0 +1,240 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018 Frank Kopp
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+package fko.jarkanoid.model;
+
+import fko.jarkanoid.model.exceptions.LevelLoaderFormatException;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.List;
+
+/**
+ * LevelParser
+ *
+ * <p>Single pass tokenizer for the level text format (see {@link LevelLoader}).<br>
+ * Works directly on a reusable char buffer without regular expressions, <code>split</code> or
+ * <code>substring</code>. Brick and power codes are mapped through precomputed lookup tables
+ * built from <code>BrickType.sign</code> and the <code>PowerPillType</code> names, so the only
+ * allocation per cell is the resulting <code>Brick</code>.<br>
+ * Errors are reported as {@link LevelLoaderFormatException} with the exact line and column.
+ *
+ * <p>Not thread safe - the char buffer is reused between calls.
+ *
+ * <p>19.10.2026
+ *
+ * @author Frank Kopp
+ */
+final class LevelParser {
+
+  // token for an empty cell
+  private static final char EMPTY = '-';
+
+  // lookup tables indexed by two 7 bit ascii characters
+  private static final BrickType[] BRICK_CODES = new BrickType[1 << 14];
+  private static final PowerPillType[] POWER_CODES = new PowerPillType[1 << 14];
+
+  static {
+    for (BrickType bt : BrickType.values()) {
+      BRICK_CODES[code(bt.sign.charAt(0), bt.sign.charAt(1))] = bt;
+    }
+    // the file format uses the first two letters of the power's name
+    for (PowerPillType pt : PowerPillType.values()) {
+      POWER_CODES[code(pt.name().charAt(0), pt.name().charAt(1))] = pt;
+    }
+  }
+
+  private char[] buffer = new char[4096];
+  private int length = 0;
+
+  /**
+   * Parses a level from a reader. The reader is read completely but not closed.
+   *
+   * @param file name of the level file for error messages
+   * @param reader the level file's content
+   * @return the level matrix
+   * @throws IOException when reading fails
+   * @throws LevelLoaderFormatException when the level is badly formatted
+   */
+  Brick[][] parse(String file, Reader reader) throws IOException {
+    length = 0;
+    int read;
+    while ((read = reader.read(buffer, length, buffer.length - length)) != -1) {
+      length += read;
+      if (length == buffer.length) grow(buffer.length * 2);
+    }
+    return parseBuffer(file);
+  }
+
+  /**
+   * Parses a level from lines which have already been read.
+   *
+   * @param file name of the level file for error messages
+   * @param lines the level file's lines
+   * @return the level matrix
+   * @throws LevelLoaderFormatException when the level is badly formatted
+   */
+  Brick[][] parse(String file, List<String> lines) {
+    length = 0;
+    for (String line : lines) {
+      final int needed = length + line.length() + 1;
+      if (needed > buffer.length) grow(Math.max(needed, buffer.length * 2));
+      line.getChars(0, line.length(), buffer, length);
+      length += line.length();
+      buffer[length++] = '\n';
+    }
+    return parseBuffer(file);
+  }
+
+  /**
+   * Converts a 4 letter token to a Brick. "----" returns null.
+   *
+   * @param token 4 letter token
+   * @return the Brick for this token or null for an empty cell
+   * @throws LevelLoaderFormatException for unknown brick or power codes
+   */
+  static Brick tokenToBrick(CharSequence token) {
+    if (token.length() != 4) return null;
+    return tokenToBrick(token.charAt(0), token.charAt(1), token.charAt(2), token.charAt(3));
+  }
+
+  /**
+   * Tokenizes the buffer line by line.
+   *
+   * @param file name of the level file for error messages
+   * @return the level matrix
+   */
+  private Brick[][] parseBuffer(String file) {
+    final char[] buf = buffer;
+    final Brick[][] matrix = new Brick[BrickLayout.ROWS][BrickLayout.COLUMNS];
+
+    int validLineCounter = 0;
+    int lineNumber = 0;
+    int pos = 0;
+
+    while (pos < length) {
+      lineNumber++;
+
+      // find the end of the line
+      int lineEnd = pos;
+      while (lineEnd < length && buf[lineEnd] != '\n') lineEnd++;
+      final int nextLine = lineEnd + 1;
+
+      // trim the line
+      final int lineStart = pos;
+      int start = pos;
+      while (start < lineEnd && buf[start] <= ' ') start++;
+      int end = lineEnd;
+      while (end > start && buf[end - 1] <= ' ') end--;
+      pos = nextLine;
+
+      // skip empty and comment lines
+      if (start == end || buf[start] == '#') continue;
+      validLineCounter++;
+
+      // count columns - tokens are separated by single spaces
+      int columns = 1;
+      for (int i = start; i < end; i++) {
+        if (buf[i] == ' ') columns++;
+      }
+      if (columns != BrickLayout.COLUMNS) {
+        throw new LevelLoaderFormatException(
+            String.format(
+                "Bad row format in %s at line %d. Expected %d columns, found %d",
+                file, lineNumber, BrickLayout.COLUMNS, columns),
+            lineNumber,
+            0);
+      }
+
+      int p = start;
+      for (int col = 0; col < BrickLayout.COLUMNS; col++) {
+        final int column = p - lineStart + 1;
+        if (p + 4 > end || (p + 4 < end && buf[p + 4] != ' ')) {
+          throw badItem(file, lineNumber, column, col);
+        }
+        if (validLineCounter > BrickLayout.ROWS) { // check if more than 18 rows
+          throw new LevelLoaderFormatException(
+              String.format(
+                  "Bad format in %s. Expected %d lines, found %d.",
+                  file, BrickLayout.ROWS, validLineCounter),
+              lineNumber,
+              0);
+        }
+        try {
+          matrix[validLineCounter - 1][col] =
+              tokenToBrick(buf[p], buf[p + 1], buf[p + 2], buf[p + 3]);
+        } catch (LevelLoaderFormatException e) {
+          throw badItem(file, lineNumber, column, col);
+        }
+        p += 5;
+      }
+    }
+
+    if (validLineCounter < BrickLayout.ROWS) { // check if less than 18 rows
+      throw new LevelLoaderFormatException(
+          String.format(
+              "Bad format in %s. Expected %d lines, found %d.",
+              file, BrickLayout.ROWS, validLineCounter),
+          lineNumber,
+          0);
+    }
+
+    return matrix;
+  }
+
+  private static LevelLoaderFormatException badItem(
+      String file, int lineNumber, int column, int col) {
+    return new LevelLoaderFormatException(
+        String.format(
+            "Bad item format in %s at line %d column %d (item %d)",
+            file, lineNumber, column, col + 1),
+        lineNumber,
+        column);
+  }
+
+  private static Brick tokenToBrick(char b0, char b1, char p0, char p1) {
+    if (b0 == EMPTY && b1 == EMPTY && p0 == EMPTY && p1 == EMPTY) return null;
+    final BrickType bt = (b0 | b1) < 128 ? BRICK_CODES[code(b0, b1)] : null;
+    if (bt == null) {
+      throw new LevelLoaderFormatException(
+          String.format("Unknown brick type: %c%c", b0, b1));
+    }
+    final PowerPillType pt = (p0 | p1) < 128 ? POWER_CODES[code(p0, p1)] : null;
+    if (pt == null) {
+      throw new LevelLoaderFormatException(
+          String.format("Unknown brick powertype: %c%c", p0, p1));
+    }
+    return new Brick(bt, pt);
+  }
+
+  private static int code(char c0, char c1) {
+    return (c0 & 0x7F) << 7 | (c1 & 0x7F);
+  }
+
+  private void grow(int newSize) {
+    final char[] newBuffer = new char[newSize];
+    System.arraycopy(buffer, 0, newBuffer, 0, length);
+    buffer = newBuffer;
+  }
+}
@@ -0,0 +1,281 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018 Frank Kopp
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+package fko.jarkanoid.model;
+
+import fko.jarkanoid.model.SoundManager.Clips;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.AudioInputStream;
+import javax.sound.sampled.AudioSystem;
+import javax.sound.sampled.LineUnavailableException;
+import javax.sound.sampled.SourceDataLine;
+import javax.sound.sampled.UnsupportedAudioFileException;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * MixerAudioBackend
+ *
+ * <p>Decodes all clips to 16 bit stereo PCM samples and mixes the playing voices on its own
+ * thread into one Java Sound {@link SourceDataLine}. Playing a clip only queues a new voice, the
+ * cost of mixing depends on the number of voices, not on how often clips are played. The mixer
+ * thread sleeps while nothing is playing.
+ *
+ * <p>19.10.2026
+ *
+ * @author Frank Kopp
+ */
+public final class MixerAudioBackend implements AudioBackend {
+
+  private static final Logger LOG = LoggerFactory.getLogger(MixerAudioBackend.class);
+
+  /** Format of the line - all clips are converted to it */
+  public static final AudioFormat FORMAT = new AudioFormat(44100f, 16, 2, true, false);
+
+  private static final int CHANNELS = 2;
+  // frames mixed at once - about 12 ms
+  private static final int BUFFER_FRAMES = 512;
+  private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(50);
+
+  /* a playing clip - only used by the mixer thread */
+  private static final class Voice {
+    final Clips clip;
+    final short[] samples;
+    int position = 0;
+
+    Voice(Clips clip, short[] samples) {
+      this.clip = clip;
+      this.samples = samples;
+    }
+  }
+
+  // interleaved stereo samples of each loaded clip
+  private final Map<Clips, short[]> samples = new ConcurrentHashMap<>();
+
+  private final ConcurrentLinkedQueue<Clips> starts = new ConcurrentLinkedQueue<>();
+  private final ConcurrentLinkedQueue<Clips> stops = new ConcurrentLinkedQueue<>();
+
+  // only used by the mixer thread
+  private final List<Voice> voices = new ArrayList<>();
+  private final int[] mixBuffer = new int[BUFFER_FRAMES * CHANNELS];
+  private final byte[] lineBuffer = new byte[BUFFER_FRAMES * CHANNELS * 2];
+
+  private final SourceDataLine line;
+  private final Thread thread;
+  private volatile boolean running;
+
+  /**
+   * Opens the default line for {@link #FORMAT}.
+   *
+   * @throws LineUnavailableException if there is no line for the format
+   */
+  public MixerAudioBackend() throws LineUnavailableException {
+    this(AudioSystem.getSourceDataLine(FORMAT));
+  }
+
+  /**
+   * @param line the line to play to - without a line nothing is mixed automatically, call {@link
+   *     #mix()} instead
+   * @throws LineUnavailableException if the line can't be opened
+   */
+  MixerAudioBackend(SourceDataLine line) throws LineUnavailableException {
+    this.line = line;
+    if (line == null) {
+      thread = null;
+      return;
+    }
+    line.open(FORMAT, lineBuffer.length * 4);
+    line.start();
+    running = true;
+    thread = new Thread(this::run, "Audio Mixer");
+    thread.setDaemon(true);
+    thread.start();
+  }
+
+  @Override
+  public long load(Clips clip, URL url) throws IOException {
+    try (AudioInputStream in = AudioSystem.getAudioInputStream(url)) {
+      final short[] decoded = decode(in);
+      samples.put(clip, decoded);
+      return (long) (decoded.length / CHANNELS / (double) FORMAT.getSampleRate() * 1e9);
+    } catch (UnsupportedAudioFileException e) {
+      throw new IOException("Unsupported audio file " + url, e);
+    }
+  }
+
+  /**
+   * Converts PCM audio to interleaved 16 bit stereo samples at the sample rate of {@link #FORMAT}.
+   *
+   * @param source
+   * @return the samples
+   * @throws IOException
+   */
+  static short[] decode(AudioInputStream source) throws IOException {
+    AudioInputStream in = source;
+    AudioFormat format = in.getFormat();
+    final AudioFormat.Encoding encoding = format.getEncoding();
+    if (!AudioFormat.Encoding.PCM_SIGNED.equals(encoding)
+        && !AudioFormat.Encoding.PCM_UNSIGNED.equals(encoding)) {
+      in = AudioSystem.getAudioInputStream(AudioFormat.Encoding.PCM_SIGNED, in);
+      format = in.getFormat();
+    }
+    final int bytes = format.getSampleSizeInBits() / 8;
+    if (bytes != 1 && bytes != 2) {
+      throw new IOException("Unsupported sample size " + format.getSampleSizeInBits());
+    }
+    final boolean unsigned = AudioFormat.Encoding.PCM_UNSIGNED.equals(format.getEncoding());
+    final int channels = format.getChannels();
+    final int frameSize = format.getFrameSize();
+    final byte[] data = readAll(in);
+
+    final int frames = data.length / frameSize;
+    final double step = format.getSampleRate() / FORMAT.getSampleRate();
+    final int outFrames = (int) (frames / step);
+    final short[] out = new short[outFrames * CHANNELS];
+    for (int i = 0; i < outFrames; i++) {
+      final int frame = Math.min(frames - 1, (int) (i * step));
+      for (int c = 0; c < CHANNELS; c++) {
+        // mono is played on both channels
+        final int offset = frame * frameSize + Math.min(c, channels - 1) * bytes;
+        final int sample;
+        if (bytes == 1) {
+          sample = unsigned ? ((data[offset] & 0xFF) - 128) << 8 : data[offset] << 8;
+        } else {
+          final int first = data[offset] & 0xFF;
+          final int second = data[offset + 1] & 0xFF;
+          final int value =
+              format.isBigEndian() ? (short) (first << 8 | second) : (short) (second << 8 | first);
+          sample = unsigned ? value ^ 0xFFFF8000 : value;
+        }
+        out[i * CHANNELS + c] = (short) sample;
+      }
+    }
+    return out;
+  }
+
+  private static byte[] readAll(InputStream in) throws IOException {
+    final ByteArrayOutputStream out = new ByteArrayOutputStream(64 * 1024);
+    final byte[] buffer = new byte[16 * 1024];
+    int n;
+    while ((n = in.read(buffer)) > 0) out.write(buffer, 0, n);
+    return out.toByteArray();
+  }
+
+  @Override
+  public void play(Clips clip, long tick) {
+    if (!samples.containsKey(clip)) return;
+    starts.offer(clip);
+    if (thread != null) LockSupport.unpark(thread);
+  }
+
+  @Override
+  public void stop(Clips clip) {
+    stops.offer(clip);
+  }
+
+  @Override
+  public void close() {
+    if (thread == null) return;
+    running = false;
+    LockSupport.unpark(thread);
+    try {
+      thread.join(1000);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    line.stop();
+    line.close();
+  }
+
+  private void run() {
+    try {
+      while (running) {
+        if (voices.isEmpty() && starts.isEmpty()) {
+          stops.clear();
+          LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+          continue;
+        }
+        mix();
+        // blocks while the line is full - paces the mixer
+        line.write(lineBuffer, 0, lineBuffer.length);
+      }
+    } catch (RuntimeException e) {
+      LOG.error("Audio mixer failed", e);
+    }
+  }
+
+  /**
+   * Mixes the next {@link #BUFFER_FRAMES} frames of all voices into the line buffer. Called by
+   * the mixer thread.
+   *
+   * @return the little endian 16 bit stereo samples
+   */
+  byte[] mix() {
+    Clips clip;
+    while ((clip = stops.poll()) != null) {
+      final Clips stopped = clip;
+      voices.removeIf(v -> v.clip == stopped);
+    }
+    while ((clip = starts.poll()) != null) voices.add(new Voice(clip, samples.get(clip)));
+
+    Arrays.fill(mixBuffer, 0);
+    for (Iterator<Voice> i = voices.iterator(); i.hasNext(); ) {
+      final Voice voice = i.next();
+      final int n = Math.min(mixBuffer.length, voice.samples.length - voice.position);
+      for (int s = 0; s < n; s++) mixBuffer[s] += voice.samples[voice.position + s];
+      voice.position += n;
+      if (voice.position >= voice.samples.length) i.remove();
+    }
+    for (int s = 0; s < mixBuffer.length; s++) {
+      final int sample = Math.max(Short.MIN_VALUE, Math.min(Short.MAX_VALUE, mixBuffer[s]));
+      lineBuffer[2 * s] = (byte) sample;
+      lineBuffer[2 * s + 1] = (byte) (sample >> 8);
+    }
+    return lineBuffer;
+  }
+
+  /** @return number of voices playing - only meaningful on the mixer thread */
+  int getVoices() {
+    return voices.size();
+  }
+
+  @Override
+  public String getName() {
+    return "mixer";
+  }
+}
@@ -0,0 +1,132 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018 Frank Kopp
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+package fko.jarkanoid.model;
+
+import fko.jarkanoid.model.SoundManager.Clips;
+
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * RecordingAudioBackend
+ *
+ * <p>Plays nothing but records which clip would have been played at which game tick, so tests
+ * and headless runs can assert the audio behaviour. The tick is the one the clip was requested
+ * at (see {@link SoundManager#setTickSource}), not the one when the audio thread plays it.
+ *
+ * <p>19.10.2026
+ *
+ * @author Frank Kopp
+ */
+public final class RecordingAudioBackend implements AudioBackend {
+
+  /** A clip played at a tick */
+  public static final class Event {
+
+    public final long tick;
+    public final Clips clip;
+
+    public Event(long tick, Clips clip) {
+      this.tick = tick;
+      this.clip = clip;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) return true;
+      if (!(o instanceof Event)) return false;
+      final Event event = (Event) o;
+      return tick == event.tick && clip == event.clip;
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(tick, clip);
+    }
+
+    @Override
+    public String toString() {
+      return tick + ":" + clip;
+    }
+  }
+
+  private final List<Event> events = new ArrayList<>();
+
+  @Override
+  public long load(Clips clip, URL url) {
+    return -1;
+  }
+
+  @Override
+  public void play(Clips clip, long tick) {
+    final Event event = new Event(tick, clip);
+    synchronized (events) {
+      events.add(event);
+    }
+  }
+
+  @Override
+  public void stop(Clips clip) {
+    // nothing is playing
+  }
+
+  @Override
+  public void close() {
+    // nothing
+  }
+
+  /** @return copy of the recorded events in the order they were played */
+  public List<Event> getEvents() {
+    synchronized (events) {
+      return new ArrayList<>(events);
+    }
+  }
+
+  /**
+   * @param clip
+   * @return how often the clip has been played
+   */
+  public int count(Clips clip) {
+    int count = 0;
+    synchronized (events) {
+      for (Event event : events) if (event.clip == clip) count++;
+    }
+    return count;
+  }
+
+  /** Forgets all recorded events. */
+  public void clear() {
+    synchronized (events) {
+      events.clear();
+    }
+  }
+
+  @Override
+  public String getName() {
+    return "recording";
+  }
+}
@@ -0,0 +1,325 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018 Frank Kopp
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+package fko.jarkanoid.model;
+
+import fko.jarkanoid.model.SoundManager.Clips;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.LongSupplier;
+
+/**
+ * SoundDispatcher
+ *
+ * <p>Decouples the game from playing sounds. Sounds requested with {@link #request(Clips, long)}
+ * during a frame are collected in a bit set and handed over once per frame with {@link
+ * #endFrame()} - a clip requested many times in one frame (e.g. many bricks hit by several balls)
+ * is played once.
+ * Sounds given to {@link #play(Clips, long)} are handed over immediately.
+ *
+ * <p>The sounds are played by an audio thread which is fed by a lock-free queue, so the game
+ * thread never waits for the media stack. The audio thread limits the number of voices - sounds
+ * which are still playing - per clip and in total. Requests beyond these limits are dropped, so
+ * the load of the audio stack stays flat regardless how many collisions happen.
+ *
+ * <p>Stopping a clip goes through the same queue, so it is done in order with the sounds queued
+ * before it and frees the voices of the clip.
+ *
+ * <p>Each sound carries the game tick it was requested at. The tick is given by the caller, so it
+ * does not depend on when the audio thread gets to play the sound.
+ *
+ * <p>19.10.2026
+ *
+ * @author Frank Kopp
+ */
+public final class SoundDispatcher {
+
+  private static final Logger LOG = LoggerFactory.getLogger(SoundDispatcher.class);
+
+  private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+  private static final Clips[] CLIPS = Clips.values();
+
+  /** Plays a clip - called on the audio thread */
+  @FunctionalInterface
+  public interface Player {
+    /**
+     * @param clip
+     * @param tick game tick the clip was requested at
+     */
+    void play(Clips clip, long tick);
+
+    /**
+     * Stops all voices of the clip.
+     *
+     * @param clip
+     */
+    default void stop(Clips clip) {}
+  }
+
+  /* clips requested at a tick - one bit per clip - or clips to stop */
+  private static final class Batch {
+    final long clips;
+    final long tick;
+    final boolean stop;
+
+    Batch(long clips, long tick, boolean stop) {
+      this.clips = clips;
+      this.tick = tick;
+      this.stop = stop;
+    }
+  }
+
+  private final Player player;
+  private final AtomicLongArray durations;
+  private final int maxVoices;
+  private final int maxVoicesPerClip;
+  private final LongSupplier clock;
+
+  // clips requested in the current frame - one bit per clip
+  private final AtomicLong frameRequests = new AtomicLong();
+  // tick of the current frame
+  private volatile long frameTick = -1;
+  // clips to play
+  private final ConcurrentLinkedQueue<Batch> queue = new ConcurrentLinkedQueue<>();
+
+  // end times of the voices of each clip - only used by the audio thread
+  private final long[][] voiceEnds;
+
+  private volatile Thread audioThread = null;
+  private volatile boolean running = false;
+
+  // statistics
+  private final AtomicLong requested = new AtomicLong();
+  private final AtomicLong coalesced = new AtomicLong();
+  private final AtomicLong played = new AtomicLong();
+  private final AtomicLong dropped = new AtomicLong();
+
+  /**
+   * @param player plays a clip - called on the audio thread
+   * @param durations length of each clip in ns (indexed by ordinal) - a voice is busy that long
+   * @param maxVoices maximal number of sounds playing at the same time
+   * @param maxVoicesPerClip maximal number of sounds of the same clip playing at the same time
+   */
+  public SoundDispatcher(
+      Player player, long[] durations, int maxVoices, int maxVoicesPerClip) {
+    this(player, durations, maxVoices, maxVoicesPerClip, System::nanoTime);
+  }
+
+  SoundDispatcher(
+      Player player,
+      long[] durations,
+      int maxVoices,
+      int maxVoicesPerClip,
+      LongSupplier clock) {
+    if (CLIPS.length > Long.SIZE) throw new IllegalStateException("Too many clips for a bit set");
+    if (durations.length != CLIPS.length) throw new IllegalArgumentException("durations");
+    this.player = player;
+    this.durations = new AtomicLongArray(durations);
+    this.maxVoices = Math.max(1, maxVoices);
+    this.maxVoicesPerClip = Math.max(1, maxVoicesPerClip);
+    this.clock = clock;
+    this.voiceEnds = new long[CLIPS.length][this.maxVoicesPerClip];
+  }
+
+  /**
+   * Sets the length of a clip, e.g. when it has been loaded.
+   *
+   * @param clip
+   * @param nanos a voice of the clip is busy that long
+   */
+  public void setDuration(Clips clip, long nanos) {
+    durations.set(clip.ordinal(), nanos);
+  }
+
+  /** Starts the audio thread. */
+  public synchronized void start() {
+    if (running) return;
+    running = true;
+    final Thread thread = new Thread(this::run, "Sound Dispatcher");
+    thread.setDaemon(true);
+    audioThread = thread;
+    thread.start();
+  }
+
+  /** Stops the audio thread - queued sounds are discarded. */
+  public synchronized void stop() {
+    if (!running) return;
+    running = false;
+    final Thread thread = audioThread;
+    LockSupport.unpark(thread);
+    try {
+      thread.join(1000);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    audioThread = null;
+    queue.clear();
+    LOG.info(
+        "Sound dispatcher stopped - {} requests, {} coalesced, {} played, {} dropped",
+        requested.get(),
+        coalesced.get(),
+        played.get(),
+        dropped.get());
+  }
+
+  /**
+   * Requests a clip for the current frame. Repeated requests of the same clip in a frame are
+   * played once. Lock-free - can be called from any thread.
+   *
+   * @param clip
+   * @param tick the current game tick
+   */
+  public void request(Clips clip, long tick) {
+    requested.incrementAndGet();
+    frameTick = tick;
+    final long bit = 1L << clip.ordinal();
+    final long before = frameRequests.getAndAccumulate(bit, (a, b) -> a | b);
+    if ((before & bit) != 0) coalesced.incrementAndGet();
+  }
+
+  /** Hands the clips requested in the current frame over to the audio thread. */
+  public void endFrame() {
+    final long clips = frameRequests.getAndSet(0);
+    if (clips != 0) enqueue(new Batch(clips, frameTick, false));
+  }
+
+  /**
+   * Hands a clip over to the audio thread immediately - without coalescing.
+   *
+   * @param clip
+   * @param tick the current game tick
+   */
+  public void play(Clips clip, long tick) {
+    requested.incrementAndGet();
+    enqueue(new Batch(1L << clip.ordinal(), tick, false));
+  }
+
+  /**
+   * Stops all voices of a clip - after the sounds queued before.
+   *
+   * @param clip
+   */
+  public void stop(Clips clip) {
+    enqueue(new Batch(1L << clip.ordinal(), -1, true));
+  }
+
+  private void enqueue(Batch batch) {
+    queue.offer(batch);
+    final Thread thread = audioThread;
+    if (thread != null) LockSupport.unpark(thread);
+  }
+
+  private void run() {
+    while (running) {
+      if (!drain()) LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+    }
+  }
+
+  /**
+   * Plays all queued clips within the voice limits.
+   *
+   * @return true if anything was queued
+   */
+  boolean drain() {
+    Batch batch = queue.poll();
+    if (batch == null) return false;
+    while (batch != null) {
+      final long now = clock.getAsLong();
+      long bits = batch.clips;
+      while (bits != 0) {
+        final int ordinal = Long.numberOfTrailingZeros(bits);
+        bits &= bits - 1;
+        if (batch.stop) stopVoices(ordinal);
+        else playVoice(ordinal, batch.tick, now);
+      }
+      batch = queue.poll();
+    }
+    return true;
+  }
+
+  private void playVoice(int ordinal, long tick, long now) {
+    final long[] ends = voiceEnds[ordinal];
+    int free = -1;
+    for (int i = 0; i < ends.length && free < 0; i++) {
+      if (ends[i] <= now) free = i;
+    }
+    if (free < 0 || activeVoices(now) >= maxVoices) {
+      dropped.incrementAndGet();
+      return;
+    }
+    ends[free] = now + durations.get(ordinal);
+    played.incrementAndGet();
+    try {
+      player.play(CLIPS[ordinal], tick);
+    } catch (RuntimeException e) {
+      LOG.warn("Clip {} could not be played", CLIPS[ordinal], e);
+    }
+  }
+
+  private void stopVoices(int ordinal) {
+    // the voices are free again
+    Arrays.fill(voiceEnds[ordinal], 0);
+    try {
+      player.stop(CLIPS[ordinal]);
+    } catch (RuntimeException e) {
+      LOG.warn("Clip {} could not be stopped", CLIPS[ordinal], e);
+    }
+  }
+
+  private int activeVoices(long now) {
+    int active = 0;
+    for (long[] ends : voiceEnds) {
+      for (long end : ends) if (end > now) active++;
+    }
+    return active;
+  }
+
+  /** @return number of requested sounds */
+  public long getRequested() {
+    return requested.get();
+  }
+
+  /** @return number of requests merged with an earlier request of the same frame */
+  public long getCoalesced() {
+    return coalesced.get();
+  }
+
+  /** @return number of sounds played */
+  public long getPlayed() {
+    return played.get();
+  }
+
+  /** @return number of sounds dropped because of the voice limits */
+  public long getDropped() {
+    return dropped.get();
+  }
+}
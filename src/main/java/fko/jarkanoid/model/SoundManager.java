@@ -24,21 +24,41 @@
  */
 package fko.jarkanoid.model;
 
+import java.io.IOException;
 import java.net.URL;
 import java.util.Arrays;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
 
 import fko.jarkanoid.Jarkanoid;
-import javafx.scene.media.AudioClip;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import javax.sound.sampled.LineUnavailableException;
+
 /**
  * Sounds
  * <p>
  * Loads all main.resources.sounds and maps them to an enumeration for easy access.
  * <p>
+ * Clips are played by a {@link SoundDispatcher} on its own thread. Sounds of collisions are
+ * requested with {@link #requestClip(Clips)} and played once per frame at most (see
+ * {@link #endFrame()}). The number of voices is limited by the system properties
+ * <code>jarkanoid.sound.voices</code> and <code>jarkanoid.sound.voicesPerClip</code>.
+ * <p>
+ * The clips are loaded in parallel in the background, so creating the instance does not delay
+ * the start of the game. A clip which is played before it has been loaded is skipped.
+ * <p>
+ * The clips are played by an {@link AudioBackend} chosen with the system property
+ * <code>jarkanoid.sound.backend</code> (<code>javafx</code>, <code>mixer</code>,
+ * <code>recording</code> or <code>null</code>). Headless runs use the null backend by default.
+ * <p>
  */
 public final class SoundManager {
 
@@ -74,48 +94,176 @@ public final class SoundManager {
     }
   }
 
-  // Singleton instance
-  private static SoundManager instance = null;
-
   // folder to all sound files
   private static final String SOUND_FOLDER = "/sounds/";
 
-  // available main.resources.sounds mapped by the enum
-  private final Map<Clips, AudioClip> _sounds;
+  // voice limits of the dispatcher
+  private static final int MAX_VOICES = Integer.getInteger("jarkanoid.sound.voices", 8);
+  private static final int MAX_VOICES_PER_CLIP =
+      Integer.getInteger("jarkanoid.sound.voicesPerClip", 2);
+
+  // assumed length of a clip if it can't be read from the file
+  private static final long DEFAULT_DURATION = TimeUnit.MILLISECONDS.toNanos(500);
+
+  // plays the clips
+  private final AudioBackend backend;
+
+  // available main.resources.sounds - filled while loading
+  private final Set<Clips> _sounds = ConcurrentHashMap.newKeySet();
+
+  // completes when all clips have been loaded
+  private final CompletableFuture<Void> loaded;
+
+  // plays the clips on the audio thread
+  private final SoundDispatcher dispatcher;
 
   // sound on/off
-  private boolean soundOn = true;
+  private volatile boolean soundOn = true;
+
+  // current game tick - read by the thread requesting a clip
+  private volatile LongSupplier tickSource = () -> -1;
+
+  // Singleton instance - created when first used
+  private static final class Holder {
+    static final SoundManager INSTANCE = new SoundManager(createBackend());
+  }
 
   /**
-   * Get theSounds instance with all main.resources.sounds available
+   * Get theSounds instance - the sounds are loaded in the background
    */
-  public synchronized static SoundManager getInstance() {
-    if (instance == null) {
-      instance = new SoundManager();
+  public static SoundManager getInstance() {
+    return Holder.INSTANCE;
+  }
+
+  /* the backend chosen by jarkanoid.sound.backend */
+  private static AudioBackend createBackend() {
+    final String name =
+        System.getProperty(
+            "jarkanoid.sound.backend",
+            Boolean.getBoolean("java.awt.headless") ? "null" : "javafx");
+    switch (name) {
+      case "null":
+        return new NullAudioBackend();
+      case "recording":
+        return new RecordingAudioBackend();
+      case "mixer":
+        try {
+          return new MixerAudioBackend();
+        } catch (LineUnavailableException | IllegalArgumentException e) {
+          LOG.warn("No audio line available - sound is off", e);
+          return new NullAudioBackend();
+        }
+      case "javafx":
+        return new JavaFxAudioBackend();
+      default:
+        LOG.warn("Unknown sound backend {} - using javafx", name);
+        return new JavaFxAudioBackend();
     }
-    return instance;
   }
 
   /**
-   * Create an object with all Tetris main.resources.sounds available
+   * Create an object and starts loading all main.resources.sounds
+   * @param backend plays the clips
    */
-  private SoundManager() {
-    _sounds = new HashMap<>();
+  SoundManager(AudioBackend backend) {
+    this.backend = backend;
+    LOG.info("Sound backend {}", backend.getName());
+    final long[] durations = new long[Clips.values().length];
+    Arrays.fill(durations, DEFAULT_DURATION);
+    final SoundDispatcher.Player player =
+        new SoundDispatcher.Player() {
+          @Override
+          public void play(Clips clip, long tick) {
+            SoundManager.this.play(clip, tick);
+          }
+
+          @Override
+          public void stop(Clips clip) {
+            backend.stop(clip);
+          }
+        };
+    dispatcher = new SoundDispatcher(player, durations, MAX_VOICES, MAX_VOICES_PER_CLIP);
+    dispatcher.start();
+
+    final int threads =
+        Math.min(Clips.values().length, Runtime.getRuntime().availableProcessors());
+    final AtomicInteger threadNumber = new AtomicInteger();
+    final ExecutorService loader =
+        Executors.newFixedThreadPool(
+            threads,
+            r -> {
+              final Thread t = new Thread(r, "Sound Loader " + threadNumber.incrementAndGet());
+              t.setDaemon(true);
+              return t;
+            });
+    final long start = System.nanoTime();
     // for all defined values in ENUM Clips
     // read in the Clip and store them in the Map
-    Arrays.stream(Clips.values())
-    .forEach(c -> {
-      final String filename = SOUND_FOLDER + c._name+".wav";
-      final URL url = Jarkanoid.class.getResource(filename);
-      // create AudioInputStream object
-      if (url != null) {
-        AudioClip clip = new AudioClip(url.toExternalForm());
-        _sounds.put(c, clip);
-      } else {
-        LOG.warn("Sound file {} cannot be loaded!", filename);
-      }
-    });
-    LOG.info("Loaded {} sounds.", _sounds.size());
+    loaded =
+        CompletableFuture.allOf(
+            Arrays.stream(Clips.values())
+                .map(c -> CompletableFuture.runAsync(() -> load(c), loader))
+                .toArray(CompletableFuture[]::new));
+    loaded.whenComplete(
+        (result, e) -> {
+          loader.shutdown();
+          LOG.info(
+              "Loaded {} sounds in {} ms.",
+              _sounds.size(),
+              TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        });
+  }
+
+  /* called on a loader thread */
+  private void load(Clips c) {
+    final long start = System.nanoTime();
+    final String filename = SOUND_FOLDER + c._name + ".wav";
+    final URL url = Jarkanoid.class.getResource(filename);
+    if (url == null) {
+      LOG.warn("Sound file {} cannot be loaded!", filename);
+      return;
+    }
+    try {
+      final long duration = backend.load(c, url);
+      if (duration > 0) dispatcher.setDuration(c, duration);
+      _sounds.add(c);
+      LOG.info(
+          "Loaded sound {} in {} ms",
+          filename,
+          String.format("%.1f", (System.nanoTime() - start) / 1e6));
+    } catch (IOException | RuntimeException e) {
+      LOG.warn("Sound file {} cannot be loaded!", filename, e);
+    }
+  }
+
+  /**
+   * @return completes when all clips have been loaded
+   */
+  public CompletableFuture<Void> loaded() {
+    return loaded;
+  }
+
+  /**
+   * @param c enum from Clips
+   * @return true if the clip has been loaded and can be played
+   */
+  public boolean isLoaded(Clips c) {
+    return _sounds.contains(c);
+  }
+
+  /* called on the audio thread of the dispatcher */
+  private void play(Clips c, long tick) {
+    if (!soundOn) return;
+    backend.play(c, tick);
+  }
+
+  /**
+   * Sets the source of the game tick which is passed to the backend with each clip. It is read
+   * by the thread calling playClip or requestClip.
+   * @param tickSource the current game tick - null for none
+   */
+  public void setTickSource(LongSupplier tickSource) {
+    this.tickSource = tickSource == null ? () -> -1 : tickSource;
   }
 
   /**
@@ -123,9 +271,47 @@ public final class SoundManager {
    * @param c enum from Clips
    */
   public void playClip(Clips c) {
-    if (_sounds.get(c) == null || !soundOn) return;
-    AudioClip clip = _sounds.get(c);
-    clip.play();
+    if (!_sounds.contains(c) || !soundOn) return;
+    dispatcher.play(c, tickSource.getAsLong());
+  }
+
+  /**
+   * Plays the given clip once at the end of the current frame - requests of the same clip in one
+   * frame are played once.
+   * @param c enum from Clips
+   */
+  public void requestClip(Clips c) {
+    if (!_sounds.contains(c) || !soundOn) return;
+    dispatcher.request(c, tickSource.getAsLong());
+  }
+
+  /**
+   * Ends the current frame - the requested clips are played.
+   */
+  public void endFrame() {
+    dispatcher.endFrame();
+  }
+
+  /**
+   * Stops playing and releases the audio resources.
+   */
+  public void shutdown() {
+    dispatcher.stop();
+    backend.close();
+  }
+
+  /**
+   * @return the backend playing the clips
+   */
+  public AudioBackend getBackend() {
+    return backend;
+  }
+
+  /**
+   * @return the dispatcher playing the clips
+   */
+  public SoundDispatcher getDispatcher() {
+    return dispatcher;
   }
 
   /**
@@ -133,9 +319,9 @@ public final class SoundManager {
    * @param c enum from Clips
    */
   public void stopClip(Clips c) {
-    if (_sounds.get(c) == null || !soundOn) return;
-    AudioClip clip = _sounds.get(c);
-    if (clip.isPlaying()) clip.stop();
+    if (!_sounds.contains(c) || !soundOn) return;
+    // queued behind a play of the clip which has not been played yet
+    dispatcher.stop(c);
   }
 
   /**
@@ -38,11 +38,28 @@ public class LevelLoaderFormatException extends RuntimeException {
 	
 	private static final long serialVersionUID = 1L;
 
+	// position of the error in the level file - 1 based, 0 if unknown
+	private final int line;
+	private final int column;
+
 	/**
 	 * Create empty LevelLoaderFormatException.
 	 */
 	public LevelLoaderFormatException() {
 		super();
+		this.line = 0;
+		this.column = 0;
+	}
+
+	/**
+	 * @param message
+	 * @param line line in the level file (1 based)
+	 * @param column character column in the line (1 based) or 0 if the whole line is affected
+	 */
+	public LevelLoaderFormatException(String message, int line, int column) {
+		super(message);
+		this.line = line;
+		this.column = column;
 	}
 
 	/**
@@ -54,6 +71,8 @@ public class LevelLoaderFormatException extends RuntimeException {
 	public LevelLoaderFormatException(String message, Throwable cause, boolean enableSuppression,
 			boolean writableStackTrace) {
 		super(message, cause, enableSuppression, writableStackTrace);
+		this.line = 0;
+		this.column = 0;
 	}
 
 	/**
@@ -62,6 +81,8 @@ public class LevelLoaderFormatException extends RuntimeException {
 	 */
 	public LevelLoaderFormatException(String message, Throwable cause) {
 		super(message, cause);
+		this.line = 0;
+		this.column = 0;
 	}
 
 	/**
@@ -69,6 +90,8 @@ public class LevelLoaderFormatException extends RuntimeException {
 	 */
 	public LevelLoaderFormatException(String message) {
 		super(message);
+		this.line = 0;
+		this.column = 0;
 	}
 
 	/**
@@ -76,5 +99,21 @@ public class LevelLoaderFormatException extends RuntimeException {
 	 */
 	public LevelLoaderFormatException(Throwable cause) {
 		super(cause);
+		this.line = 0;
+		this.column = 0;
+	}
+
+	/**
+	 * @return line in the level file where the error was found (1 based) or 0 if unknown
+	 */
+	public int getLine() {
+		return line;
+	}
+
+	/**
+	 * @return character column in the line where the error was found (1 based) or 0 if unknown
+	 */
+	public int getColumn() {
+		return column;
 	}
 }
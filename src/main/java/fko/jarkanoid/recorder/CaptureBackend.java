@@ -0,0 +1,57 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018 Frank Kopp
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+package fko.jarkanoid.recorder;
+
+/**
+ * CaptureBackend
+ *
+ * <p>Source of the pixels the {@link Recorder} captures. Implementations are called from the
+ * recorder's capture thread.
+ *
+ * <p>19.10.2026
+ *
+ * @author Frank Kopp
+ */
+public interface CaptureBackend {
+
+  /** @return width of the next capture in pixels */
+  int getWidth();
+
+  /** @return height of the next capture in pixels */
+  int getHeight();
+
+  /**
+   * Captures the current picture into the frame. The frame has the size returned by
+   * <code>getWidth()</code> and <code>getHeight()</code> before the call.
+   *
+   * @param frame
+   * @return true if the frame has been filled
+   * @throws InterruptedException while waiting for the capture
+   */
+  boolean capture(Frame frame) throws InterruptedException;
+
+  /** @return short name for logging */
+  String getName();
+}
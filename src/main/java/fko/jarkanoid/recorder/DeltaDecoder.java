@@ -0,0 +1,135 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018 Frank Kopp
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+package fko.jarkanoid.recorder;
+
+import java.nio.ByteBuffer;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * DeltaDecoder
+ *
+ * <p>Decodes frames written by {@link DeltaEncoder} back into full frames. Frames must be decoded
+ * in order starting with a keyframe - each frame is applied on top of the previous one.
+ *
+ * <p>19.10.2026
+ *
+ * @author Frank Kopp
+ */
+public final class DeltaDecoder {
+
+  private final Inflater inflater = new Inflater();
+  private Frame frame = null;
+  private byte[] raw = new byte[0];
+
+  /**
+   * @param payload a frame encoded by {@link DeltaEncoder}
+   * @return true if the frame is a keyframe
+   */
+  public static boolean isKeyframe(ByteBuffer payload) {
+    return payload.get(payload.position()) == DeltaEncoder.KEYFRAME;
+  }
+
+  /**
+   * Applies the encoded frame to the current frame.
+   *
+   * @param payload a frame encoded by {@link DeltaEncoder} - not modified
+   * @return the current frame - reused by the next call
+   * @throws IllegalStateException if the data is corrupt or a delta frame comes before a keyframe
+   */
+  public Frame decode(ByteBuffer payload) {
+    final ByteBuffer in = payload.duplicate();
+    final byte type = in.get();
+    final int width = in.getInt();
+    final int height = in.getInt();
+    final int tileSize = in.get() & 0xFF;
+    if (type == DeltaEncoder.KEYFRAME) {
+      if (frame == null) frame = new Frame(width, height);
+      else frame.ensureSize(width, height);
+    } else if (frame == null || frame.getWidth() != width || frame.getHeight() != height) {
+      throw new IllegalStateException("Delta frame without matching keyframe");
+    }
+
+    final int tilesX = (width + tileSize - 1) / tileSize;
+    final int tilesY = (height + tileSize - 1) / tileSize;
+    final int bitmapBytes = (tilesX * tilesY + 7) / 8;
+    final int maxRaw = bitmapBytes + 3 * width * height;
+    if (raw.length < maxRaw) raw = new byte[maxRaw];
+    inflate(in, maxRaw);
+
+    final int[] pixels = frame.getPixels();
+    int pos = bitmapBytes;
+    int tile = 0;
+    for (int ty = 0; ty < tilesY; ty++) {
+      final int y0 = ty * tileSize;
+      final int y1 = Math.min(y0 + tileSize, height);
+      for (int tx = 0; tx < tilesX; tx++, tile++) {
+        if ((raw[tile >> 3] & (1 << (tile & 7))) == 0) continue;
+        final int x0 = tx * tileSize;
+        final int x1 = Math.min(x0 + tileSize, width);
+        for (int y = y0; y < y1; y++) {
+          final int row = y * width;
+          for (int i = row + x0; i < row + x1; i++) {
+            pixels[i] =
+                0xFF000000
+                    | (raw[pos] & 0xFF) << 16
+                    | (raw[pos + 1] & 0xFF) << 8
+                    | raw[pos + 2] & 0xFF;
+            pos += 3;
+          }
+        }
+      }
+    }
+    return frame;
+  }
+
+  private void inflate(ByteBuffer in, int maxRaw) {
+    inflater.reset();
+    if (in.hasArray()) {
+      inflater.setInput(in.array(), in.arrayOffset() + in.position(), in.remaining());
+    } else {
+      final byte[] data = new byte[in.remaining()];
+      in.get(data);
+      inflater.setInput(data);
+    }
+    try {
+      int length = 0;
+      while (!inflater.finished() && length < maxRaw) {
+        final int n = inflater.inflate(raw, length, maxRaw - length);
+        if (n == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+          throw new IllegalStateException("Truncated delta frame");
+        }
+        length += n;
+      }
+    } catch (DataFormatException e) {
+      throw new IllegalStateException("Corrupt delta frame", e);
+    }
+  }
+
+  /** Frees the native resources of the inflater. */
+  public void close() {
+    inflater.end();
+  }
+}
@@ -0,0 +1,188 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018 Frank Kopp
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+package fko.jarkanoid.recorder;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.zip.Deflater;
+
+/**
+ * DeltaEncoder
+ *
+ * <p>Lossless encoder for recorder frames which only stores what changed since the previous
+ * frame. The frame is divided into tiles of {@value #TILE} x {@value #TILE} pixels and only the
+ * tiles which differ from the previous frame are stored. Every <code>keyframeInterval</code>
+ * frames (and whenever the size changes) all tiles are stored so playback can start there.
+ *
+ * <p>Encoded frame ({@link FrameArchive#CODEC_DELTA}):
+ *
+ * <pre>
+ * [byte type][int width][int height][byte tileSize] deflate([tile bitmap][RGB of changed tiles])
+ * </pre>
+ *
+ * Frames must be encoded in order - not thread safe. See {@link DeltaDecoder}.
+ *
+ * <p>19.10.2026
+ *
+ * @author Frank Kopp
+ */
+public final class DeltaEncoder {
+
+  /** Width and height of a tile in pixels */
+  public static final int TILE = 32;
+
+  static final byte KEYFRAME = 0;
+  static final byte DELTA = 1;
+  static final int HEADER_BYTES = 10;
+
+  private final int keyframeInterval;
+  private final Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+
+  private int width;
+  private int height;
+  private int[] previous = null;
+  private int sinceKeyframe = 0;
+
+  // reused between frames
+  private byte[] raw = new byte[0];
+  private byte[] out = new byte[0];
+
+  // statistics
+  private long frames = 0;
+  private long tilesTotal = 0;
+  private long tilesStored = 0;
+
+  /** @param keyframeInterval a full frame is stored every this many frames */
+  public DeltaEncoder(int keyframeInterval) {
+    if (keyframeInterval < 1) throw new IllegalArgumentException("keyframeInterval < 1");
+    this.keyframeInterval = keyframeInterval;
+  }
+
+  /**
+   * Encodes the frame and remembers it as reference for the next frame.
+   *
+   * @param frame
+   * @return the encoded frame - valid until the next call
+   */
+  public ByteBuffer encode(Frame frame) {
+    final int[] pixels = frame.getPixels();
+    final boolean key =
+        previous == null
+            || frame.getWidth() != width
+            || frame.getHeight() != height
+            || sinceKeyframe >= keyframeInterval;
+    if (key) {
+      width = frame.getWidth();
+      height = frame.getHeight();
+      previous = new int[pixels.length];
+      sinceKeyframe = 0;
+    }
+    sinceKeyframe++;
+
+    final int tilesX = (width + TILE - 1) / TILE;
+    final int tilesY = (height + TILE - 1) / TILE;
+    final int bitmapBytes = (tilesX * tilesY + 7) / 8;
+    final int maxRaw = bitmapBytes + 3 * pixels.length;
+    if (raw.length < maxRaw) raw = new byte[maxRaw];
+    Arrays.fill(raw, 0, bitmapBytes, (byte) 0);
+
+    int pos = bitmapBytes;
+    int tile = 0;
+    int stored = 0;
+    for (int ty = 0; ty < tilesY; ty++) {
+      final int y0 = ty * TILE;
+      final int y1 = Math.min(y0 + TILE, height);
+      for (int tx = 0; tx < tilesX; tx++, tile++) {
+        final int x0 = tx * TILE;
+        final int x1 = Math.min(x0 + TILE, width);
+        if (!key && !changed(pixels, x0, x1, y0, y1)) continue;
+        raw[tile >> 3] |= 1 << (tile & 7);
+        stored++;
+        for (int y = y0; y < y1; y++) {
+          final int row = y * width;
+          for (int i = row + x0; i < row + x1; i++) {
+            final int rgb = pixels[i];
+            raw[pos++] = (byte) (rgb >> 16);
+            raw[pos++] = (byte) (rgb >> 8);
+            raw[pos++] = (byte) rgb;
+          }
+          System.arraycopy(pixels, row + x0, previous, row + x0, x1 - x0);
+        }
+      }
+    }
+
+    frames++;
+    tilesTotal += tile;
+    tilesStored += stored;
+    return deflate(key ? KEYFRAME : DELTA, pos);
+  }
+
+  private boolean changed(int[] pixels, int x0, int x1, int y0, int y1) {
+    for (int y = y0; y < y1; y++) {
+      final int row = y * width;
+      for (int i = row + x0; i < row + x1; i++) {
+        if (pixels[i] != previous[i]) return true;
+      }
+    }
+    return false;
+  }
+
+  private ByteBuffer deflate(byte type, int rawLength) {
+    final int maxOut = HEADER_BYTES + rawLength + rawLength / 1000 + 64;
+    if (out.length < maxOut) out = new byte[maxOut];
+    final ByteBuffer header = ByteBuffer.wrap(out, 0, HEADER_BYTES);
+    header.put(type).putInt(width).putInt(height).put((byte) TILE);
+
+    deflater.reset();
+    deflater.setInput(raw, 0, rawLength);
+    deflater.finish();
+    int length = HEADER_BYTES;
+    while (!deflater.finished()) {
+      if (length == out.length) out = Arrays.copyOf(out, out.length * 2);
+      length += deflater.deflate(out, length, out.length - length);
+    }
+    return ByteBuffer.wrap(out, 0, length);
+  }
+
+  /** Forces the next frame to be a keyframe. */
+  public void reset() {
+    previous = null;
+  }
+
+  /** @return number of frames encoded */
+  public long getFrames() {
+    return frames;
+  }
+
+  /** @return share of the tiles which had to be stored */
+  public double getStoredTileRatio() {
+    return tilesTotal == 0 ? 0 : (double) tilesStored / tilesTotal;
+  }
+
+  /** Frees the native resources of the deflater. */
+  public void close() {
+    deflater.end();
+  }
+}
@@ -0,0 +1,139 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018 Frank Kopp
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+package fko.jarkanoid.recorder;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+
+/**
+ * Frame
+ *
+ * <p>Reusable frame buffer of the recorder. The pixels are a plain <code>int[]</code> (RGB) which
+ * is shared with a {@link BufferedImage} so a frame can be drawn into and encoded without
+ * copying. Frames are owned by a {@link FrameRing} and recycled after they have been written.
+ *
+ * <p>19.10.2026
+ *
+ * @author Frank Kopp
+ */
+public final class Frame {
+
+  private int width;
+  private int height;
+  private int[] pixels;
+  private BufferedImage image;
+
+  // set for each capture
+  private long index;
+  private long tick = FrameArchive.NO_TICK;
+  private long timestamp;
+
+  Frame(int width, int height) {
+    allocate(width, height);
+  }
+
+  /**
+   * Makes sure the frame has the given size. The buffer is only reallocated if the size changes.
+   *
+   * @param width
+   * @param height
+   */
+  public void ensureSize(int width, int height) {
+    if (width != this.width || height != this.height) allocate(width, height);
+  }
+
+  private void allocate(int width, int height) {
+    this.width = width;
+    this.height = height;
+    this.image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+    this.pixels = ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+  }
+
+  /**
+   * Copies the pixels of the image into the frame and resizes the frame if necessary.
+   *
+   * @param source
+   */
+  public void copyFrom(BufferedImage source) {
+    ensureSize(source.getWidth(), source.getHeight());
+    source.getRGB(0, 0, width, height, pixels, 0, width);
+  }
+
+  /** @return the pixels as RGB, row by row - shared with <code>getImage()</code> */
+  public int[] getPixels() {
+    return pixels;
+  }
+
+  /** @return image backed by the pixels of this frame */
+  public BufferedImage getImage() {
+    return image;
+  }
+
+  public int getWidth() {
+    return width;
+  }
+
+  public int getHeight() {
+    return height;
+  }
+
+  /** @return size of the pixel buffer in bytes */
+  public long getBytes() {
+    return 4L * width * height;
+  }
+
+  /** @return number of the frame since the recording started */
+  public long getIndex() {
+    return index;
+  }
+
+  /**
+   * @return game tick the frame shows - {@link FrameArchive#NO_TICK} if it was not captured in
+   *     sync with the game
+   */
+  public long getTick() {
+    return tick;
+  }
+
+  /** @return capture time in ns (System.nanoTime()) */
+  public long getTimestamp() {
+    return timestamp;
+  }
+
+  void setCaptured(long index, long timestamp) {
+    setCaptured(index, FrameArchive.NO_TICK, timestamp);
+  }
+
+  void setCaptured(long index, long tick, long timestamp) {
+    this.index = index;
+    this.tick = tick;
+    this.timestamp = timestamp;
+  }
+
+  @Override
+  public String toString() {
+    return "Frame [#" + index + " tick " + tick + " " + width + "x" + height + "]";
+  }
+}
@@ -0,0 +1,101 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018 Frank Kopp
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+package fko.jarkanoid.recorder;
+
+/**
+ * FrameArchive
+ *
+ * <p>Layout of the recorder's single file frame archive (<code>.jfa</code>):
+ *
+ * <pre>
+ * header  [int magic][int version][long indexOffset][int frameCount][int reserved]
+ * frames  [int payloadLength][int codec][int width][int height][long frameIndex][long tick]
+ *         [long timestamp][payload]
+ * index   [long fileOffset][long frameIndex][long tick][long timestamp] per frame
+ * </pre>
+ *
+ * The index offset and frame count in the header are written when the archive is closed. An
+ * archive which has not been closed has an index offset of 0 and its frames are found by reading
+ * them one after another.
+ *
+ * <p>The tick is the game's simulation tick a frame shows, or -1 if the frame was not captured in
+ * sync with the game. Version 1 archives have no tick fields and are still read.
+ *
+ * <p>19.10.2026
+ *
+ * @author Frank Kopp
+ */
+public final class FrameArchive {
+
+  static final int MAGIC = 0x4A4B4641; // "JKFA"
+  static final int VERSION = 2;
+  static final int HEADER_BYTES = 24;
+  static final int FRAME_HEADER_BYTES = 40;
+  static final int INDEX_ENTRY_BYTES = 32;
+
+  // version 1 - without ticks
+  static final int V1_FRAME_HEADER_BYTES = 32;
+  static final int V1_INDEX_ENTRY_BYTES = 24;
+
+  /** Tick of frames which have not been captured in sync with the game */
+  public static final long NO_TICK = -1;
+
+  // header field positions
+  static final int INDEX_OFFSET_POSITION = 8;
+  static final int FRAME_COUNT_POSITION = 16;
+
+  /** Payload is a JPEG image */
+  public static final int CODEC_JPEG = 1;
+  /** Payload is a PNG image */
+  public static final int CODEC_PNG = 2;
+  /** Payload is a tile delta frame of {@link DeltaEncoder} */
+  public static final int CODEC_DELTA = 3;
+
+  /** File name extension of frame archives */
+  public static final String EXTENSION = ".jfa";
+
+  private FrameArchive() {}
+
+  /** Position and description of a frame in an archive. */
+  public static final class Entry {
+
+    public final long fileOffset;
+    public final long frameIndex;
+    public final long tick;
+    public final long timestamp;
+
+    Entry(long fileOffset, long frameIndex, long tick, long timestamp) {
+      this.fileOffset = fileOffset;
+      this.frameIndex = frameIndex;
+      this.tick = tick;
+      this.timestamp = timestamp;
+    }
+
+    @Override
+    public String toString() {
+      return "Entry [frame=" + frameIndex + ", tick=" + tick + ", offset=" + fileOffset + "]";
+    }
+  }
+}
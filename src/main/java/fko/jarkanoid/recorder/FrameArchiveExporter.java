@@ -0,0 +1,116 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018 Frank Kopp
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+package fko.jarkanoid.recorder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * FrameArchiveExporter
+ *
+ * <p>Exports the frames of a {@link FrameArchive} as single image files (e.g. to build a video
+ * with external tools). Delta frames are decoded in order into full frames, JPEG frames are
+ * copied unchanged when exported as JPEG.
+ *
+ * <p>Usage: <code>FrameArchiveExporter archive folder [png|jpg]</code>
+ *
+ * <p>19.10.2026
+ *
+ * @author Frank Kopp
+ */
+public final class FrameArchiveExporter {
+
+  private static final Logger LOG = LoggerFactory.getLogger(FrameArchiveExporter.class);
+
+  private FrameArchiveExporter() {}
+
+  /**
+   * Writes each frame as <code>folder/%08d.format</code> named by its frame number.
+   *
+   * @param archive
+   * @param folder created if it does not exist
+   * @param format image format for ImageIO, e.g. "png"
+   * @return number of frames exported
+   * @throws IOException
+   */
+  public static int export(Path archive, Path folder, String format) throws IOException {
+    Files.createDirectories(folder);
+    final boolean jpeg = "jpg".equalsIgnoreCase(format) || "jpeg".equalsIgnoreCase(format);
+    final DeltaDecoder decoder = new DeltaDecoder();
+    try (FrameArchiveReader reader = new FrameArchiveReader(archive)) {
+      for (int i = 0; i < reader.size(); i++) {
+        final Path file =
+            folder.resolve(String.format("%08d.%s", reader.getEntry(i).frameIndex, format));
+        final int codec = reader.getCodec(i);
+        if (codec == FrameArchive.CODEC_JPEG && jpeg) {
+          copy(reader.getPayload(i), file);
+          continue;
+        }
+        final BufferedImage image;
+        if (codec == FrameArchive.CODEC_DELTA) {
+          image = decoder.decode(reader.getPayload(i)).getImage();
+        } else {
+          image = reader.getImage(i);
+        }
+        if (!ImageIO.write(image, format, file.toFile())) {
+          throw new IOException("No image writer for format " + format);
+        }
+      }
+      LOG.info("Exported {} frames of {} to {}", reader.size(), archive, folder);
+      return reader.size();
+    } finally {
+      decoder.close();
+    }
+  }
+
+  private static void copy(ByteBuffer payload, Path file) throws IOException {
+    try (FileChannel out =
+        FileChannel.open(
+            file,
+            StandardOpenOption.CREATE,
+            StandardOpenOption.WRITE,
+            StandardOpenOption.TRUNCATE_EXISTING)) {
+      while (payload.hasRemaining()) out.write(payload);
+    }
+  }
+
+  public static void main(String[] args) throws IOException {
+    if (args.length < 2) {
+      System.err.println("Usage: FrameArchiveExporter archive folder [png|jpg]");
+      System.exit(1);
+    }
+    export(Paths.get(args[0]), Paths.get(args[1]), args.length > 2 ? args[2] : "png");
+  }
+}
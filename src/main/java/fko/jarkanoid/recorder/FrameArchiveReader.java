@@ -0,0 +1,210 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018 Frank Kopp
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+package fko.jarkanoid.recorder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * FrameArchiveReader
+ *
+ * <p>Reads a {@link FrameArchive}. Frames are ordered by their frame number, whatever order they
+ * were appended in. If the archive has not been closed properly (no index) its frames are found
+ * by reading them one after another up to the first incomplete frame.
+ *
+ * <p>19.10.2026
+ *
+ * @author Frank Kopp
+ */
+public final class FrameArchiveReader implements Closeable {
+
+  private static final Logger LOG = LoggerFactory.getLogger(FrameArchiveReader.class);
+
+  private final FileChannel channel;
+  private final List<FrameArchive.Entry> entries;
+  private final int version;
+  private final int frameHeaderBytes;
+
+  /**
+   * @param path
+   * @throws IOException if the file can't be read or is not a frame archive
+   */
+  public FrameArchiveReader(Path path) throws IOException {
+    channel = FileChannel.open(path, StandardOpenOption.READ);
+    try {
+      final ByteBuffer header = read(0, FrameArchive.HEADER_BYTES);
+      if (header.getInt() != FrameArchive.MAGIC) {
+        throw new IOException("Not a frame archive: " + path);
+      }
+      version = header.getInt();
+      if (version < 1 || version > FrameArchive.VERSION) {
+        throw new IOException("Unsupported frame archive version " + version + ": " + path);
+      }
+      frameHeaderBytes =
+          version == 1 ? FrameArchive.V1_FRAME_HEADER_BYTES : FrameArchive.FRAME_HEADER_BYTES;
+      final long indexOffset = header.getLong();
+      final int frameCount = header.getInt();
+      if (indexOffset > 0) {
+        entries = readIndex(indexOffset, frameCount);
+      } else {
+        LOG.warn("Frame archive {} has no index - scanning frames", path);
+        entries = scan();
+      }
+      entries.sort(Comparator.comparingLong(e -> e.frameIndex));
+    } catch (IOException | RuntimeException e) {
+      channel.close();
+      throw e;
+    }
+  }
+
+  /** @return number of frames */
+  public int size() {
+    return entries.size();
+  }
+
+  /**
+   * @param i position in frame order
+   * @return description of the frame
+   */
+  public FrameArchive.Entry getEntry(int i) {
+    return entries.get(i);
+  }
+
+  /**
+   * @param i position in frame order
+   * @return codec of the frame
+   * @throws IOException
+   */
+  public int getCodec(int i) throws IOException {
+    return read(entries.get(i).fileOffset, frameHeaderBytes).getInt(4);
+  }
+
+  /**
+   * @param i position in frame order
+   * @return width of the frame
+   * @throws IOException
+   */
+  public int getWidth(int i) throws IOException {
+    return read(entries.get(i).fileOffset, frameHeaderBytes).getInt(8);
+  }
+
+  /**
+   * @param i position in frame order
+   * @return height of the frame
+   * @throws IOException
+   */
+  public int getHeight(int i) throws IOException {
+    return read(entries.get(i).fileOffset, frameHeaderBytes).getInt(12);
+  }
+
+  /**
+   * @param i position in frame order
+   * @return the encoded frame
+   * @throws IOException
+   */
+  public ByteBuffer getPayload(int i) throws IOException {
+    final long offset = entries.get(i).fileOffset;
+    final int length = read(offset, frameHeaderBytes).getInt(0);
+    return read(offset + frameHeaderBytes, length);
+  }
+
+  /**
+   * Decodes a JPEG or PNG frame.
+   *
+   * @param i position in frame order
+   * @return the image
+   * @throws IOException
+   */
+  public BufferedImage getImage(int i) throws IOException {
+    final ByteBuffer payload = getPayload(i);
+    return ImageIO.read(
+        new ByteArrayInputStream(payload.array(), payload.arrayOffset(), payload.remaining()));
+  }
+
+  @Override
+  public void close() throws IOException {
+    channel.close();
+  }
+
+  private List<FrameArchive.Entry> readIndex(long indexOffset, int frameCount) throws IOException {
+    final int entryBytes =
+        version == 1 ? FrameArchive.V1_INDEX_ENTRY_BYTES : FrameArchive.INDEX_ENTRY_BYTES;
+    final ByteBuffer index = read(indexOffset, frameCount * entryBytes);
+    final List<FrameArchive.Entry> list = new ArrayList<>(frameCount);
+    for (int i = 0; i < frameCount; i++) {
+      final long offset = index.getLong();
+      final long frameIndex = index.getLong();
+      final long tick = version == 1 ? FrameArchive.NO_TICK : index.getLong();
+      list.add(new FrameArchive.Entry(offset, frameIndex, tick, index.getLong()));
+    }
+    return list;
+  }
+
+  private List<FrameArchive.Entry> scan() throws IOException {
+    final List<FrameArchive.Entry> list = new ArrayList<>();
+    final long size = channel.size();
+    long offset = FrameArchive.HEADER_BYTES;
+    while (offset + frameHeaderBytes <= size) {
+      final ByteBuffer header = read(offset, frameHeaderBytes);
+      final int length = header.getInt(0);
+      if (length < 0 || offset + frameHeaderBytes + length > size) break;
+      if (version == 1) {
+        list.add(
+            new FrameArchive.Entry(
+                offset, header.getLong(16), FrameArchive.NO_TICK, header.getLong(24)));
+      } else {
+        list.add(
+            new FrameArchive.Entry(
+                offset, header.getLong(16), header.getLong(24), header.getLong(32)));
+      }
+      offset += frameHeaderBytes + length;
+    }
+    return list;
+  }
+
+  private ByteBuffer read(long position, int length) throws IOException {
+    final ByteBuffer buffer = ByteBuffer.allocate(length);
+    while (buffer.hasRemaining()) {
+      if (channel.read(buffer, position + buffer.position()) < 0) {
+        throw new IOException("Unexpected end of frame archive at " + position);
+      }
+    }
+    buffer.flip();
+    return buffer;
+  }
+}
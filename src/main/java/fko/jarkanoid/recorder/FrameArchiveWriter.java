@@ -0,0 +1,226 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018 Frank Kopp
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+package fko.jarkanoid.recorder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * FrameArchiveWriter
+ *
+ * <p>Appends encoded frames to a {@link FrameArchive} file. All data goes through one {@link
+ * FileChannel} and a direct buffer, so the disk only sees large sequential writes. The frame
+ * index is kept in memory and written at the end when the archive is closed.
+ *
+ * <p>Thread safe - frames may be appended by several encoder threads in any order, the index
+ * keeps each frame's number.
+ *
+ * <p>19.10.2026
+ *
+ * @author Frank Kopp
+ */
+public final class FrameArchiveWriter implements Closeable {
+
+  private static final Logger LOG = LoggerFactory.getLogger(FrameArchiveWriter.class);
+
+  private static final int BUFFER_BYTES = 1 << 20;
+
+  private final Path path;
+  private final FileChannel channel;
+  private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_BYTES);
+  private long position;
+
+  // index: offset, frame index, tick and timestamp per frame
+  private long[] index = new long[4 * 1024];
+  private int frameCount = 0;
+  private long payloadBytes = 0;
+  private boolean closed = false;
+
+  /**
+   * Creates or replaces the archive.
+   *
+   * @param path
+   * @throws IOException
+   */
+  public FrameArchiveWriter(Path path) throws IOException {
+    this.path = path;
+    this.channel =
+        FileChannel.open(
+            path,
+            StandardOpenOption.CREATE,
+            StandardOpenOption.WRITE,
+            StandardOpenOption.TRUNCATE_EXISTING);
+    buffer
+        .putInt(FrameArchive.MAGIC)
+        .putInt(FrameArchive.VERSION)
+        .putLong(0)
+        .putInt(0)
+        .putInt(0);
+    position = FrameArchive.HEADER_BYTES;
+  }
+
+  /**
+   * Appends an encoded frame which has not been captured in sync with the game.
+   *
+   * @see #append(long, long, long, int, int, int, ByteBuffer)
+   */
+  public void append(
+      long frameIndex, long timestamp, int width, int height, int codec, ByteBuffer payload)
+      throws IOException {
+    append(frameIndex, FrameArchive.NO_TICK, timestamp, width, height, codec, payload);
+  }
+
+  /**
+   * Appends an encoded frame.
+   *
+   * @param frameIndex number of the frame
+   * @param tick game tick shown by the frame or {@link FrameArchive#NO_TICK}
+   * @param timestamp capture time
+   * @param width
+   * @param height
+   * @param codec one of the codec constants of {@link FrameArchive}
+   * @param payload the encoded frame from its position to its limit - not modified
+   * @throws IOException
+   */
+  public synchronized void append(
+      long frameIndex,
+      long tick,
+      long timestamp,
+      int width,
+      int height,
+      int codec,
+      ByteBuffer payload)
+      throws IOException {
+    if (closed) throw new IOException("Frame archive is closed: " + path);
+    final ByteBuffer data = payload.duplicate();
+    final long offset = position;
+
+    if (buffer.remaining() < FrameArchive.FRAME_HEADER_BYTES) flush();
+    buffer
+        .putInt(data.remaining())
+        .putInt(codec)
+        .putInt(width)
+        .putInt(height)
+        .putLong(frameIndex)
+        .putLong(tick)
+        .putLong(timestamp);
+    position += FrameArchive.FRAME_HEADER_BYTES + data.remaining();
+    payloadBytes += data.remaining();
+
+    if (data.remaining() <= buffer.remaining()) {
+      buffer.put(data);
+    } else if (data.remaining() <= BUFFER_BYTES) {
+      flush();
+      buffer.put(data);
+    } else {
+      // larger than the buffer - write it directly
+      flush();
+      while (data.hasRemaining()) channel.write(data);
+    }
+
+    if (4 * (frameCount + 1) > index.length) index = Arrays.copyOf(index, index.length * 2);
+    index[4 * frameCount] = offset;
+    index[4 * frameCount + 1] = frameIndex;
+    index[4 * frameCount + 2] = tick;
+    index[4 * frameCount + 3] = timestamp;
+    frameCount++;
+  }
+
+  /**
+   * Convenience for heap arrays, e.g. the bytes of a <code>ByteArrayOutputStream</code>.
+   *
+   * @see #append(long, long, long, int, int, int, ByteBuffer)
+   */
+  public void append(
+      long frameIndex,
+      long tick,
+      long timestamp,
+      int width,
+      int height,
+      int codec,
+      byte[] data,
+      int length)
+      throws IOException {
+    append(frameIndex, tick, timestamp, width, height, codec, ByteBuffer.wrap(data, 0, length));
+  }
+
+  /** @return number of frames appended */
+  public synchronized int getFrameCount() {
+    return frameCount;
+  }
+
+  /** @return bytes written so far including headers */
+  public synchronized long getBytes() {
+    return position;
+  }
+
+  /**
+   * Writes the index and the header fields and closes the file.
+   *
+   * @throws IOException
+   */
+  @Override
+  public synchronized void close() throws IOException {
+    if (closed) return;
+    closed = true;
+    try {
+      final long indexOffset = position;
+      for (int i = 0; i < frameCount; i++) {
+        if (buffer.remaining() < FrameArchive.INDEX_ENTRY_BYTES) flush();
+        buffer
+            .putLong(index[4 * i])
+            .putLong(index[4 * i + 1])
+            .putLong(index[4 * i + 2])
+            .putLong(index[4 * i + 3]);
+      }
+      flush();
+
+      final ByteBuffer header = ByteBuffer.allocate(12);
+      header.putLong(indexOffset).putInt(frameCount).flip();
+      while (header.hasRemaining()) {
+        channel.write(header, FrameArchive.INDEX_OFFSET_POSITION + header.position());
+      }
+      channel.force(false);
+    } finally {
+      channel.close();
+    }
+    LOG.info(
+        "Frame archive {} closed - {} frames, {} MB", path, frameCount, payloadBytes / (1 << 20));
+  }
+
+  private void flush() throws IOException {
+    buffer.flip();
+    while (buffer.hasRemaining()) channel.write(buffer);
+    buffer.clear();
+  }
+}
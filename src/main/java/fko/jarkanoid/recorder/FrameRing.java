@@ -0,0 +1,269 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018 Frank Kopp
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+package fko.jarkanoid.recorder;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * FrameRing
+ *
+ * <p>Fixed number of reusable {@link Frame}s passed from the capturing thread to the writers. A
+ * frame is either free, being filled, queued for writing or being written - no frames are
+ * allocated beyond the capacity, so the memory of a recording is bounded by <code>capacity *
+ * width * height * 4</code> bytes.
+ *
+ * <p>When no frame is free the {@link OverflowPolicy} decides whether the oldest queued frame is
+ * overwritten, the new frame is skipped or capturing waits for a writer.
+ *
+ * <p>19.10.2026
+ *
+ * @author Frank Kopp
+ */
+public final class FrameRing {
+
+  /** What to do when a frame is needed and all frames are in use. */
+  public enum OverflowPolicy {
+    /** reuse the oldest frame which is queued for writing - it is lost */
+    DROP_OLDEST,
+    /** skip the new frame */
+    DROP_NEWEST,
+    /** wait until a writer releases a frame */
+    BLOCK
+  }
+
+  private final int capacity;
+  private final OverflowPolicy policy;
+
+  private final ArrayDeque<Frame> free;
+  private final ArrayDeque<Frame> queued;
+  private int allocated = 0;
+  private boolean closed = false;
+
+  private final ReentrantLock lock = new ReentrantLock();
+  private final Condition frameFree = lock.newCondition();
+  private final Condition frameQueued = lock.newCondition();
+
+  // statistics
+  private long published = 0;
+  private long dropped = 0;
+  private int maxDepth = 0;
+
+  /**
+   * @param capacity number of frames
+   * @param policy
+   */
+  public FrameRing(int capacity, OverflowPolicy policy) {
+    if (capacity < 1) throw new IllegalArgumentException("capacity must be > 0: " + capacity);
+    this.capacity = capacity;
+    this.policy = policy;
+    this.free = new ArrayDeque<>(capacity);
+    this.queued = new ArrayDeque<>(capacity);
+  }
+
+  /**
+   * Gets a frame to capture into. Frames are allocated lazily with the given size.
+   *
+   * @param width
+   * @param height
+   * @return a frame of the given size or null if the frame has to be skipped (policy
+   *     DROP_NEWEST, or the ring has been closed)
+   * @throws InterruptedException while waiting with policy BLOCK
+   */
+  public Frame acquire(int width, int height) throws InterruptedException {
+    final Frame frame;
+    lock.lock();
+    try {
+      frame = nextFree();
+    } finally {
+      lock.unlock();
+    }
+    if (frame != null) frame.ensureSize(width, height);
+    return frame;
+  }
+
+  private Frame nextFree() throws InterruptedException {
+    while (true) {
+      if (closed) return null;
+      if (!free.isEmpty()) return free.poll();
+      if (allocated < capacity) {
+        allocated++;
+        return new Frame(1, 1);
+      }
+      switch (policy) {
+        case DROP_OLDEST:
+          if (!queued.isEmpty()) {
+            dropped++;
+            return queued.poll();
+          }
+          // all frames are being written - nothing to overwrite
+          dropped++;
+          return null;
+        case DROP_NEWEST:
+          dropped++;
+          return null;
+        case BLOCK:
+        default:
+          frameFree.await();
+      }
+    }
+  }
+
+  /**
+   * Queues a filled frame for the writers.
+   *
+   * @param frame from <code>acquire()</code>
+   */
+  public void publish(Frame frame) {
+    lock.lock();
+    try {
+      queued.add(frame);
+      published++;
+      maxDepth = Math.max(maxDepth, queued.size());
+      frameQueued.signal();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Returns a frame without publishing it, e.g. if capturing failed.
+   *
+   * @param frame from <code>acquire()</code>
+   */
+  public void cancel(Frame frame) {
+    release(frame);
+  }
+
+  /**
+   * Takes the oldest queued frame. It has to be given back with <code>release()</code>.
+   *
+   * @param timeout
+   * @param unit
+   * @return the frame or null if there was none within the timeout or the ring is closed and
+   *     empty
+   * @throws InterruptedException
+   */
+  public Frame take(long timeout, TimeUnit unit) throws InterruptedException {
+    long nanos = unit.toNanos(timeout);
+    lock.lock();
+    try {
+      while (queued.isEmpty()) {
+        if (closed || nanos <= 0) return null;
+        nanos = frameQueued.awaitNanos(nanos);
+      }
+      return queued.poll();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Gives a frame back to the pool.
+   *
+   * @param frame
+   */
+  public void release(Frame frame) {
+    lock.lock();
+    try {
+      free.add(frame);
+      frameFree.signal();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /** No more frames are handed out for capturing. Queued frames can still be taken. */
+  public void close() {
+    lock.lock();
+    try {
+      closed = true;
+      frameFree.signalAll();
+      frameQueued.signalAll();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /** @return true if closed and all queued frames have been taken */
+  public boolean isDrained() {
+    lock.lock();
+    try {
+      return closed && queued.isEmpty();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  public int getCapacity() {
+    return capacity;
+  }
+
+  public OverflowPolicy getPolicy() {
+    return policy;
+  }
+
+  /** @return number of frames queued for writing */
+  public int getDepth() {
+    lock.lock();
+    try {
+      return queued.size();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /** @return highest number of queued frames so far */
+  public int getMaxDepth() {
+    lock.lock();
+    try {
+      return maxDepth;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /** @return number of frames published */
+  public long getPublished() {
+    lock.lock();
+    try {
+      return published;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /** @return number of frames lost because the ring was full */
+  public long getDropped() {
+    lock.lock();
+    try {
+      return dropped;
+    } finally {
+      lock.unlock();
+    }
+  }
+}
@@ -0,0 +1,437 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018 Frank Kopp
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+package fko.jarkanoid.recorder;
+
+import javafx.beans.property.ReadOnlyLongProperty;
+import javafx.beans.value.ChangeListener;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * InstantReplay
+ *
+ * <p>Continuous recording of the last seconds of play. Frames are captured at a low rate, delta
+ * encoded ({@link DeltaEncoder}) and kept in memory only. The frames are grouped into segments
+ * which each start with a keyframe. The oldest segment is dropped as soon as the newer segments
+ * cover the configured number of seconds or the memory exceeds the byte budget, so the buffer
+ * always starts with a keyframe.
+ *
+ * <p>In the game frames are captured in sync with the game ticks, so nothing is captured while the
+ * game does not run (title screen, pause). The snapshot is taken on the thread which changes the
+ * ticks and only encoded on the capture thread. A tick is skipped if the previous frame is still
+ * being encoded. The time the capturing takes is measured and logged when the replay is stopped.
+ *
+ * <p>Nothing is written to disk until {@link #dump()} is called - the buffer is then written as a
+ * {@link FrameArchive} in the background while capturing continues.
+ *
+ * <p>19.10.2026
+ *
+ * @author Frank Kopp
+ */
+public final class InstantReplay {
+
+  private static final Logger LOG = LoggerFactory.getLogger(InstantReplay.class);
+
+  private static final DateTimeFormatter ARCHIVE_NAME =
+      DateTimeFormatter.ofPattern(
+          "'instant_replay_'yyyyMMdd_HHmmss_SSS'" + FrameArchive.EXTENSION + "'");
+
+  // dump requests closer together than this are answered by the previous dump
+  private static final long MIN_DUMP_INTERVAL_NS = TimeUnit.SECONDS.toNanos(2);
+
+  private final CaptureBackend backend;
+  private final int period;
+  private final long maxNanos;
+  private final long byteBudget;
+  private final DeltaEncoder encoder;
+
+  private final Deque<Segment> segments = new ArrayDeque<>();
+  private long bytes = 0;
+  private long frameCounter = 0;
+
+  private ScheduledExecutorService captureExecutor = null;
+  private ReadOnlyLongProperty tickSource = null;
+  private ChangeListener<Number> tickListener = null;
+  // the frame is handed to the capture thread for encoding
+  private final AtomicBoolean encoding = new AtomicBoolean();
+  private final ExecutorService dumpExecutor =
+      Executors.newSingleThreadExecutor(
+          r -> {
+            final Thread t = new Thread(r, "Instant Replay Dump");
+            t.setDaemon(true);
+            return t;
+          });
+  private Frame frame = null;
+
+  // statistics of the capturing - in tick mode this is the time spent on the tick thread
+  private final AtomicLong captures = new AtomicLong();
+  private final AtomicLong captureNanos = new AtomicLong();
+  private final AtomicLong maxCaptureNanos = new AtomicLong();
+  private final AtomicLong skipped = new AtomicLong();
+
+  private long lastDumpTime = 0;
+  private CompletableFuture<Path> lastDump = null;
+
+  /**
+   * @param backend captures the frames
+   * @param period capture intervall in ms
+   * @param seconds seconds of play to keep
+   * @param byteBudget maximal memory for the encoded frames
+   * @param keyframeInterval frames per segment
+   */
+  public InstantReplay(
+      CaptureBackend backend, int period, int seconds, long byteBudget, int keyframeInterval) {
+    this.backend = backend;
+    this.period = period;
+    this.maxNanos = TimeUnit.SECONDS.toNanos(seconds);
+    this.byteBudget = byteBudget;
+    this.encoder = new DeltaEncoder(keyframeInterval);
+  }
+
+  /** Starts capturing every <code>period</code> ms independent of the game. */
+  public synchronized void start() {
+    if (captureExecutor != null) return;
+    captureExecutor = newCaptureExecutor();
+    captureExecutor.scheduleAtFixedRate(this::captureFrame, 0, period, TimeUnit.MILLISECONDS);
+    LOG.info(
+        "Instant replay started - last {} s every {} ms within {} MB ({} capture)",
+        TimeUnit.NANOSECONDS.toSeconds(maxNanos),
+        period,
+        byteBudget / (1 << 20),
+        backend.getName());
+  }
+
+  /**
+   * Starts capturing in sync with the game. The frame is captured directly after the game state of
+   * a tick has been updated and encoded on the capture thread. Has to be started and stopped on
+   * the thread which changes the ticks.
+   *
+   * @param ticks the game's tick counter - see <code>GameModel.tickProperty()</code>
+   * @param decimation a frame is captured every this many ticks
+   */
+  public synchronized void start(ReadOnlyLongProperty ticks, int decimation) {
+    if (captureExecutor != null) return;
+    if (decimation < 1) throw new IllegalArgumentException("decimation < 1");
+    final ScheduledExecutorService executor = newCaptureExecutor();
+    captureExecutor = executor;
+    tickSource = ticks;
+    tickListener =
+        (observable, oldValue, newValue) -> {
+          final long tick = newValue.longValue();
+          if (tick % decimation == 0) captureOnTick(executor, tick);
+        };
+    ticks.addListener(tickListener);
+    LOG.info(
+        "Instant replay started - last {} s every {}. tick within {} MB ({} capture)",
+        TimeUnit.NANOSECONDS.toSeconds(maxNanos),
+        decimation,
+        byteBudget / (1 << 20),
+        backend.getName());
+  }
+
+  private static ScheduledExecutorService newCaptureExecutor() {
+    return Executors.newSingleThreadScheduledExecutor(
+        r -> {
+          final Thread t = new Thread(r, "Instant Replay Capture");
+          t.setDaemon(true);
+          t.setPriority(Thread.MIN_PRIORITY);
+          return t;
+        });
+  }
+
+  /** Stops capturing and waits for a running dump. */
+  public void stop() {
+    final ScheduledExecutorService executor;
+    synchronized (this) {
+      executor = captureExecutor;
+      captureExecutor = null;
+      if (tickSource != null) tickSource.removeListener(tickListener);
+      tickSource = null;
+      tickListener = null;
+    }
+    if (executor == null) return;
+    executor.shutdown();
+    try {
+      executor.awaitTermination(2, TimeUnit.SECONDS);
+      dumpExecutor.shutdown();
+      dumpExecutor.awaitTermination(10, TimeUnit.SECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    encoder.close();
+    LOG.info(
+        "Instant replay stopped - {} captures, {} us average, {} us max, {} ticks skipped",
+        captures.get(),
+        TimeUnit.NANOSECONDS.toMicros(getAverageCaptureNanos()),
+        TimeUnit.NANOSECONDS.toMicros(maxCaptureNanos.get()),
+        skipped.get());
+  }
+
+  /* capture thread - timed capturing */
+  private void captureFrame() {
+    try {
+      final long timestamp = System.nanoTime();
+      if (capture()) encodeFrame(FrameArchive.NO_TICK, timestamp);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } catch (RuntimeException e) {
+      // an exception would cancel the scheduled capturing
+      LOG.error("Instant replay capture failed", e);
+    }
+  }
+
+  /* tick thread - the frame is encoded on the capture thread */
+  private void captureOnTick(ExecutorService executor, long tick) {
+    if (!encoding.compareAndSet(false, true)) {
+      skipped.incrementAndGet();
+      return;
+    }
+    boolean handedOver = false;
+    try {
+      final long timestamp = System.nanoTime();
+      if (!capture()) return;
+      executor.execute(
+          () -> {
+            try {
+              encodeFrame(tick, timestamp);
+            } catch (RuntimeException e) {
+              LOG.error("Instant replay capture failed", e);
+            } finally {
+              encoding.set(false);
+            }
+          });
+      handedOver = true;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } catch (RejectedExecutionException e) {
+      // stopped meanwhile
+    } finally {
+      if (!handedOver) encoding.set(false);
+    }
+  }
+
+  /* captures into the frame and measures the time */
+  private boolean capture() throws InterruptedException {
+    if (frame == null) frame = new Frame(backend.getWidth(), backend.getHeight());
+    else frame.ensureSize(backend.getWidth(), backend.getHeight());
+    final long start = System.nanoTime();
+    final boolean captured = backend.capture(frame);
+    final long nanos = System.nanoTime() - start;
+    captures.incrementAndGet();
+    captureNanos.addAndGet(nanos);
+    if (nanos > maxCaptureNanos.get()) maxCaptureNanos.set(nanos);
+    return captured;
+  }
+
+  /* capture thread */
+  private void encodeFrame(long tick, long timestamp) {
+    final ByteBuffer encoded = encoder.encode(frame);
+    final byte[] data = new byte[encoded.remaining()];
+    encoded.get(data);
+    add(data, frame.getWidth(), frame.getHeight(), tick, timestamp);
+  }
+
+  /**
+   * Adds an encoded frame and drops the oldest segments which are no longer needed.
+   *
+   * @param data frame encoded by {@link DeltaEncoder} - keyframes start a new segment
+   * @param width
+   * @param height
+   * @param tick game tick shown by the frame or {@link FrameArchive#NO_TICK}
+   * @param timestamp capture time in ns
+   */
+  synchronized void add(byte[] data, int width, int height, long tick, long timestamp) {
+    if (segments.isEmpty() || DeltaDecoder.isKeyframe(ByteBuffer.wrap(data))) {
+      segments.addLast(new Segment());
+    }
+    segments.getLast().add(new EncodedFrame(frameCounter++, tick, timestamp, width, height, data));
+    bytes += data.length;
+
+    while (segments.size() > 1) {
+      final Iterator<Segment> iterator = segments.iterator();
+      final Segment oldest = iterator.next();
+      // the newer segments alone still cover the time to keep?
+      final boolean covered = timestamp - iterator.next().firstTimestamp() >= maxNanos;
+      if (!covered && bytes <= byteBudget) break;
+      segments.removeFirst();
+      bytes -= oldest.bytes;
+    }
+  }
+
+  /**
+   * Writes the buffered frames to <code>screenshots/instant_replay_&lt;date&gt;.jfa</code> in the
+   * background.
+   *
+   * @return the file when it has been written - a dump requested shortly after another one
+   *     returns the previous dump
+   */
+  public CompletableFuture<Path> dump() {
+    return dump(Paths.get(Recorder.SCREENSHOTS_FOLDER));
+  }
+
+  /**
+   * Writes the buffered frames to a new archive in the folder in the background.
+   *
+   * @param folder
+   * @return the file when it has been written - a dump requested shortly after another one
+   *     returns the previous dump
+   */
+  public synchronized CompletableFuture<Path> dump(Path folder) {
+    final long now = System.nanoTime();
+    if (lastDump != null && now - lastDumpTime < MIN_DUMP_INTERVAL_NS) return lastDump;
+    lastDumpTime = now;
+
+    // segments are only appended to - copying the frame lists is enough for a consistent view
+    final List<EncodedFrame> frames = new ArrayList<>();
+    for (Segment segment : segments) frames.addAll(segment.frames);
+    final Path path = folder.resolve(LocalDateTime.now().format(ARCHIVE_NAME));
+
+    lastDump = new CompletableFuture<>();
+    final CompletableFuture<Path> result = lastDump;
+    try {
+      dumpExecutor.execute(
+          () -> {
+            try {
+              Files.createDirectories(folder);
+              try (FrameArchiveWriter writer = new FrameArchiveWriter(path)) {
+                for (EncodedFrame f : frames) {
+                  writer.append(
+                      f.index,
+                      f.tick,
+                      f.timestamp,
+                      f.width,
+                      f.height,
+                      FrameArchive.CODEC_DELTA,
+                      f.data,
+                      f.data.length);
+                }
+              }
+              LOG.info("Instant replay with {} frames saved to {}", frames.size(), path);
+              result.complete(path);
+            } catch (IOException | RuntimeException e) {
+              LOG.error("Instant replay could not be saved to {}", path, e);
+              result.completeExceptionally(e);
+            }
+          });
+    } catch (RejectedExecutionException e) {
+      // stopped
+      result.completeExceptionally(e);
+    }
+    return result;
+  }
+
+  /** @return memory used by the buffered frames */
+  public synchronized long getBytes() {
+    return bytes;
+  }
+
+  /** @return number of buffered frames */
+  public synchronized int getFrameCount() {
+    int count = 0;
+    for (Segment segment : segments) count += segment.frames.size();
+    return count;
+  }
+
+  /** @return number of captures so far */
+  public long getCaptureCount() {
+    return captures.get();
+  }
+
+  /** @return average time of a capture in ns - in tick mode the cost on the tick thread */
+  public long getAverageCaptureNanos() {
+    final long count = captures.get();
+    return count == 0 ? 0 : captureNanos.get() / count;
+  }
+
+  /** @return longest capture in ns */
+  public long getMaxCaptureNanos() {
+    return maxCaptureNanos.get();
+  }
+
+  /** @return number of ticks skipped because the previous frame was still being encoded */
+  public long getSkippedCount() {
+    return skipped.get();
+  }
+
+  /** @return true if capturing is running */
+  public synchronized boolean isRunning() {
+    return captureExecutor != null;
+  }
+
+  /* an encoded frame in memory */
+  private static final class EncodedFrame {
+    final long index;
+    final long tick;
+    final long timestamp;
+    final int width;
+    final int height;
+    final byte[] data;
+
+    EncodedFrame(long index, long tick, long timestamp, int width, int height, byte[] data) {
+      this.index = index;
+      this.tick = tick;
+      this.timestamp = timestamp;
+      this.width = width;
+      this.height = height;
+      this.data = data;
+    }
+  }
+
+  /* a keyframe and its delta frames */
+  private static final class Segment {
+    final List<EncodedFrame> frames = new ArrayList<>();
+    long bytes = 0;
+
+    void add(EncodedFrame frame) {
+      frames.add(frame);
+      bytes += frame.data.length;
+    }
+
+    long firstTimestamp() {
+      return frames.get(0).timestamp;
+    }
+  }
+}
@@ -0,0 +1,359 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018 Frank Kopp
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+package fko.jarkanoid.recorder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * MjpegStreamServer
+ *
+ * <p>Serves the recorded frames as a live MJPEG stream (<code>multipart/x-mixed-replace</code>)
+ * over HTTP, e.g. for screens at events. Open <code>http://host:port/stream</code> in a browser.
+ *
+ * <p>Each frame is encoded once by the recorder and wrapped into one buffer together with its
+ * multipart header. All viewers read this buffer through their own {@link ByteBuffer#duplicate()}
+ * so a frame is never copied per viewer. One selector thread serves all viewers with non-blocking
+ * writes. A viewer only ever waits for the latest frame: if a new frame is published while a
+ * viewer still receives an older one, the frames in between are dropped for this viewer instead
+ * of being buffered. Slow viewers therefore neither use memory nor slow down the others.
+ *
+ * <p>19.10.2026
+ *
+ * @author Frank Kopp
+ */
+public final class MjpegStreamServer {
+
+  private static final Logger LOG = LoggerFactory.getLogger(MjpegStreamServer.class);
+
+  private static final String BOUNDARY = "jarkanoidframe";
+  private static final int MAX_REQUEST_BYTES = 8 * 1024;
+
+  private static final byte[] RESPONSE_HEADER =
+      ("HTTP/1.1 200 OK\r\n"
+              + "Content-Type: multipart/x-mixed-replace; boundary="
+              + BOUNDARY
+              + "\r\n"
+              + "Cache-Control: no-cache, no-store\r\n"
+              + "Pragma: no-cache\r\n"
+              + "Connection: close\r\n\r\n")
+          .getBytes(StandardCharsets.US_ASCII);
+  private static final byte[] NOT_FOUND =
+      ("HTTP/1.1 404 Not Found\r\nContent-Length: 0\r\nConnection: close\r\n\r\n")
+          .getBytes(StandardCharsets.US_ASCII);
+
+  /* a published frame - shared read only by all viewers */
+  private static final class SharedFrame {
+    final long number;
+    final ByteBuffer data;
+
+    SharedFrame(long number, ByteBuffer data) {
+      this.number = number;
+      this.data = data;
+    }
+  }
+
+  /* state of one viewer - only used by the selector thread */
+  private static final class Viewer {
+    final SocketChannel channel;
+    final ByteBuffer request = ByteBuffer.allocate(MAX_REQUEST_BYTES);
+    boolean streaming = false;
+    boolean closeAfterWrite = false;
+    // what is written right now - null if the viewer waits for a frame
+    ByteBuffer sending = null;
+    // number of the last frame sent
+    long lastFrame = 0;
+
+    Viewer(SocketChannel channel) {
+      this.channel = channel;
+    }
+  }
+
+  private final ServerSocketChannel serverChannel;
+  private final Selector selector;
+  private final List<Viewer> viewers = new ArrayList<>();
+  private Thread thread = null;
+
+  private volatile SharedFrame latest = null;
+  private volatile int viewerCount = 0;
+  private volatile boolean running = false;
+
+  // statistics
+  private final AtomicLong published = new AtomicLong();
+  private final AtomicLong sent = new AtomicLong();
+  private final AtomicLong dropped = new AtomicLong();
+
+  /**
+   * Creates the server - it accepts viewers after <code>start()</code>.
+   *
+   * @param address address to bind to - port 0 picks a free port
+   * @throws IOException if the address can't be bound
+   */
+  public MjpegStreamServer(InetSocketAddress address) throws IOException {
+    selector = Selector.open();
+    serverChannel = ServerSocketChannel.open();
+    try {
+      serverChannel.bind(address);
+      serverChannel.configureBlocking(false);
+      serverChannel.register(selector, SelectionKey.OP_ACCEPT);
+    } catch (IOException e) {
+      serverChannel.close();
+      selector.close();
+      throw e;
+    }
+  }
+
+  /** Starts serving viewers. */
+  public void start() {
+    running = true;
+    thread = new Thread(this::serve, "Recorder Stream");
+    thread.setDaemon(true);
+    thread.start();
+    LOG.info("MJPEG stream listening on {}", getAddress());
+  }
+
+  /** Stops the server and disconnects all viewers. */
+  public void stop() {
+    if (!running) return;
+    running = false;
+    selector.wakeup();
+    try {
+      thread.join(1000);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    try {
+      serverChannel.close();
+      selector.close();
+    } catch (IOException e) {
+      LOG.warn("While stopping the stream", e);
+    }
+    LOG.info(
+        "MJPEG stream stopped - {} frames published, {} sent, {} dropped for slow viewers",
+        published.get(),
+        sent.get(),
+        dropped.get());
+  }
+
+  /**
+   * Publishes a JPEG frame to all viewers. The data is copied once into a buffer shared by all
+   * viewers, so the caller may reuse its array.
+   *
+   * @param jpeg the encoded frame
+   * @param length number of bytes of the frame in <code>jpeg</code>
+   */
+  public void publish(byte[] jpeg, int length) {
+    final byte[] header =
+        ("--"
+                + BOUNDARY
+                + "\r\nContent-Type: image/jpeg\r\nContent-Length: "
+                + length
+                + "\r\n\r\n")
+            .getBytes(StandardCharsets.US_ASCII);
+    final ByteBuffer data = ByteBuffer.allocate(header.length + length + 2);
+    data.put(header).put(jpeg, 0, length).put((byte) '\r').put((byte) '\n');
+    data.flip();
+    latest = new SharedFrame(published.incrementAndGet(), data.asReadOnlyBuffer());
+    selector.wakeup();
+  }
+
+  /** @return true if anybody watches - frames don't need to be encoded otherwise */
+  public boolean hasViewers() {
+    return viewerCount > 0;
+  }
+
+  /** @return number of connected viewers */
+  public int getViewerCount() {
+    return viewerCount;
+  }
+
+  /** @return the address the server is bound to */
+  public InetSocketAddress getAddress() {
+    try {
+      return (InetSocketAddress) serverChannel.getLocalAddress();
+    } catch (IOException e) {
+      return null;
+    }
+  }
+
+  /** @return number of frames published */
+  public long getPublished() {
+    return published.get();
+  }
+
+  /** @return number of frames sent - summed over all viewers */
+  public long getSent() {
+    return sent.get();
+  }
+
+  /** @return number of frames skipped for slow viewers - summed over all viewers */
+  public long getDropped() {
+    return dropped.get();
+  }
+
+  private void serve() {
+    try {
+      while (running) {
+        selector.select();
+        if (!running) break;
+        for (SelectionKey key : selector.selectedKeys()) {
+          try {
+            if (key.isAcceptable()) accept();
+            else if (key.isValid()) {
+              final Viewer viewer = (Viewer) key.attachment();
+              if (key.isReadable()) read(key, viewer);
+              if (key.isValid() && key.isWritable()) write(key, viewer);
+            }
+          } catch (IOException e) {
+            // viewer went away
+            disconnect(key);
+          }
+        }
+        selector.selectedKeys().clear();
+        offerLatest();
+      }
+    } catch (IOException | ClosedSelectorException e) {
+      if (running) LOG.error("MJPEG stream failed", e);
+    } finally {
+      for (Viewer viewer : viewers) close(viewer.channel);
+      viewers.clear();
+      viewerCount = 0;
+    }
+  }
+
+  private void accept() throws IOException {
+    final SocketChannel channel = serverChannel.accept();
+    if (channel == null) return;
+    channel.configureBlocking(false);
+    channel.socket().setTcpNoDelay(true);
+    final Viewer viewer = new Viewer(channel);
+    channel.register(selector, SelectionKey.OP_READ, viewer);
+    viewers.add(viewer);
+  }
+
+  /* reads the request line - everything after the request head is ignored */
+  private void read(SelectionKey key, Viewer viewer) throws IOException {
+    if (viewer.streaming || viewer.closeAfterWrite) {
+      // discard anything the viewer sends, notice when it closes
+      final ByteBuffer discard = viewer.request;
+      discard.clear();
+      if (viewer.channel.read(discard) < 0) disconnect(key);
+      return;
+    }
+    if (viewer.channel.read(viewer.request) < 0) {
+      disconnect(key);
+      return;
+    }
+    final String head =
+        new String(
+            viewer.request.array(), 0, viewer.request.position(), StandardCharsets.US_ASCII);
+    if (!head.contains("\r\n\r\n")) {
+      if (!viewer.request.hasRemaining()) respondNotFound(key, viewer);
+      return;
+    }
+    final String[] requestLine = head.substring(0, head.indexOf("\r\n")).split(" ");
+    final String path = requestLine.length > 1 ? requestLine[1] : "";
+    if (!"GET".equals(requestLine[0]) || !("/".equals(path) || path.startsWith("/stream"))) {
+      respondNotFound(key, viewer);
+      return;
+    }
+    viewer.streaming = true;
+    viewer.sending = ByteBuffer.wrap(RESPONSE_HEADER);
+    // frames published before the viewer came are not sent
+    final SharedFrame frame = latest;
+    viewer.lastFrame = frame == null ? 0 : frame.number - 1;
+    viewerCount++;
+    key.interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+  }
+
+  private void respondNotFound(SelectionKey key, Viewer viewer) {
+    viewer.closeAfterWrite = true;
+    viewer.sending = ByteBuffer.wrap(NOT_FOUND);
+    key.interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+  }
+
+  private void write(SelectionKey key, Viewer viewer) throws IOException {
+    while (viewer.sending != null) {
+      viewer.channel.write(viewer.sending);
+      // socket buffer full - continue when writable again
+      if (viewer.sending.hasRemaining()) return;
+      if (viewer.closeAfterWrite) {
+        disconnect(key);
+        return;
+      }
+      viewer.sending = nextFrame(viewer);
+    }
+    key.interestOps(SelectionKey.OP_READ);
+  }
+
+  /* the latest frame if the viewer has not got it yet */
+  private ByteBuffer nextFrame(Viewer viewer) {
+    final SharedFrame frame = latest;
+    if (frame == null || frame.number <= viewer.lastFrame) return null;
+    dropped.addAndGet(frame.number - viewer.lastFrame - 1);
+    sent.incrementAndGet();
+    viewer.lastFrame = frame.number;
+    return frame.data.duplicate();
+  }
+
+  /* gives a newly published frame to all waiting viewers */
+  private void offerLatest() {
+    for (Viewer viewer : viewers) {
+      if (!viewer.streaming || viewer.sending != null) continue;
+      final SelectionKey key = viewer.channel.keyFor(selector);
+      if (key == null || !key.isValid()) continue;
+      viewer.sending = nextFrame(viewer);
+      if (viewer.sending != null) key.interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+    }
+  }
+
+  private void disconnect(SelectionKey key) {
+    final Viewer viewer = (Viewer) key.attachment();
+    key.cancel();
+    close(viewer.channel);
+    if (viewers.remove(viewer) && viewer.streaming) viewerCount--;
+  }
+
+  private static void close(SocketChannel channel) {
+    try {
+      channel.close();
+    } catch (IOException e) {
+      // ignore
+    }
+  }
+}
@@ -0,0 +1,106 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018 Frank Kopp
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+package fko.jarkanoid.recorder;
+
+import java.util.function.Consumer;
+
+/**
+ * PipelineJob
+ *
+ * <p>One frame on its way through the stages of the recorder pipeline. Stages replace the frame
+ * (e.g. with a cropped copy) and finally the encoded data. The frame's buffer is given back to
+ * its owner with {@link #releaseFrame()} as soon as it is no longer needed.
+ *
+ * <p>19.10.2026
+ *
+ * @author Frank Kopp
+ */
+final class PipelineJob {
+
+  // position in the pipeline - contiguous, used to restore the order for ordered stages
+  final long sequence;
+
+  final long index;
+  final long tick;
+  final long timestamp;
+
+  private Frame frame;
+  private Consumer<Frame> frameOwner;
+
+  // encoded frame
+  int codec;
+  int width;
+  int height;
+  byte[] data;
+  int length;
+
+  boolean failed = false;
+
+  // time the job has been queued for the next stage
+  long queuedAt;
+
+  PipelineJob(long sequence, Frame frame, Consumer<Frame> frameOwner) {
+    this.sequence = sequence;
+    this.index = frame.getIndex();
+    this.tick = frame.getTick();
+    this.timestamp = frame.getTimestamp();
+    this.frame = frame;
+    this.frameOwner = frameOwner;
+    this.queuedAt = System.nanoTime();
+  }
+
+  /** @return the current frame or null if it has been released */
+  Frame getFrame() {
+    return frame;
+  }
+
+  /**
+   * Releases the current frame and continues with another one.
+   *
+   * @param frame
+   * @param owner gets the frame back when it is released
+   */
+  void replaceFrame(Frame frame, Consumer<Frame> owner) {
+    releaseFrame();
+    this.frame = frame;
+    this.frameOwner = owner;
+  }
+
+  /** Gives the frame back to its owner - can be called more than once. */
+  void releaseFrame() {
+    if (frame == null) return;
+    frameOwner.accept(frame);
+    frame = null;
+    frameOwner = null;
+  }
+
+  void setEncoded(int codec, int width, int height, byte[] data, int length) {
+    this.codec = codec;
+    this.width = width;
+    this.height = height;
+    this.data = data;
+    this.length = length;
+  }
+}
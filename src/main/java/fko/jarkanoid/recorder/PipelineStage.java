@@ -0,0 +1,362 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018 Frank Kopp
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+package fko.jarkanoid.recorder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.TreeMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * PipelineStage
+ *
+ * <p>A stage of the recorder pipeline: a bounded input queue, a number of worker threads which
+ * process the jobs and hand them on to the next stage, and metrics. A full queue blocks the
+ * previous stage, so a slow stage shows as a full queue in front of it and a high utilization.
+ *
+ * <p>Stages with more than one worker may change the order of the jobs. An ordered stage has a
+ * single worker which processes the jobs strictly in sequence.
+ *
+ * <p>A job which fails in a stage is passed on without further processing so ordered stages
+ * after it don't wait for it.
+ *
+ * <p>19.10.2026
+ *
+ * @author Frank Kopp
+ */
+public final class PipelineStage {
+
+  private static final Logger LOG = LoggerFactory.getLogger(PipelineStage.class);
+
+  // how long a worker waits for a job before it checks if the stage has been closed
+  private static final long POLL_MS = 100;
+
+  /** Work of a stage */
+  interface Processor {
+    void process(PipelineJob job) throws Exception;
+  }
+
+  /** Input of a stage */
+  interface Source {
+
+    /** @return the next job or null if there is none within the timeout */
+    PipelineJob take(long timeout, TimeUnit unit) throws InterruptedException;
+
+    /** @return true if there is no more input */
+    boolean isDrained();
+
+    int getDepth();
+
+    int getMaxDepth();
+  }
+
+  private final String name;
+  private final int workers;
+  private final boolean ordered;
+  private final Processor processor;
+  private final Metrics metrics = new Metrics();
+
+  private Source source;
+  private PipelineStage next = null;
+  private ExecutorService executor = null;
+
+  /**
+   * @param name for logging and metrics
+   * @param workers number of worker threads - 1 if ordered
+   * @param capacity capacity of the input queue
+   * @param ordered if true jobs are processed in sequence
+   * @param processor work of the stage
+   */
+  PipelineStage(String name, int workers, int capacity, boolean ordered, Processor processor) {
+    this.name = name;
+    this.workers = ordered ? 1 : Math.max(1, workers);
+    this.ordered = ordered;
+    this.processor = processor;
+    this.source = new QueueSource(capacity);
+  }
+
+  /** Replaces the input queue, e.g. with the frame ring of the capture. */
+  void setSource(Source source) {
+    this.source = source;
+  }
+
+  /** @param next stage which receives the processed jobs */
+  void setNext(PipelineStage next) {
+    this.next = next;
+  }
+
+  /**
+   * Queues a job - blocks while the queue is full.
+   *
+   * @param job
+   * @throws InterruptedException
+   */
+  void put(PipelineJob job) throws InterruptedException {
+    job.queuedAt = System.nanoTime();
+    ((QueueSource) source).put(job);
+  }
+
+  /** Starts the workers. */
+  void start() {
+    final AtomicInteger threadNumber = new AtomicInteger();
+    executor =
+        Executors.newFixedThreadPool(
+            workers,
+            r -> {
+              final Thread t =
+                  new Thread(r, "Recorder " + name + " " + threadNumber.incrementAndGet());
+              t.setDaemon(true);
+              return t;
+            });
+    metrics.start();
+    for (int i = 0; i < workers; i++) executor.execute(this::work);
+    executor.shutdown();
+  }
+
+  /** No more jobs will be queued - the workers end when the queue is empty. */
+  void close() {
+    if (source instanceof QueueSource) ((QueueSource) source).close();
+  }
+
+  /**
+   * Waits until all workers have ended.
+   *
+   * @throws InterruptedException
+   */
+  void awaitTermination() throws InterruptedException {
+    executor.awaitTermination(Long.MAX_VALUE, TimeUnit.SECONDS);
+  }
+
+  private void work() {
+    final TreeMap<Long, PipelineJob> pending = new TreeMap<>();
+    // sequences start at 0
+    long expected = 0;
+    try {
+      while (true) {
+        final PipelineJob job = source.take(POLL_MS, TimeUnit.MILLISECONDS);
+        if (job == null) {
+          if (source.isDrained()) break;
+          continue;
+        }
+        metrics.waited(System.nanoTime() - job.queuedAt);
+        if (!ordered) {
+          handle(job);
+          continue;
+        }
+        // restore the order
+        pending.put(job.sequence, job);
+        while (!pending.isEmpty() && pending.firstKey() == expected) {
+          handle(pending.pollFirstEntry().getValue());
+          expected++;
+        }
+      }
+      // nothing missing any more can arrive
+      while (!pending.isEmpty()) handle(pending.pollFirstEntry().getValue());
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      for (PipelineJob job : pending.values()) job.releaseFrame();
+    }
+  }
+
+  private void handle(PipelineJob job) throws InterruptedException {
+    final long start = System.nanoTime();
+    if (!job.failed) {
+      try {
+        processor.process(job);
+      } catch (Exception e) {
+        LOG.error("Recorder stage {} failed on frame #{}", name, job.index, e);
+        job.failed = true;
+        metrics.failed();
+      }
+    }
+    if (job.failed) job.releaseFrame();
+    metrics.processed(System.nanoTime() - start);
+    if (next != null) next.put(job);
+  }
+
+  /** @return current metrics of the stage */
+  public Stats getStats() {
+    return metrics.snapshot(name, workers, source.getDepth(), source.getMaxDepth());
+  }
+
+  /* bounded input queue of a stage */
+  private static final class QueueSource implements Source {
+
+    private final BlockingQueue<PipelineJob> queue;
+    private volatile boolean closed = false;
+    private final AtomicInteger maxDepth = new AtomicInteger();
+
+    QueueSource(int capacity) {
+      queue = new ArrayBlockingQueue<>(Math.max(1, capacity));
+    }
+
+    void put(PipelineJob job) throws InterruptedException {
+      queue.put(job);
+      final int depth = queue.size();
+      maxDepth.accumulateAndGet(depth, Math::max);
+    }
+
+    void close() {
+      closed = true;
+    }
+
+    @Override
+    public PipelineJob take(long timeout, TimeUnit unit) throws InterruptedException {
+      return queue.poll(timeout, unit);
+    }
+
+    @Override
+    public boolean isDrained() {
+      return closed && queue.isEmpty();
+    }
+
+    @Override
+    public int getDepth() {
+      return queue.size();
+    }
+
+    @Override
+    public int getMaxDepth() {
+      return maxDepth.get();
+    }
+  }
+
+  /** Counters of a stage - also used for the capture which is not a pipeline stage. */
+  static final class Metrics {
+
+    private final LongAdder processed = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder busyNanos = new LongAdder();
+    private final LongAdder waitNanos = new LongAdder();
+    private final AtomicLong maxNanos = new AtomicLong();
+    private volatile long startTime = System.nanoTime();
+
+    void start() {
+      startTime = System.nanoTime();
+    }
+
+    void processed(long nanos) {
+      processed.increment();
+      busyNanos.add(nanos);
+      maxNanos.accumulateAndGet(nanos, Math::max);
+    }
+
+    void waited(long nanos) {
+      waitNanos.add(nanos);
+    }
+
+    void failed() {
+      failed.increment();
+    }
+
+    Stats snapshot(String name, int workers, int depth, int maxDepth) {
+      final long count = processed.sum();
+      final double seconds = Math.max(1e-9, (System.nanoTime() - startTime) / 1e9);
+      return new Stats(
+          name,
+          workers,
+          count,
+          failed.sum(),
+          count / seconds,
+          count == 0 ? 0 : busyNanos.sum() / 1e6 / count,
+          maxNanos.get() / 1e6,
+          count == 0 ? 0 : waitNanos.sum() / 1e6 / count,
+          depth,
+          maxDepth,
+          busyNanos.sum() / 1e9 / seconds / workers);
+    }
+  }
+
+  /** Metrics of a stage at one point in time. */
+  public static final class Stats {
+
+    public final String name;
+    public final int workers;
+    public final long processed;
+    public final long failed;
+    /** frames per second since the stage started */
+    public final double throughput;
+    /** average and maximal processing time of a frame in ms */
+    public final double avgLatencyMs;
+    public final double maxLatencyMs;
+    /** average time a frame waited in the queue in ms */
+    public final double avgWaitMs;
+    public final int queueDepth;
+    public final int maxQueueDepth;
+    /** share of the time the workers were busy - near 1 for the bottleneck */
+    public final double utilization;
+
+    Stats(
+        String name,
+        int workers,
+        long processed,
+        long failed,
+        double throughput,
+        double avgLatencyMs,
+        double maxLatencyMs,
+        double avgWaitMs,
+        int queueDepth,
+        int maxQueueDepth,
+        double utilization) {
+      this.name = name;
+      this.workers = workers;
+      this.processed = processed;
+      this.failed = failed;
+      this.throughput = throughput;
+      this.avgLatencyMs = avgLatencyMs;
+      this.maxLatencyMs = maxLatencyMs;
+      this.avgWaitMs = avgWaitMs;
+      this.queueDepth = queueDepth;
+      this.maxQueueDepth = maxQueueDepth;
+      this.utilization = utilization;
+    }
+
+    @Override
+    public String toString() {
+      return String.format(
+          "%-8s workers=%d frames=%d failed=%d %.1f/s latency avg=%.2fms max=%.2fms "
+              + "wait=%.2fms queue=%d (max %d) busy=%.0f%%",
+          name,
+          workers,
+          processed,
+          failed,
+          throughput,
+          avgLatencyMs,
+          maxLatencyMs,
+          avgWaitMs,
+          queueDepth,
+          maxQueueDepth,
+          100 * utilization);
+    }
+  }
+}
@@ -22,21 +22,33 @@
  * SOFTWARE.
  *
  */
-
 package fko.jarkanoid.recorder;
 
 import fko.jarkanoid.Jarkanoid;
-import javafx.scene.Node;
+import javafx.beans.property.ReadOnlyLongProperty;
+import javafx.beans.value.ChangeListener;
 import javafx.stage.Stage;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.imageio.ImageIO;
+import javax.imageio.stream.ImageOutputStream;
+import javax.imageio.stream.MemoryCacheImageOutputStream;
 import java.awt.*;
-import java.awt.image.BufferedImage;
-import java.io.File;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 import java.util.concurrent.*;
-import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 
 /**
@@ -44,173 +56,576 @@ import java.util.concurrent.atomic.AtomicLong;
  *
  * <p>Records screenshot from node of JavaFX in ficed intervalls
  *
+ * <p>A recording is a pipeline of stages: capture &rarr; crop &rarr; scale &rarr; encode &rarr;
+ * write. Captured frames are copied into the reusable frames of a {@link FrameRing}, which is the
+ * queue of the first stage. Every later stage is a {@link PipelineStage} with its own bounded
+ * queue and number of workers. A full queue blocks the stage before it, so the memory of a
+ * recording is bounded and only the ring's {@link FrameRing.OverflowPolicy} decides which frames
+ * are lost. Throughput, latency, queue depth and utilization of each stage are available with
+ * {@link #getStageStats()} and are logged when the recording stops - the stage with the highest
+ * utilization is the bottleneck.
+ *
+ * <p>Frames are captured by a {@link CaptureBackend} - by default a snapshot of the scene graph
+ * ({@link SnapshotCaptureBackend}), or the screen area of the stage with
+ * <code>-Djarkanoid.recorder.capture=robot</code> ({@link RobotCaptureBackend}). Capturing is
+ * either done in fixed intervalls or in sync with the game's ticks - then every frame shows
+ * exactly one game state and carries its tick number.
+ *
+ * <p>The crop stage is only used if a crop region is set (e.g. the playfield), the scale stage
+ * only if <code>jarkanoid.recorder.scale</code> is not 1. With a {@link MjpegStreamServer} a
+ * stream stage before the encoder encodes each frame once as JPEG for all viewers of the live
+ * stream - but only while anybody watches. With the JPEG codec the archive gets the same bytes.
+ *
+ * <p>The encoded frames are appended to one {@link FrameArchive} per recording (<code>
+ * screenshots/recording_&lt;date&gt;.jfa</code>). The archive's index keeps the frame numbers, so
+ * frames encoded out of order by different workers are read back in order.
+ *
+ * <p>By default frames are stored as tile deltas of the previous frame with a full keyframe every
+ * <code>jarkanoid.recorder.keyframes</code> frames ({@link DeltaEncoder}). Delta frames depend on
+ * their predecessor and are therefore encoded in order by a single worker. With <code>
+ * -Djarkanoid.recorder.codec=jpeg</code> every frame is stored as a JPEG. With <code>
+ * -Djarkanoid.recorder.codec=png</code> every frame is stored lossless as PNG, compressed in
+ * stripes on all cores ({@link StripedPngEncoder}, level <code>jarkanoid.recorder.png.level
+ * </code>). Use {@link FrameArchiveExporter} to get single images back.
+ *
+ * <p>System properties: <code>jarkanoid.recorder.frames</code> (ring capacity), <code>
+ * jarkanoid.recorder.overflow</code>, <code>jarkanoid.recorder.queue</code> (capacity of the stage
+ * queues), <code>jarkanoid.recorder.croppers</code>, <code>jarkanoid.recorder.scalers</code> and
+ * <code>jarkanoid.recorder.encoders</code> (workers).
+ *
  * @author Frank Kopp
  */
-public class Recorder implements Runnable {
+public class Recorder {
 
   private static Logger LOG = LoggerFactory.getLogger(Recorder.class);
 
   public static final String SCREENSHOTS_FOLDER = "screenshots/";
 
-  private final ScheduledThreadPoolExecutor genExecutor = new ScheduledThreadPoolExecutor(4);
-
-  private final ThreadPoolExecutor saveExecutor =
-      new ThreadPoolExecutor(
-          8,
-          8,
-          0L,
-          TimeUnit.MILLISECONDS,
-          new LinkedBlockingQueue<Runnable>());
-
-  private final BlockingQueue<BufferedImage> queue = new LinkedBlockingQueue<BufferedImage>();
-
-  private static final Object LOCK = new Object();
+  private static final int RING_CAPACITY = Integer.getInteger("jarkanoid.recorder.frames", 16);
+  private static final FrameRing.OverflowPolicy OVERFLOW_POLICY =
+      FrameRing.OverflowPolicy.valueOf(
+          System.getProperty(
+              "jarkanoid.recorder.overflow", FrameRing.OverflowPolicy.DROP_OLDEST.name()));
+  private static final String CODEC = System.getProperty("jarkanoid.recorder.codec", "delta");
+  private static final boolean DELTA = !"jpeg".equals(CODEC) && !"png".equals(CODEC);
+  private static final boolean PNG = "png".equals(CODEC);
+  private static final int PNG_LEVEL = Integer.getInteger("jarkanoid.recorder.png.level", 1);
+  private static final int KEYFRAME_INTERVAL =
+      Integer.getInteger("jarkanoid.recorder.keyframes", 60);
+  private static final String CAPTURE =
+      System.getProperty("jarkanoid.recorder.capture", "snapshot");
+  private static final double SCALE =
+      Double.parseDouble(System.getProperty("jarkanoid.recorder.scale", "1"));
+
+  private static final int QUEUE_CAPACITY = Integer.getInteger("jarkanoid.recorder.queue", 8);
+  private static final int CROPPERS = Integer.getInteger("jarkanoid.recorder.croppers", 1);
+  private static final int SCALERS = Integer.getInteger("jarkanoid.recorder.scalers", 2);
+  private static final int ENCODERS =
+      Integer.getInteger(
+          "jarkanoid.recorder.encoders", Integer.getInteger("jarkanoid.recorder.writers", 2));
+
+  private static final DateTimeFormatter ARCHIVE_NAME =
+      DateTimeFormatter.ofPattern("'recording_'yyyyMMdd_HHmmss'" + FrameArchive.EXTENSION + "'");
+
+  private ScheduledExecutorService captureExecutor = null;
+  private ExecutorService stripeExecutor = null;
+  private StripedPngEncoder pngEncoder = null;
+  private DeltaEncoder deltaEncoder = null;
+  private volatile FrameRing ring = null;
+  private FrameArchiveWriter archive = null;
+
+  // stages after the capture
+  private volatile List<PipelineStage> stages = Collections.emptyList();
+  private PipelineStage.Metrics captureMetrics = new PipelineStage.Metrics();
+  private volatile List<PipelineStage.Stats> finalStats = Collections.emptyList();
+
+  // frames of the crop and scale stages
+  private final ConcurrentLinkedQueue<Frame> framePool = new ConcurrentLinkedQueue<>();
+  private final ThreadLocal<EncodeBuffer> encodeBuffers =
+      ThreadLocal.withInitial(EncodeBuffer::new);
 
   private AtomicLong genCounter = new AtomicLong(0);
   private AtomicLong saveCounter = new AtomicLong(0);
 
-  private AtomicBoolean isStopped = new AtomicBoolean(false);
+  private int period;
 
-  private Thread recorderThread = null;
+  private CaptureBackend backend = null;
+  private volatile Rectangle cropRegion = null;
+  private volatile MjpegStreamServer streamServer = null;
 
-  private Node recordedNode;
-  private int period;
-  private int width;
-  private int height;
+  // tick synchronous capturing
+  private ReadOnlyLongProperty tickSource = null;
+  private ChangeListener<Number> tickListener = null;
 
-  private Robot robot = null;
+  private final Path folder;
 
   public Recorder() {
-    try {
-      robot = new Robot();
-    } catch (AWTException e) {
-      LOG.error("" + e);
-    }
+    this(Paths.get(SCREENSHOTS_FOLDER));
+  }
+
+  /** @param folder folder for the recordings */
+  Recorder(Path folder) {
+    this.folder = folder;
+  }
+
+  /**
+   * Frames are cropped to this region before they are scaled and encoded. Takes effect with the
+   * next start.
+   *
+   * @param x left edge in capture coordinates (scene coordinates for snapshots)
+   * @param y upper edge in capture coordinates
+   * @param width
+   * @param height
+   */
+  public void setCropRegion(int x, int y, int width, int height) {
+    cropRegion = new Rectangle(x, y, width, height);
+  }
+
+  /** Frames are recorded in full. Takes effect with the next start. */
+  public void clearCropRegion() {
+    cropRegion = null;
   }
 
-  /** @param period the intervall of capturing in ms */
+  /**
+   * Recorded frames are also streamed live to this server. Takes effect with the next start.
+   *
+   * @param server the stream server or null to stop streaming
+   */
+  public void setStreamServer(MjpegStreamServer server) {
+    streamServer = server;
+  }
+
+  /**
+   * Captures the primary stage with the configured backend.
+   *
+   * @param period the intervall of capturing in ms
+   */
   public void start(int period) {
-    if (recorderThread != null) throw new IllegalStateException("Thread excists. Not stopped yet.");
-    if (robot == null) throw new RuntimeException("Robot is not initialized.");
+    start(period, createBackend());
+  }
 
-    recorderThread = new Thread(this, "Recorder Thread");
-    recorderThread.setDaemon(false);
+  /**
+   * Captures the primary stage with the configured backend in sync with the game.
+   *
+   * @param ticks the game's tick counter - see <code>GameModel.tickProperty()</code>
+   * @param decimation a frame is captured every this many ticks
+   */
+  public void start(ReadOnlyLongProperty ticks, int decimation) {
+    start(ticks, decimation, createBackend());
+  }
+
+  private static CaptureBackend createBackend() {
+    final Stage primaryStage = Jarkanoid.getPrimaryStage();
+    if ("robot".equals(CAPTURE)) {
+      try {
+        return new RobotCaptureBackend(primaryStage);
+      } catch (AWTException e) {
+        throw new RuntimeException("Robot could not be initialized", e);
+      }
+    }
+    return new SnapshotCaptureBackend(primaryStage.getScene());
+  }
+
+  /**
+   * Captures in fixed intervalls independent of the game.
+   *
+   * @param period the intervall of capturing in ms
+   * @param backend captures the frames
+   */
+  public void start(int period, CaptureBackend backend) {
+    if (ring != null) throw new IllegalStateException("Recorder is running. Not stopped yet.");
 
     this.period = period;
-    this.width = width;
-    this.height = height;
+    final FrameRing myRing = open(backend);
+
+    captureExecutor =
+        Executors.newSingleThreadScheduledExecutor(
+            r -> {
+              final Thread t = new Thread(r, "Recorder Capture");
+              t.setDaemon(true);
+              return t;
+            });
+    captureExecutor.scheduleAtFixedRate(
+        () -> takeScreenShotAndQueue(myRing, FrameArchive.NO_TICK),
+        0,
+        period,
+        TimeUnit.MILLISECONDS);
 
-    recorderThread.start();
+    LOG.info(
+        "Recording started - every {} ms ({} capture, {} frames, {})",
+        period,
+        backend.getName(),
+        RING_CAPACITY,
+        OVERFLOW_POLICY);
+  }
+
+  /**
+   * Captures in sync with the game. The frame is captured on the FX thread directly after the
+   * game state of a tick has been updated, so each frame shows exactly one game state and carries
+   * its tick number. Nothing is captured while the game does not run (e.g. paused).
+   *
+   * <p>With the overflow policy <code>BLOCK</code> the game waits for the pipeline if it falls
+   * behind. The recording has to be stopped on the thread which changes the ticks.
+   *
+   * @param ticks the game's tick counter - see <code>GameModel.tickProperty()</code>
+   * @param decimation a frame is captured every this many ticks
+   * @param backend captures the frames - called on the FX thread
+   */
+  public void start(ReadOnlyLongProperty ticks, int decimation, CaptureBackend backend) {
+    if (ring != null) throw new IllegalStateException("Recorder is running. Not stopped yet.");
+    if (decimation < 1) throw new IllegalArgumentException("decimation < 1");
+
+    final FrameRing myRing = open(backend);
+    tickSource = ticks;
+    tickListener =
+        (observable, oldValue, newValue) -> {
+          final long tick = newValue.longValue();
+          if (tick % decimation == 0) takeScreenShotAndQueue(myRing, tick);
+        };
+    ticks.addListener(tickListener);
+
+    LOG.info(
+        "Recording started - every {}. tick ({} capture, {} frames, {})",
+        decimation,
+        backend.getName(),
+        RING_CAPACITY,
+        OVERFLOW_POLICY);
+  }
+
+  /* creates the archive, the ring and the pipeline */
+  private FrameRing open(CaptureBackend backend) {
+    this.backend = backend;
+
+    final Path archivePath = folder.resolve(LocalDateTime.now().format(ARCHIVE_NAME));
+    try {
+      Files.createDirectories(folder);
+      archive = new FrameArchiveWriter(archivePath);
+    } catch (IOException e) {
+      throw new RuntimeException("Recording " + archivePath + " could not be created", e);
+    }
+    LOG.info("Recording to {}", archivePath);
+
+    genCounter.set(0);
+    saveCounter.set(0);
+    captureMetrics = new PipelineStage.Metrics();
+    ring = new FrameRing(RING_CAPACITY, OVERFLOW_POLICY);
+
+    if (PNG) {
+      final int cores = Runtime.getRuntime().availableProcessors();
+      final AtomicInteger stripeNumber = new AtomicInteger();
+      stripeExecutor =
+          Executors.newFixedThreadPool(
+              cores,
+              r -> {
+                final Thread t = new Thread(r, "Recorder PNG " + stripeNumber.incrementAndGet());
+                t.setDaemon(true);
+                return t;
+              });
+      pngEncoder = new StripedPngEncoder(PNG_LEVEL, cores, stripeExecutor);
+    }
+    if (DELTA) deltaEncoder = new DeltaEncoder(KEYFRAME_INTERVAL);
+
+    // capture -> crop -> scale -> encode -> write
+    final Rectangle crop = cropRegion;
+    final MjpegStreamServer stream = streamServer;
+    final FrameArchiveWriter myArchive = archive;
+    final List<PipelineStage> pipeline = new ArrayList<>();
+    if (crop != null) {
+      pipeline.add(
+          new PipelineStage("crop", CROPPERS, QUEUE_CAPACITY, false, job -> crop(job, crop)));
+    }
+    if (SCALE != 1) {
+      pipeline.add(new PipelineStage("scale", SCALERS, QUEUE_CAPACITY, false, this::scale));
+    }
+    if (stream != null) {
+      // ordered - viewers must not see frames going backwards
+      pipeline.add(
+          new PipelineStage("stream", 1, QUEUE_CAPACITY, true, job -> stream(job, stream)));
+    }
+    pipeline.add(new PipelineStage("encode", ENCODERS, QUEUE_CAPACITY, DELTA, this::encode));
+    pipeline.add(
+        new PipelineStage("write", 1, QUEUE_CAPACITY, false, job -> write(job, myArchive)));
+
+    pipeline.get(0).setSource(new RingSource(ring));
+    for (int i = 0; i < pipeline.size() - 1; i++) pipeline.get(i).setNext(pipeline.get(i + 1));
+    for (PipelineStage stage : pipeline) stage.start();
+    stages = pipeline;
+    return ring;
   }
 
   public void stop() {
-    if (recorderThread == null) return;
+    if (ring == null) return;
 
     LOG.debug("Recorder shutting down...");
 
-    isStopped.set(true);
-
     try {
-      LOG.debug("Shut down - await termination.");
-      recorderThread.join();
-      genExecutor.awaitTermination(2, TimeUnit.SECONDS);
-      saveExecutor.awaitTermination(Long.MAX_VALUE, TimeUnit.SECONDS);
+      LOG.info("Shutdown taking snapshots...");
+      if (captureExecutor != null) {
+        captureExecutor.shutdown();
+        captureExecutor.awaitTermination(2, TimeUnit.SECONDS);
+        captureExecutor = null;
+      }
+      if (tickSource != null) {
+        // ticks still in progress find the ring closed
+        tickSource.removeListener(tickListener);
+        tickSource = null;
+        tickListener = null;
+      }
+      // each stage ends when its input is drained - then the next stage is closed
+      ring.close();
+      LOG.info("Saving queued snapshots to disk...");
+      for (PipelineStage stage : stages) {
+        stage.close();
+        stage.awaitTermination();
+      }
     } catch (InterruptedException e) {
       LOG.warn("While stopping recording", (e));
     }
 
-    recorderThread = null;
-
-    LOG.info("Recording stopped");
-  }
-
-  public void run() {
+    try {
+      archive.close();
+    } catch (IOException e) {
+      LOG.error("Recording could not be closed", e);
+    }
+    archive = null;
+    if (stripeExecutor != null) {
+      stripeExecutor.shutdown();
+      stripeExecutor = null;
+      pngEncoder = null;
+    }
+    if (deltaEncoder != null) {
+      LOG.info(
+          "Delta encoding stored {}% of all tiles",
+          String.format("%.1f", 100 * deltaEncoder.getStoredTileRatio()));
+      deltaEncoder.close();
+      deltaEncoder = null;
+    }
+    framePool.clear();
 
+    finalStats = getStageStats();
     LOG.info(
-        "Recording started - storing screenshots in {} every {} ms", SCREENSHOTS_FOLDER, period);
+        "Recording stopped - {} captured, {} saved, {} dropped",
+        genCounter.get(),
+        saveCounter.get(),
+        ring.getDropped());
+    for (PipelineStage.Stats stats : finalStats) LOG.info("Recorder stage {}", stats);
 
-    genExecutor.scheduleAtFixedRate(
-        () -> takeScreenShotAndQueue(), 0, period, TimeUnit.MILLISECONDS);
+    ring = null;
+  }
 
-    while (!(isStopped.get() && queue.isEmpty())) {
+  private void takeScreenShotAndQueue(FrameRing ring, long tick) {
+    long startTime = System.nanoTime();
+
+    final Frame frame;
+    try {
+      frame = ring.acquire(backend.getWidth(), backend.getHeight());
+      // ring full or closed - frame is skipped
+      if (frame == null) return;
       try {
-        final BufferedImage image = queue.take();
-        saveExecutor.execute(() -> saveImage(image));
-      } catch (InterruptedException e) {
-        e.printStackTrace();
-      }
-      if (isStopped.get() && !genExecutor.isShutdown()) {
-        LOG.info("Shutdown taking snapshots...");
-        genExecutor.shutdown();
-        LOG.info("Saving queued snapshots to disk...");
+        if (!backend.capture(frame)) {
+          ring.cancel(frame);
+          return;
+        }
+      } catch (RuntimeException e) {
+        // an exception would cancel the scheduled capturing
+        LOG.error("Screenshot failed", e);
+        captureMetrics.failed();
+        ring.cancel(frame);
+        return;
       }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return;
     }
-    LOG.debug("Shutdown saving snapshots...");
-    saveExecutor.shutdown();
+    frame.setCaptured(genCounter.getAndIncrement(), tick, startTime);
+
+    // add it to our buffer
+    ring.publish(frame);
+    captureMetrics.processed(System.nanoTime() - startTime);
   }
 
-  private void takeScreenShotAndQueue() {
-    long startTime = System.nanoTime();
-    genCounter.getAndIncrement();
+  /* crop stage - copies the region into a pooled frame */
+  private void crop(PipelineJob job, Rectangle region) {
+    final Frame source = job.getFrame();
+    final Rectangle r = region.intersection(new Rectangle(source.getWidth(), source.getHeight()));
+    if (r.isEmpty() || (r.width == source.getWidth() && r.height == source.getHeight())) return;
+    final Frame target = pooledFrame(r.width, r.height);
+    final int[] from = source.getPixels();
+    final int[] to = target.getPixels();
+    for (int y = 0; y < r.height; y++) {
+      System.arraycopy(from, (r.y + y) * source.getWidth() + r.x, to, y * r.width, r.width);
+    }
+    job.replaceFrame(target, framePool::add);
+  }
 
-    final Stage primaryStage = Jarkanoid.getPrimaryStage();
+  /* scale stage - draws the frame scaled into a pooled frame */
+  private void scale(PipelineJob job) {
+    final Frame source = job.getFrame();
+    final int width = Math.max(1, (int) Math.round(source.getWidth() * SCALE));
+    final int height = Math.max(1, (int) Math.round(source.getHeight() * SCALE));
+    final Frame target = pooledFrame(width, height);
+    final Graphics2D g = target.getImage().createGraphics();
+    try {
+      g.setRenderingHint(
+          RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+      g.drawImage(source.getImage(), 0, 0, width, height, null);
+    } finally {
+      g.dispose();
+    }
+    job.replaceFrame(target, framePool::add);
+  }
 
-    Rectangle stageRect =
-        new Rectangle(
-            (int) (primaryStage.getX()),
-            (int) primaryStage.getY(),
-            (int) primaryStage.getWidth(),
-            (int) primaryStage.getHeight());
+  private Frame pooledFrame(int width, int height) {
+    final Frame frame = framePool.poll();
+    if (frame == null) return new Frame(width, height);
+    frame.ensureSize(width, height);
+    return frame;
+  }
 
-    final BufferedImage screenshotBI = robot.createScreenCapture(stageRect);
+  /* stream stage - the JPEG is kept for the archive if the archive stores JPEGs */
+  private void stream(PipelineJob job, MjpegStreamServer server) throws IOException {
+    if (!server.hasViewers()) return;
+    final Frame frame = job.getFrame();
+    final EncodeBuffer buffer = encodeJpeg(frame);
+    server.publish(buffer.getBuffer(), buffer.size());
+    if (!DELTA && !PNG) {
+      job.setEncoded(
+          FrameArchive.CODEC_JPEG,
+          frame.getWidth(),
+          frame.getHeight(),
+          Arrays.copyOf(buffer.getBuffer(), buffer.size()),
+          buffer.size());
+    }
+  }
 
-    // add it to our buffer
-    queue.add(screenshotBI);
+  /* encodes into the buffer of the current thread */
+  private EncodeBuffer encodeJpeg(Frame frame) throws IOException {
+    final EncodeBuffer buffer = encodeBuffers.get();
+    buffer.reset();
+    try (ImageOutputStream out = new MemoryCacheImageOutputStream(buffer)) {
+      ImageIO.write(frame.getImage(), "jpg", out);
+    }
+    return buffer;
+  }
 
-    long endTime = System.nanoTime();
-    LOG.debug(
-        "CAPTURE: Screenshot #{} queued (took {} ms - queue size:{})",
-        genCounter.toString(),
-        (endTime - startTime) / 1e6f,
-        saveExecutor.getQueue().size());
+  /* encode stage - the frame is released afterwards */
+  private void encode(PipelineJob job) throws IOException {
+    final Frame frame = job.getFrame();
+    try {
+      // already encoded by the stream stage
+      if (job.data != null) return;
+      if (deltaEncoder != null) {
+        final ByteBuffer encoded = deltaEncoder.encode(frame);
+        final byte[] data = new byte[encoded.remaining()];
+        encoded.get(data);
+        job.setEncoded(
+            FrameArchive.CODEC_DELTA, frame.getWidth(), frame.getHeight(), data, data.length);
+        return;
+      }
+      final EncodeBuffer buffer;
+      final int codec;
+      if (pngEncoder != null) {
+        buffer = encodeBuffers.get();
+        buffer.reset();
+        pngEncoder.encode(frame, buffer);
+        codec = FrameArchive.CODEC_PNG;
+      } else {
+        buffer = encodeJpeg(frame);
+        codec = FrameArchive.CODEC_JPEG;
+      }
+      job.setEncoded(
+          codec,
+          frame.getWidth(),
+          frame.getHeight(),
+          Arrays.copyOf(buffer.getBuffer(), buffer.size()),
+          buffer.size());
+    } finally {
+      job.releaseFrame();
+    }
   }
 
-  private void saveImage(final BufferedImage image) {
+  /* write stage */
+  private void write(PipelineJob job, FrameArchiveWriter archive) throws IOException {
+    archive.append(
+        job.index, job.tick, job.timestamp, job.width, job.height, job.codec, job.data, job.length);
+    saveCounter.getAndIncrement();
+  }
 
-    long startTime = System.nanoTime();
+  /* the ring as input of the first stage - numbers the frames in the order they are taken */
+  private static final class RingSource implements PipelineStage.Source {
 
-    saveCounter.getAndIncrement();
+    private final FrameRing ring;
+    private long sequence = 0;
 
-    String format = "jpg";
+    RingSource(FrameRing ring) {
+      this.ring = ring;
+    }
 
-    // write the encoded image to disk
+    @Override
+    public synchronized PipelineJob take(long timeout, TimeUnit unit)
+        throws InterruptedException {
+      final Frame frame = ring.take(timeout, unit);
+      if (frame == null) return null;
+      final PipelineJob job = new PipelineJob(sequence++, frame, ring::release);
+      // waiting time since the capture
+      job.queuedAt = frame.getTimestamp();
+      return job;
+    }
 
-    // DEPENDENCY: PnGEncoder
-    //    try {
-    //      final FileOutputStream fout =
-    //          new FileOutputStream(SCREENSHOTS_FOLDER + startTime + "_Screenshot.png");
-    //        encoder.encode(image, fout);
-    //    } catch (IOException e) {
-    //      e.printStackTrace();
-    //    }
+    @Override
+    public boolean isDrained() {
+      return ring.isDrained();
+    }
 
-    File file = new File("screenshots/" + startTime + "_Screenshot." + format);
-    try {
-      ImageIO.write(image, format, file);
-    } catch (Exception s) {
-      s.printStackTrace();
+    @Override
+    public int getDepth() {
+      return ring.getDepth();
     }
 
-    long endTime = System.nanoTime();
+    @Override
+    public int getMaxDepth() {
+      return ring.getMaxDepth();
+    }
+  }
+
+  /* reusable encoding buffer of an encoder thread */
+  private static final class EncodeBuffer extends ByteArrayOutputStream {
 
-    LOG.debug(
-        "SAVING: Screenshot (#{}) saved (took {} ms queue size: {})",
-        saveCounter.toString(),
-        (endTime - startTime) / 1e6f,
-        saveExecutor.getQueue().size());
+    EncodeBuffer() {
+      super(256 * 1024);
+    }
+
+    byte[] getBuffer() {
+      return buf;
+    }
   }
 
   public boolean isRunning() {
-    return recorderThread != null;
+    return ring != null;
+  }
+
+  /**
+   * @return metrics of the capture and each stage of the pipeline - of the last recording if the
+   *     recorder has been stopped
+   */
+  public List<PipelineStage.Stats> getStageStats() {
+    final FrameRing myRing = ring;
+    if (myRing == null) return finalStats;
+    final List<PipelineStage.Stats> list = new ArrayList<>();
+    list.add(captureMetrics.snapshot("capture", 1, 0, 0));
+    for (PipelineStage stage : stages) list.add(stage.getStats());
+    return list;
+  }
+
+  /** @return number of frames lost in the current recording because the pipeline fell behind */
+  public long getDroppedFrames() {
+    final FrameRing myRing = ring;
+    return myRing == null ? 0 : myRing.getDropped();
+  }
+
+  /** @return number of captured frames waiting for the first stage */
+  public int getQueueDepth() {
+    final FrameRing myRing = ring;
+    return myRing == null ? 0 : myRing.getDepth();
   }
 }
@@ -0,0 +1,309 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018 Frank Kopp
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+package fko.jarkanoid.recorder;
+
+import fko.jarkanoid.leaderboard.Replay;
+import fko.jarkanoid.model.Brick;
+import fko.jarkanoid.model.HeadlessGame;
+import fko.jarkanoid.model.LevelLoader;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.awt.*;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.IntFunction;
+
+/**
+ * ReplayRenderer
+ *
+ * <p>Renders a {@link Replay} into a {@link FrameArchive} without a display. The game is
+ * simulated with {@link HeadlessGame} and each rendered tick is drawn with Java2D into a pooled
+ * {@link Frame}.
+ *
+ * <p>The timeline is split into chunks. A first, fast pass simulates the whole game and keeps a
+ * snapshot of the game at the start of each chunk. The chunks are then simulated again from
+ * their snapshots, drawn and delta encoded in parallel - each chunk starts with a keyframe - and
+ * appended to the archive in order. Only a limited number of chunks is in flight at a time.
+ *
+ * <p>Usage: <code>ReplayRenderer replayFile archive [fps]</code>
+ *
+ * <p>19.10.2026
+ *
+ * @author Frank Kopp
+ */
+public final class ReplayRenderer {
+
+  private static final Logger LOG = LoggerFactory.getLogger(ReplayRenderer.class);
+
+  /** Simulation ticks per second */
+  public static final int TICKS_PER_SECOND = 60;
+
+  private static final long NANOS_PER_TICK = 1_000_000_000L / TICKS_PER_SECOND;
+  private static final int HUD_HEIGHT = 40;
+  private static final Color BACKGROUND = new Color(0x000020);
+  private static final Color PADDLE = new Color(0xC0C0C0);
+  private static final Font HUD_FONT = new Font(Font.MONOSPACED, Font.BOLD, 20);
+
+  private final IntFunction<Brick[][]> levels;
+  private final int width;
+  private final int height;
+  private final int tickStep;
+  private final int chunkTicks;
+  private final int keyframeInterval;
+  private final Executor executor;
+  private final int parallelism;
+
+  private final ConcurrentLinkedQueue<Frame> framePool = new ConcurrentLinkedQueue<>();
+
+  /**
+   * @param levels level source for the simulation - as for {@link HeadlessGame}
+   * @param width width of the frames
+   * @param height height of the frames
+   * @param fps frames per second - a divisor of {@value #TICKS_PER_SECOND}
+   * @param chunkSeconds length of the chunks rendered in parallel
+   * @param executor renders the chunks
+   * @param parallelism number of chunks rendered at the same time
+   */
+  public ReplayRenderer(
+      IntFunction<Brick[][]> levels,
+      int width,
+      int height,
+      int fps,
+      int chunkSeconds,
+      Executor executor,
+      int parallelism) {
+    if (fps < 1 || TICKS_PER_SECOND % fps != 0) {
+      throw new IllegalArgumentException("fps must divide " + TICKS_PER_SECOND + ": " + fps);
+    }
+    if (chunkSeconds < 1) throw new IllegalArgumentException("chunkSeconds < 1");
+    this.levels = levels;
+    this.width = width;
+    this.height = height;
+    this.tickStep = TICKS_PER_SECOND / fps;
+    this.chunkTicks = chunkSeconds * TICKS_PER_SECOND;
+    this.keyframeInterval = chunkSeconds * fps;
+    this.executor = executor;
+    this.parallelism = Math.max(1, parallelism);
+  }
+
+  /**
+   * Renders the replay.
+   *
+   * @param replay
+   * @param archive the archive to create
+   * @return number of frames rendered
+   * @throws IOException
+   */
+  public int render(Replay replay, Path archive) throws IOException {
+    final long startTime = System.nanoTime();
+
+    // first pass - snapshots at the chunk starts
+    final List<HeadlessGame> snapshots = new ArrayList<>();
+    final HeadlessGame game = new HeadlessGame(levels, replay.startLevel, replay.seed);
+    for (int tick = 0; tick < replay.getTicks() && !game.isOver(); tick++) {
+      if (tick % chunkTicks == 0) snapshots.add(new HeadlessGame(game));
+      game.tick(replay.getInput(tick));
+    }
+    final int ticks = (int) game.getTick();
+
+    int frames = 0;
+    try (FrameArchiveWriter writer = new FrameArchiveWriter(archive)) {
+      final Deque<CompletableFuture<Chunk>> inFlight = new ArrayDeque<>();
+      for (int i = 0; i < snapshots.size(); i++) {
+        final HeadlessGame snapshot = snapshots.get(i);
+        final int to = Math.min((i + 1) * chunkTicks, ticks);
+        inFlight.add(
+            CompletableFuture.supplyAsync(() -> renderChunk(snapshot, replay, to), executor));
+        if (inFlight.size() >= 2 * parallelism) frames += append(writer, inFlight.poll());
+      }
+      while (!inFlight.isEmpty()) frames += append(writer, inFlight.poll());
+    }
+
+    final double seconds = (System.nanoTime() - startTime) / 1e9;
+    LOG.info(
+        "Rendered {} frames ({} s of play) in {} s to {}",
+        frames,
+        ticks / TICKS_PER_SECOND,
+        String.format("%.1f", seconds),
+        archive);
+    return frames;
+  }
+
+  private int append(FrameArchiveWriter writer, CompletableFuture<Chunk> future)
+      throws IOException {
+    final Chunk chunk;
+    try {
+      chunk = future.join();
+    } catch (CompletionException e) {
+      throw new IOException("Chunk could not be rendered", e.getCause());
+    }
+    final ByteBuffer data = ByteBuffer.wrap(chunk.data.toByteArray());
+    for (int i = 0; i < chunk.ticks.size(); i++) {
+      final long tick = chunk.ticks.get(i);
+      data.limit(data.position() + chunk.lengths.get(i));
+      writer.append(
+          tick / tickStep,
+          tick,
+          tick * NANOS_PER_TICK,
+          width,
+          height,
+          FrameArchive.CODEC_DELTA,
+          data);
+      data.position(data.limit());
+    }
+    return chunk.ticks.size();
+  }
+
+  /* simulates and draws the ticks from the snapshot up to the given tick */
+  private Chunk renderChunk(HeadlessGame snapshot, Replay replay, int to) {
+    final HeadlessGame game = new HeadlessGame(snapshot);
+    final Chunk chunk = new Chunk();
+    final DeltaEncoder encoder = new DeltaEncoder(keyframeInterval);
+    Frame frame = framePool.poll();
+    if (frame == null) frame = new Frame(width, height);
+    final Graphics2D g = frame.getImage().createGraphics();
+    try {
+      g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+      g.scale(
+          width / HeadlessGame.PLAYFIELD_WIDTH,
+          height / (HeadlessGame.PLAYFIELD_HEIGHT + HUD_HEIGHT));
+      while (game.getTick() < to) {
+        if (game.getTick() % tickStep == 0) {
+          draw(g, game);
+          final ByteBuffer encoded = encoder.encode(frame);
+          chunk.ticks.add(game.getTick());
+          chunk.lengths.add(encoded.remaining());
+          chunk.data.write(encoded.array(), encoded.position(), encoded.remaining());
+        }
+        game.tick(replay.getInput((int) game.getTick()));
+      }
+    } finally {
+      g.dispose();
+      encoder.close();
+      framePool.add(frame);
+    }
+    return chunk;
+  }
+
+  /**
+   * Draws the game - score line on top, the playfield below.
+   *
+   * @param g graphics scaled to playfield coordinates
+   * @param game
+   */
+  static void draw(Graphics2D g, HeadlessGame game) {
+    g.setColor(Color.BLACK);
+    g.fillRect(0, 0, (int) HeadlessGame.PLAYFIELD_WIDTH, HUD_HEIGHT);
+    g.setColor(Color.WHITE);
+    g.setFont(HUD_FONT);
+    g.drawString(
+        String.format(
+            "SCORE %7d   LEVEL %2d   LIVES %d", game.getScore(), game.getLevel(), game.getLives()),
+        10,
+        28);
+
+    final Graphics2D field = (Graphics2D) g.create();
+    try {
+      field.translate(0, HUD_HEIGHT);
+      field.setColor(BACKGROUND);
+      field.fillRect(
+          0, 0, (int) HeadlessGame.PLAYFIELD_WIDTH, (int) HeadlessGame.PLAYFIELD_HEIGHT);
+
+      final Brick[][] matrix = game.getMatrix();
+      for (int row = 0; row < matrix.length; row++) {
+        for (int col = 0; col < matrix[row].length; col++) {
+          final Brick brick = matrix[row][col];
+          if (brick == null) continue;
+          final javafx.scene.paint.Color color = brick.getColor();
+          field.setColor(
+              new Color((float) color.getRed(), (float) color.getGreen(), (float) color.getBlue()));
+          field.fillRect(
+              (int) (col * HeadlessGame.BRICK_WIDTH) + 1,
+              (int) (row * HeadlessGame.BRICK_HEIGHT) + 1,
+              (int) HeadlessGame.BRICK_WIDTH - 2,
+              (int) HeadlessGame.BRICK_HEIGHT - 2);
+        }
+      }
+
+      field.setColor(PADDLE);
+      field.fillRoundRect(
+          (int) game.getPaddleX(),
+          (int) HeadlessGame.PADDLE_Y,
+          (int) HeadlessGame.PADDLE_WIDTH,
+          (int) HeadlessGame.PADDLE_HEIGHT,
+          10,
+          10);
+
+      if (!game.isOver()) {
+        final double r = HeadlessGame.BALL_RADIUS;
+        field.setColor(Color.WHITE);
+        field.fillOval(
+            (int) (game.getBallX() - r), (int) (game.getBallY() - r), (int) (2 * r), (int) (2 * r));
+      }
+    } finally {
+      field.dispose();
+    }
+  }
+
+  /* encoded frames of a chunk */
+  private static final class Chunk {
+    final List<Long> ticks = new ArrayList<>();
+    final List<Integer> lengths = new ArrayList<>();
+    final ByteArrayOutputStream data = new ByteArrayOutputStream();
+  }
+
+  public static void main(String[] args) throws IOException {
+    if (args.length < 2) {
+      System.err.println("Usage: ReplayRenderer replayFile archive [fps]");
+      System.exit(1);
+    }
+    System.setProperty("java.awt.headless", "true");
+    final Replay replay = Replay.decode(ByteBuffer.wrap(Files.readAllBytes(Paths.get(args[0]))));
+    final int fps = args.length > 2 ? Integer.parseInt(args[2]) : 30;
+    final int cores = Runtime.getRuntime().availableProcessors();
+    final ExecutorService executor = Executors.newFixedThreadPool(cores);
+    try {
+      new ReplayRenderer(LevelLoader.getInstance()::getLevel, 780, 750, fps, 10, executor, cores)
+          .render(replay, Paths.get(args[1]));
+    } finally {
+      executor.shutdown();
+    }
+  }
+}
@@ -0,0 +1,81 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018 Frank Kopp
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+package fko.jarkanoid.recorder;
+
+import javafx.stage.Stage;
+
+import java.awt.AWTException;
+import java.awt.Rectangle;
+import java.awt.Robot;
+import java.awt.image.BufferedImage;
+
+/**
+ * RobotCaptureBackend
+ *
+ * <p>Captures the screen area of a stage with <code>java.awt.Robot</code>. This includes anything
+ * which overlaps the window and needs a real display.
+ *
+ * <p>19.10.2026
+ *
+ * @author Frank Kopp
+ */
+public final class RobotCaptureBackend implements CaptureBackend {
+
+  private final Stage stage;
+  private final Robot robot;
+
+  /**
+   * @param stage
+   * @throws AWTException if there is no display for the robot
+   */
+  public RobotCaptureBackend(Stage stage) throws AWTException {
+    this.stage = stage;
+    this.robot = new Robot();
+  }
+
+  @Override
+  public int getWidth() {
+    return (int) stage.getWidth();
+  }
+
+  @Override
+  public int getHeight() {
+    return (int) stage.getHeight();
+  }
+
+  @Override
+  public boolean capture(Frame frame) {
+    final Rectangle stageRect =
+        new Rectangle((int) stage.getX(), (int) stage.getY(), frame.getWidth(), frame.getHeight());
+    final BufferedImage screenshotBI = robot.createScreenCapture(stageRect);
+    frame.copyFrom(screenshotBI);
+    return true;
+  }
+
+  @Override
+  public String getName() {
+    return "robot";
+  }
+}
@@ -0,0 +1,173 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018 Frank Kopp
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+package fko.jarkanoid.recorder;
+
+import javafx.application.Platform;
+import javafx.scene.Node;
+import javafx.scene.Scene;
+import javafx.scene.SnapshotParameters;
+import javafx.scene.image.PixelFormat;
+import javafx.scene.image.WritableImage;
+import javafx.scene.transform.Transform;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.IntBuffer;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * SnapshotCaptureBackend
+ *
+ * <p>Captures by rendering the scene graph with <code>Scene.snapshot</code> or <code>
+ * Node.snapshot</code>. This only contains the game - no other windows - and works without a real
+ * display (e.g. with Monocle).
+ *
+ * <p>The snapshot is rendered into a reused {@link WritableImage} on the FX thread and its pixels
+ * are read with the <code>PixelReader</code> directly into the frame's pixel buffer. The capture
+ * thread waits until this is done.
+ *
+ * <p>19.10.2026
+ *
+ * @author Frank Kopp
+ */
+public final class SnapshotCaptureBackend implements CaptureBackend {
+
+  private static final Logger LOG = LoggerFactory.getLogger(SnapshotCaptureBackend.class);
+
+  // log a warning if the FX thread takes longer than this for a snapshot
+  private static final long FX_WARN_MS = 1000;
+
+  private final Scene scene;
+  private final Node node;
+  private final SnapshotParameters parameters;
+  private final double scale;
+
+  // only used on the FX thread
+  private WritableImage image = null;
+
+  /**
+   * Captures the whole scene.
+   *
+   * @param scene
+   */
+  public SnapshotCaptureBackend(Scene scene) {
+    this.scene = scene;
+    this.node = null;
+    this.parameters = null;
+    this.scale = 1;
+  }
+
+  /**
+   * Captures a single node, e.g. the playfield.
+   *
+   * @param node
+   */
+  public SnapshotCaptureBackend(Node node) {
+    this(node, 1);
+  }
+
+  /**
+   * Captures a single node scaled down (or up) - a smaller snapshot is cheaper to render, read
+   * and encode.
+   *
+   * @param node
+   * @param scale e.g. 0.5 for half width and height
+   */
+  public SnapshotCaptureBackend(Node node, double scale) {
+    this.scene = null;
+    this.node = node;
+    this.scale = scale;
+    this.parameters = new SnapshotParameters();
+    if (scale != 1) parameters.setTransform(Transform.scale(scale, scale));
+  }
+
+  @Override
+  public int getWidth() {
+    return (int)
+        Math.ceil(scene != null ? scene.getWidth() : node.getLayoutBounds().getWidth() * scale);
+  }
+
+  @Override
+  public int getHeight() {
+    return (int)
+        Math.ceil(scene != null ? scene.getHeight() : node.getLayoutBounds().getHeight() * scale);
+  }
+
+  @Override
+  public boolean capture(Frame frame) throws InterruptedException {
+    if (Platform.isFxApplicationThread()) return snapshot(frame);
+
+    final boolean[] result = new boolean[1];
+    final CountDownLatch done = new CountDownLatch(1);
+    Platform.runLater(
+        () -> {
+          try {
+            result[0] = snapshot(frame);
+          } finally {
+            done.countDown();
+          }
+        });
+    if (!done.await(FX_WARN_MS, TimeUnit.MILLISECONDS)) {
+      // the FX thread will still write into the frame - so we have to wait for it
+      LOG.warn("FX thread did not render the snapshot within {} ms", FX_WARN_MS);
+      done.await();
+    }
+    return result[0];
+  }
+
+  /* must be called on the FX thread */
+  private boolean snapshot(Frame frame) {
+    final int width = frame.getWidth();
+    final int height = frame.getHeight();
+    if (image == null
+        || (int) image.getWidth() != width
+        || (int) image.getHeight() != height) {
+      image = new WritableImage(width, height);
+    }
+    // snapshot returns a new image if the size doesn't match
+    image = scene != null ? scene.snapshot(image) : node.snapshot(parameters, image);
+    if ((int) image.getWidth() < width || (int) image.getHeight() < height) {
+      LOG.debug("Snapshot smaller than frame - skipped");
+      return false;
+    }
+    image
+        .getPixelReader()
+        .getPixels(
+            0,
+            0,
+            width,
+            height,
+            PixelFormat.getIntArgbInstance(),
+            IntBuffer.wrap(frame.getPixels()),
+            width);
+    return true;
+  }
+
+  @Override
+  public String getName() {
+    return "snapshot";
+  }
+}
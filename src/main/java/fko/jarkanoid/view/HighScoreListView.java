@@ -31,8 +31,6 @@ import fko.jarkanoid.model.HighScore;
 import javafx.beans.property.SimpleStringProperty;
 import javafx.beans.property.StringProperty;
 import javafx.beans.value.ObservableValue;
-import javafx.collections.FXCollections;
-import javafx.collections.ObservableList;
 import javafx.css.PseudoClass;
 import javafx.scene.control.TableCell;
 import javafx.scene.control.TableColumn;
@@ -43,11 +41,8 @@ import javafx.util.Callback;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.time.format.FormatStyle;
-import java.util.ArrayList;
-import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Function;
 
 public class HighScoreListView {
@@ -57,7 +52,7 @@ public class HighScoreListView {
   private final TableView<TableRowBean> highScoreTable;
   private final GameModel model;
   private final MainController controller;
-  private final ObservableList<TableRowBean> observableList;
+  private final PagedHighScoreList observableList;
 
   private HighScore.HighScoreEntry newestEntry;
 
@@ -72,13 +67,29 @@ public class HighScoreListView {
       final GameModel model,
       final MainController controller,
       final TableView<TableRowBean> highScoreTable) {
+    this(model, controller, highScoreTable, HighScoreSource.of(model::getHighScoreManager));
+  }
+
+  /**
+   * Shows the given leaderboard. Rows are read page by page while the table scrolls.
+   *
+   * @param model
+   * @param controller
+   * @param highScoreTable
+   * @param source
+   */
+  public HighScoreListView(
+      final GameModel model,
+      final MainController controller,
+      final TableView<TableRowBean> highScoreTable,
+      final HighScoreSource source) {
 
     LOG.debug("Building HighScoreListView");
 
     this.model = model;
     this.controller = controller;
     this.highScoreTable = highScoreTable;
-    this.observableList = FXCollections.observableArrayList(new ArrayList<TableRowBean>());
+    this.observableList = new PagedHighScoreList(source);
     this.newestEntry = null;
 
     // clear any columns which have been set by FXML
@@ -104,7 +115,6 @@ public class HighScoreListView {
     highScoreTable.setEditable(false);
     highScoreTable.setMouseTransparent(false);
 
-    updateList();
   }
 
   public TableColumn<TableRowBean, String> createTableColumn(
@@ -137,37 +147,27 @@ public class HighScoreListView {
     return column;
   }
 
-  private void updateList() {
+  /** Reads the whole list again. */
+  public void updateList() {
     LOG.debug("Update HighScoreListView from model");
-    observableList.clear();
-
-    final AtomicInteger counter = new AtomicInteger(1);
-    model
-        .getHighScoreManager()
-        .stream()
-        .limit(15)
-        .forEach(
-            entry -> {
-              observableList.add(
-                  new TableRowBean(
-                      Integer.toString(counter.getAndIncrement()),
-                      entry.name,
-                      entry.score,
-                      entry.level,
-                      entry.date));
-            });
-
-    if (LOG.isDebugEnabled()) {
-      LOG.debug("{}", observableList);
-    }
+    observableList.reset();
   }
 
+  /**
+   * Inserts the new entry at its place - other rows are only renumbered.
+   *
+   * @param newEntry
+   */
   public void updateList(final HighScore.HighScoreEntry newEntry) {
+    LOG.debug("Insert new entry into HighScoreListView: {}", newEntry);
     newestEntry = newEntry;
-    updateList();
+    observableList.insert(newEntry);
   }
 
-  public class TableRowBean {
+  public static class TableRowBean {
+
+    private static final DateTimeFormatter DATE_FORMAT =
+        DateTimeFormatter.ofLocalizedDateTime(FormatStyle.SHORT, FormatStyle.SHORT);
 
     private final StringProperty place;
     private final StringProperty name;
@@ -175,21 +175,45 @@ public class HighScoreListView {
     private final StringProperty level;
     private final StringProperty date;
 
-    TableRowBean(
-        final String place,
-        final String name,
-        final int score,
-        final int level,
-        final LocalDateTime date) {
-
-      this.place = new SimpleStringProperty(place);
-      this.name = new SimpleStringProperty(name);
-      this.score = new SimpleStringProperty(String.format("%,d", score));
-      this.level = new SimpleStringProperty(Integer.toString(level));
-      this.date =
-          new SimpleStringProperty(
-              date.format(
-                  DateTimeFormatter.ofLocalizedDateTime(FormatStyle.SHORT, FormatStyle.SHORT)));
+    private boolean placeholder = true;
+
+    /*
+     * Empty row until the cells are set.
+     */
+    TableRowBean(final int place) {
+      this.place = new SimpleStringProperty(Integer.toString(place));
+      this.name = new SimpleStringProperty("");
+      this.score = new SimpleStringProperty("");
+      this.level = new SimpleStringProperty("");
+      this.date = new SimpleStringProperty("");
+    }
+
+    /*
+     * Formats the cells of an entry - may be called on any thread.
+     * @return name, score, level and date as shown in the table
+     */
+    static String[] format(final HighScore.HighScoreEntry entry) {
+      return new String[] {
+        entry.name,
+        String.format("%,d", entry.score),
+        Integer.toString(entry.level),
+        entry.date.format(DATE_FORMAT)
+      };
+    }
+
+    /*
+     * @param cells formatted by format()
+     */
+    void setCells(final String[] cells) {
+      name.set(cells[0]);
+      score.set(cells[1]);
+      level.set(cells[2]);
+      date.set(cells[3]);
+      placeholder = false;
+    }
+
+    boolean isPlaceholder() {
+      return placeholder;
     }
 
     public StringProperty placeProperty() {
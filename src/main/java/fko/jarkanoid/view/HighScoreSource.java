@@ -0,0 +1,125 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018 Frank Kopp
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+package fko.jarkanoid.view;
+
+import fko.jarkanoid.leaderboard.LeaderboardStore;
+import fko.jarkanoid.model.HighScore;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * HighScoreSource
+ *
+ * <p>Random access to a leaderboard for the {@link HighScoreListView}. Pages are requested from
+ * a background thread so implementations may do I/O.
+ *
+ * <p>19.10.2026
+ *
+ * @author Frank Kopp
+ */
+public interface HighScoreSource {
+
+  /** @return number of entries */
+  int size();
+
+  /**
+   * @param offset index of the first entry
+   * @param limit maximum number of entries
+   * @return the entries from offset on in leaderboard order
+   */
+  List<HighScore.HighScoreEntry> page(int offset, int limit);
+
+  /**
+   * @param entry a newly added entry
+   * @return index of the entry in the leaderboard or -1 if it is not in it
+   */
+  int indexOf(HighScore.HighScoreEntry entry);
+
+  /**
+   * Source for an in-memory list like the {@link HighScore} top list.
+   *
+   * @param list supplies the current list - it must not be modified once returned
+   * @return source
+   */
+  static HighScoreSource of(Supplier<List<HighScore.HighScoreEntry>> list) {
+    return new HighScoreSource() {
+      @Override
+      public int size() {
+        return list.get().size();
+      }
+
+      @Override
+      public List<HighScore.HighScoreEntry> page(int offset, int limit) {
+        final List<HighScore.HighScoreEntry> current = list.get();
+        final int from = Math.min(offset, current.size());
+        return new ArrayList<>(current.subList(from, Math.min(current.size(), from + limit)));
+      }
+
+      @Override
+      public int indexOf(HighScore.HighScoreEntry entry) {
+        final List<HighScore.HighScoreEntry> current = list.get();
+        for (int i = 0; i < current.size(); i++) {
+          if (current.get(i) == entry) return i;
+        }
+        return -1;
+      }
+    };
+  }
+
+  /**
+   * Source for a persistent leaderboard.
+   *
+   * @param store
+   * @return source
+   */
+  static HighScoreSource of(LeaderboardStore store) {
+    return new HighScoreSource() {
+      @Override
+      public int size() {
+        return (int) Math.min(Integer.MAX_VALUE, store.size());
+      }
+
+      @Override
+      public List<HighScore.HighScoreEntry> page(int offset, int limit) {
+        try {
+          return store.page(offset, limit);
+        } catch (IOException e) {
+          throw new UncheckedIOException(e);
+        }
+      }
+
+      @Override
+      public int indexOf(HighScore.HighScoreEntry entry) {
+        // the store reads entries back as copies - a new entry is the last one with its score
+        if (entry.score == Integer.MIN_VALUE) return size() - 1;
+        return (int) (store.rank(entry.score - 1) - 2);
+      }
+    };
+  }
+}
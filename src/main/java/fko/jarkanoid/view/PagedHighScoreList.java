@@ -0,0 +1,247 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018 Frank Kopp
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+package fko.jarkanoid.view;
+
+import fko.jarkanoid.model.HighScore;
+import javafx.application.Platform;
+import javafx.collections.ObservableListBase;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * PagedHighScoreList
+ *
+ * <p>Virtual list of table rows for the {@link HighScoreListView}. Only rows the table actually
+ * asks for are kept. A missing row is returned as an empty placeholder and its page is read from
+ * the {@link HighScoreSource} and formatted on a background thread. The placeholders are filled
+ * on the FX thread when the page arrives.
+ *
+ * <p>A new entry is applied as a positional change - the row is inserted at its rank, cached rows
+ * below are renumbered and the tail is dropped if the leaderboard did not grow.<br>
+ * All methods except the loading itself must be called on the FX thread.
+ *
+ * <p>19.10.2026
+ *
+ * @author Frank Kopp
+ */
+public class PagedHighScoreList extends ObservableListBase<HighScoreListView.TableRowBean> {
+
+  private static final Logger LOG = LoggerFactory.getLogger(PagedHighScoreList.class);
+
+  // rows read from the source at once
+  private static final int PAGE_SIZE = 50;
+
+  // rows further away from the requested row are dropped when the cache exceeds this
+  private static final int MAX_CACHED_ROWS = 1000;
+
+  // shared by all lists - loading is short and rare
+  private static final ExecutorService LOADER =
+      Executors.newSingleThreadExecutor(
+          r -> {
+            final Thread t = new Thread(r, "HighScore Loader");
+            t.setDaemon(true);
+            return t;
+          });
+
+  private final HighScoreSource source;
+  private final Executor loader;
+  private final Executor fxThread;
+
+  private int size;
+  private final Map<Integer, HighScoreListView.TableRowBean> rows = new HashMap<>();
+  private final Set<Integer> loadingPages = new HashSet<>();
+
+  // incremented with every structural change - loads started before are stale
+  private int generation = 0;
+
+  /**
+   * @param source
+   */
+  public PagedHighScoreList(HighScoreSource source) {
+    this(source, LOADER, Platform::runLater);
+  }
+
+  /**
+   * @param source
+   * @param loader reads and formats pages
+   * @param fxThread applies results - all other calls must happen on this thread as well
+   */
+  PagedHighScoreList(HighScoreSource source, Executor loader, Executor fxThread) {
+    this.source = source;
+    this.loader = loader;
+    this.fxThread = fxThread;
+    this.size = source.size();
+  }
+
+  @Override
+  public HighScoreListView.TableRowBean get(int index) {
+    if (index < 0 || index >= size) {
+      throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+    }
+    HighScoreListView.TableRowBean row = rows.get(index);
+    if (row == null) {
+      ensurePage(index / PAGE_SIZE);
+      row = rows.get(index);
+    }
+    return row;
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Applies a new entry as insert at its rank. Falls back to a reset if the change is not a
+   * single insert.
+   *
+   * @param entry the new entry which already has been added to the source
+   */
+  public void insert(HighScore.HighScoreEntry entry) {
+    final int index = source.indexOf(entry);
+    final int newSize = source.size();
+    if (index < 0 || index >= newSize || newSize < size || newSize > size + 1) {
+      reset();
+      return;
+    }
+    generation++;
+
+    // shift rows below the new one - the last row falls off if the size did not change
+    HighScoreListView.TableRowBean removed = null;
+    final Map<Integer, HighScoreListView.TableRowBean> shifted = new HashMap<>(rows.size() * 2);
+    for (Map.Entry<Integer, HighScoreListView.TableRowBean> e : rows.entrySet()) {
+      final int i = e.getKey();
+      if (i < index) {
+        shifted.put(i, e.getValue());
+      } else if (i + 1 < newSize) {
+        e.getValue().setPlace(Integer.toString(i + 2));
+        shifted.put(i + 1, e.getValue());
+      } else {
+        removed = e.getValue();
+      }
+    }
+    rows.clear();
+    rows.putAll(shifted);
+
+    final HighScoreListView.TableRowBean row = new HighScoreListView.TableRowBean(index + 1);
+    rows.put(index, row);
+    loader.execute(
+        () -> {
+          final String[] cells = HighScoreListView.TableRowBean.format(entry);
+          fxThread.execute(() -> row.setCells(cells));
+        });
+
+    final int oldSize = size;
+    size = newSize;
+    beginChange();
+    if (newSize == oldSize) nextRemove(oldSize - 1, removed);
+    nextAdd(index, index + 1);
+    endChange();
+
+    // loads in flight refer to old positions - they are ignored and redone
+    reloadPlaceholders();
+  }
+
+  /** Drops all rows and reads the size from the source again. */
+  public void reset() {
+    generation++;
+    rows.clear();
+    loadingPages.clear();
+    final int oldSize = size;
+    size = source.size();
+    beginChange();
+    nextRemove(0, Collections.nCopies(oldSize, (HighScoreListView.TableRowBean) null));
+    nextAdd(0, size);
+    endChange();
+  }
+
+  /* creates placeholders for missing rows of the page and starts loading it */
+  private void ensurePage(int page) {
+    final int from = page * PAGE_SIZE;
+    final int to = Math.min(size, from + PAGE_SIZE);
+    if (rows.size() + PAGE_SIZE > MAX_CACHED_ROWS) trimCache(from);
+    for (int i = from; i < to; i++) {
+      if (!rows.containsKey(i)) rows.put(i, new HighScoreListView.TableRowBean(i + 1));
+    }
+    if (!loadingPages.add(page)) return;
+
+    final int loadGeneration = generation;
+    loader.execute(
+        () -> {
+          String[][] cells = null;
+          try {
+            final List<HighScore.HighScoreEntry> entries = source.page(from, to - from);
+            cells = new String[entries.size()][];
+            for (int i = 0; i < cells.length; i++) {
+              cells[i] = HighScoreListView.TableRowBean.format(entries.get(i));
+            }
+          } catch (RuntimeException e) {
+            LOG.error("Could not load high score rows {} to {}", from, to, e);
+          }
+          final String[][] result = cells;
+          fxThread.execute(() -> applyPage(page, from, loadGeneration, result));
+        });
+  }
+
+  private void applyPage(int page, int from, int loadGeneration, String[][] cells) {
+    if (loadGeneration != generation) return;
+    loadingPages.remove(page);
+    if (cells == null) return;
+    for (int i = 0; i < cells.length; i++) {
+      final HighScoreListView.TableRowBean row = rows.get(from + i);
+      if (row != null) row.setCells(cells[i]);
+    }
+  }
+
+  /* loads all pages which still have placeholder rows */
+  private void reloadPlaceholders() {
+    loadingPages.clear();
+    final Set<Integer> pages = new HashSet<>();
+    for (Map.Entry<Integer, HighScoreListView.TableRowBean> e : rows.entrySet()) {
+      if (e.getValue().isPlaceholder()) pages.add(e.getKey() / PAGE_SIZE);
+    }
+    for (int page : pages) ensurePage(page);
+  }
+
+  /* keeps rows around the given index */
+  private void trimCache(int index) {
+    final int keep = MAX_CACHED_ROWS / 2;
+    final Iterator<Integer> iterator = rows.keySet().iterator();
+    while (iterator.hasNext()) {
+      if (Math.abs(iterator.next() - index) > keep) iterator.remove();
+    }
+  }
+}
@@ -0,0 +1,94 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018 Frank Kopp
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+package fko.jarkanoid.leaderboard;
+
+import fko.jarkanoid.model.HighScore.HighScoreEntry;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HighScoreMergerTest {
+
+  private static final LocalDateTime DATE = LocalDateTime.of(2026, 10, 19, 12, 0);
+
+  @Test
+  void mergeCsvFiles() throws Exception {
+    Path folder = Files.createTempDirectory("merge");
+    Random random = new Random(42);
+    List<Path> files = new ArrayList<>();
+    List<HighScoreEntry> all = new ArrayList<>();
+    for (int f = 0; f < 8; f++) {
+      List<String> lines = new ArrayList<>();
+      for (int i = 0; i < 2000; i++) {
+        HighScoreEntry entry =
+            new HighScoreEntry("C" + f + "P" + i, random.nextInt(100_000), 1 + i % 30, DATE);
+        all.add(entry);
+        lines.add(entry.toString());
+      }
+      // every cabinet also has the same shared entry and a broken line
+      lines.add("Shared;999999;33;" + DATE);
+      lines.add("garbage");
+      Path file = folder.resolve("cabinet" + f + ".csv");
+      Files.write(file, lines, StandardCharsets.ISO_8859_1);
+      files.add(file);
+    }
+    all.add(new HighScoreEntry("Shared", 999999, 33, DATE));
+    all.sort(HighScoreMerger.RANKING);
+
+    HighScoreMerger merger = new HighScoreMerger(15);
+    List<HighScoreEntry> merged = merger.merge(files);
+
+    assertEquals(15, merged.size());
+    assertEquals(all.subList(0, 15), merged);
+    assertEquals("Shared", merged.get(0).name);
+    assertEquals("C", merged.get(1).name.substring(0, 1));
+    assertEquals(8 * 2001, merger.getEntriesRead());
+    assertEquals(8, merger.getLinesSkipped());
+  }
+
+  @Test
+  void kWayMergeDropsDuplicates() {
+    HighScoreEntry a = new HighScoreEntry("A", 300, 1, DATE);
+    HighScoreEntry b = new HighScoreEntry("B", 200, 1, DATE);
+    HighScoreEntry c = new HighScoreEntry("C", 100, 1, DATE);
+    List<List<HighScoreEntry>> lists = new ArrayList<>();
+    lists.add(Arrays.asList(a, c));
+    lists.add(Arrays.asList(new HighScoreEntry("A", 300, 1, DATE), b));
+    lists.add(new ArrayList<>());
+
+    List<HighScoreEntry> merged = HighScoreMerger.kWayMerge(lists, 10);
+    assertEquals(Arrays.asList(a, b, c), merged);
+    assertEquals(2, HighScoreMerger.kWayMerge(lists, 2).size());
+  }
+}
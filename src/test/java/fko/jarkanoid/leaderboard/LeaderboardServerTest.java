@@ -0,0 +1,205 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018 Frank Kopp
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+package fko.jarkanoid.leaderboard;
+
+import fko.jarkanoid.model.HighScore;
+import fko.jarkanoid.model.HighScore.HighScoreEntry;
+import fko.jarkanoid.model.TestHighScores;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LeaderboardServerTest {
+
+  private static final LocalDateTime DATE = LocalDateTime.of(2026, 10, 19, 12, 0);
+
+  private LeaderboardStore store;
+  private LeaderboardServer server;
+  private HighScore highScore;
+
+  @BeforeEach
+  void setUp() throws Exception {
+    Path folder = Files.createTempDirectory("leaderboard");
+    highScore = TestHighScores.inFolder(folder.resolve("highscore"));
+    store = new LeaderboardStore(folder);
+    for (int i = 0; i < 100; i++) {
+      store.add(new HighScoreEntry("P" + (i % 10), i * 10, 1 + i % 5, DATE));
+    }
+    server = new LeaderboardServer(new InetSocketAddress("127.0.0.1", 0), highScore, store, 2);
+    server.start();
+  }
+
+  @AfterEach
+  void tearDown() throws Exception {
+    server.stop();
+    store.close();
+  }
+
+  @Test
+  void topIsCachedWithEtag() throws Exception {
+    HttpURLConnection first = open("/top");
+    assertEquals(200, first.getResponseCode());
+    String etag = first.getHeaderField("ETag");
+    assertNotNull(etag);
+    assertTrue(read(first).startsWith("{\"entries\":["));
+
+    for (int i = 0; i < 10; i++) {
+      HttpURLConnection again = open("/top");
+      again.setRequestProperty("If-None-Match", etag);
+      assertEquals(304, again.getResponseCode());
+      again.disconnect();
+    }
+    assertEquals(10, server.getNotModified());
+    assertEquals(1, server.getEncodings());
+  }
+
+  @Test
+  void etagDoesNotSurviveRestart() throws Exception {
+    highScore.addEntry("Old", 100, 1, DATE);
+    String etag = open("/top").getHeaderField("ETag");
+    server.stop();
+
+    // after a restart the list version starts again and reaches the same number
+    highScore = TestHighScores.inFolder(Files.createTempDirectory("highscore"));
+    highScore.addEntry("New", 200, 1, DATE);
+    server = new LeaderboardServer(new InetSocketAddress("127.0.0.1", 0), highScore, store, 2);
+    server.start();
+    HttpURLConnection again = open("/top");
+    again.setRequestProperty("If-None-Match", etag);
+    assertEquals(200, again.getResponseCode());
+    assertNotEquals(etag, again.getHeaderField("ETag"));
+    assertTrue(read(again).contains("\"name\":\"New\""));
+  }
+
+  @Test
+  void queries() throws Exception {
+    assertEquals("{\"score\":985,\"rank\":2}", read(open("/rank?score=985")));
+    String player = read(open("/player?name=P9"));
+    assertTrue(player.contains("\"rank\":1"), player);
+    assertTrue(player.contains("\"score\":990"), player);
+    String level = read(open("/level?level=3&limit=2"));
+    assertTrue(level.contains("\"score\":970") && level.contains("\"score\":920"), level);
+    String board = read(open("/board?offset=10&limit=1"));
+    assertTrue(board.contains("\"place\":11") && board.contains("\"score\":890"), board);
+
+    assertEquals(400, open("/rank?score=abc").getResponseCode());
+    assertEquals(400, open("/rank").getResponseCode());
+  }
+
+  /*
+   * Polls /top with 304 answers from clients which keep their connection open. A wall clock
+   * benchmark - only run with -Djarkanoid.benchmark=true. It reports the rate reached on this
+   * machine and does not check the tens of thousands of requests per second the service was asked
+   * for.
+   */
+  @Test
+  @Tag("benchmark")
+  @EnabledIfSystemProperty(named = "jarkanoid.benchmark", matches = "true")
+  void loadTest() throws Exception {
+    String etag = open("/top").getHeaderField("ETag");
+    byte[] request =
+        ("GET /top HTTP/1.1\r\nHost: 127.0.0.1\r\nIf-None-Match: " + etag + "\r\n\r\n")
+            .getBytes(StandardCharsets.US_ASCII);
+    int threads = 4;
+    int perThread = 20_000;
+    AtomicLong failures = new AtomicLong();
+    List<Thread> clients = new ArrayList<>();
+    long time = System.nanoTime();
+    for (int t = 0; t < threads; t++) {
+      Thread client =
+          new Thread(
+              () -> {
+                try (Socket socket = new Socket("127.0.0.1", server.getAddress().getPort())) {
+                  socket.setTcpNoDelay(true);
+                  OutputStream out = socket.getOutputStream();
+                  InputStream in = new BufferedInputStream(socket.getInputStream());
+                  for (int i = 0; i < perThread; i++) {
+                    out.write(request);
+                    out.flush();
+                    if (!readHeader(in).startsWith("HTTP/1.1 304")) failures.incrementAndGet();
+                  }
+                } catch (IOException e) {
+                  failures.incrementAndGet();
+                }
+              });
+      client.start();
+      clients.add(client);
+    }
+    for (Thread client : clients) client.join();
+    time = System.nanoTime() - time;
+    System.out.printf(
+        "%,d polls on %d keep-alive connections in %,d ms - %,.0f requests/s%n",
+        threads * perThread, threads, time / 1_000_000, threads * perThread / (time / 1e9));
+    assertEquals(0, failures.get());
+    assertEquals(threads * perThread + 1, server.getRequests());
+  }
+
+  /* reads a response header - a 304 has no body */
+  private static String readHeader(InputStream in) throws IOException {
+    StringBuilder header = new StringBuilder(256);
+    int c;
+    while ((c = in.read()) >= 0) {
+      header.append((char) c);
+      if (c == '\n' && header.length() >= 4 && header.lastIndexOf("\r\n\r\n") >= 0) break;
+    }
+    return header.toString();
+  }
+
+  private HttpURLConnection open(String path) throws IOException {
+    URL url = new URL("http://127.0.0.1:" + server.getAddress().getPort() + path);
+    return (HttpURLConnection) url.openConnection();
+  }
+
+  private static String read(HttpURLConnection connection) throws IOException {
+    try (InputStream in = connection.getInputStream()) {
+      ByteArrayOutputStream out = new ByteArrayOutputStream();
+      byte[] buffer = new byte[4096];
+      int n;
+      while ((n = in.read(buffer)) > 0) out.write(buffer, 0, n);
+      return new String(out.toByteArray(), StandardCharsets.UTF_8);
+    }
+  }
+}
@@ -0,0 +1,176 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018 Frank Kopp
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+package fko.jarkanoid.leaderboard;
+
+import fko.jarkanoid.model.HighScore.HighScoreEntry;
+import fko.jarkanoid.model.HighScoreEntryCodec;
+import org.junit.jupiter.api.Test;
+
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LeaderboardStoreTest {
+
+  private static final LocalDateTime DATE = LocalDateTime.of(2026, 10, 19, 12, 0, 0, 5000);
+
+  @Test
+  void codecRoundTrip() {
+    HighScoreEntry entry = new HighScoreEntry("J\u00f6rg", 123456, 17, DATE);
+    ByteBuffer buffer = ByteBuffer.allocate(HighScoreEntryCodec.encodedSize(entry));
+    HighScoreEntryCodec.encode(entry, buffer);
+    assertFalse(buffer.hasRemaining());
+    buffer.flip();
+    assertEquals(entry.toString(), HighScoreEntryCodec.decode(buffer).toString());
+  }
+
+  @Test
+  void rankAndPage() throws Exception {
+    Path folder = Files.createTempDirectory("leaderboard");
+    List<HighScoreEntry> expected = new ArrayList<>();
+    Random random = new Random(4711);
+    try (LeaderboardStore store = new LeaderboardStore(folder)) {
+      // more than one merge of the delta into the index
+      for (int i = 0; i < 20000; i++) {
+        HighScoreEntry entry = new HighScoreEntry("P" + i, random.nextInt(5000), 1, DATE);
+        expected.add(entry);
+        store.add(entry);
+      }
+      // stable sort keeps insertion order for equal scores - same as the store
+      expected.sort((a, b) -> Integer.compare(b.score, a.score));
+      assertEquals(20000, store.size());
+      assertPage(expected, store, 0, 15);
+      assertPage(expected, store, 9990, 25);
+      assertPage(expected, store, 19990, 15);
+      assertTrue(store.page(20000, 10).isEmpty());
+
+      int score = expected.get(500).score;
+      long higher = expected.stream().filter(e -> e.score > score).count();
+      assertEquals(higher + 1, store.rank(score));
+      assertEquals(1, store.rank(Integer.MAX_VALUE));
+      assertEquals(20001, store.rank(-1));
+    }
+
+    // reopen - the index is used and only the tail of the log is read
+    try (LeaderboardStore store = new LeaderboardStore(folder)) {
+      assertEquals(20000, store.size());
+      assertPage(expected, store, 1234, 50);
+    }
+  }
+
+  @Test
+  void tornRecordIsTruncated() throws Exception {
+    Path folder = Files.createTempDirectory("leaderboard");
+    try (LeaderboardStore store = new LeaderboardStore(folder)) {
+      store.add(new HighScoreEntry("A", 100, 1, DATE));
+      store.add(new HighScoreEntry("B", 200, 2, DATE));
+    }
+    Path log = folder.resolve(LeaderboardStore.LOG_FILE);
+    long validLength = Files.size(log);
+    // index is missing and the last record incomplete
+    Files.delete(folder.resolve(LeaderboardStore.INDEX_FILE));
+    try (FileChannel channel = FileChannel.open(log, StandardOpenOption.APPEND)) {
+      channel.write(ByteBuffer.wrap(new byte[] {0, 0, 0, 40, 0, 1, 'C'}));
+    }
+
+    try (LeaderboardStore store = new LeaderboardStore(folder)) {
+      assertEquals(2, store.size());
+      assertEquals("B", store.page(0, 1).get(0).name);
+      assertEquals(validLength, Files.size(log));
+    }
+  }
+
+  @Test
+  void queriesDoNotTruncateDamagedLog() throws Exception {
+    Path folder = Files.createTempDirectory("leaderboard");
+    Path log = folder.resolve(LeaderboardStore.LOG_FILE);
+    try (LeaderboardStore store = new LeaderboardStore(folder)) {
+      store.add(new HighScoreEntry("A", 100, 1, DATE));
+      long second = Files.size(log);
+      store.add(new HighScoreEntry("B", 200, 2, DATE));
+      store.add(new HighScoreEntry("C", 300, 3, DATE));
+      long length = Files.size(log);
+      // damage the size of the second record while the store is open
+      try (FileChannel channel = FileChannel.open(log, StandardOpenOption.WRITE)) {
+        channel.write(ByteBuffer.wrap(new byte[] {-1, -1, -1, -1}), second);
+      }
+
+      assertThrows(UncheckedIOException.class, () -> store.bestForPlayer("C"));
+      assertEquals(length, Files.size(log));
+      // records behind the damage are still readable through the score index
+      assertEquals("C", store.page(0, 1).get(0).name);
+      assertEquals(3, store.size());
+    }
+  }
+
+  @Test
+  void levelAndPlayerIndexes() throws Exception {
+    Path folder = Files.createTempDirectory("leaderboard");
+    try (LeaderboardStore store = new LeaderboardStore(folder)) {
+      for (int i = 0; i < 1000; i++) {
+        store.add(new HighScoreEntry("P" + (i % 10), i, 1 + i % 30, DATE));
+      }
+    }
+    try (LeaderboardStore store = new LeaderboardStore(folder)) {
+      assertEquals(990, store.bestForPlayer("P0").score);
+      assertNull(store.bestForPlayer("nobody"));
+
+      List<HighScoreEntry> level12 = store.pageForLevel(12, 0, 10);
+      assertEquals(10, level12.size());
+      assertEquals(971, level12.get(0).score);
+      assertEquals(701, level12.get(9).score);
+      assertEquals(33, store.pageForLevel(12, 0, 100).size());
+      assertEquals(1, store.rankForLevel(12, 1000));
+      assertEquals(2, store.rankForLevel(12, 950));
+
+      // indexes are updated incrementally after they have been built
+      store.add(new HighScoreEntry("P0", 5000, 12, DATE));
+      store.add(new HighScoreEntry("New", 1, 12, DATE));
+      assertEquals(5000, store.bestForPlayer("P0").score);
+      assertEquals(5000, store.pageForLevel(12, 0, 1).get(0).score);
+      assertEquals("New", store.pageForPlayer("New", 0, 5).get(0).name);
+      assertEquals(35, store.pageForLevel(12, 0, 100).size());
+    }
+  }
+
+  private static void assertPage(
+      List<HighScoreEntry> expected, LeaderboardStore store, int offset, int limit)
+      throws Exception {
+    List<HighScoreEntry> page = store.page(offset, limit);
+    assertEquals(Math.min(limit, expected.size() - offset), page.size());
+    for (int i = 0; i < page.size(); i++) {
+      assertEquals(expected.get(offset + i).toString(), page.get(i).toString());
+    }
+  }
+}
@@ -0,0 +1,168 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018 Frank Kopp
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+package fko.jarkanoid.leaderboard;
+
+import fko.jarkanoid.model.Autopilot;
+import fko.jarkanoid.model.HeadlessGame;
+import fko.jarkanoid.model.HighScore.HighScoreEntry;
+import fko.jarkanoid.model.LevelLoader;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReplayVerifierTest {
+
+  private static final LocalDateTime DATE = LocalDateTime.of(2026, 10, 19, 12, 0);
+
+  private final LevelLoader levelLoader = LevelLoader.getInstance();
+
+  @Test
+  void acceptsHonestAndRejectsForgedSubmissions() {
+    List<HighScoreEntry> accepted = new CopyOnWriteArrayList<>();
+    try (ReplayVerifier verifier =
+        new ReplayVerifier(levelLoader::getLevel, 2, 16, 100, accepted::add)) {
+      Replay honest = record(4711, 0.9, Replay.MAX_TICKS);
+      assertTrue(honest.getTicks() < Replay.MAX_TICKS);
+      assertEquals(ReplayVerifier.Verdict.ACCEPTED, verifier.verify(honest).verdict);
+      assertEquals(1, accepted.size());
+
+      Replay forged =
+          new Replay(
+              new HighScoreEntry("Cheater", honest.entry.score + 1000, honest.entry.level, DATE),
+              honest.seed,
+              honest.startLevel,
+              inputs(honest));
+      ReplayVerifier.Result result = verifier.verify(forged);
+      assertEquals(ReplayVerifier.Verdict.SCORE_MISMATCH, result.verdict);
+      assertEquals(honest.entry.score, result.simulatedScore);
+      // same game - the outcome came from the cache
+      assertEquals(1, verifier.getSimulated());
+
+      Replay noLevel = new Replay(honest.entry, 1, 999, new byte[10]);
+      assertEquals(ReplayVerifier.Verdict.INVALID, verifier.verify(noLevel).verdict);
+      assertEquals(1, accepted.size());
+
+      // the accepted game again - under another name and as is
+      Replay renamed =
+          new Replay(
+              new HighScoreEntry("Thief", honest.entry.score, honest.entry.level, DATE),
+              honest.seed,
+              honest.startLevel,
+              inputs(honest));
+      assertEquals(ReplayVerifier.Verdict.DUPLICATE, verifier.verify(renamed).verdict);
+      assertEquals(ReplayVerifier.Verdict.DUPLICATE, verifier.verify(honest).verdict);
+      assertEquals(1, accepted.size());
+      assertEquals(1, verifier.getAccepted());
+    }
+  }
+
+  @Test
+  void truncatedReplayIsRejected() {
+    List<HighScoreEntry> accepted = new CopyOnWriteArrayList<>();
+    try (ReplayVerifier verifier =
+        new ReplayVerifier(levelLoader::getLevel, 1, 4, 100, accepted::add)) {
+      Replay full = record(815, 0.8, Replay.MAX_TICKS);
+      // the first half of the game claiming exactly the score reached at that point
+      Replay truncated = record(815, 0.8, full.getTicks() / 2);
+      assertTrue(truncated.entry.score > 0);
+      ReplayVerifier.Result result = verifier.verify(truncated);
+      System.out.println(result);
+      assertEquals(ReplayVerifier.Verdict.UNFINISHED, result.verdict);
+      assertEquals(truncated.entry.score, result.simulatedScore);
+      assertTrue(accepted.isEmpty());
+
+      assertEquals(ReplayVerifier.Verdict.ACCEPTED, verifier.verify(full).verdict);
+      assertEquals(1, accepted.size());
+    }
+  }
+
+  @Test
+  void invalidInputsAreRejected() {
+    HighScoreEntry entry = new HighScoreEntry("P", 0, 1, DATE);
+    assertThrows(IllegalArgumentException.class, () -> new Replay(entry, 1, 1, new byte[] {0, 2}));
+    assertThrows(IllegalArgumentException.class, () -> new Replay(entry, 1, 1, new byte[] {-2}));
+    Replay valid = new Replay(entry, 1, 1, new byte[] {-1, 0, 1, 1, -1});
+    assertEquals(valid.gameHash(), Replay.decode(valid.encode()).gameHash());
+  }
+
+  @Test
+  void encodeDecode() {
+    Replay replay = record(42, 0.7, 5000);
+    Replay decoded = Replay.decode(replay.encode());
+    assertEquals(replay.gameHash(), decoded.gameHash());
+    assertEquals(replay.entry, decoded.entry);
+    assertTrue(replay.encode().remaining() < replay.getTicks() / 3);
+  }
+
+  @Test
+  void backlogIsVerifiedFasterThanRealTime() {
+    List<Replay> replays = new ArrayList<>();
+    for (int i = 0; i < 40; i++) replays.add(record(1000 + i, 0.5, Replay.MAX_TICKS));
+
+    try (ReplayVerifier verifier = new ReplayVerifier(levelLoader::getLevel, 2, 8, 1000, null)) {
+      long time = System.nanoTime();
+      List<CompletableFuture<ReplayVerifier.Result>> results = new ArrayList<>();
+      for (Replay replay : replays) results.add(verifier.submit(replay));
+      for (CompletableFuture<ReplayVerifier.Result> result : results) {
+        assertEquals(ReplayVerifier.Verdict.ACCEPTED, result.join().verdict);
+      }
+      time = System.nanoTime() - time;
+      double gameSeconds = verifier.getSimulatedTicks() / 60.0;
+      System.out.printf(
+          "Verified %d replays (%.0f s of play) in %d ms - %.0f x real time%n",
+          replays.size(), gameSeconds, time / 1_000_000, gameSeconds / (time / 1e9));
+      assertTrue(gameSeconds / (time / 1e9) > 100);
+    }
+  }
+
+  private Replay record(long seed, double skill, int maxTicks) {
+    HeadlessGame game = new HeadlessGame(levelLoader::getLevel, 1, seed);
+    Autopilot autopilot = new Autopilot(skill, seed);
+    ByteArrayOutputStream inputs = new ByteArrayOutputStream();
+    while (!game.isOver() && game.getTick() < maxTicks) {
+      byte input = autopilot.nextInput(game);
+      inputs.write(input);
+      game.tick(input);
+    }
+    return new Replay(
+        new HighScoreEntry("Player" + seed, game.getScore(), game.getLevel(), DATE),
+        seed,
+        1,
+        inputs.toByteArray());
+  }
+
+  private static byte[] inputs(Replay replay) {
+    byte[] inputs = new byte[replay.getTicks()];
+    for (int i = 0; i < inputs.length; i++) inputs[i] = replay.getInput(i);
+    return inputs;
+  }
+}
@@ -0,0 +1,201 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018 Frank Kopp
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+package fko.jarkanoid.model;
+
+import javafx.beans.property.SimpleDoubleProperty;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GameRulesTest {
+
+  private final LevelLoader levelLoader =
+      LevelLoader.getNewInstanceForUnitTest("/levels/", "Level-", ".txt");
+
+  /**
+   * GameModel needs a running JavaFX toolkit for its timelines. So the ball is moved the way
+   * <code>GameModel.updateBalls()</code> does it - with a <code>Ball</code> in a <code>BrickLayout
+   * </code> - and compared tick by tick with a <code>HeadlessGame</code> getting the same inputs.
+   */
+  @Test
+  void headlessGameMovesBallLikeGameModel() {
+    final long seed = 42;
+    final HeadlessGame game = HeadlessGame.forLevel(levelLoader.getLevel(1), seed);
+    final Autopilot autopilot = new Autopilot(1.0, seed);
+    final LivePlayfield live = new LivePlayfield(levelLoader.getLevel(1), seed);
+
+    int ticksInPlay = 0;
+    while (!game.isOver() && game.getBallsLost() == 0 && game.getTick() < 20000) {
+      final byte input = autopilot.nextInput(game);
+      game.tick(input);
+      live.tick(input);
+      if (game.getBallsLost() > 0) break;
+      assertEquals(game.getPaddleX(), live.paddleX, "paddle at tick " + game.getTick());
+      assertEquals(game.getBallX(), live.ball.getCenterX(), "ball x at tick " + game.getTick());
+      assertEquals(game.getBallY(), live.ball.getCenterY(), "ball y at tick " + game.getTick());
+      assertEquals(game.getBallXVelocity(), live.ball.getXVelocity());
+      assertEquals(game.getBallYVelocity(), live.ball.getYVelocity());
+      assertEquals(game.getScore(), live.score, "score at tick " + game.getTick());
+      if (!game.isBallOnPaddle()) ticksInPlay++;
+    }
+    System.out.printf(
+        "Agreed for %d ticks with ball in play: score %d, %d bricks destroyed%n",
+        ticksInPlay, game.getScore(), game.getBricksDestroyed());
+    assertTrue(ticksInPlay > 1000);
+    assertTrue(game.getBricksDestroyed() > 10);
+  }
+
+  @Test
+  void launchedBallBouncesFromPaddleAtAnAngle() {
+    final HeadlessGame game = HeadlessGame.forLevel(levelLoader.getLevel(1), 1);
+    while (game.isBallOnPaddle()) game.tick(HeadlessGame.INPUT_NONE);
+    game.tick(HeadlessGame.INPUT_NONE);
+    assertTrue((game.getEvents() & HeadlessGame.EVENT_HIT_PADDLE) != 0);
+    assertTrue(game.getBallYVelocity() < 0);
+    assertTrue(game.getBallXVelocity() > 0); // ball lies right of the paddle's middle
+  }
+
+  @Test
+  void extraLives() {
+    assertFalse(GameRules.isExtraLife(0, 20000));
+    assertTrue(GameRules.isExtraLife(19990, 20010));
+    assertFalse(GameRules.isExtraLife(20010, 59990));
+    assertTrue(GameRules.isExtraLife(59990, 60010));
+    assertTrue(GameRules.isExtraLife(119990, 120010));
+    assertEquals(150, GameRules.brickScore(BrickType.SILVER, 50, 3));
+    assertEquals(50, GameRules.brickScore(BrickType.RED, 50, 3));
+  }
+
+  /** The ball, paddle and bricks as <code>GameModel</code> keeps them. */
+  private static final class LivePlayfield implements GameRules.Playfield {
+
+    private final BrickLayout brickLayout =
+        new BrickLayout(
+            new SimpleDoubleProperty(GameRules.PLAYFIELD_WIDTH),
+            new SimpleDoubleProperty(GameRules.PLAYFIELD_HEIGHT));
+    // same random numbers as the headless game uses for its nudges
+    private final HeadlessGame random;
+
+    private double paddleX = GameRules.PADDLE_X;
+    private Ball ball;
+    private int launchCountdown =
+        (int) (GameRules.SLEEP_BETWEEN_LIVES * GameRules.FRAMERATE / 1000);
+    private int maxLoopHitsCounter = GameRules.MAX_NUMBER_OF_LOOP_HITS;
+    private int score = 0;
+
+    LivePlayfield(Brick[][] level, long seed) {
+      brickLayout.setMatrix(level);
+      random = HeadlessGame.forLevel(level, seed);
+    }
+
+    void tick(byte input) {
+      paddleX += Integer.signum(input) * 10;
+      paddleX = Math.max(0, Math.min(paddleX, getWidth() - getPaddleWidth()));
+      if (launchCountdown > 0) {
+        --launchCountdown;
+        ball = GameRules.newBall(paddleX, getPaddleY(), getPaddleWidth() / 2 + 20);
+        return;
+      }
+      // see GameModel.updateBalls()
+      ball.moveStep();
+      GameRules.checkBallCollisions(ball, this);
+      if (maxLoopHitsCounter <= 0) {
+        ball.nudgeBall(random::nextRandom);
+        maxLoopHitsCounter = GameRules.MAX_NUMBER_OF_LOOP_HITS;
+      }
+    }
+
+    @Override
+    public double getWidth() {
+      return brickLayout.getPlayfieldWidth();
+    }
+
+    @Override
+    public double getHeight() {
+      return brickLayout.getPlayfieldHeight();
+    }
+
+    @Override
+    public double getBrickWidth() {
+      return brickLayout.getBrickWidth();
+    }
+
+    @Override
+    public double getBrickHeight() {
+      return brickLayout.getBrickHeight();
+    }
+
+    @Override
+    public Brick getBrick(int row, int col) {
+      return brickLayout.getBrick(row, col);
+    }
+
+    @Override
+    public double getPaddleX() {
+      return paddleX;
+    }
+
+    @Override
+    public double getPaddleY() {
+      return GameRules.PADDLE_Y;
+    }
+
+    @Override
+    public double getPaddleWidth() {
+      return GameRules.PADDLE_WIDTH;
+    }
+
+    @Override
+    public double getPaddleHeight() {
+      return GameRules.PADDLE_HEIGHT;
+    }
+
+    // see GameModel.brickHit()
+    @Override
+    public void brickHit(Ball ball, int row, int col) {
+      final BrickType brickType = brickLayout.getBrick(row, col).getType();
+      final int points = brickLayout.hitBrick(row, col);
+      score += GameRules.brickScore(brickType, points, 1);
+      if (points > 0) maxLoopHitsCounter = GameRules.MAX_NUMBER_OF_LOOP_HITS;
+      maxLoopHitsCounter--;
+    }
+
+    @Override
+    public void paddleHit(Ball ball, double hitPoint) {
+      maxLoopHitsCounter = GameRules.MAX_NUMBER_OF_LOOP_HITS;
+    }
+
+    @Override
+    public void wallHit(Ball ball) {
+      maxLoopHitsCounter--;
+    }
+
+    @Override
+    public void ballLost(Ball ball) {
+      ball.markForRemoval();
+      maxLoopHitsCounter = GameRules.MAX_NUMBER_OF_LOOP_HITS;
+    }
+  }
+}
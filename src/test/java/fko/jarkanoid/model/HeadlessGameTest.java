@@ -0,0 +1,83 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018 Frank Kopp
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+package fko.jarkanoid.model;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HeadlessGameTest {
+
+  private final LevelLoader levelLoader =
+      LevelLoader.getNewInstanceForUnitTest("/levels/", "Level-", ".txt");
+
+  @Test
+  void sameSeedAndInputsGiveSameGame() {
+    HeadlessGame game1 = playLevel1(42);
+    HeadlessGame game2 = playLevel1(42);
+    System.out.println(game1);
+    assertEquals(game1.getTick(), game2.getTick());
+    assertEquals(game1.getScore(), game2.getScore());
+    assertEquals(game1.getBallsLost(), game2.getBallsLost());
+    assertTrue(game1.getScore() > 0);
+  }
+
+  @Test
+  void snapshotContinuesIdentically() {
+    HeadlessGame game = HeadlessGame.forLevel(levelLoader.getLevel(1), 7);
+    Autopilot autopilot = new Autopilot(1.0, 7);
+    for (int i = 0; i < 1000; i++) game.tick(autopilot.nextInput(game));
+
+    HeadlessGame snapshot = new HeadlessGame(game);
+    for (int i = 0; i < 1000; i++) {
+      byte input = (byte) (i % 3 - 1);
+      game.tick(input);
+      snapshot.tick(input);
+    }
+    assertEquals(game.getScore(), snapshot.getScore());
+    assertEquals(game.getBallX(), snapshot.getBallX());
+    assertEquals(game.getBricksLeft(), snapshot.getBricksLeft());
+  }
+
+  @Test
+  void paddleStaysInPlayfield() {
+    HeadlessGame game = HeadlessGame.forLevel(levelLoader.getLevel(1), 1);
+    for (int i = 0; i < 200; i++) game.tick(HeadlessGame.INPUT_LEFT);
+    assertEquals(0, game.getPaddleX());
+    for (int i = 0; i < 200; i++) game.tick(HeadlessGame.INPUT_RIGHT);
+    assertEquals(
+        HeadlessGame.PLAYFIELD_WIDTH - HeadlessGame.PADDLE_WIDTH, game.getPaddleX());
+  }
+
+  private HeadlessGame playLevel1(long seed) {
+    HeadlessGame game = HeadlessGame.forLevel(levelLoader.getLevel(1), seed);
+    Autopilot autopilot = new Autopilot(0.8, seed);
+    while (!game.isOver() && game.getTick() < 20000) {
+      game.tick(autopilot.nextInput(game));
+    }
+    return game;
+  }
+}
@@ -0,0 +1,182 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018 Frank Kopp
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+package fko.jarkanoid.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HighScoreJournalTest {
+
+  private static final LocalDateTime DATE = LocalDateTime.of(2026, 10, 19, 12, 0);
+
+  @Test
+  void appendAndRecover() throws Exception {
+    Path file = Files.createTempDirectory("journal").resolve("highscore.journal");
+    HighScoreJournal journal = new HighScoreJournal(file, HighScoreWriter.SyncPolicy.NONE);
+    assertTrue(journal.open().isEmpty());
+    journal.append(new HighScore.HighScoreEntry("A", 100, 1, DATE));
+    long afterFirst = Files.size(file);
+    journal.append(new HighScore.HighScoreEntry("B", 200, 2, DATE));
+    journal.close(1000);
+    assertTrue(Files.size(file) - afterFirst < 64);
+
+    // damage the last record - recovery stops at the first one and cuts off the rest
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+      channel.write(ByteBuffer.wrap(new byte[] {'X'}), Files.size(file) - 3);
+    }
+    journal = new HighScoreJournal(file, HighScoreWriter.SyncPolicy.NONE);
+    List<HighScore.HighScoreEntry> entries = journal.open();
+    assertEquals(1, entries.size());
+    assertEquals("A;100;1;" + DATE, entries.get(0).toString());
+    assertEquals(afterFirst, Files.size(file));
+
+    // torn write at the end
+    journal.close(1000);
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.APPEND)) {
+      channel.write(ByteBuffer.wrap(new byte[] {0, 0, 0, 30, 1, 2}));
+    }
+    journal = new HighScoreJournal(file, HighScoreWriter.SyncPolicy.NONE);
+    assertEquals(1, journal.open().size());
+    assertEquals(afterFirst, Files.size(file));
+    journal.close(1000);
+  }
+
+  @Test
+  void compaction() throws Exception {
+    Path file = Files.createTempDirectory("journal").resolve("highscore.journal");
+    HighScoreJournal journal = new HighScoreJournal(file, HighScoreWriter.SyncPolicy.FULL);
+    journal.open();
+    List<HighScore.HighScoreEntry> all = new ArrayList<>();
+    for (int i = 0; i < 100; i++) {
+      HighScore.HighScoreEntry entry = new HighScore.HighScoreEntry("P" + i, i, 1, DATE);
+      all.add(entry);
+      journal.append(entry);
+    }
+    journal.compact(all.subList(90, 100));
+    journal.append(new HighScore.HighScoreEntry("Last", 1000, 1, DATE));
+    journal.close(1000);
+
+    journal = new HighScoreJournal(file, HighScoreWriter.SyncPolicy.NONE);
+    List<HighScore.HighScoreEntry> entries = journal.open();
+    assertEquals(11, entries.size());
+    assertEquals("P90", entries.get(0).name);
+    assertEquals("Last", entries.get(10).name);
+    assertFalse(Files.exists(file.resolveSibling("highscore.journal.tmp")));
+    journal.close(1000);
+  }
+
+  @Test
+  void reservedEntryIsNotCompactedTwice() throws Exception {
+    Path file = Files.createTempDirectory("journal").resolve("highscore.journal");
+    HighScoreJournal journal = new HighScoreJournal(file, HighScoreWriter.SyncPolicy.NONE);
+    journal.open();
+    // the late entry is already visible in the list but its append is not queued yet
+    HighScore.HighScoreEntry late = new HighScore.HighScoreEntry("Late", 5000, 9, DATE);
+    journal.reserve(late);
+    // the 64th append compacts the journal to the list it sees
+    for (int i = 0; i < 64; i++) {
+      HighScore.HighScoreEntry entry = new HighScore.HighScoreEntry("P" + i, i, 1, DATE);
+      journal.appendAsync(entry, () -> Arrays.asList(late, entry));
+    }
+    journal.appendAsync(late, () -> Arrays.asList(late));
+    journal.close(5000);
+
+    journal = new HighScoreJournal(file, HighScoreWriter.SyncPolicy.NONE);
+    long count = journal.open().stream().filter(e -> e.name.equals("Late")).count();
+    System.out.println("Late entry loaded " + count + " time(s)");
+    assertEquals(1, count);
+    journal.close(1000);
+  }
+
+  @Test
+  void failedCompactionKeepsJournalUsable() throws Exception {
+    Path file = Files.createTempDirectory("journal").resolve("highscore.journal");
+    HighScoreJournal journal = new HighScoreJournal(file, HighScoreWriter.SyncPolicy.NONE);
+    journal.open();
+    HighScore.HighScoreEntry first = new HighScore.HighScoreEntry("A", 100, 1, DATE);
+    journal.append(first);
+
+    journal.mover =
+        (source, target) -> {
+          throw new IOException("rename failed");
+        };
+    assertThrows(IOException.class, () -> journal.compact(Arrays.asList(first)));
+    // the old journal is still open for appending
+    journal.append(new HighScore.HighScoreEntry("B", 200, 2, DATE));
+    journal.close(1000);
+
+    HighScoreJournal reopened = new HighScoreJournal(file, HighScoreWriter.SyncPolicy.NONE);
+    assertEquals(2, reopened.open().size());
+    reopened.close(1000);
+  }
+
+  @Test
+  void highScoreImportsCsvAndUsesJournal() throws Exception {
+    Path folder = Files.createTempDirectory("highscore");
+    Files.write(
+        folder.resolve("highscore.csv"),
+        Arrays.asList(
+            "Frank;4711;3;2018-01-04T12:00", "broken line", "Bob;x;1;2018-01-04T12:00",
+            "Anna;815;2;2018-01-05T12:00"),
+        StandardCharsets.ISO_8859_1);
+
+    HighScore highScore = new HighScore(folder);
+    assertEquals(2, highScore.getList().size());
+    assertTrue(highScore.addEntryAndSave(new HighScore.HighScoreEntry("New", 1000, 5, DATE)));
+    highScore.flush();
+    assertTrue(Files.exists(folder.resolve("highscore.journal")));
+    // the CSV file is kept up to date as an export
+    List<String> csv =
+        Files.readAllLines(folder.resolve("highscore.csv"), StandardCharsets.ISO_8859_1);
+    assertEquals(3, csv.size());
+    assertTrue(csv.get(1).startsWith("New;1000;5;"));
+
+    // the journal wins over a CSV file changed by someone else
+    Files.write(
+        folder.resolve("highscore.csv"),
+        Arrays.asList("Other;1;1;2018-01-04T12:00"),
+        StandardCharsets.ISO_8859_1);
+    HighScore reopened = new HighScore(folder);
+    assertEquals(3, reopened.getList().size());
+    assertEquals("Frank", reopened.getList().get(0).name);
+    assertEquals("New", reopened.getList().get(1).name);
+    reopened.flush();
+    // and the export is written again on startup
+    assertEquals(3, Files.readAllLines(folder.resolve("highscore.csv")).size());
+  }
+}
@@ -29,6 +29,14 @@ import org.junit.jupiter.api.Test;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 class HighScoreTest {
@@ -39,10 +47,82 @@ class HighScoreTest {
   void getInstance() {}
 
   @Test
-  void getList() {}
+  void getList() throws Exception {
+    HighScore highScore = new HighScore(Files.createTempDirectory("highscore"));
+    assertTrue(highScore.getList().isEmpty());
+    highScore.addEntry("A", 100, 1, LocalDateTime.now());
+    List<HighScore.HighScoreEntry> snapshot = highScore.getList();
+    highScore.addEntry("B", 200, 1, LocalDateTime.now());
+    // earlier snapshot is unchanged
+    assertEquals(1, snapshot.size());
+    assertEquals(2, highScore.getList().size());
+    assertEquals("B", highScore.getList().get(0).name);
+    assertThrows(UnsupportedOperationException.class, () -> snapshot.remove(0));
+  }
 
   @Test
-  void addEntry() {}
+  void addEntry() throws Exception {
+    HighScore highScore = new HighScore(Files.createTempDirectory("highscore"));
+    for (int i = 1; i <= 15; i++) {
+      assertTrue(highScore.addEntry("P" + i, i * 10, 1, LocalDateTime.now()));
+    }
+    long version = highScore.getVersion();
+    // full list - equal or lower scores are rejected without a change
+    assertFalse(highScore.qualifies(10));
+    assertFalse(highScore.addEntry("Low", 10, 1, LocalDateTime.now()));
+    assertEquals(version, highScore.getVersion());
+
+    assertTrue(highScore.addEntry("Same", 150, 1, LocalDateTime.now()));
+    assertEquals(15, highScore.getList().size());
+    assertEquals("P15", highScore.getList().get(0).name);
+    assertEquals("Same", highScore.getList().get(1).name);
+    assertEquals(20, highScore.getList().get(14).score);
+  }
+
+  @Test
+  void concurrentAddEntry() throws Exception {
+    HighScore highScore = new HighScore(Files.createTempDirectory("highscore"));
+    int threads = 4;
+    int perThread = 20000;
+    CountDownLatch start = new CountDownLatch(1);
+    AtomicInteger accepted = new AtomicInteger();
+    List<Thread> workers = new ArrayList<>();
+    for (int t = 0; t < threads; t++) {
+      final int offset = t;
+      Thread worker =
+          new Thread(
+              () -> {
+                try {
+                  start.await();
+                } catch (InterruptedException e) {
+                  return;
+                }
+                for (int i = 0; i < perThread; i++) {
+                  int score = i * threads + offset;
+                  if (highScore.addEntry("T" + offset, score, 1, LocalDateTime.now())) {
+                    accepted.incrementAndGet();
+                  }
+                }
+              });
+      worker.start();
+      workers.add(worker);
+    }
+    long time = System.nanoTime();
+    start.countDown();
+    for (Thread worker : workers) worker.join();
+    time = System.nanoTime() - time;
+    System.out.printf(
+        "%,d submissions in %,d ms - %,d accepted%n",
+        threads * perThread, time / 1_000_000, accepted.get());
+
+    // the list holds exactly the 15 highest scores
+    List<HighScore.HighScoreEntry> list = highScore.getList();
+    assertEquals(15, list.size());
+    for (int i = 0; i < 15; i++) {
+      assertEquals(threads * perThread - 1 - i, list.get(i).score);
+    }
+    assertEquals(accepted.get(), highScore.getVersion());
+  }
 
   @Test
   void addEntryAndSave() {}
@@ -0,0 +1,123 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018 Frank Kopp
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+package fko.jarkanoid.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HighScoreWriterTest {
+
+  private static final Charset CHARSET = Charset.forName("ISO-8859-1");
+
+  @Test
+  void burstsAreCoalesced() throws Exception {
+    Path file = Files.createTempDirectory("highscore").resolve("highscore.csv");
+    HighScoreWriter writer = new HighScoreWriter(file, CHARSET, HighScoreWriter.SyncPolicy.NONE);
+
+    List<HighScore.HighScoreEntry> list = new ArrayList<>();
+    for (int i = 1; i <= 10; i++) {
+      list.add(new HighScore.HighScoreEntry("Player" + i, i * 100, i, LocalDateTime.now()));
+      writer.requestWrite(new ArrayList<>(list));
+    }
+    writer.flushAndClose(5000);
+
+    assertEquals(10, writer.getRequests());
+    assertTrue(writer.getWrites() < 10);
+    assertEquals(10, Files.readAllLines(file, CHARSET).size());
+    assertFalse(Files.exists(file.resolveSibling("highscore.csv.tmp")));
+  }
+
+  @Test
+  void writeReplacesFile() throws Exception {
+    Path file = Files.createTempDirectory("highscore").resolve("highscore.csv");
+    HighScoreWriter writer = new HighScoreWriter(file, CHARSET, HighScoreWriter.SyncPolicy.FULL);
+    HighScore.HighScoreEntry entry =
+        new HighScore.HighScoreEntry("Frank", 4711, 3, LocalDateTime.of(2018, 1, 4, 12, 0));
+
+    assertTrue(writer.write(Collections.singletonList(entry)));
+    assertEquals(entry.toString(), Files.readAllLines(file, CHARSET).get(0));
+
+    assertTrue(writer.write(Collections.emptyList()));
+    assertTrue(Files.readAllLines(file, CHARSET).isEmpty());
+    writer.flushAndClose(1000);
+  }
+
+  @Test
+  void directWritesRaceWithWriterThread() throws Exception {
+    Path file = Files.createTempDirectory("highscore").resolve("highscore.csv");
+    HighScoreWriter writer = new HighScoreWriter(file, CHARSET, HighScoreWriter.SyncPolicy.NONE);
+    List<HighScore.HighScoreEntry> list = new ArrayList<>();
+    for (int i = 1; i <= 15; i++) {
+      list.add(new HighScore.HighScoreEntry("Player" + i, i * 100, i, LocalDateTime.now()));
+    }
+
+    // direct saves from several threads while the writer thread writes requested lists
+    AtomicInteger failures = new AtomicInteger();
+    List<Thread> threads = new ArrayList<>();
+    for (int t = 0; t < 3; t++) {
+      Thread direct =
+          new Thread(
+              () -> {
+                for (int i = 0; i < 300; i++) {
+                  if (!writer.write(list)) failures.incrementAndGet();
+                  writer.requestWrite(list);
+                }
+              });
+      direct.start();
+      threads.add(direct);
+    }
+    for (Thread direct : threads) direct.join();
+    writer.flushAndClose(5000);
+    System.out.println(writer.getWrites() + " writes, " + failures.get() + " failed");
+
+    assertEquals(0, failures.get());
+    assertEquals(15, Files.readAllLines(file, CHARSET).size());
+    assertFalse(Files.exists(file.resolveSibling("highscore.csv.tmp")));
+  }
+
+  @Test
+  void flushAndCloseTwice() throws Exception {
+    Path file = Files.createTempDirectory("highscore").resolve("highscore.csv");
+    HighScoreWriter writer = new HighScoreWriter(file, CHARSET, HighScoreWriter.SyncPolicy.NONE);
+    HighScore.HighScoreEntry entry =
+        new HighScore.HighScoreEntry("Frank", 4711, 3, LocalDateTime.of(2018, 1, 4, 12, 0));
+
+    writer.flushAndClose(1000);
+    writer.requestWrite(Collections.singletonList(entry));
+    writer.flushAndClose(1000);
+    assertEquals(entry.toString(), Files.readAllLines(file, CHARSET).get(0));
+  }
+}
@@ -0,0 +1,146 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018 Frank Kopp
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+package fko.jarkanoid.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LevelCacheTest {
+
+  private static Brick[][] newMatrix() {
+    Brick[][] matrix = new Brick[BrickLayout.ROWS][BrickLayout.COLUMNS];
+    matrix[0][0] = new Brick(BrickType.RED, PowerPillType.NONE);
+    return matrix;
+  }
+
+  private static final long LEVEL_BYTES = LevelCache.estimateBytes(newMatrix());
+
+  @Test
+  void getLoadsOnMiss() {
+    AtomicInteger loads = new AtomicInteger();
+    LevelCache cache =
+        new LevelCache(10 * LEVEL_BYTES, key -> key.equals("99") ? null : countedLoad(loads));
+
+    assertNotNull(cache.get("1"));
+    assertNotNull(cache.get("1"));
+    assertNull(cache.get("99"));
+
+    assertEquals(1, loads.get());
+    assertEquals(1, cache.getHits());
+    assertEquals(2, cache.getMisses());
+    assertEquals(LEVEL_BYTES, cache.getUsedBytes());
+  }
+
+  @Test
+  void evictsLeastRecentlyUsed() {
+    LevelCache cache = new LevelCache(2 * LEVEL_BYTES, key -> newMatrix());
+    cache.get("1");
+    cache.get("2");
+    cache.get("1"); // 2 is now least recently used
+    cache.get("3");
+
+    assertTrue(cache.contains("1"));
+    assertFalse(cache.contains("2"));
+    assertTrue(cache.contains("3"));
+    assertEquals(1, cache.getEvictions());
+    assertTrue(cache.getUsedBytes() <= cache.getByteBudget());
+  }
+
+  @Test
+  void pinnedLevelsAreNotEvicted() {
+    LevelCache cache = new LevelCache(LEVEL_BYTES, key -> newMatrix());
+    assertTrue(cache.pin("1"));
+    assertTrue(cache.pin("2"));
+    cache.get("3");
+
+    assertTrue(cache.contains("1"));
+    assertTrue(cache.contains("2"));
+    assertFalse(cache.contains("3"));
+
+    cache.unpinAll();
+    assertEquals(1, cache.size());
+    assertTrue(cache.getUsedBytes() <= cache.getByteBudget());
+  }
+
+  @Test
+  void pinOnlyKeepsLevelWhichStaysPinned() {
+    AtomicInteger loads = new AtomicInteger();
+    LevelCache cache = new LevelCache(0, key -> countedLoad(loads));
+    cache.pinOnly(Arrays.asList("1", "2"));
+    cache.get("1");
+    cache.get("2");
+
+    // next level - 2 stays pinned and must not be evicted and loaded again
+    cache.pinOnly(Arrays.asList("2", "3"));
+    assertFalse(cache.contains("1"));
+    assertTrue(cache.contains("2"));
+    assertFalse(cache.contains("3"));
+    cache.get("2");
+    assertEquals(2, loads.get());
+  }
+
+  @Test
+  void loadDoesNotBlockCachedLevels() throws Exception {
+    CountDownLatch loading = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    LevelCache cache =
+        new LevelCache(
+            10 * LEVEL_BYTES,
+            key -> {
+              if (key.equals("2")) {
+                loading.countDown();
+                try {
+                  release.await();
+                } catch (InterruptedException e) {
+                  Thread.currentThread().interrupt();
+                }
+              }
+              return newMatrix();
+            });
+    cache.get("1");
+
+    Thread prefetch = new Thread(() -> cache.pin("2"));
+    prefetch.start();
+    assertTrue(loading.await(5, TimeUnit.SECONDS));
+    // level 2 is still being loaded - level 1 is answered anyway
+    assertNotNull(cache.get("1"));
+    assertTrue(cache.isPinned("2"));
+    release.countDown();
+    prefetch.join();
+    assertTrue(cache.contains("2"));
+  }
+
+  private static Brick[][] countedLoad(AtomicInteger loads) {
+    loads.incrementAndGet();
+    return newMatrix();
+  }
+}
@@ -30,8 +30,11 @@ import fko.jarkanoid.model.exceptions.LevelLoaderFormatException;
 import fko.jarkanoid.model.exceptions.LevelLoaderIOException;
 import fko.jarkanoid.model.exceptions.LevelLoaderNoLevelFilesException;
 import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
 
+import java.util.ArrayList;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -172,4 +175,86 @@ public class LevelLoaderTest {
 		
 	}
 
+	@Test
+	public void testFormatErrorPosition() throws Exception {
+		LevelLoader ll =  LevelLoader.getNewInstanceForUnitTest(folderProd, preFix, fileType);
+		List<String> lines = new ArrayList<>(ll.getLinesFromLevelFile(folderProd, "Level-1.txt"));
+
+		// line 6 (1 comment line + 5 rows) with an unknown power in the 3rd item
+		lines.set(5, lines.get(5).replaceFirst("^(\\S+ \\S+ )GYNO", "$1GYXX"));
+		LevelLoaderFormatException e = assertThrows(
+				LevelLoaderFormatException.class,
+				() -> ll.processLinesFromLevel("Level-1.txt", lines));
+		System.out.println(e);
+		assertEquals(6, e.getLine());
+		assertEquals(11, e.getColumn());
+	}
+
+	@Test
+	public void testParserMatchesRegexParser() throws Exception {
+		LevelLoader ll =  LevelLoader.getNewInstanceForUnitTest(folderProd, preFix, fileType);
+		List<String> lines = ll.getLinesFromLevelFile(folderProd, "Level-1.txt");
+		assertArrayEquals(regexParse(lines), new LevelParser().parse("Level-1.txt", lines));
+	}
+
+	/*
+	 * Wall clock benchmark - only run with -Djarkanoid.benchmark=true
+	 */
+	@Test
+	@Tag("benchmark")
+	@EnabledIfSystemProperty(named = "jarkanoid.benchmark", matches = "true")
+	public void testParseThroughput() throws Exception {
+		LevelLoader ll =  LevelLoader.getNewInstanceForUnitTest(folderProd, preFix, fileType);
+		List<String> lines = ll.getLinesFromLevelFile(folderProd, "Level-1.txt");
+		LevelParser parser = new LevelParser();
+		final int rounds = 20000;
+
+		// warm up
+		for (int i = 0; i < rounds; i++) {
+			parser.parse("Level-1.txt", lines);
+			regexParse(lines);
+		}
+
+		long start = System.nanoTime();
+		for (int i = 0; i < rounds; i++) {
+			parser.parse("Level-1.txt", lines);
+		}
+		long tokenizer = System.nanoTime() - start;
+
+		start = System.nanoTime();
+		for (int i = 0; i < rounds; i++) {
+			regexParse(lines);
+		}
+		long regex = System.nanoTime() - start;
+
+		System.out.printf("Tokenizer: %,d levels/s  Regex: %,d levels/s%n",
+				(long) (rounds / (tokenizer / 1e9)), (long) (rounds / (regex / 1e9)));
+		assertTrue(tokenizer < regex, "tokenizer slower than the regex parsing");
+	}
+
+	/*
+	 * The previous split/matches/switch parsing as reference for the throughput test.
+	 */
+	private static Brick[][] regexParse(List<String> lines) {
+		Brick[][] matrix = new Brick[BrickLayout.ROWS][BrickLayout.COLUMNS];
+		String matchString = "^(--|GY|OR|CY|GR|RE|BL|PU|YE|SI|GO)(--|NO|LA|EN|CA|SL|BR|DI|PL)$";
+		int row = 0;
+		for (String line : lines) {
+			if (line.isEmpty() || line.startsWith("#")) continue;
+			String[] items = line.split(" ");
+			for (int col = 0; col < items.length; col++) {
+				if (!items[col].trim().matches(matchString)) throw new LevelLoaderFormatException("");
+				String item = items[col].trim();
+				if (item.equals("----")) continue;
+				BrickType bt = null;
+				for (BrickType t : BrickType.values()) if (t.sign.equals(item.substring(0, 2))) bt = t;
+				PowerPillType pt = null;
+				for (PowerPillType t : PowerPillType.values()) if (t.name().startsWith(item.substring(2, 4))) pt = t;
+				matrix[row][col] = new Brick(bt, pt);
+			}
+			row++;
+		}
+		return matrix;
+	}
+
 }
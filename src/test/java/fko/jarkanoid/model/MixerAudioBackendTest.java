@@ -0,0 +1,102 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018 Frank Kopp
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+package fko.jarkanoid.model;
+
+import fko.jarkanoid.Jarkanoid;
+import fko.jarkanoid.model.SoundManager.Clips;
+import org.junit.jupiter.api.Test;
+
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.AudioInputStream;
+import java.io.ByteArrayInputStream;
+import java.net.URL;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MixerAudioBackendTest {
+
+  @Test
+  void decodeUnsignedMono() throws Exception {
+    // 8 bit unsigned mono at half the sample rate
+    byte[] data = {(byte) 128, (byte) 255, 0, (byte) 128};
+    AudioFormat format =
+        new AudioFormat(AudioFormat.Encoding.PCM_UNSIGNED, 22050, 8, 1, 1, 22050, false);
+    AudioInputStream in = new AudioInputStream(new ByteArrayInputStream(data), format, 4);
+    short[] samples = MixerAudioBackend.decode(in);
+    // 8 frames stereo
+    assertEquals(16, samples.length);
+    assertEquals(0, samples[0]);
+    assertEquals(0, samples[1]);
+    assertEquals(127 << 8, samples[4]);
+    assertEquals(127 << 8, samples[5]);
+    assertEquals(-128 << 8, samples[8]);
+  }
+
+  @Test
+  void decodeSignedStereoBigEndian() throws Exception {
+    byte[] data = {0x12, 0x34, (byte) 0xFF, (byte) 0xFE};
+    AudioFormat format = new AudioFormat(44100, 16, 2, true, true);
+    AudioInputStream in = new AudioInputStream(new ByteArrayInputStream(data), format, 1);
+    short[] samples = MixerAudioBackend.decode(in);
+    assertArrayEquals(new short[] {0x1234, -2}, samples);
+  }
+
+  @Test
+  void mixesVoices() throws Exception {
+    MixerAudioBackend mixer = new MixerAudioBackend(null);
+    URL url = Jarkanoid.class.getResource("/sounds/Laser.wav");
+    long duration = mixer.load(Clips.LASER, url);
+    System.out.printf("Laser.wav %.1f ms%n", duration / 1e6);
+    assertTrue(duration > 0);
+
+    // silence without voices
+    byte[] silence = mixer.mix();
+    for (byte b : silence) assertEquals(0, b);
+
+    mixer.play(Clips.LASER, -1);
+    // not loaded - ignored
+    mixer.play(Clips.FINAL, -1);
+    byte[] one = mixer.mix().clone();
+    assertEquals(1, mixer.getVoices());
+    boolean sound = false;
+    for (byte b : one) sound |= b != 0;
+    assertTrue(sound);
+
+    mixer.stop(Clips.LASER);
+    mixer.mix();
+    assertEquals(0, mixer.getVoices());
+
+    // voices end with their clip
+    mixer.play(Clips.LASER, -1);
+    mixer.play(Clips.LASER, -1);
+    int buffers = 0;
+    do {
+      mixer.mix();
+      buffers++;
+    } while (mixer.getVoices() > 0);
+    System.out.printf("played in %d buffers%n", buffers);
+    assertTrue(buffers * 512 * 1e9 / 44100 >= duration);
+  }
+}
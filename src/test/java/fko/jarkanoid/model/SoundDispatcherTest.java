@@ -0,0 +1,146 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018 Frank Kopp
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+package fko.jarkanoid.model;
+
+import fko.jarkanoid.model.SoundManager.Clips;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SoundDispatcherTest {
+
+  private static final long MS = 1_000_000L;
+
+  private final List<Clips> played = new ArrayList<>();
+  private final AtomicLong now = new AtomicLong(1);
+
+  private SoundDispatcher dispatcher(int voices, int voicesPerClip) {
+    long[] durations = new long[Clips.values().length];
+    Arrays.fill(durations, 100 * MS);
+    return new SoundDispatcher(
+        (clip, tick) -> played.add(clip), durations, voices, voicesPerClip, now::get);
+  }
+
+  @Test
+  void requestsAreCoalescedPerFrame() {
+    SoundDispatcher dispatcher = dispatcher(8, 4);
+    for (int i = 0; i < 50; i++) dispatcher.request(Clips.BRICK, 0);
+    dispatcher.request(Clips.PADDLE, 0);
+    // nothing before the end of the frame
+    assertFalse(dispatcher.drain());
+    dispatcher.endFrame();
+    assertTrue(dispatcher.drain());
+    System.out.println(played);
+    assertEquals(2, played.size());
+    assertTrue(played.contains(Clips.BRICK));
+    assertTrue(played.contains(Clips.PADDLE));
+    assertEquals(51, dispatcher.getRequested());
+    assertEquals(49, dispatcher.getCoalesced());
+    // empty frames are not queued
+    dispatcher.endFrame();
+    assertFalse(dispatcher.drain());
+  }
+
+  @Test
+  void voicesPerClipAreLimited() {
+    SoundDispatcher dispatcher = dispatcher(8, 2);
+    for (int frame = 0; frame < 10; frame++) {
+      dispatcher.request(Clips.BRICK, 0);
+      dispatcher.endFrame();
+      dispatcher.drain();
+      now.addAndGet(16 * MS);
+    }
+    // two voices at 0ms and 16ms, free again at 112ms and 128ms
+    assertEquals(4, played.size());
+    assertEquals(6, dispatcher.getDropped());
+  }
+
+  @Test
+  void voicesAreLimitedInTotal() {
+    SoundDispatcher dispatcher = dispatcher(3, 2);
+    for (Clips clip : Clips.values()) dispatcher.play(clip, 0);
+    dispatcher.drain();
+    assertEquals(3, played.size());
+    assertEquals(Clips.values().length - 3, dispatcher.getDropped());
+    now.addAndGet(100 * MS);
+    dispatcher.play(Clips.LASER, 0);
+    dispatcher.drain();
+    assertEquals(4, played.size());
+  }
+
+  @Test
+  void stopIsQueuedBehindPlayAndFreesVoices() {
+    List<String> calls = new ArrayList<>();
+    long[] durations = new long[Clips.values().length];
+    Arrays.fill(durations, 100 * MS);
+    SoundDispatcher dispatcher =
+        new SoundDispatcher(
+            new SoundDispatcher.Player() {
+              @Override
+              public void play(Clips clip, long tick) {
+                calls.add("play " + clip);
+              }
+
+              @Override
+              public void stop(Clips clip) {
+                calls.add("stop " + clip);
+              }
+            },
+            durations,
+            8,
+            1,
+            now::get);
+    dispatcher.play(Clips.FINAL, 0);
+    dispatcher.stop(Clips.FINAL);
+    dispatcher.play(Clips.FINAL, 0);
+    dispatcher.drain();
+    // the stop comes after the first play and frees its voice for the second
+    assertEquals(Arrays.asList("play FINAL", "stop FINAL", "play FINAL"), calls);
+    assertEquals(0, dispatcher.getDropped());
+  }
+
+  @Test
+  void audioThreadPlays() throws Exception {
+    CountDownLatch latch = new CountDownLatch(2);
+    long[] durations = new long[Clips.values().length];
+    SoundDispatcher dispatcher =
+        new SoundDispatcher((clip, tick) -> latch.countDown(), durations, 8, 2);
+    dispatcher.start();
+    dispatcher.request(Clips.LASER, 0);
+    dispatcher.request(Clips.LASER, 0);
+    dispatcher.endFrame();
+    dispatcher.play(Clips.NEW_LIFE, 0);
+    assertTrue(latch.await(2, TimeUnit.SECONDS));
+    dispatcher.stop();
+    assertEquals(2, dispatcher.getPlayed());
+  }
+}
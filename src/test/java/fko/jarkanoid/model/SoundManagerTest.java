@@ -25,8 +25,13 @@
 
 package fko.jarkanoid.model;
 
+import fko.jarkanoid.model.SoundManager.Clips;
 import org.junit.jupiter.api.Test;
 
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 class SoundManagerTest {
@@ -35,4 +40,54 @@ class SoundManagerTest {
   void getInstance() {
     SoundManager soundManager = SoundManager.getInstance();
   }
+
+  @Test
+  void loadsInBackground() throws Exception {
+    long start = System.nanoTime();
+    SoundManager soundManager = SoundManager.getInstance();
+    System.out.printf("getInstance took %.1f ms%n", (System.nanoTime() - start) / 1e6);
+    assertSame(soundManager, SoundManager.getInstance());
+    // clips which are not loaded yet are skipped
+    soundManager.playClip(Clips.FINAL);
+    soundManager.loaded().get(30, TimeUnit.SECONDS);
+    System.out.printf("all loaded after %.1f ms%n", (System.nanoTime() - start) / 1e6);
+    for (Clips clip : Clips.values()) assertTrue(soundManager.isLoaded(clip), clip.name());
+  }
+
+  @Test
+  void recordingBackend() throws Exception {
+    RecordingAudioBackend backend = new RecordingAudioBackend();
+    AtomicLong tick = new AtomicLong(5);
+    SoundManager soundManager = new SoundManager(backend);
+    soundManager.setTickSource(tick::get);
+    soundManager.loaded().get(30, TimeUnit.SECONDS);
+
+    // the game runs ahead of the audio thread - the ticks are those of the requests
+    // a tick with many collisions
+    for (int i = 0; i < 10; i++) soundManager.requestClip(Clips.BRICK);
+    soundManager.requestClip(Clips.PADDLE);
+    tick.set(6);
+    soundManager.endFrame();
+    soundManager.playClip(Clips.NEW_LIFE);
+    tick.set(1000);
+    awaitEvents(backend, 3);
+    // sound off
+    soundManager.soundOff();
+    soundManager.playClip(Clips.LASER);
+    Thread.sleep(50);
+    soundManager.shutdown();
+
+    List<RecordingAudioBackend.Event> events = backend.getEvents();
+    System.out.println(events);
+    assertEquals(3, events.size());
+    assertTrue(events.contains(new RecordingAudioBackend.Event(5, Clips.BRICK)));
+    assertTrue(events.contains(new RecordingAudioBackend.Event(5, Clips.PADDLE)));
+    assertEquals(new RecordingAudioBackend.Event(6, Clips.NEW_LIFE), events.get(2));
+    assertEquals(1, backend.count(Clips.BRICK));
+    assertEquals(0, backend.count(Clips.LASER));
+  }
+
+  private static void awaitEvents(RecordingAudioBackend backend, int count) throws Exception {
+    for (int i = 0; i < 200 && backend.getEvents().size() < count; i++) Thread.sleep(10);
+  }
 }
\ No newline at end of file
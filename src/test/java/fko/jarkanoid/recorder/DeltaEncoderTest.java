@@ -0,0 +1,128 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018 Frank Kopp
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+package fko.jarkanoid.recorder;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.imageio.ImageIO;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DeltaEncoderTest {
+
+  private static final int WIDTH = 640;
+  private static final int HEIGHT = 480;
+
+  @TempDir Path folder;
+
+  @Test
+  void roundTripAndSize() throws Exception {
+    final DeltaEncoder encoder = new DeltaEncoder(30);
+    final DeltaDecoder decoder = new DeltaDecoder();
+    final Frame frame = new Frame(WIDTH, HEIGHT);
+    long deltaBytes = 0;
+    long jpegBytes = 0;
+    int keyframes = 0;
+    for (int i = 0; i < 120; i++) {
+      draw(frame, i);
+      ByteBuffer encoded = encoder.encode(frame);
+      deltaBytes += encoded.remaining();
+      if (DeltaDecoder.isKeyframe(encoded)) keyframes++;
+      Frame decoded = decoder.decode(encoded);
+      assertArrayEquals(rgb(frame.getPixels()), rgb(decoded.getPixels()), "frame " + i);
+
+      ByteArrayOutputStream jpeg = new ByteArrayOutputStream();
+      ImageIO.write(frame.getImage(), "jpg", jpeg);
+      jpegBytes += jpeg.size();
+    }
+    System.out.printf(
+        "120 frames: delta %,d bytes, jpeg %,d bytes, %.1f%% tiles stored%n",
+        deltaBytes, jpegBytes, 100 * encoder.getStoredTileRatio());
+    assertEquals(4, keyframes);
+    assertTrue(deltaBytes * 10 < jpegBytes);
+    encoder.close();
+    decoder.close();
+  }
+
+  @Test
+  void deltaNeedsKeyframe() {
+    final DeltaEncoder encoder = new DeltaEncoder(10);
+    final Frame frame = new Frame(WIDTH, HEIGHT);
+    draw(frame, 0);
+    encoder.encode(frame);
+    draw(frame, 1);
+    ByteBuffer delta = encoder.encode(frame);
+    assertFalse(DeltaDecoder.isKeyframe(delta));
+    assertThrows(IllegalStateException.class, () -> new DeltaDecoder().decode(delta));
+  }
+
+  @Test
+  void exportArchive() throws Exception {
+    final Path archive = folder.resolve("delta" + FrameArchive.EXTENSION);
+    final DeltaEncoder encoder = new DeltaEncoder(4);
+    final Frame frame = new Frame(WIDTH, HEIGHT);
+    try (FrameArchiveWriter writer = new FrameArchiveWriter(archive)) {
+      for (int i = 0; i < 10; i++) {
+        draw(frame, i);
+        writer.append(i, i, WIDTH, HEIGHT, FrameArchive.CODEC_DELTA, encoder.encode(frame));
+      }
+    }
+    assertEquals(10, FrameArchiveExporter.export(archive, folder.resolve("png"), "png"));
+
+    BufferedImage last = ImageIO.read(folder.resolve("png").resolve("00000009.png").toFile());
+    int[] pixels = last.getRGB(0, 0, WIDTH, HEIGHT, null, 0, WIDTH);
+    assertArrayEquals(rgb(frame.getPixels()), rgb(pixels));
+  }
+
+  private static int[] rgb(int[] pixels) {
+    return Arrays.stream(pixels).map(p -> p & 0xFFFFFF).toArray();
+  }
+
+  /* bricks, a moving ball and a changing score - roughly what the game looks like */
+  private static void draw(Frame frame, int tick) {
+    Graphics2D g = frame.getImage().createGraphics();
+    g.setColor(new Color(0x101040));
+    g.fillRect(0, 0, WIDTH, HEIGHT);
+    for (int row = 0; row < 6; row++) {
+      for (int col = 0; col < 13; col++) {
+        if ((row + col + tick / 40) % 7 == 0) continue;
+        g.setColor(Color.getHSBColor(row / 6f, 0.8f, 0.9f));
+        g.fillRect(20 + col * 46, 60 + row * 20, 44, 18);
+      }
+    }
+    g.setColor(Color.WHITE);
+    g.fillOval(100 + tick * 3, 400 - tick * 2, 10, 10);
+    g.fillRect(200 + tick, 450, 80, 12);
+    g.drawString("SCORE " + tick * 10, 20, 30);
+    g.dispose();
+  }
+}
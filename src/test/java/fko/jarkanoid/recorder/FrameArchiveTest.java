@@ -0,0 +1,131 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018 Frank Kopp
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+package fko.jarkanoid.recorder;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FrameArchiveTest {
+
+  @TempDir Path folder;
+
+  @Test
+  void framesAreReadInFrameOrder() throws Exception {
+    final Path path = folder.resolve("order" + FrameArchive.EXTENSION);
+    try (FrameArchiveWriter writer = new FrameArchiveWriter(path)) {
+      Thread even = new Thread(() -> appendFrames(writer, 0));
+      Thread odd = new Thread(() -> appendFrames(writer, 1));
+      even.start();
+      odd.start();
+      even.join();
+      odd.join();
+      assertEquals(200, writer.getFrameCount());
+    }
+
+    try (FrameArchiveReader reader = new FrameArchiveReader(path)) {
+      assertEquals(200, reader.size());
+      for (int i = 0; i < reader.size(); i++) {
+        assertEquals(i, reader.getEntry(i).frameIndex);
+        assertEquals(i * 1000L, reader.getEntry(i).timestamp);
+        ByteBuffer payload = reader.getPayload(i);
+        assertEquals(100 + i, payload.remaining());
+        assertEquals((byte) i, payload.get(0));
+      }
+    }
+  }
+
+  @Test
+  void largePayloadAndImage() throws Exception {
+    final Path path = folder.resolve("large" + FrameArchive.EXTENSION);
+    BufferedImage image = new BufferedImage(16, 8, BufferedImage.TYPE_INT_RGB);
+    image.setRGB(3, 4, 0x00FF8000);
+    ByteArrayOutputStream png = new ByteArrayOutputStream();
+    ImageIO.write(image, "png", png);
+    byte[] large = new byte[3 << 20];
+    Arrays.fill(large, (byte) 7);
+
+    try (FrameArchiveWriter writer = new FrameArchiveWriter(path)) {
+      writer.append(0, 0, 0, 16, 8, FrameArchive.CODEC_PNG, png.toByteArray(), png.size());
+      writer.append(1, 1, 1, 0, 0, 0, large, large.length);
+      writer.append(2, 2, 2, 16, 8, FrameArchive.CODEC_PNG, png.toByteArray(), png.size());
+    }
+
+    try (FrameArchiveReader reader = new FrameArchiveReader(path)) {
+      assertEquals(3, reader.size());
+      assertEquals(FrameArchive.CODEC_PNG, reader.getCodec(0));
+      assertEquals(0x00FF8000, reader.getImage(2).getRGB(3, 4) & 0xFFFFFF);
+      assertEquals(large.length, reader.getPayload(1).remaining());
+      assertEquals(7, reader.getPayload(1).get(large.length - 1));
+    }
+  }
+
+  @Test
+  void archiveWithoutIndexIsScanned() throws Exception {
+    final Path path = folder.resolve("crash" + FrameArchive.EXTENSION);
+    long indexOffset;
+    try (FrameArchiveWriter writer = new FrameArchiveWriter(path)) {
+      for (int i = 0; i < 10; i++) writer.append(i, 2 * i, i, 1, 1, 0, new byte[50], 50);
+      indexOffset = writer.getBytes();
+    }
+
+    // simulate a crash: no index, no header fields and a torn last frame
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+      channel.truncate(indexOffset - 20);
+      ByteBuffer zero = ByteBuffer.allocate(12);
+      channel.write(zero, FrameArchive.INDEX_OFFSET_POSITION);
+    }
+
+    try (FrameArchiveReader reader = new FrameArchiveReader(path)) {
+      System.out.printf("Recovered %d frames%n", reader.size());
+      assertEquals(9, reader.size());
+      assertEquals(8, reader.getEntry(8).frameIndex);
+      assertEquals(16, reader.getEntry(8).tick);
+    }
+  }
+
+  private static void appendFrames(FrameArchiveWriter writer, int first) {
+    try {
+      for (int i = first; i < 200; i += 2) {
+        byte[] data = new byte[100 + i];
+        data[0] = (byte) i;
+        writer.append(
+            i, FrameArchive.NO_TICK, i * 1000L, 10, 10, FrameArchive.CODEC_JPEG, data, data.length);
+      }
+    } catch (Exception e) {
+      throw new RuntimeException(e);
+    }
+  }
+}
@@ -0,0 +1,94 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018 Frank Kopp
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+package fko.jarkanoid.recorder;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FrameRingTest {
+
+  @Test
+  void dropOldest() throws Exception {
+    FrameRing ring = new FrameRing(3, FrameRing.OverflowPolicy.DROP_OLDEST);
+    for (int i = 0; i < 5; i++) {
+      Frame frame = ring.acquire(4, 2);
+      assertNotNull(frame);
+      frame.setCaptured(i, 0);
+      ring.publish(frame);
+    }
+    assertEquals(2, ring.getDropped());
+    assertEquals(3, ring.getDepth());
+    // frames 0 and 1 have been overwritten
+    assertEquals(2, ring.take(0, TimeUnit.MILLISECONDS).getIndex());
+  }
+
+  @Test
+  void dropNewest() throws Exception {
+    FrameRing ring = new FrameRing(2, FrameRing.OverflowPolicy.DROP_NEWEST);
+    Frame first = ring.acquire(4, 2);
+    first.setCaptured(0, 0);
+    ring.publish(first);
+    ring.publish(ring.acquire(4, 2));
+    assertNull(ring.acquire(4, 2));
+    assertEquals(1, ring.getDropped());
+
+    Frame taken = ring.take(0, TimeUnit.MILLISECONDS);
+    assertSame(first, taken);
+    ring.release(taken);
+    // the released frame is reused
+    assertSame(first, ring.acquire(8, 8));
+    assertEquals(64, first.getPixels().length);
+  }
+
+  @Test
+  void blockWaitsForWriter() throws Exception {
+    FrameRing ring = new FrameRing(1, FrameRing.OverflowPolicy.BLOCK);
+    Frame frame = ring.acquire(2, 2);
+    ring.publish(frame);
+
+    Thread writer =
+        new Thread(
+            () -> {
+              try {
+                Thread.sleep(50);
+                ring.release(ring.take(1, TimeUnit.SECONDS));
+              } catch (InterruptedException ignore) {
+              }
+            });
+    writer.start();
+    long time = System.nanoTime();
+    assertSame(frame, ring.acquire(2, 2));
+    assertTrue(System.nanoTime() - time > TimeUnit.MILLISECONDS.toNanos(30));
+    assertEquals(0, ring.getDropped());
+    writer.join();
+
+    ring.close();
+    assertNull(ring.acquire(2, 2));
+    assertTrue(ring.isDrained());
+  }
+}
@@ -0,0 +1,203 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018 Frank Kopp
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+package fko.jarkanoid.recorder;
+
+import javafx.beans.property.SimpleLongProperty;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.awt.*;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InstantReplayTest {
+
+  private static final int WIDTH = 390;
+  private static final int HEIGHT = 375;
+  private static final long FRAME_NS = TimeUnit.MILLISECONDS.toNanos(66);
+
+  @TempDir Path folder;
+
+  @Test
+  void keepsLastSecondsStartingWithKeyframe() throws Exception {
+    InstantReplay replay = new InstantReplay(new SyntheticBackend(), 66, 10, 64 << 20, 30);
+    DeltaEncoder encoder = new DeltaEncoder(30);
+    Frame frame = new Frame(WIDTH, HEIGHT);
+    for (int i = 0; i < 1000; i++) {
+      SyntheticBackend.draw(frame, i);
+      replay.add(copy(encoder.encode(frame)), WIDTH, HEIGHT, i, i * FRAME_NS);
+    }
+    // 10 s are 152 frames - whole segments of 30 frames are dropped
+    System.out.printf(
+        "Instant replay: %d frames in %,d bytes%n", replay.getFrameCount(), replay.getBytes());
+    assertTrue(replay.getFrameCount() >= 152 && replay.getFrameCount() < 152 + 30);
+
+    Path file = replay.dump(folder).get(10, TimeUnit.SECONDS);
+    // requested right after the first - the same dump
+    assertSame(file, replay.dump(folder).get());
+
+    DeltaDecoder decoder = new DeltaDecoder();
+    try (FrameArchiveReader reader = new FrameArchiveReader(file)) {
+      assertEquals(replay.getFrameCount(), reader.size());
+      assertTrue(DeltaDecoder.isKeyframe(reader.getPayload(0)));
+      for (int i = 0; i < reader.size(); i++) decoder.decode(reader.getPayload(i));
+      assertEquals(999, reader.getEntry(reader.size() - 1).frameIndex);
+      assertEquals(999, reader.getEntry(reader.size() - 1).tick);
+    }
+    decoder.close();
+    encoder.close();
+  }
+
+  @Test
+  void staysWithinByteBudget() {
+    InstantReplay replay = new InstantReplay(new SyntheticBackend(), 66, 3600, 100_000, 10);
+    DeltaEncoder encoder = new DeltaEncoder(10);
+    Frame frame = new Frame(WIDTH, HEIGHT);
+    for (int i = 0; i < 1000; i++) {
+      SyntheticBackend.draw(frame, i);
+      replay.add(copy(encoder.encode(frame)), WIDTH, HEIGHT, i, i * FRAME_NS);
+      assertTrue(replay.getBytes() <= 100_000);
+    }
+    assertTrue(replay.getFrameCount() >= 10);
+    encoder.close();
+  }
+
+  @Test
+  void captureCost() throws Exception {
+    SyntheticBackend backend = new SyntheticBackend();
+    InstantReplay replay = new InstantReplay(backend, 5, 10, 64 << 20, 30);
+    replay.start();
+    Thread.sleep(1000);
+    replay.stop();
+    System.out.printf(
+        "Instant replay: %d frames captured and encoded in 1 s (%,d bytes)%n",
+        backend.frames, replay.getBytes());
+    assertTrue(replay.getFrameCount() > 0);
+    assertFalse(replay.isRunning());
+  }
+
+  @Test
+  void capturesOnlyOnTicks() throws Exception {
+    SyntheticBackend backend = new SyntheticBackend();
+    InstantReplay replay = new InstantReplay(backend, 66, 10, 64 << 20, 30);
+    SimpleLongProperty ticks = new SimpleLongProperty(0);
+    replay.start(ticks, 4);
+    // idle game - no ticks, no captures
+    Thread.sleep(200);
+    assertEquals(0, replay.getCaptureCount());
+
+    for (int i = 1; i <= 400; i++) {
+      ticks.set(i);
+      Thread.sleep(1);
+    }
+    // the dump carries the captured ticks
+    while (replay.getFrameCount() < replay.getCaptureCount()) Thread.sleep(1);
+    try (FrameArchiveReader reader = new FrameArchiveReader(replay.dump(folder).get())) {
+      assertEquals(replay.getFrameCount(), reader.size());
+      for (int i = 0; i < reader.size(); i++) {
+        assertEquals(0, reader.getEntry(i).tick % 4);
+        if (i > 0) assertTrue(reader.getEntry(i).tick > reader.getEntry(i - 1).tick);
+      }
+    }
+    replay.stop();
+    System.out.printf(
+        "Instant replay: %d captures on 400 ticks (%d skipped), %,d ns each on the tick thread%n",
+        replay.getCaptureCount(), replay.getSkippedCount(), replay.getAverageCaptureNanos());
+    assertEquals(100, replay.getCaptureCount() + replay.getSkippedCount());
+    assertEquals(replay.getCaptureCount(), replay.getFrameCount());
+
+    // stopped - further ticks are ignored
+    ticks.set(404);
+    assertEquals(100, replay.getCaptureCount() + replay.getSkippedCount());
+  }
+
+  @Test
+  void framesKeepTheirSizeAfterResize() throws Exception {
+    InstantReplay replay = new InstantReplay(new SyntheticBackend(), 66, 10, 64 << 20, 30);
+    DeltaEncoder encoder = new DeltaEncoder(30);
+    Frame frame = new Frame(WIDTH, HEIGHT);
+    for (int i = 0; i < 10; i++) {
+      if (i == 5) frame.ensureSize(WIDTH / 2, HEIGHT / 2);
+      SyntheticBackend.draw(frame, i);
+      replay.add(
+          copy(encoder.encode(frame)), frame.getWidth(), frame.getHeight(), i, i * FRAME_NS);
+    }
+    try (FrameArchiveReader reader = new FrameArchiveReader(replay.dump(folder).get())) {
+      assertEquals(10, reader.size());
+      assertEquals(WIDTH, reader.getWidth(0));
+      assertEquals(HEIGHT, reader.getHeight(4));
+      assertEquals(WIDTH / 2, reader.getWidth(5));
+      assertEquals(HEIGHT / 2, reader.getHeight(9));
+    }
+    encoder.close();
+  }
+
+  private static byte[] copy(ByteBuffer buffer) {
+    byte[] data = new byte[buffer.remaining()];
+    buffer.get(data);
+    return data;
+  }
+
+  private static final class SyntheticBackend implements CaptureBackend {
+
+    int frames = 0;
+
+    @Override
+    public int getWidth() {
+      return WIDTH;
+    }
+
+    @Override
+    public int getHeight() {
+      return HEIGHT;
+    }
+
+    @Override
+    public boolean capture(Frame frame) {
+      draw(frame, frames++);
+      return true;
+    }
+
+    @Override
+    public String getName() {
+      return "synthetic";
+    }
+
+    static void draw(Frame frame, int tick) {
+      Graphics2D g = frame.getImage().createGraphics();
+      g.setColor(Color.DARK_GRAY);
+      g.fillRect(0, 0, WIDTH, HEIGHT);
+      g.setColor(Color.ORANGE);
+      for (int i = 0; i < 40; i++) g.fillRect(10 + (i % 10) * 37, 40 + (i / 10) * 15, 35, 13);
+      g.setColor(Color.WHITE);
+      g.fillOval((tick * 3) % WIDTH, 300 - (tick % 200), 6, 6);
+      g.drawString("SCORE " + tick, 10, 20);
+      g.dispose();
+    }
+  }
+}
@@ -0,0 +1,178 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018 Frank Kopp
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+package fko.jarkanoid.recorder;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MjpegStreamServerTest {
+
+  private MjpegStreamServer server;
+
+  @BeforeEach
+  void setUp() throws Exception {
+    server = new MjpegStreamServer(new InetSocketAddress("127.0.0.1", 0));
+    server.start();
+  }
+
+  @AfterEach
+  void tearDown() {
+    server.stop();
+  }
+
+  @Test
+  void allViewersGetTheFrames() throws Exception {
+    final int viewers = 20;
+    List<Socket> sockets = new ArrayList<>();
+    List<DataInputStream> streams = new ArrayList<>();
+    for (int i = 0; i < viewers; i++) {
+      Socket socket = connect("/stream");
+      sockets.add(socket);
+      DataInputStream in = new DataInputStream(socket.getInputStream());
+      assertTrue(readHead(in).startsWith("HTTP/1.1 200"));
+      streams.add(in);
+    }
+    assertEquals(viewers, server.getViewerCount());
+    assertTrue(server.hasViewers());
+
+    byte[] last = null;
+    long start = System.nanoTime();
+    for (int f = 1; f <= 10; f++) {
+      last = frame(f, 10_000);
+      server.publish(last, last.length);
+      // every viewer reads the frame before the next one is published - nothing dropped
+      for (DataInputStream in : streams) assertArrayEquals(last, readPart(in));
+    }
+    System.out.printf(
+        "%d viewers, 10 frames in %d ms%n", viewers, (System.nanoTime() - start) / 1_000_000);
+    assertEquals(10, server.getPublished());
+    assertEquals(10L * viewers, server.getSent());
+    assertEquals(0, server.getDropped());
+
+    for (Socket socket : sockets) socket.close();
+    // the server notices the closed connections
+    for (int i = 0; i < 100 && server.hasViewers(); i++) {
+      server.publish(last, last.length);
+      Thread.sleep(10);
+    }
+    assertFalse(server.hasViewers());
+  }
+
+  @Test
+  void slowViewerDropsFrames() throws Exception {
+    Socket slow = connect("/stream");
+    Socket fast = connect("/stream");
+    DataInputStream in = new DataInputStream(fast.getInputStream());
+    assertTrue(readHead(in).startsWith("HTTP/1.1 200"));
+    while (server.getViewerCount() < 2) Thread.sleep(5);
+
+    // the slow viewer never reads
+    // until the socket buffers of the slow viewer are full
+    int frames = 0;
+    while (frames < 50 || (server.getDropped() == 0 && frames < 1000)) {
+      byte[] data = frame(++frames, 200_000);
+      server.publish(data, data.length);
+      assertArrayEquals(data, readPart(in));
+    }
+    System.out.printf(
+        "published %d, sent %d, dropped %d%n",
+        server.getPublished(), server.getSent(), server.getDropped());
+    // the slow viewer is stuck once the socket buffers are full
+    assertTrue(server.getDropped() > 0);
+    assertTrue(server.getSent() < 2L * frames);
+    slow.close();
+    fast.close();
+  }
+
+  @Test
+  void unknownPath() throws Exception {
+    try (Socket socket = connect("/unknown")) {
+      DataInputStream in = new DataInputStream(socket.getInputStream());
+      assertTrue(readHead(in).startsWith("HTTP/1.1 404"));
+      assertEquals(-1, in.read());
+    }
+    assertEquals(0, server.getViewerCount());
+  }
+
+  private Socket connect(String path) throws IOException {
+    Socket socket = new Socket("127.0.0.1", server.getAddress().getPort());
+    socket.setSoTimeout(5000);
+    OutputStream out = socket.getOutputStream();
+    out.write(("GET " + path + " HTTP/1.1\r\nHost: localhost\r\n\r\n").getBytes("US-ASCII"));
+    out.flush();
+    return socket;
+  }
+
+  private static byte[] frame(int number, int size) {
+    byte[] data = new byte[size];
+    Arrays.fill(data, (byte) number);
+    return data;
+  }
+
+  /* reads up to and including the empty line */
+  private static String readHead(InputStream in) throws IOException {
+    ByteArrayOutputStream head = new ByteArrayOutputStream();
+    while (true) {
+      int b = in.read();
+      if (b < 0) throw new IOException("Stream ended");
+      head.write(b);
+      byte[] bytes = head.toByteArray();
+      int n = bytes.length;
+      if (n >= 4 && bytes[n - 4] == '\r' && bytes[n - 3] == '\n' && bytes[n - 2] == '\r'
+          && bytes[n - 1] == '\n') {
+        return new String(bytes, StandardCharsets.US_ASCII);
+      }
+    }
+  }
+
+  /* reads one part of the multipart stream */
+  private static byte[] readPart(DataInputStream in) throws IOException {
+    String head = readHead(in);
+    assertTrue(head.startsWith("--"));
+    assertTrue(head.contains("Content-Type: image/jpeg"));
+    int start = head.indexOf("Content-Length: ") + 16;
+    int length = Integer.parseInt(head.substring(start, head.indexOf("\r\n", start)));
+    byte[] data = new byte[length];
+    in.readFully(data);
+    assertEquals('\r', in.read());
+    assertEquals('\n', in.read());
+    return data;
+  }
+}
@@ -0,0 +1,101 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018 Frank Kopp
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+package fko.jarkanoid.recorder;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PipelineStageTest {
+
+  private static final int JOBS = 200;
+
+  @Test
+  void orderedStageRestoresOrder() throws Exception {
+    ConcurrentLinkedQueue<Frame> released = new ConcurrentLinkedQueue<>();
+    List<Long> seen = Collections.synchronizedList(new ArrayList<>());
+    Random random = new Random(42);
+
+    // several workers which finish in random order
+    PipelineStage shuffle =
+        new PipelineStage(
+            "shuffle",
+            4,
+            8,
+            false,
+            job -> {
+              Thread.sleep(random.nextInt(3));
+              if (job.sequence == 17) throw new IllegalStateException("failed on purpose");
+            });
+    PipelineStage ordered =
+        new PipelineStage(
+            "ordered",
+            4,
+            8,
+            true,
+            job -> {
+              seen.add(job.sequence);
+              job.releaseFrame();
+            });
+    shuffle.setNext(ordered);
+    shuffle.start();
+    ordered.start();
+
+    for (int i = 0; i < JOBS; i++) {
+      Frame frame = new Frame(4, 4);
+      frame.setCaptured(i, i, System.nanoTime());
+      shuffle.put(new PipelineJob(i, frame, released::add));
+    }
+    shuffle.close();
+    shuffle.awaitTermination();
+    ordered.close();
+    ordered.awaitTermination();
+
+    // the failed job is passed on but not processed
+    assertEquals(JOBS - 1, seen.size());
+    assertFalse(seen.contains(17L));
+    for (int i = 1; i < seen.size(); i++) assertTrue(seen.get(i) > seen.get(i - 1));
+    // every frame has been given back
+    assertEquals(JOBS, released.size());
+
+    PipelineStage.Stats shuffleStats = shuffle.getStats();
+    PipelineStage.Stats orderedStats = ordered.getStats();
+    System.out.println(shuffleStats);
+    System.out.println(orderedStats);
+    assertEquals(JOBS, shuffleStats.processed);
+    assertEquals(1, shuffleStats.failed);
+    assertEquals(4, shuffleStats.workers);
+    assertEquals(1, orderedStats.workers);
+    assertEquals(JOBS, orderedStats.processed);
+    assertTrue(shuffleStats.maxQueueDepth <= 8);
+    assertTrue(shuffleStats.utilization > 0);
+  }
+}
@@ -0,0 +1,164 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018 Frank Kopp
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+package fko.jarkanoid.recorder;
+
+import javafx.beans.property.ReadOnlyLongWrapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.awt.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RecorderTest {
+
+  @TempDir Path folder;
+
+  @Test
+  void tickSynchronousCapture() throws Exception {
+    ReadOnlyLongWrapper ticks = new ReadOnlyLongWrapper(0);
+    TickBackend backend = new TickBackend(ticks);
+    Recorder recorder = new Recorder(folder);
+    recorder.start(ticks.getReadOnlyProperty(), 3, backend);
+    for (int i = 0; i < 100; i++) {
+      ticks.set(ticks.get() + 1);
+      Thread.sleep(2);
+    }
+    long dropped = recorder.getDroppedFrames();
+    recorder.stop();
+    // no captures after stop
+    ticks.set(300);
+    assertEquals(33, backend.captures);
+
+    Path archive;
+    try (Stream<Path> files = Files.list(folder)) {
+      archive = files.collect(Collectors.toList()).get(0);
+    }
+    DeltaDecoder decoder = new DeltaDecoder();
+    try (FrameArchiveReader reader = new FrameArchiveReader(archive)) {
+      System.out.printf("Recorded %d frames, %d dropped%n", reader.size(), dropped);
+      assertEquals(33, reader.size() + dropped);
+      long lastTick = 0;
+      for (int i = 0; i < reader.size(); i++) {
+        FrameArchive.Entry entry = reader.getEntry(i);
+        assertEquals(0, entry.tick % 3);
+        assertTrue(entry.tick > lastTick);
+        assertEquals(entry.tick / 3 - 1, entry.frameIndex);
+        lastTick = entry.tick;
+        if (dropped == 0) {
+          // the picture shows the tick it was captured at
+          Frame frame = decoder.decode(reader.getPayload(i));
+          assertEquals(entry.tick, frame.getPixels()[0] & 0xFFFF);
+        }
+      }
+    }
+    decoder.close();
+  }
+
+  @Test
+  void croppedCapture() throws Exception {
+    ReadOnlyLongWrapper ticks = new ReadOnlyLongWrapper(0);
+    TickBackend backend = new TickBackend(ticks);
+    Recorder recorder = new Recorder(folder);
+    // the tick pixel is outside, the red marker is the first pixel of the region
+    recorder.setCropRegion(8, 4, 16, 8);
+    recorder.start(ticks.getReadOnlyProperty(), 1, backend);
+    for (int i = 0; i < 20; i++) {
+      ticks.set(ticks.get() + 1);
+      Thread.sleep(2);
+    }
+    recorder.stop();
+
+    List<PipelineStage.Stats> stats = recorder.getStageStats();
+    stats.forEach(System.out::println);
+    assertEquals(4, stats.size());
+    assertEquals("capture", stats.get(0).name);
+    assertEquals("crop", stats.get(1).name);
+    assertEquals("encode", stats.get(2).name);
+    assertEquals("write", stats.get(3).name);
+    assertEquals(20, stats.get(0).processed);
+
+    Path archive;
+    try (Stream<Path> files = Files.list(folder)) {
+      archive = files.collect(Collectors.toList()).get(0);
+    }
+    DeltaDecoder decoder = new DeltaDecoder();
+    try (FrameArchiveReader reader = new FrameArchiveReader(archive)) {
+      assertTrue(reader.size() > 0);
+      assertEquals(reader.size(), stats.get(3).processed);
+      for (int i = 0; i < reader.size(); i++) {
+        Frame frame = decoder.decode(reader.getPayload(i));
+        assertEquals(16, frame.getWidth());
+        assertEquals(8, frame.getHeight());
+        assertEquals(0xFF0000, frame.getPixels()[0] & 0xFFFFFF);
+        assertEquals(0x0000FF, frame.getPixels()[1] & 0xFFFFFF);
+      }
+    }
+    decoder.close();
+  }
+
+  /* draws the current tick into the first pixel */
+  private static final class TickBackend implements CaptureBackend {
+
+    private final ReadOnlyLongWrapper ticks;
+    int captures = 0;
+
+    TickBackend(ReadOnlyLongWrapper ticks) {
+      this.ticks = ticks;
+    }
+
+    @Override
+    public int getWidth() {
+      return 64;
+    }
+
+    @Override
+    public int getHeight() {
+      return 32;
+    }
+
+    @Override
+    public boolean capture(Frame frame) {
+      captures++;
+      Graphics2D g = frame.getImage().createGraphics();
+      g.setColor(Color.BLUE);
+      g.fillRect(0, 0, 64, 32);
+      g.dispose();
+      frame.getPixels()[0] = (int) ticks.get();
+      frame.getPixels()[4 * 64 + 8] = 0xFF0000;
+      return true;
+    }
+
+    @Override
+    public String getName() {
+      return "tick";
+    }
+  }
+}
@@ -0,0 +1,118 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018 Frank Kopp
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+package fko.jarkanoid.recorder;
+
+import fko.jarkanoid.leaderboard.Replay;
+import fko.jarkanoid.model.Autopilot;
+import fko.jarkanoid.model.HeadlessGame;
+import fko.jarkanoid.model.HighScore.HighScoreEntry;
+import fko.jarkanoid.model.LevelLoader;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.awt.*;
+import java.io.ByteArrayOutputStream;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReplayRendererTest {
+
+  private static final int WIDTH = 390;
+  private static final int HEIGHT = 375;
+
+  private final LevelLoader levelLoader = LevelLoader.getInstance();
+
+  @TempDir Path folder;
+
+  @Test
+  void rendersFasterThanRealTime() throws Exception {
+    Replay replay = record(4711, 0.9, 60 * 60);
+    Path archive = folder.resolve("replay" + FrameArchive.EXTENSION);
+    int cores = Runtime.getRuntime().availableProcessors();
+    ExecutorService executor = Executors.newFixedThreadPool(cores);
+    try {
+      ReplayRenderer renderer =
+          new ReplayRenderer(levelLoader::getLevel, WIDTH, HEIGHT, 30, 5, executor, cores);
+      long time = System.nanoTime();
+      int frames = renderer.render(replay, archive);
+      time = System.nanoTime() - time;
+      double playSeconds = replay.getTicks() / 60.0;
+      System.out.printf(
+          "Rendered %d frames (%.0f s of play) in %d ms - %.1f x real time%n",
+          frames, playSeconds, time / 1_000_000, playSeconds / (time / 1e9));
+      assertEquals((replay.getTicks() + 1) / 2, frames);
+      assertTrue(time / 1e9 < playSeconds);
+    } finally {
+      executor.shutdown();
+    }
+
+    // every frame is the same as drawing the game sequentially
+    DeltaDecoder decoder = new DeltaDecoder();
+    HeadlessGame game = new HeadlessGame(levelLoader::getLevel, replay.startLevel, replay.seed);
+    Frame expected = new Frame(WIDTH, HEIGHT);
+    try (FrameArchiveReader reader = new FrameArchiveReader(archive)) {
+      for (int i = 0; i < reader.size(); i++) {
+        assertEquals(i, reader.getEntry(i).frameIndex);
+        Frame decoded = decoder.decode(reader.getPayload(i));
+        if (i % 150 == 0) {
+          Graphics2D g = expected.getImage().createGraphics();
+          g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+          g.scale(WIDTH / 780.0, HEIGHT / 750.0);
+          ReplayRenderer.draw(g, game);
+          g.dispose();
+          assertArrayEquals(rgb(expected.getPixels()), rgb(decoded.getPixels()), "frame " + i);
+        }
+        game.tick(replay.getInput(2 * i));
+        game.tick(replay.getInput(2 * i + 1));
+      }
+    }
+    decoder.close();
+  }
+
+  private Replay record(long seed, double skill, int maxTicks) {
+    HeadlessGame game = new HeadlessGame(levelLoader::getLevel, 1, seed);
+    Autopilot autopilot = new Autopilot(skill, seed);
+    ByteArrayOutputStream inputs = new ByteArrayOutputStream();
+    while (!game.isOver() && game.getTick() < maxTicks) {
+      byte input = autopilot.nextInput(game);
+      inputs.write(input);
+      game.tick(input);
+    }
+    return new Replay(
+        new HighScoreEntry("Player" + seed, game.getScore(), game.getLevel(), LocalDateTime.now()),
+        seed,
+        1,
+        inputs.toByteArray());
+  }
+
+  private static int[] rgb(int[] pixels) {
+    return Arrays.stream(pixels).map(p -> p & 0xFFFFFF).toArray();
+  }
+}
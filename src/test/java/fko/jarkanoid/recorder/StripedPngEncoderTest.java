@@ -0,0 +1,120 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018 Frank Kopp
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+package fko.jarkanoid.recorder;
+
+import org.junit.jupiter.api.Test;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.zip.Adler32;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StripedPngEncoderTest {
+
+  @Test
+  void combineAdler() {
+    byte[] data = new byte[100_000];
+    new Random(1).nextBytes(data);
+    Adler32 whole = new Adler32();
+    whole.update(data);
+
+    long combined = 1;
+    for (int from = 0; from < data.length; from += 30_000) {
+      int length = Math.min(30_000, data.length - from);
+      Adler32 part = new Adler32();
+      part.update(data, from, length);
+      combined = StripedPngEncoder.combineAdler(combined, part.getValue(), length);
+    }
+    assertEquals(whole.getValue(), combined);
+  }
+
+  @Test
+  void decodesLossless() throws Exception {
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      Random random = new Random(42);
+      int[][] sizes = {{1, 1}, {17, 3}, {640, 480}, {333, 257}};
+      for (int[] size : sizes) {
+        int width = size[0];
+        int height = size[1];
+        int[] pixels = new int[width * height];
+        for (int i = 0; i < pixels.length; i++) {
+          // flat areas with some noise
+          pixels[i] = (i / 97) % 3 == 0 ? random.nextInt() : 0xFF000000 | (i / width) * 0x010203;
+        }
+        for (int level : new int[] {0, 1, 6, 9}) {
+          for (int stripes : new int[] {1, 3, 8}) {
+            StripedPngEncoder encoder = new StripedPngEncoder(level, stripes, executor);
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            encoder.encode(pixels, width, height, out);
+            BufferedImage image = ImageIO.read(new ByteArrayInputStream(out.toByteArray()));
+            assertNotNull(image);
+            int[] decoded = image.getRGB(0, 0, width, height, null, 0, width);
+            for (int i = 0; i < pixels.length; i++) {
+              assertEquals(pixels[i] & 0xFFFFFF, decoded[i] & 0xFFFFFF, "pixel " + i);
+            }
+          }
+        }
+      }
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  @Test
+  void speed() throws Exception {
+    int cores = Runtime.getRuntime().availableProcessors();
+    ExecutorService executor = Executors.newFixedThreadPool(cores);
+    try {
+      Frame frame = new Frame(1024, 768);
+      Random random = new Random(7);
+      int[] pixels = frame.getPixels();
+      for (int i = 0; i < pixels.length; i++) pixels[i] = (i / 4096) * 0x0A0B0C;
+      for (int i = 0; i < 5000; i++) pixels[random.nextInt(pixels.length)] = random.nextInt();
+
+      for (int stripes : new int[] {1, cores}) {
+        StripedPngEncoder encoder = new StripedPngEncoder(1, stripes, executor);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        encoder.encode(frame, out);
+        long time = System.nanoTime();
+        for (int i = 0; i < 20; i++) {
+          out.reset();
+          encoder.encode(frame, out);
+        }
+        System.out.printf(
+            "PNG %d stripes: %.1f ms per frame, %,d bytes%n",
+            stripes, (System.nanoTime() - time) / 20 / 1e6, out.size());
+      }
+    } finally {
+      executor.shutdown();
+    }
+  }
+}
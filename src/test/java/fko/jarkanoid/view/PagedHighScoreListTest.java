@@ -0,0 +1,133 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018 Frank Kopp
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+package fko.jarkanoid.view;
+
+import fko.jarkanoid.model.HighScore.HighScoreEntry;
+import javafx.collections.ListChangeListener;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PagedHighScoreListTest {
+
+  private static final LocalDateTime DATE = LocalDateTime.of(2026, 10, 19, 12, 0);
+
+  @Test
+  void pagesAreLoadedOnDemand() {
+    AtomicInteger pagesRead = new AtomicInteger();
+    // 100k entries which are never materialized as a whole
+    HighScoreSource source =
+        new HighScoreSource() {
+          @Override
+          public int size() {
+            return 100_000;
+          }
+
+          @Override
+          public List<HighScoreEntry> page(int offset, int limit) {
+            pagesRead.incrementAndGet();
+            List<HighScoreEntry> page = new ArrayList<>(limit);
+            for (int i = offset; i < Math.min(size(), offset + limit); i++) {
+              page.add(new HighScoreEntry("P" + i, 1_000_000 - i, 1, DATE));
+            }
+            return page;
+          }
+
+          @Override
+          public int indexOf(HighScoreEntry entry) {
+            return -1;
+          }
+        };
+    Queue<Runnable> background = new ArrayDeque<>();
+    PagedHighScoreList list = new PagedHighScoreList(source, background::add, Runnable::run);
+
+    assertEquals(100_000, list.size());
+    assertEquals(0, pagesRead.get());
+
+    // placeholder first, filled when the background load is done
+    HighScoreListView.TableRowBean row = list.get(70_010);
+    assertEquals("70011", row.getPlace());
+    assertEquals("", row.getName());
+    assertEquals(1, background.size());
+    background.poll().run();
+    assertEquals("P70010", row.getName());
+    assertEquals(String.format("%,d", 1_000_000 - 70_010), row.getScore());
+
+    // same page - no further load
+    list.get(70_020);
+    assertTrue(background.isEmpty());
+    assertEquals(1, pagesRead.get());
+  }
+
+  @Test
+  void insertIsPositional() {
+    List<HighScoreEntry> entries = new ArrayList<>();
+    for (int i = 0; i < 15; i++) entries.add(new HighScoreEntry("P" + i, 1500 - i * 100, 1, DATE));
+    List<List<HighScoreEntry>> current = new ArrayList<>(Collections.singletonList(entries));
+    Executor direct = Runnable::run;
+    PagedHighScoreList list =
+        new PagedHighScoreList(HighScoreSource.of(() -> current.get(0)), direct, direct);
+    for (int i = 0; i < list.size(); i++) assertEquals("P" + i, list.get(i).getName());
+    HighScoreListView.TableRowBean firstRow = list.get(0);
+    HighScoreListView.TableRowBean movedRow = list.get(5);
+
+    List<String> changes = new ArrayList<>();
+    list.addListener(
+        (ListChangeListener<HighScoreListView.TableRowBean>)
+            c -> {
+              while (c.next()) {
+                if (c.wasRemoved()) changes.add("remove " + c.getFrom() + " " + c.getRemovedSize());
+                if (c.wasAdded()) changes.add("add " + c.getFrom() + " " + c.getAddedSize());
+              }
+            });
+
+    // new entry at place 3 - the list keeps 15 entries
+    HighScoreEntry newEntry = new HighScoreEntry("New", 1350, 2, DATE);
+    List<HighScoreEntry> next = new ArrayList<>(entries);
+    next.add(2, newEntry);
+    current.set(0, next.subList(0, 15));
+    list.insert(newEntry);
+
+    assertEquals(15, list.size());
+    assertEquals("New", list.get(2).getName());
+    assertEquals("3", list.get(2).getPlace());
+    // rows are moved and renumbered, not rebuilt
+    assertSame(firstRow, list.get(0));
+    assertSame(movedRow, list.get(6));
+    assertEquals("7", movedRow.getPlace());
+    assertEquals("P13", list.get(14).getName());
+    assertTrue(changes.contains("add 2 1"));
+    assertEquals(2, changes.size());
+  }
+}